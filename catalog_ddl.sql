@@ -0,0 +1,42 @@
+-- Persistent metadata snapshot of JDBC connections, served to the DAG
+-- activity browse/DDL endpoints instead of live DatabaseMetaData calls.
+
+CREATE TABLE dataloaders.catalog_snapshots (
+	connection_id varchar(50) NOT NULL,
+	schema_name varchar(255) NOT NULL,
+	fingerprint varchar(64) NOT NULL,
+	table_count int4 NOT NULL,
+	column_count int4 NOT NULL,
+	harvested_at int8 NOT NULL,
+	CONSTRAINT catalog_snapshots_pkey PRIMARY KEY (connection_id, schema_name)
+);
+
+CREATE TABLE dataloaders.catalog_tables (
+	connection_id varchar(50) NOT NULL,
+	schema_name varchar(255) NOT NULL,
+	table_name varchar(255) NOT NULL,
+	table_type varchar(32) NOT NULL,
+	harvested_at int8 NOT NULL,
+	CONSTRAINT catalog_tables_pkey PRIMARY KEY (connection_id, schema_name, table_name)
+);
+
+CREATE TABLE dataloaders.catalog_columns (
+	connection_id varchar(50) NOT NULL,
+	schema_name varchar(255) NOT NULL,
+	table_name varchar(255) NOT NULL,
+	column_name varchar(255) NOT NULL,
+	ordinal_position int4 NOT NULL,
+	type_name varchar(128) NULL,
+	column_size int4 NULL,
+	is_nullable bool NULL,
+	is_primary_key bool NOT NULL DEFAULT false,
+	default_value text NULL,
+	CONSTRAINT catalog_columns_pkey PRIMARY KEY (connection_id, schema_name, table_name, column_name)
+);
+
+-- Prefix search on column names ("find column by name across all tables")
+CREATE INDEX idx_catalog_columns_name ON dataloaders.catalog_columns USING btree (connection_id, lower(column_name) text_pattern_ops);
+
+-- Optional: enables indexed substring search when pg_trgm is available
+-- CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- CREATE INDEX idx_catalog_columns_name_trgm ON dataloaders.catalog_columns USING gin (lower(column_name) gin_trgm_ops);
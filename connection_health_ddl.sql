@@ -0,0 +1,15 @@
+-- Rolling history of background connection health probes.
+-- Rows older than connection.health.retention-hours are purged by the monitor.
+
+CREATE TABLE dataloaders.connection_health_history (
+	id bigserial NOT NULL,
+	connection_id varchar(50) NOT NULL,
+	checked_at int8 NOT NULL,
+	status varchar(16) NOT NULL,
+	latency_ms int4 NULL,
+	error_code varchar(50) NULL,
+	CONSTRAINT connection_health_history_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_connection_health_history_conn_checked ON dataloaders.connection_health_history USING btree (connection_id, checked_at DESC);
+CREATE INDEX idx_connection_health_history_checked_at ON dataloaders.connection_health_history USING btree (checked_at);
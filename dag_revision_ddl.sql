@@ -0,0 +1,8 @@
+-- Change counter per dataflow, bumped by every write to its DAG definitions,
+-- nodes and edges. The DAG read model caches by it and serves it as ETag input.
+
+CREATE TABLE dataloaders.dag_revisions (
+	dataflow_id varchar(50) NOT NULL,
+	revision int8 NOT NULL,
+	CONSTRAINT dag_revisions_pkey PRIMARY KEY (dataflow_id)
+);
@@ -3,10 +3,12 @@ package com.dataflow.dataloaders.config;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfig {
@@ -21,4 +23,18 @@ public class JacksonConfig {
         objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
         return objectMapper;
     }
+
+    /**
+     * Binary JSON for clients that send Accept: application/x-jackson-smile,
+     * configured like the primary JSON mapper
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        smileMapper.registerModule(new JavaTimeModule());
+        smileMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        smileMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true);
+        smileMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper);
+    }
 }
\ No newline at end of file
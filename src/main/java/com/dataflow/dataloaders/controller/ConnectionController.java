@@ -1,10 +1,17 @@
 package com.dataflow.dataloaders.controller;
 
+import com.dataflow.dataloaders.dto.BulkConnectionTestRequest;
+import com.dataflow.dataloaders.dto.ReachabilityProbeRequest;
 import com.dataflow.dataloaders.dto.SearchPayload;
 import com.dataflow.dataloaders.dto.TestConnectionRequest;
 import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.services.BulkConnectionTestService;
+import com.dataflow.dataloaders.services.ConnectionHealthMonitor;
 import com.dataflow.dataloaders.services.ConnectionService;
 import com.dataflow.dataloaders.services.ConnectionTestService;
+import com.dataflow.dataloaders.services.JdbcDataSourceRegistry;
 import com.dataflow.dataloaders.util.Identifier;
 import com.dataflow.dataloaders.util.Response;
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,6 +44,15 @@ public class ConnectionController {
     @Autowired
     private ConnectionTestService connectionTestService;
 
+    @Autowired
+    private BulkConnectionTestService bulkConnectionTestService;
+
+    @Autowired
+    private ConnectionHealthMonitor connectionHealthMonitor;
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
     @Operation(summary = "Create connection")
     @PostMapping
     public ResponseEntity<Response> create(@RequestBody Connection connection, @RequestHeader HttpHeaders headers) {
@@ -53,6 +69,27 @@ public class ConnectionController {
         return Response.getResponse(connectionTestService.testNewConnection(request));
     }
 
+    @Operation(summary = "Test many connections in parallel", description = "Tests all connections of an application or the given connection IDs. "
+            + "Each result is published to /topic/connection-tests/{testId} as it completes.")
+    @PostMapping("/test/bulk")
+    public ResponseEntity<Response> testConnectionsInBulk(@RequestBody BulkConnectionTestRequest request,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Starting bulk connection test for application: {}", request.getApplicationId());
+        return Response.getResponse(bulkConnectionTestService.startBulkTest(request));
+    }
+
+    @Operation(summary = "Probe TCP reachability", description = "Resolves and TCP-connects to the host and port of the given "
+            + "connections and raw targets in one pass, reporting DNS time, connect time and status per target. "
+            + "No credentials are sent.")
+    @PostMapping("/probe")
+    public ResponseEntity<Response> probeReachability(@RequestBody ReachabilityProbeRequest request,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Probing reachability of {} connections and {} targets",
+                request.getConnectionIds() != null ? request.getConnectionIds().size() : 0,
+                request.getTargets() != null ? request.getTargets().size() : 0);
+        return Response.getResponse(connectionTestService.probeReachability(request));
+    }
+
     @Operation(summary = "Test existing connection")
     @PostMapping("/{connectionId}/test")
     public ResponseEntity<Response> testExistingConnection(
@@ -63,6 +100,53 @@ public class ConnectionController {
         return Response.getResponse(connectionTestService.testExistingConnection(connectionId, identifier));
     }
 
+    @Operation(summary = "Get JDBC pool statistics for all pooled connections")
+    @GetMapping("/pools")
+    public ResponseEntity<Response> getPoolStats(@RequestHeader HttpHeaders headers) {
+        log.info("Getting JDBC pool statistics");
+        return Response.getResponse(dataSourceRegistry.getAllStats());
+    }
+
+    @Operation(summary = "Get JDBC pool statistics for a connection")
+    @GetMapping("/{connectionId}/pool")
+    public ResponseEntity<Response> getConnectionPoolStats(
+            @Parameter(description = "Connection ID") @PathVariable String connectionId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Getting JDBC pool statistics for connection: {}", connectionId);
+        return Response.getResponse(dataSourceRegistry.getStats(connectionId)
+                .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND,
+                        "No active pool for connection " + connectionId)));
+    }
+
+    @Operation(summary = "Get background health of monitored connections")
+    @GetMapping("/health")
+    public ResponseEntity<Response> getHealth(
+            @Parameter(description = "Application ID") @RequestParam(required = false) String applicationId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Getting connection health for application: {}", applicationId);
+        return Response.getResponse(connectionHealthMonitor.getHealth(applicationId));
+    }
+
+    @Operation(summary = "Get background health of a connection")
+    @GetMapping("/{connectionId}/health")
+    public ResponseEntity<Response> getConnectionHealth(
+            @Parameter(description = "Connection ID") @PathVariable String connectionId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Getting health for connection: {}", connectionId);
+        return Response.getResponse(connectionHealthMonitor.getHealthForConnection(connectionId));
+    }
+
+    @Operation(summary = "Get health probe history of a connection")
+    @GetMapping("/{connectionId}/health/history")
+    public ResponseEntity<Response> getConnectionHealthHistory(
+            @Parameter(description = "Connection ID") @PathVariable String connectionId,
+            @Parameter(description = "Unix timestamp (seconds) to read from") @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Getting health history for connection: {}", connectionId);
+        return Response.getResponse(connectionHealthMonitor.getHistory(connectionId, since, limit));
+    }
+
     @Operation(summary = "Get connection by ID")
     @GetMapping("/{connectionId}")
     public ResponseEntity<Response> get(@Parameter(description = "Connection ID") @PathVariable String connectionId,
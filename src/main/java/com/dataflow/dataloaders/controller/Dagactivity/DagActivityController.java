@@ -1,20 +1,39 @@
 package com.dataflow.dataloaders.controller.Dagactivity;
 
+import com.dataflow.dataloaders.dto.ExportFileResponse;
 import com.dataflow.dataloaders.dto.JdbcDataPreviewResponse;
 import com.dataflow.dataloaders.dto.JdbcSchemaTreeResponse;
-import com.dataflow.dataloaders.dto.JdbcTableDefinitionResponse;
+import com.dataflow.dataloaders.enums.ExportFormat;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.services.DagActivityService;
+import com.dataflow.dataloaders.services.ExportService;
+import com.dataflow.dataloaders.services.PreviewSessionService;
+import com.dataflow.dataloaders.services.StatementRegistry;
+import com.dataflow.dataloaders.util.ColumnarEncoder;
 import com.dataflow.dataloaders.util.Response;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.dataflow.dataloaders.config.APIConstants.DAG_ACTIVITY_PATH;
 
@@ -27,43 +46,331 @@ public class DagActivityController {
     @Autowired
     private DagActivityService dagActivityService;
 
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Value("${dataloaders.inspection.request-timeout-ms:120000}")
+    private long requestTimeoutMs;
+
+    @Value("${dataloaders.inspection.max-concurrency:32}")
+    private int maxConcurrency;
+
+    private SimpleAsyncTaskExecutor inspectionExecutor;
+
+    private Semaphore inspectionPermits;
+
+    @PostConstruct
+    void init() {
+        // Inspection queries run off the servlet threads; the permits bound how many hold a source connection
+        inspectionExecutor = new SimpleAsyncTaskExecutor("inspection-");
+        inspectionExecutor.setVirtualThreads(true);
+        inspectionPermits = new Semaphore(maxConcurrency);
+    }
+
     @Operation(summary = "Fetch tables for a connection")
     @GetMapping("/jdbc/tables")
     public ResponseEntity<Response> fetchTables(
             @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Re-harvest the catalog before answering") @RequestParam(required = false, defaultValue = "false") boolean refresh,
+            @Parameter(description = "Include estimated row counts and sizes from the source's statistics") @RequestParam(required = false, defaultValue = "false") boolean statistics,
             @RequestHeader HttpHeaders headers) {
         log.info("Request to fetch tables for connection: {}", connectionId);
-        List<JdbcSchemaTreeResponse> tables = dagActivityService.fetchTables(connectionId, headers);
+        List<JdbcSchemaTreeResponse> tables = dagActivityService.fetchTables(connectionId, refresh, statistics,
+                headers);
         return Response.getResponse(tables);
     }
 
+    @Operation(summary = "Refresh the catalog snapshot of a connection", description = "Re-harvests the given schemas, or all schemas when none are given")
+    @PostMapping("/jdbc/catalog/refresh")
+    public ResponseEntity<Response> refreshCatalog(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Schemas to refresh") @RequestParam(required = false) List<String> schemaName,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to refresh catalog for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.refreshCatalog(connectionId, schemaName, headers));
+    }
+
+    @Operation(summary = "Get catalog snapshot status of a connection")
+    @GetMapping("/jdbc/catalog/status")
+    public ResponseEntity<Response> getCatalogStatus(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to get catalog status for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.getCatalogStatus(connectionId, headers));
+    }
+
+    @Operation(summary = "Find columns by name across all tables of a connection")
+    @GetMapping("/jdbc/columns/search")
+    public ResponseEntity<Response> searchColumns(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Column name or prefix") @RequestParam String q,
+            @Parameter(description = "prefix (default) or contains") @RequestParam(required = false, defaultValue = "prefix") String mode,
+            @Parameter(description = "Max matches to return") @RequestParam(required = false, defaultValue = "100") Integer limit,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to search columns for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.searchColumns(connectionId, q, mode, limit, headers));
+    }
+
     @Operation(summary = "Preview data for a table or query")
     @GetMapping("/jdbc/preview")
-    public ResponseEntity<Response> previewData(
+    public WebAsyncTask<ResponseEntity<Response>> previewData(
             @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
             @Parameter(description = "Schema name") @RequestParam(required = false) String schemaName,
             @Parameter(description = "Table name (optional if query is provided)") @RequestParam(required = false) String tableName,
             @Parameter(description = "Custom SQL query") @RequestParam(required = false) String query,
             @Parameter(description = "Max records to return") @RequestParam(required = false, defaultValue = "50") Integer limit,
+            @Parameter(description = "Keep a server side cursor open for paging") @RequestParam(required = false, defaultValue = "false") boolean session,
+            @Parameter(description = "rows (default) or columnar") @RequestParam(required = false, defaultValue = "rows") String format,
             @RequestHeader HttpHeaders headers) {
         log.info("Request to preview data for connection: {}", connectionId);
-        JdbcDataPreviewResponse preview = dagActivityService.previewData(connectionId, schemaName, tableName, query,
-                limit,
-                headers);
-        return Response.getResponse(preview);
+        return cancellable(headers, () -> {
+            JdbcDataPreviewResponse preview = dagActivityService.previewData(connectionId, schemaName, tableName,
+                    query, limit, session, headers);
+            return encode(preview, format);
+        });
+    }
+
+    @Operation(summary = "Export the full result of a table or query", description = "Streams every row as CSV or NDJSON, optionally gzipped")
+    @GetMapping("/jdbc/export")
+    public ResponseEntity<StreamingResponseBody> exportData(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Schema name") @RequestParam(required = false) String schemaName,
+            @Parameter(description = "Table name (optional if query is provided)") @RequestParam(required = false) String tableName,
+            @Parameter(description = "Custom SQL query") @RequestParam(required = false) String query,
+            @Parameter(description = "csv (default) or ndjson") @RequestParam(required = false, defaultValue = "csv") String format,
+            @Parameter(description = "Gzip the output") @RequestParam(required = false, defaultValue = "false") boolean gzip,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to export data for connection: {}", connectionId);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = dagActivityService.exportData(connectionId, schemaName, tableName, query,
+                exportFormat, gzip, headers);
+        String fileName = (tableName != null && !tableName.isEmpty() ? tableName : "export") + "."
+                + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .headers(downloadHeaders(fileName, exportFormat, gzip))
+                .body(body);
+    }
+
+    @Operation(summary = "Export the full result of a table or query to a server side file", description = "Starts the export in the background and returns its fileId with status PENDING. The file is kept for a limited time and downloaded through /jdbc/export/files/{fileId}")
+    @PostMapping("/jdbc/export/spool")
+    public ResponseEntity<Response> spoolExport(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Schema name") @RequestParam(required = false) String schemaName,
+            @Parameter(description = "Table name (optional if query is provided)") @RequestParam(required = false) String tableName,
+            @Parameter(description = "Custom SQL query") @RequestParam(required = false) String query,
+            @Parameter(description = "csv (default) or ndjson") @RequestParam(required = false, defaultValue = "csv") String format,
+            @Parameter(description = "Gzip the output") @RequestParam(required = false, defaultValue = "false") boolean gzip,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to spool export for connection: {}", connectionId);
+        ExportFileResponse file = dagActivityService.spoolExport(connectionId, schemaName, tableName, query,
+                ExportFormat.of(format), gzip, headers);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Response.builder().code(HttpStatus.ACCEPTED.value()).message("Export started").data(file).build());
+    }
+
+    @Operation(summary = "Download a spooled export", description = "Answers 202 with the export's status while it still runs and fails with its error when it failed")
+    @GetMapping("/jdbc/export/files/{fileId}")
+    public ResponseEntity<?> downloadExport(
+            @Parameter(description = "ID of the spooled export") @PathVariable String fileId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to download export: {}", fileId);
+        String owner = PreviewSessionService.userOf(headers);
+        ExportFileResponse file = exportService.getSpooled(fileId, owner);
+        if (ExportService.STATUS_PENDING.equals(file.getStatus())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Response.builder().code(HttpStatus.ACCEPTED.value()).message("Export is still running")
+                            .data(file).build());
+        }
+        if (ExportService.STATUS_FAILED.equals(file.getStatus())) {
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Export " + fileId + " failed: " + file.getErrorMessage());
+        }
+        ExportFormat format = ExportFormat.valueOf(file.getFormat());
+        return ResponseEntity.ok()
+                .headers(downloadHeaders(file.getFileName(), format, file.getCompressed()))
+                .contentLength(file.getSizeBytes())
+                .body(exportService.getSpooledResource(fileId, owner));
+    }
+
+    @Operation(summary = "Delete a spooled export")
+    @DeleteMapping("/jdbc/export/files/{fileId}")
+    public ResponseEntity<Response> deleteExport(
+            @Parameter(description = "ID of the spooled export") @PathVariable String fileId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to delete export: {}", fileId);
+        return Response.deleteResponse(exportService.deleteSpooled(fileId, PreviewSessionService.userOf(headers)));
+    }
+
+    @Operation(summary = "Profile the columns of a table", description = "Null ratio, min/max, approximate distinct count, top values and length histogram computed on a sample of the table")
+    @GetMapping("/jdbc/profile")
+    public WebAsyncTask<ResponseEntity<Response>> profileTable(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Schema name") @RequestParam(required = false) String schemaName,
+            @Parameter(description = "Table name") @RequestParam String tableName,
+            @Parameter(description = "Max rows to sample") @RequestParam(required = false) Integer sampleRows,
+            @Parameter(description = "Percent of the table to sample") @RequestParam(required = false) Double samplePercent,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to profile table: {} in connection: {}", tableName, connectionId);
+        return cancellable(headers, () -> dagActivityService.profileTable(connectionId, schemaName, tableName,
+                sampleRows, samplePercent, headers));
+    }
+
+    @Operation(summary = "Read the next page of a preview session")
+    @GetMapping("/jdbc/preview/next")
+    public ResponseEntity<Response> nextPreviewPage(
+            @Parameter(description = "Preview session ID") @RequestParam String sessionId,
+            @Parameter(description = "Max records to return") @RequestParam(required = false, defaultValue = "50") Integer limit,
+            @Parameter(description = "rows (default) or columnar") @RequestParam(required = false, defaultValue = "rows") String format,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to read next preview page for session: {}", sessionId);
+        return Response.getResponse(encode(dagActivityService.nextPreviewPage(sessionId, limit, headers), format));
+    }
+
+    @Operation(summary = "Close a preview session")
+    @DeleteMapping("/jdbc/preview/session/{sessionId}")
+    public ResponseEntity<Response> closePreviewSession(
+            @Parameter(description = "Preview session ID") @PathVariable String sessionId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to close preview session: {}", sessionId);
+        return Response.deleteResponse(dagActivityService.closePreviewSession(sessionId, headers));
     }
 
     @Operation(summary = "Get detailed definition for a table")
     @GetMapping("/jdbc/ddl")
-    public ResponseEntity<Response> getTableDefinition(
+    public WebAsyncTask<ResponseEntity<Response>> getTableDefinition(
             @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
             @Parameter(description = "Schema name") @RequestParam(required = false) String schemaName,
             @Parameter(description = "Table name") @RequestParam String tableName,
             @RequestHeader HttpHeaders headers) {
         log.info("Request to get definition for table: {} in connection: {}", tableName, connectionId);
-        JdbcTableDefinitionResponse definition = dagActivityService.getTableDefinition(connectionId, schemaName,
-                tableName,
-                headers);
-        return Response.getResponse(definition);
+        return cancellable(headers, () -> dagActivityService.getTableDefinition(connectionId, schemaName,
+                tableName, headers));
+    }
+
+    @Operation(summary = "Fetch collections for a MongoDB connection")
+    @GetMapping("/mongo/collections")
+    public ResponseEntity<Response> fetchCollections(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to fetch collections for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.fetchCollections(connectionId, headers));
+    }
+
+    @Operation(summary = "Preview documents of a MongoDB collection")
+    @GetMapping("/mongo/preview")
+    public ResponseEntity<Response> previewCollection(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Collection name") @RequestParam String collectionName,
+            @Parameter(description = "Query filter as extended JSON") @RequestParam(required = false) String filter,
+            @Parameter(description = "Max documents to return") @RequestParam(required = false, defaultValue = "50") Integer limit,
+            @Parameter(description = "rows (default) or columnar") @RequestParam(required = false, defaultValue = "rows") String format,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to preview collection: {} in connection: {}", collectionName, connectionId);
+        return Response.getResponse(encode(dagActivityService.previewCollection(connectionId, collectionName, filter,
+                limit, headers), format));
+    }
+
+    @Operation(summary = "Infer the schema of a MongoDB collection", description = "Field tree with types, frequency and nullability merged from a random $sample of documents")
+    @GetMapping("/mongo/schema")
+    public ResponseEntity<Response> inferCollectionSchema(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Collection name") @RequestParam String collectionName,
+            @Parameter(description = "Documents to sample") @RequestParam(required = false) Integer sampleSize,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to infer schema for collection: {} in connection: {}", collectionName, connectionId);
+        return Response.getResponse(dagActivityService.inferCollectionSchema(connectionId, collectionName,
+                sampleSize, headers));
+    }
+
+    @Operation(summary = "Scan the keyspace of a Redis connection", description = "Cursor based SCAN with type, memory usage and TTL per key; pass the returned cursor to continue until it is 0")
+    @GetMapping("/redis/keys")
+    public ResponseEntity<Response> scanKeys(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false, defaultValue = "0") String cursor,
+            @Parameter(description = "Glob style match pattern") @RequestParam(required = false, defaultValue = "*") String pattern,
+            @Parameter(description = "Only keys of this type (string, list, set, zset, hash, stream)") @RequestParam(required = false) String type,
+            @Parameter(description = "Keys per page") @RequestParam(required = false, defaultValue = "100") Integer pageSize,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to scan keys for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.scanKeys(connectionId, cursor, pattern, type, pageSize,
+                headers));
+    }
+
+    @Operation(summary = "Preview values of Redis keys")
+    @GetMapping("/redis/preview")
+    public ResponseEntity<Response> previewKeys(
+            @Parameter(description = "ID of the saved connection") @RequestParam String connectionId,
+            @Parameter(description = "Keys to preview") @RequestParam List<String> key,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to preview keys for connection: {}", connectionId);
+        return Response.getResponse(dagActivityService.previewKeys(connectionId, key, headers));
+    }
+
+    @Operation(summary = "Cancel a running preview, DDL or profiling request", description = "The request ID is the requestId header sent with the original request")
+    @DeleteMapping("/jdbc/requests/{requestId}")
+    public ResponseEntity<Response> cancelRequest(
+            @Parameter(description = "ID of the request to cancel") @PathVariable String requestId,
+            @RequestHeader HttpHeaders headers) {
+        log.info("Request to cancel inspection request: {}", requestId);
+        if (!statementRegistry.cancel(requestId, PreviewSessionService.userOf(headers))) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND,
+                    "No running request found with ID: " + requestId);
+        }
+        return Response.deleteResponse(true);
+    }
+
+    /**
+     * Runs the work under the request's ID so its statements can be cancelled
+     * through the cancel endpoint, on timeout, or when the client disconnects
+     */
+    private WebAsyncTask<ResponseEntity<Response>> cancellable(HttpHeaders headers, Callable<Object> work) {
+        String requestId = StatementRegistry.requestIdOf(headers);
+        String owner = PreviewSessionService.userOf(headers);
+        // Refused up front; a concurrency limit on the executor would park the servlet thread instead
+        if (!inspectionPermits.tryAcquire()) {
+            throw new DataloadersException(ErrorFactory.TOO_MANY_REQUESTS,
+                    "Too many inspection requests in flight, retry shortly");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        WebAsyncTask<ResponseEntity<Response>> task = new WebAsyncTask<>(requestTimeoutMs, inspectionExecutor,
+                () -> statementRegistry.runAs(requestId, owner, () -> Response.getResponse(work.call())));
+        task.onTimeout(() -> {
+            statementRegistry.cancel(requestId);
+            throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT, "Request " + requestId + " timed out");
+        });
+        // Also fires after a timeout, an error or a client disconnect; the cancel is a no-op once the work has finished
+        task.onCompletion(() -> {
+            statementRegistry.cancel(requestId);
+            if (released.compareAndSet(false, true)) {
+                inspectionPermits.release();
+            }
+        });
+        return task;
+    }
+
+    private static HttpHeaders downloadHeaders(String fileName, ExportFormat format, boolean gzip) {
+        // Compressed exports are .gz attachments rather than Content-Encoding, so clients keep the archive
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+        return headers;
+    }
+
+    /**
+     * Columnar previews are opt-in; Smile instead of JSON is picked through the
+     * Accept header (application/x-jackson-smile)
+     */
+    private Object encode(JdbcDataPreviewResponse preview, String format) {
+        if ("columnar".equalsIgnoreCase(format)) {
+            return ColumnarEncoder.encode(preview);
+        }
+        if (!"rows".equalsIgnoreCase(format)) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "Unsupported preview format: " + format + ", expected rows or columnar");
+        }
+        return preview;
     }
 }
@@ -3,6 +3,7 @@ package com.dataflow.dataloaders.controller.dag;
 import com.dataflow.dataloaders.dto.DAGExecutionResponse;
 import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
 import com.dataflow.dataloaders.services.dag.DAGDefinitionService;
+import com.dataflow.dataloaders.services.dag.DAGReadModelService;
 import com.dataflow.dataloaders.util.Response;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +13,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.dataflow.dataloaders.config.APIConstants.DAG_DEFINITIONS_BASE_PATH;
 
@@ -33,20 +36,33 @@ public class DAGDefinitionController {
         return Response.createResponse(dagDefinitionService.saveFullDAG(dag).orElse(null));
     }
 
-    @Operation(summary = "Get DAG definition by ID")
+    @Operation(summary = "Get DAG definition by ID", description = "Sends an ETag; a request with a matching "
+            + "If-None-Match gets 304 Not Modified without a body.")
     @GetMapping("/{dagId}")
-    public ResponseEntity<Response> get(@Parameter(description = "DAG ID") @PathVariable String dagId) {
+    public ResponseEntity<Response> get(@Parameter(description = "DAG ID") @PathVariable String dagId,
+            WebRequest request) {
         log.info("Getting DAG: {}", dagId);
-        return Response.getResponse(dagDefinitionService.getDAGById(dagId).orElse(null));
+        Optional<DAGReadModelService.Versioned<DAGDefinition>> view = dagDefinitionService.getDAGView(dagId);
+        if (view.isEmpty()) {
+            return Response.getResponse(null);
+        }
+        if (request.checkNotModified(view.get().eTag())) {
+            return null;
+        }
+        return withETag(Response.getResponse(view.get().value()), view.get().eTag());
     }
 
-    @Operation(summary = "Get DAG definitions by dataflow ID")
+    @Operation(summary = "Get DAG definitions by dataflow ID", description = "Sends an ETag; a request with a "
+            + "matching If-None-Match gets 304 Not Modified without a body.")
     @GetMapping("/dataflow/{dataflowId}")
     public ResponseEntity<Response> getByDataflowId(
-            @Parameter(description = "Dataflow ID") @PathVariable String dataflowId) {
+            @Parameter(description = "Dataflow ID") @PathVariable String dataflowId, WebRequest request) {
         log.info("Getting DAG definitions for dataflow: {}", dataflowId);
-        List<DAGDefinition> dags = dagDefinitionService.getDAGsByDataflowId(dataflowId);
-        return Response.listResponse(dags);
+        DAGReadModelService.Versioned<List<DAGDefinition>> view = dagDefinitionService.getDAGsView(dataflowId);
+        if (request.checkNotModified(view.eTag())) {
+            return null;
+        }
+        return withETag(Response.listResponse(view.value()), view.eTag());
     }
 
     @Operation(summary = "Update full DAG definition (including nodes and edges)")
@@ -74,4 +90,52 @@ public class DAGDefinitionController {
         DAGExecutionResponse result = dagDefinitionService.executeDAG(dataflowId, authHeader);
         return Response.createResponse(result);
     }
+
+    @Operation(summary = "Run DAG in process", description = "Runs the dataflow's DAG inside this service instead of the "
+            + "external engine and returns immediately; poll the run for progress and throughput.")
+    @PostMapping("/execute/{dataflowId}/local")
+    public ResponseEntity<Response> executeLocally(
+            @Parameter(description = "Dataflow ID") @PathVariable String dataflowId) {
+        log.info("Running DAG locally for dataflow: {}", dataflowId);
+        return Response.createResponse(dagDefinitionService.executeDAGLocally(dataflowId));
+    }
+
+    @Operation(summary = "Get status and metrics of a local DAG run")
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<Response> getRun(@Parameter(description = "Run ID") @PathVariable String runId) {
+        log.info("Getting local DAG run: {}", runId);
+        return Response.getResponse(dagDefinitionService.getLocalRun(runId));
+    }
+
+    @Operation(summary = "Cancel a local DAG run")
+    @DeleteMapping("/runs/{runId}")
+    public ResponseEntity<Response> cancelRun(@Parameter(description = "Run ID") @PathVariable String runId) {
+        log.info("Cancelling local DAG run: {}", runId);
+        return Response.getResponse(dagDefinitionService.cancelLocalRun(runId));
+    }
+
+    @Operation(summary = "Plan a DAG", description = "Computes execution stages, the critical path and independent "
+            + "branches. Plans are cached by DAG content, so repeated calls are cheap.")
+    @GetMapping("/{dagId}/plan")
+    public ResponseEntity<Response> plan(@Parameter(description = "DAG ID") @PathVariable String dagId,
+            @Parameter(description = "Weight readers by table row estimates from the source database")
+            @RequestParam(defaultValue = "false") boolean estimate,
+            @Parameter(description = "Store the plan as the DAG's execution plan")
+            @RequestParam(defaultValue = "false") boolean save) {
+        log.info("Planning DAG: {}", dagId);
+        return Response.getResponse(dagDefinitionService.planDAG(dagId, estimate, save));
+    }
+
+    @Operation(summary = "Plan an unsaved DAG definition")
+    @PostMapping("/plan")
+    public ResponseEntity<Response> planDraft(@RequestBody DAGDefinition dag,
+            @Parameter(description = "Weight readers by table row estimates from the source database")
+            @RequestParam(defaultValue = "false") boolean estimate) {
+        log.info("Planning unsaved DAG: {}", dag.getDagName());
+        return Response.getResponse(dagDefinitionService.planDAG(dag, estimate));
+    }
+
+    private static ResponseEntity<Response> withETag(ResponseEntity<Response> response, String eTag) {
+        return ResponseEntity.status(response.getStatusCode()).eTag(eTag).body(response.getBody());
+    }
 }
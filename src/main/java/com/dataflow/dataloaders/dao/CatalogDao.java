@@ -0,0 +1,239 @@
+package com.dataflow.dataloaders.dao;
+
+import com.dataflow.dataloaders.entity.CatalogColumn;
+import com.dataflow.dataloaders.entity.CatalogSnapshot;
+import com.dataflow.dataloaders.entity.CatalogTable;
+import com.dataflow.dataloaders.util.Identifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Slf4j
+@Repository
+public class CatalogDao extends GenericDaoImpl<CatalogSnapshot, Identifier, String> {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    public List<CatalogSnapshot> listSnapshots(String connectionId) {
+        try {
+            return jdbcTemplate.query(getSql("Catalog.listSnapshots"), snapshotRowMapper, connectionId);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Replaces the stored tables and columns of one schema atomically
+     */
+    @Transactional
+    public void replaceSchema(CatalogSnapshot snapshot, List<CatalogTable> tables, List<CatalogColumn> columns) {
+        String connectionId = snapshot.getConnectionId();
+        String schemaName = snapshot.getSchemaName();
+        jdbcTemplate.update(getSql("Catalog.deleteSchemaColumns"), connectionId, schemaName);
+        jdbcTemplate.update(getSql("Catalog.deleteSchemaTables"), connectionId, schemaName);
+
+        jdbcTemplate.batchUpdate(getSql("Catalog.insertTable"), tables, BATCH_SIZE, (ps, t) -> {
+            ps.setString(1, connectionId);
+            ps.setString(2, schemaName);
+            ps.setString(3, t.getTableName());
+            ps.setString(4, t.getTableType());
+            ps.setLong(5, snapshot.getHarvestedAt());
+        });
+        jdbcTemplate.batchUpdate(getSql("Catalog.insertColumn"), columns, BATCH_SIZE, (ps, c) -> {
+            ps.setString(1, connectionId);
+            ps.setString(2, schemaName);
+            ps.setString(3, c.getTableName());
+            ps.setString(4, c.getColumnName());
+            ps.setInt(5, c.getOrdinalPosition());
+            ps.setString(6, c.getTypeName());
+            ps.setObject(7, c.getColumnSize());
+            ps.setObject(8, c.getIsNullable());
+            ps.setBoolean(9, Boolean.TRUE.equals(c.getIsPrimaryKey()));
+            ps.setString(10, c.getDefaultValue());
+        });
+
+        jdbcTemplate.update(getSql("Catalog.upsertSnapshot"), connectionId, schemaName, snapshot.getFingerprint(),
+                snapshot.getTableCount(), snapshot.getColumnCount(), snapshot.getHarvestedAt());
+    }
+
+    /**
+     * Writes one refresh in a single transaction: replaces the changed
+     * schemas, stamps the unchanged ones and deletes the removed ones, so
+     * readers never see a half applied refresh
+     */
+    @Transactional
+    public void applyRefresh(String connectionId, List<SchemaContent> replaced, List<String> unchanged,
+            List<String> removed, long harvestedAt) {
+        for (SchemaContent schema : replaced) {
+            replaceSchema(schema.snapshot(), schema.tables(), schema.columns());
+        }
+        for (String schemaName : unchanged) {
+            touchSnapshot(connectionId, schemaName, harvestedAt);
+        }
+        for (String schemaName : removed) {
+            deleteSchema(connectionId, schemaName);
+        }
+    }
+
+    public int touchSnapshot(String connectionId, String schemaName, long harvestedAt) {
+        return jdbcTemplate.update(getSql("Catalog.touchSnapshot"), harvestedAt, connectionId, schemaName);
+    }
+
+    @Transactional
+    public void deleteSchema(String connectionId, String schemaName) {
+        jdbcTemplate.update(getSql("Catalog.deleteSchemaColumns"), connectionId, schemaName);
+        jdbcTemplate.update(getSql("Catalog.deleteSchemaTables"), connectionId, schemaName);
+        jdbcTemplate.update(getSql("Catalog.deleteSchemaSnapshot"), connectionId, schemaName);
+    }
+
+    @Transactional
+    public void deleteConnection(String connectionId) {
+        jdbcTemplate.update(getSql("Catalog.deleteConnectionColumns"), connectionId);
+        jdbcTemplate.update(getSql("Catalog.deleteConnectionTables"), connectionId);
+        jdbcTemplate.update(getSql("Catalog.deleteConnectionSnapshots"), connectionId);
+    }
+
+    public List<CatalogTable> listTables(String connectionId) {
+        try {
+            return jdbcTemplate.query(getSql("Catalog.listTables"), tableRowMapper, connectionId);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    public List<CatalogColumn> listColumns(String connectionId, String schemaName, String tableName) {
+        try {
+            if (schemaName == null) {
+                return jdbcTemplate.query(getSql("Catalog.listColumnsByTableName"), columnRowMapper, connectionId,
+                        tableName);
+            }
+            return jdbcTemplate.query(getSql("Catalog.listColumnsByTable"), columnRowMapper, connectionId, schemaName,
+                    tableName);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * @param likePattern lower-cased LIKE pattern using '!' as escape character
+     */
+    public List<CatalogColumn> searchColumns(String connectionId, String likePattern, int limit) {
+        try {
+            return jdbcTemplate.query(getSql("Catalog.searchColumns"), columnRowMapper, connectionId, likePattern,
+                    limit);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> createV1(CatalogSnapshot model, Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Long insert(CatalogSnapshot model, Identifier identifier) {
+        return 0L;
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> getV1(Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<CatalogSnapshot> list(Identifier identifier) {
+        return listSnapshots(identifier.getWord());
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> getV1(Identifier identifier, String whereClause) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<CatalogSnapshot> list(Identifier identifier, String whereClause) {
+        return List.of();
+    }
+
+    @Override
+    public int count(Identifier identifier, String whereClause) {
+        return 0;
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> updateV1(CatalogSnapshot transientObject, Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> hotUpdate(CatalogSnapshot transientObject, Identifier identifier,
+            String whereClause) {
+        return Optional.empty();
+    }
+
+    @Override
+    public int delete(CatalogSnapshot persistentObject) {
+        return 0;
+    }
+
+    @Override
+    public int delete(Identifier identifier, String whereClause) {
+        return 0;
+    }
+
+    @Override
+    public <E extends Number> String setInvalues(String query, String replaceString, Set<E> inValues,
+            String... delimitter) {
+        return super.setInvalues(query, replaceString, inValues, delimitter);
+    }
+
+    @Override
+    public String setInvalues(String query, String replaceString, Set<String> inValues) {
+        return super.setInvalues(query, replaceString, inValues);
+    }
+
+    RowMapper<CatalogSnapshot> snapshotRowMapper = (rs, rowNum) -> CatalogSnapshot.builder()
+            .connectionId(rs.getString("connection_id"))
+            .schemaName(rs.getString("schema_name"))
+            .fingerprint(rs.getString("fingerprint"))
+            .tableCount(rs.getInt("table_count"))
+            .columnCount(rs.getInt("column_count"))
+            .harvestedAt(rs.getLong("harvested_at"))
+            .build();
+
+    RowMapper<CatalogTable> tableRowMapper = (rs, rowNum) -> CatalogTable.builder()
+            .connectionId(rs.getString("connection_id"))
+            .schemaName(rs.getString("schema_name"))
+            .tableName(rs.getString("table_name"))
+            .tableType(rs.getString("table_type"))
+            .harvestedAt(rs.getLong("harvested_at"))
+            .build();
+
+    RowMapper<CatalogColumn> columnRowMapper = (rs, rowNum) -> CatalogColumn.builder()
+            .connectionId(rs.getString("connection_id"))
+            .schemaName(rs.getString("schema_name"))
+            .tableName(rs.getString("table_name"))
+            .columnName(rs.getString("column_name"))
+            .ordinalPosition(rs.getInt("ordinal_position"))
+            .typeName(rs.getString("type_name"))
+            .columnSize(rs.getObject("column_size") != null ? rs.getInt("column_size") : null)
+            .isNullable(rs.getObject("is_nullable") != null ? rs.getBoolean("is_nullable") : null)
+            .isPrimaryKey(rs.getBoolean("is_primary_key"))
+            .defaultValue(rs.getString("default_value"))
+            .build();
+
+    public record SchemaContent(CatalogSnapshot snapshot, List<CatalogTable> tables, List<CatalogColumn> columns) {
+    }
+}
@@ -94,6 +94,34 @@ public class ConnectionDao extends GenericDaoImpl<Connection, Identifier, String
         }
     }
 
+    public List<Connection> listByApplication(String applicationId) {
+        try {
+            return jdbcTemplate.query(getSql("Connection.getByUserId"), connectionRowMapper, applicationId);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    public List<Connection> listActive() {
+        try {
+            return jdbcTemplate.query(getSql("Connection.listActive"), connectionRowMapper);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    public List<Connection> listByIds(List<String> connectionIds) {
+        if (connectionIds == null || connectionIds.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return jdbcTemplate.query(getSql("Connection.getByIds"), connectionRowMapper,
+                    (Object) connectionIds.toArray(new String[0]));
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
     @Override
     public List<Connection> list(Identifier identifier) {
         try {
@@ -125,6 +153,24 @@ public class ConnectionDao extends GenericDaoImpl<Connection, Identifier, String
         }
     }
 
+    /**
+     * Records test outcomes for many connections in a single JDBC batch
+     */
+    public int[] batchUpdateTestStatus(List<Connection> connections) {
+        if (connections == null || connections.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            List<Object[]> args = connections.stream()
+                    .map(c -> new Object[] { c.getLastTestStatus(), c.getLastTestedAt(), c.getLastUsedAt(), c.getId() })
+                    .toList();
+            return jdbcTemplate.batchUpdate(getSql("Connection.updateTestStatus"), args);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
     @Override
     public int delete(Connection connection) {
         try {
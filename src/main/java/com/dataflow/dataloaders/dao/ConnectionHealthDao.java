@@ -0,0 +1,135 @@
+package com.dataflow.dataloaders.dao;
+
+import com.dataflow.dataloaders.entity.ConnectionHealthCheck;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.Identifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Repository
+public class ConnectionHealthDao extends GenericDaoImpl<ConnectionHealthCheck, Identifier, String> {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<ConnectionHealthCheck> createV1(ConnectionHealthCheck model, Identifier identifier) {
+        batchInsert(List.of(model));
+        return Optional.of(model);
+    }
+
+    @Override
+    public Long insert(ConnectionHealthCheck model, Identifier identifier) {
+        return (long) batchInsert(List.of(model)).length;
+    }
+
+    /**
+     * Writes one sweep worth of probe results in a single JDBC batch
+     */
+    public int[] batchInsert(List<ConnectionHealthCheck> checks) {
+        if (checks == null || checks.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            List<Object[]> args = checks.stream()
+                    .map(c -> new Object[] { c.getConnectionId(), c.getCheckedAt(), c.getStatus(), c.getLatencyMs(),
+                            c.getErrorCode() })
+                    .toList();
+            return jdbcTemplate.batchUpdate(getSql("ConnectionHealthHistory.create"), args);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    public List<ConnectionHealthCheck> listByConnection(String connectionId, long since, int limit) {
+        try {
+            return jdbcTemplate.query(getSql("ConnectionHealthHistory.listByConnection"), healthCheckRowMapper,
+                    connectionId, since, limit);
+        } catch (EmptyResultDataAccessException e) {
+            return List.of();
+        }
+    }
+
+    public int purgeBefore(long checkedAt) {
+        try {
+            return jdbcTemplate.update(getSql("ConnectionHealthHistory.purgeBefore"), checkedAt);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return 0;
+        }
+    }
+
+    /**
+     * Recent history of the connection identified by the identifier's word
+     */
+    @Override
+    public List<ConnectionHealthCheck> list(Identifier identifier) {
+        return listByConnection(identifier.getWord(), 0L, 500);
+    }
+
+    @Override
+    public Optional<ConnectionHealthCheck> getV1(Identifier identifier) {
+        throw appendOnly();
+    }
+
+    @Override
+    public Optional<ConnectionHealthCheck> getV1(Identifier identifier, String whereClause) {
+        throw appendOnly();
+    }
+
+    @Override
+    public List<ConnectionHealthCheck> list(Identifier identifier, String whereClause) {
+        throw appendOnly();
+    }
+
+    @Override
+    public int count(Identifier identifier, String whereClause) {
+        throw appendOnly();
+    }
+
+    @Override
+    public Optional<ConnectionHealthCheck> updateV1(ConnectionHealthCheck transientObject, Identifier identifier) {
+        throw appendOnly();
+    }
+
+    @Override
+    public Optional<ConnectionHealthCheck> hotUpdate(ConnectionHealthCheck transientObject, Identifier identifier,
+            String whereClause) {
+        throw appendOnly();
+    }
+
+    @Override
+    public int delete(ConnectionHealthCheck persistentObject) {
+        throw appendOnly();
+    }
+
+    @Override
+    public int delete(Identifier identifier, String whereClause) {
+        throw appendOnly();
+    }
+
+    // History is written in sweeps and trimmed by age; rows are never read, changed or removed one by one
+    private static DataloadersException appendOnly() {
+        return new DataloadersException(ErrorFactory.NOT_SUPPORTED,
+                "Connection health history is append-only; use listByConnection or purgeBefore");
+    }
+
+    RowMapper<ConnectionHealthCheck> healthCheckRowMapper = (rs, rowNum) -> ConnectionHealthCheck.builder()
+            .id(rs.getLong("id"))
+            .connectionId(rs.getString("connection_id"))
+            .checkedAt(rs.getLong("checked_at"))
+            .status(rs.getString("status"))
+            .latencyMs(rs.getObject("latency_ms") != null ? rs.getInt("latency_ms") : null)
+            .errorCode(rs.getString("error_code"))
+            .build();
+}
@@ -1,5 +1,6 @@
 package com.dataflow.dataloaders.dao;
 
+import com.dataflow.dataloaders.dto.VariableDto;
 import com.dataflow.dataloaders.entity.Variable;
 import com.dataflow.dataloaders.util.DateUtils;
 import com.dataflow.dataloaders.util.IdGenerator;
@@ -68,6 +69,40 @@ public class VariableDao extends GenericDaoImpl<Variable, Identifier, String> {
         }
     }
 
+    /**
+     * Every variable visible in an application and environment with its group
+     * name, in the precedence order of VariableGroup.getAllByContext
+     */
+    public List<VariableDto> listByContext(String applicationId, String environment) {
+        try {
+            return jdbcTemplate.query(getSql("Variable.getAllByContext"), (rs, rowNum) -> {
+                VariableDto variable = new VariableDto();
+                variable.setId(rs.getString("id"));
+                variable.setGroupId(rs.getString("group_id"));
+                variable.setGroupName(rs.getString("group_name"));
+                variable.setVariableKey(rs.getString("variable_key"));
+                variable.setVariableValue(rs.getString("variable_value"));
+                variable.setIsSecret(rs.getBoolean("is_secret"));
+                return variable;
+            }, applicationId, environment);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Key IDs referenced by stored secret envelopes
+     */
+    public List<String> listEnvelopeKeyIds() {
+        try {
+            return jdbcTemplate.queryForList(getSql("Variable.getEnvelopeKeyIds"), String.class);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return List.of();
+        }
+    }
+
     @Override
     public List<Variable> list(Identifier identifier) {
         return List.of();
@@ -2,6 +2,8 @@ package com.dataflow.dataloaders.dao.dag;
 
 import com.dataflow.dataloaders.dao.GenericDaoImpl;
 import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Node;
 import com.dataflow.dataloaders.exception.DataloadersException;
 import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.util.DFUtil;
@@ -12,11 +14,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +38,15 @@ public class DAGDefinitionDao extends GenericDaoImpl<DAGDefinition, Identifier,
     @Autowired
     private IdGenerator idGenerator;
 
+    @Autowired
+    private NodeDao nodeDao;
+
+    @Autowired
+    private EdgeDao edgeDao;
+
+    @Autowired
+    private DAGRevisionDao dagRevisionDao;
+
     @Override
     public Optional<DAGDefinition> createV1(DAGDefinition model, Identifier identifier) {
         try {
@@ -72,6 +86,7 @@ public class DAGDefinitionDao extends GenericDaoImpl<DAGDefinition, Identifier,
             ps.setString(20, dfUtil.writeValueAsString(model.getMetadata()));
             return ps;
         });
+        dagRevisionDao.bump(model.getDataflowId());
     }
 
     @Override
@@ -94,7 +109,7 @@ public class DAGDefinitionDao extends GenericDaoImpl<DAGDefinition, Identifier,
 
     public int update(DAGDefinition dag) {
         try {
-            return jdbcTemplate.update(getSql("DAGDefinition.updateById"),
+            int updated = jdbcTemplate.update(getSql("DAGDefinition.updateById"),
                     dag.getDagName(),
                     dag.getDescription(),
                     dag.getType() != null ? dag.getType().name() : null,
@@ -114,6 +129,10 @@ public class DAGDefinitionDao extends GenericDaoImpl<DAGDefinition, Identifier,
                     dag.getUpdatedBy() != null ? dag.getUpdatedBy() : "admin",
                     DateUtils.getUnixTimestampInUTC(),
                     dag.getDagId());
+            if (updated > 0) {
+                dagRevisionDao.bumpByDagId(dag.getDagId());
+            }
+            return updated;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
@@ -123,17 +142,83 @@ public class DAGDefinitionDao extends GenericDaoImpl<DAGDefinition, Identifier,
     @Override
     public int delete(DAGDefinition dag) {
         try {
-            return jdbcTemplate.update(getSql("DAGDefinition.deleteById"),
+            int deleted = jdbcTemplate.update(getSql("DAGDefinition.deleteById"),
                     dag.getUpdatedBy() != null ? dag.getUpdatedBy() : "admin",
                     DateUtils.getUnixTimestampInUTC(),
                     DateUtils.getUnixTimestampInUTC(),
                     dag.getDagId());
+            if (deleted > 0) {
+                dagRevisionDao.bumpByDagId(dag.getDagId());
+            }
+            return deleted;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
         }
     }
 
+    /**
+     * The DAG with its dataflow's revision, nodes and edges, read in one
+     * round trip
+     */
+    public Graph getGraphByDagId(String dagId) {
+        return getGraph(getSql("DAGDefinition.getGraphByDagId"), dagId);
+    }
+
+    /**
+     * The dataflow's DAGs with its revision, nodes and edges, read in one
+     * round trip
+     */
+    public Graph getGraphByDataflowId(String dataflowId) {
+        return getGraph(getSql("DAGDefinition.getGraphByDataflowId"), dataflowId);
+    }
+
+    /**
+     * Runs the revision, DAG, node and edge queries as one multi-statement
+     * request; every placeholder takes the same key. The revision is read
+     * first, so a concurrent write can only make the rows newer than it, never
+     * older.
+     */
+    private Graph getGraph(String sql, String key) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<Graph>) con -> {
+                try (PreparedStatement ps = con.prepareStatement(sql)) {
+                    int parameters = (int) sql.chars().filter(c -> c == '?').count();
+                    for (int i = 1; i <= parameters; i++) {
+                        ps.setString(i, key);
+                    }
+                    long revision = 0;
+                    List<DAGDefinition> dags = List.of();
+                    List<Node> nodes = List.of();
+                    List<Edge> edges = List.of();
+                    int index = 0;
+                    for (boolean hasResult = ps.execute(); hasResult || ps.getUpdateCount() != -1;
+                            hasResult = ps.getMoreResults()) {
+                        if (!hasResult)
+                            continue;
+                        try (ResultSet rs = ps.getResultSet()) {
+                            switch (index++) {
+                                case 0 -> revision = rs.next() ? rs.getLong(1) : 0;
+                                case 1 -> dags = new RowMapperResultSetExtractor<>(dagRowMapper).extractData(rs);
+                                case 2 -> nodes = new RowMapperResultSetExtractor<>(nodeDao.rowMapper()).extractData(rs);
+                                case 3 -> edges = new RowMapperResultSetExtractor<>(edgeDao.rowMapper()).extractData(rs);
+                                default -> {
+                                }
+                            }
+                        }
+                    }
+                    return new Graph(revision, dags, nodes, edges);
+                }
+            });
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new Graph(0, List.of(), List.of(), List.of());
+        }
+    }
+
+    public record Graph(long revision, List<DAGDefinition> dags, List<Node> nodes, List<Edge> edges) {
+    }
+
     private final RowMapper<DAGDefinition> dagRowMapper = (rs, rowNum) -> {
         DAGDefinition dag = new DAGDefinition();
         dag.setDagId(rs.getString("dag_id"));
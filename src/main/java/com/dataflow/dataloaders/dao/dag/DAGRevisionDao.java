@@ -0,0 +1,166 @@
+package com.dataflow.dataloaders.dao.dag;
+
+import com.dataflow.dataloaders.dao.GenericDaoImpl;
+import com.dataflow.dataloaders.util.Identifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Change counter per dataflow. Every write to a dataflow's DAG definitions,
+ * nodes or edges bumps it, so an unchanged counter means an unchanged graph.
+ */
+@Slf4j
+@Repository
+public class DAGRevisionDao extends GenericDaoImpl<Long, Identifier, String> {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    public void bump(String dataflowId) {
+        if (dataflowId == null)
+            return;
+        try {
+            jdbcTemplate.update(getSql("DAGRevision.bump"), dataflowId);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    public void bump(Collection<String> dataflowIds) {
+        Set<String> distinct = new LinkedHashSet<>(dataflowIds);
+        distinct.remove(null);
+        if (distinct.isEmpty())
+            return;
+        try {
+            jdbcTemplate.batchUpdate(getSql("DAGRevision.bump"),
+                    distinct.stream().map(id -> new Object[] { id }).toList());
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    public void bumpByDagId(String dagId) {
+        try {
+            jdbcTemplate.update(getSql("DAGRevision.bumpByDagId"), dagId);
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    public void bumpByNodeIds(List<String> nodeIds) {
+        bumpByIds("DAGRevision.bumpByNodeIds", nodeIds);
+    }
+
+    public void bumpByEdgeIds(List<String> edgeIds) {
+        bumpByIds("DAGRevision.bumpByEdgeIds", edgeIds);
+    }
+
+    private void bumpByIds(String sqlKey, List<String> ids) {
+        if (ids == null || ids.isEmpty())
+            return;
+        try {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(getSql(sqlKey));
+                Array array = con.createArrayOf("varchar", ids.toArray());
+                ps.setArray(1, array);
+                return ps;
+            });
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    /**
+     * Revision of the dataflow a DAG belongs to; empty when the DAG does not
+     * exist
+     */
+    public Optional<Revision> getByDagId(String dagId) {
+        try {
+            return jdbcTemplate.query(getSql("DAGRevision.getByDagId"),
+                    (rs, rowNum) -> new Revision(rs.getString("dataflow_id"), rs.getLong("revision")),
+                    dagId).stream().findFirst();
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return Optional.empty();
+        }
+    }
+
+    public long getByDataflowId(String dataflowId) {
+        try {
+            Long revision = jdbcTemplate.queryForObject(getSql("DAGRevision.getByDataflowId"), Long.class,
+                    dataflowId);
+            return revision != null ? revision : 0L;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return 0L;
+        }
+    }
+
+    @Override
+    public Long insert(Long model, Identifier identifier) {
+        return 0L;
+    }
+
+    @Override
+    public Optional<Long> createV1(Long model, Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> getV1(Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Long> list(Identifier identifier) {
+        return List.of();
+    }
+
+    @Override
+    public Optional<Long> getV1(Identifier identifier, String whereClause) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Long> list(Identifier identifier, String whereClause) {
+        return List.of();
+    }
+
+    @Override
+    public int count(Identifier identifier, String whereClause) {
+        return 0;
+    }
+
+    @Override
+    public Optional<Long> updateV1(Long transientObject, Identifier identifier) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> hotUpdate(Long transientObject, Identifier identifier, String whereClause) {
+        return Optional.empty();
+    }
+
+    @Override
+    public int delete(Long model) {
+        return 0;
+    }
+
+    @Override
+    public int delete(Identifier identifier, String whereClause) {
+        return 0;
+    }
+
+    public record Revision(String dataflowId, long revision) {
+    }
+}
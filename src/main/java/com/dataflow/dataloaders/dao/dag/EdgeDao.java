@@ -12,17 +12,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
 @Repository
 public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
 
+    private static final int BATCH_SIZE = 1000;
+
     @Autowired
     protected JdbcTemplate jdbcTemplate;
 
@@ -32,6 +38,9 @@ public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
     @Autowired
     private IdGenerator idGenerator;
 
+    @Autowired
+    private DAGRevisionDao dagRevisionDao;
+
     @Override
     public Optional<Edge> createV1(Edge model, Identifier identifier) {
         try {
@@ -49,23 +58,49 @@ public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
     public void insertEdge(Edge model) {
         jdbcTemplate.update(con -> {
             PreparedStatement ps = con.prepareStatement(getSql("Edge.create"));
-            ps.setString(1, model.getEdgeId());
-            ps.setString(2, model.getDataflowId());
-            ps.setString(3, model.getSourceNodeId());
-            ps.setString(4, model.getTargetNodeId());
-            ps.setString(5, model.getSourcePort());
-            ps.setString(6, model.getTargetPort());
-            ps.setString(7, model.getEdgeType() != null ? model.getEdgeType().name() : null);
-            ps.setString(8, dfUtil.writeValueAsString(model.getCondition()));
-            ps.setObject(9, model.getAsync());
-            ps.setObject(10, model.getBufferSize());
-            ps.setString(11, dfUtil.writeValueAsString(model.getTransformation()));
-            ps.setString(12, dfUtil.writeValueAsString(model.getFlowControl()));
-            ps.setString(13, dfUtil.writeValueAsString(model.getLineage()));
-            ps.setString(14, model.getCreatedBy() != null ? model.getCreatedBy() : "admin");
-            ps.setLong(15, DateUtils.getUnixTimestampInUTC());
+            bindCreate(ps, model);
             return ps;
         });
+        dagRevisionDao.bump(model.getDataflowId());
+    }
+
+    /**
+     * Inserts many edges in JDBC batches, generating missing IDs. Unlike
+     * createV1 the rows are not read back.
+     */
+    public void batchInsert(List<Edge> edges) {
+        if (edges == null || edges.isEmpty()) {
+            return;
+        }
+        for (Edge model : edges) {
+            if (model.getEdgeId() == null || model.getEdgeId().isEmpty()) {
+                model.setEdgeId(idGenerator.generateId());
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(getSql("Edge.create"), edges, BATCH_SIZE, this::bindCreate);
+            dagRevisionDao.bump(edges.stream().map(Edge::getDataflowId).toList());
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    private void bindCreate(PreparedStatement ps, Edge model) throws SQLException {
+        ps.setString(1, model.getEdgeId());
+        ps.setString(2, model.getDataflowId());
+        ps.setString(3, model.getSourceNodeId());
+        ps.setString(4, model.getTargetNodeId());
+        ps.setString(5, model.getSourcePort());
+        ps.setString(6, model.getTargetPort());
+        ps.setString(7, model.getEdgeType() != null ? model.getEdgeType().name() : null);
+        ps.setString(8, dfUtil.writeValueAsString(model.getCondition()));
+        ps.setObject(9, model.getAsync());
+        ps.setObject(10, model.getBufferSize());
+        ps.setString(11, dfUtil.writeValueAsString(model.getTransformation()));
+        ps.setString(12, dfUtil.writeValueAsString(model.getFlowControl()));
+        ps.setString(13, dfUtil.writeValueAsString(model.getLineage()));
+        ps.setString(14, model.getCreatedBy() != null ? model.getCreatedBy() : "admin");
+        ps.setLong(15, DateUtils.getUnixTimestampInUTC());
     }
 
     @Override
@@ -88,21 +123,130 @@ public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
 
     public int update(Edge edge) {
         try {
-            return jdbcTemplate.update(getSql("Edge.updateById"),
-                    edge.getSourceNodeId(),
-                    edge.getTargetNodeId(),
-                    edge.getSourcePort(),
-                    edge.getTargetPort(),
-                    edge.getEdgeType() != null ? edge.getEdgeType().name() : null,
-                    dfUtil.writeValueAsString(edge.getCondition()),
-                    edge.getAsync(),
-                    edge.getBufferSize(),
-                    dfUtil.writeValueAsString(edge.getTransformation()),
-                    dfUtil.writeValueAsString(edge.getFlowControl()),
-                    dfUtil.writeValueAsString(edge.getLineage()),
-                    edge.getUpdatedBy() != null ? edge.getUpdatedBy() : "admin",
-                    DateUtils.getUnixTimestampInUTC(),
-                    edge.getEdgeId());
+            int updated = jdbcTemplate.update(getSql("Edge.updateById"), updateArgs(edge));
+            if (updated > 0) {
+                dagRevisionDao.bumpByEdgeIds(List.of(edge.getEdgeId()));
+            }
+            return updated;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return 0;
+        }
+    }
+
+    /**
+     * Updates many edges in one JDBC batch
+     */
+    public int[] batchUpdate(List<Edge> edges) {
+        if (edges == null || edges.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            int[] updated = jdbcTemplate.batchUpdate(getSql("Edge.updateById"),
+                    edges.stream().map(this::updateArgs).toList());
+            dagRevisionDao.bumpByEdgeIds(edges.stream().map(Edge::getEdgeId).toList());
+            return updated;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    private Object[] updateArgs(Edge edge) {
+        return new Object[] {
+                edge.getSourceNodeId(),
+                edge.getTargetNodeId(),
+                edge.getSourcePort(),
+                edge.getTargetPort(),
+                edge.getEdgeType() != null ? edge.getEdgeType().name() : null,
+                dfUtil.writeValueAsString(edge.getCondition()),
+                edge.getAsync(),
+                edge.getBufferSize(),
+                dfUtil.writeValueAsString(edge.getTransformation()),
+                dfUtil.writeValueAsString(edge.getFlowControl()),
+                dfUtil.writeValueAsString(edge.getLineage()),
+                edge.getUpdatedBy() != null ? edge.getUpdatedBy() : "admin",
+                DateUtils.getUnixTimestampInUTC(),
+                edge.getEdgeId() };
+    }
+
+    /**
+     * Soft-deletes many edges in one JDBC batch
+     */
+    public int[] batchDelete(List<String> edgeIds, String updatedBy) {
+        if (edgeIds == null || edgeIds.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            long now = DateUtils.getUnixTimestampInUTC();
+            String user = updatedBy != null ? updatedBy : "admin";
+            List<Object[]> args = edgeIds.stream().map(id -> new Object[] { user, now, now, id }).toList();
+            int[] deleted = jdbcTemplate.batchUpdate(getSql("Edge.deleteById"), args);
+            dagRevisionDao.bumpByEdgeIds(edgeIds);
+            return deleted;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    /**
+     * Soft-deletes the edges of many nodes in one JDBC batch
+     */
+    public int[] batchDeleteByNodeIds(List<String> nodeIds, String updatedBy) {
+        if (nodeIds == null || nodeIds.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            long now = DateUtils.getUnixTimestampInUTC();
+            String user = updatedBy != null ? updatedBy : "admin";
+            List<Object[]> args = nodeIds.stream().map(id -> new Object[] { user, now, now, id, id }).toList();
+            int[] deleted = jdbcTemplate.batchUpdate(getSql("Edge.deleteByNodeId"), args);
+            dagRevisionDao.bumpByNodeIds(nodeIds);
+            return deleted;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    /**
+     * Dataflow of every given edge ID that has a row, deleted or not; IDs
+     * without a row are absent
+     */
+    public Map<String, String> getDataflowIds(List<String> edgeIds) {
+        Map<String, String> dataflowIds = new HashMap<>();
+        if (edgeIds == null || edgeIds.isEmpty())
+            return dataflowIds;
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(getSql("Edge.getDataflowIdsByIds"));
+                ps.setArray(1, con.createArrayOf("varchar", edgeIds.toArray()));
+                return ps;
+            }, (RowCallbackHandler) rs -> dataflowIds.put(rs.getString("edge_id"), rs.getString("dataflow_id")));
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+        return dataflowIds;
+    }
+
+    /**
+     * Undeletes soft-deleted edges of the dataflow
+     */
+    public int restore(List<String> edgeIds, String dataflowId, String updatedBy) {
+        if (edgeIds == null || edgeIds.isEmpty())
+            return 0;
+        try {
+            int restored = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(getSql("Edge.restoreByIds"));
+                ps.setString(1, updatedBy != null ? updatedBy : "admin");
+                ps.setLong(2, DateUtils.getUnixTimestampInUTC());
+                ps.setArray(3, con.createArrayOf("varchar", edgeIds.toArray()));
+                ps.setString(4, dataflowId);
+                return ps;
+            });
+            dagRevisionDao.bumpByEdgeIds(edgeIds);
+            return restored;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
@@ -112,11 +256,15 @@ public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
     @Override
     public int delete(Edge edge) {
         try {
-            return jdbcTemplate.update(getSql("Edge.deleteById"),
+            int deleted = jdbcTemplate.update(getSql("Edge.deleteById"),
                     edge.getUpdatedBy() != null ? edge.getUpdatedBy() : "admin",
                     DateUtils.getUnixTimestampInUTC(),
                     DateUtils.getUnixTimestampInUTC(),
                     edge.getEdgeId());
+            if (deleted > 0) {
+                dagRevisionDao.bumpByEdgeIds(List.of(edge.getEdgeId()));
+            }
+            return deleted;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
@@ -125,18 +273,26 @@ public class EdgeDao extends GenericDaoImpl<Edge, Identifier, String> {
 
     public int deleteByNodeId(String nodeId, String updatedBy) {
         try {
-            return jdbcTemplate.update(getSql("Edge.deleteByNodeId"),
+            int deleted = jdbcTemplate.update(getSql("Edge.deleteByNodeId"),
                     updatedBy != null ? updatedBy : "admin",
                     DateUtils.getUnixTimestampInUTC(),
                     DateUtils.getUnixTimestampInUTC(),
                     nodeId,
                     nodeId);
+            if (deleted > 0) {
+                dagRevisionDao.bumpByNodeIds(List.of(nodeId));
+            }
+            return deleted;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
         }
     }
 
+    RowMapper<Edge> rowMapper() {
+        return edgeRowMapper;
+    }
+
     private final RowMapper<Edge> edgeRowMapper = (rs, rowNum) -> {
         Edge edge = new Edge();
         edge.setEdgeId(rs.getString("edge_id"));
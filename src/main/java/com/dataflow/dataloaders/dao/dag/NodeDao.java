@@ -15,17 +15,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
 @Repository
 public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
 
+    private static final int BATCH_SIZE = 1000;
+
     @Autowired
     protected JdbcTemplate jdbcTemplate;
 
@@ -35,6 +41,9 @@ public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
     @Autowired
     private IdGenerator idGenerator;
 
+    @Autowired
+    private DAGRevisionDao dagRevisionDao;
+
     @Override
     public Optional<Node> createV1(Node model, Identifier identifier) {
         try {
@@ -52,32 +61,58 @@ public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
     public void insertNode(Node model) {
         jdbcTemplate.update(con -> {
             PreparedStatement ps = con.prepareStatement(getSql("Node.create"));
-            ps.setString(1, model.getNodeId());
-            ps.setString(2, model.getDataflowId());
-            ps.setString(3, model.getNodeName());
-            ps.setString(4, model.getNodeType() != null ? model.getNodeType().name() : null);
-            ps.setString(5, model.getComponentRef());
-            ps.setString(6, model.getDescription());
-            ps.setString(7, dfUtil.writeValueAsString(model.getPosition()));
-            ps.setString(8, dfUtil.writeValueAsString(model.getNodeSchema()));
-            ps.setString(9, dfUtil.writeValueAsString(model.getConfig()));
-            ps.setString(10, dfUtil.writeValueAsString(model.getInputPorts()));
-            ps.setString(11, dfUtil.writeValueAsString(model.getOutputPorts()));
-            ps.setString(12, model.getStage());
-            ps.setObject(13, model.getStageOrder());
-            ps.setString(14, dfUtil.writeValueAsString(model.getDependsOn()));
-            ps.setString(15, model.getExecutionMode() != null ? model.getExecutionMode().name() : null);
-            ps.setString(16, dfUtil.writeValueAsString(model.getResources()));
-            ps.setString(17, dfUtil.writeValueAsString(model.getErrorHandling()));
-            ps.setString(18, dfUtil.writeValueAsString(model.getRetryPolicy()));
-            ps.setString(19, dfUtil.writeValueAsString(model.getValidations()));
-            ps.setString(20, dfUtil.writeValueAsString(model.getCheckpoint()));
-            ps.setString(21, dfUtil.writeValueAsString(model.getMapperConfig()));
-            ps.setString(22, dfUtil.writeValueAsString(model.getTransformationMetadata()));
-            ps.setString(23, model.getCreatedBy() != null ? model.getCreatedBy() : "admin");
-            ps.setLong(24, DateUtils.getUnixTimestampInUTC());
+            bindCreate(ps, model);
             return ps;
         });
+        dagRevisionDao.bump(model.getDataflowId());
+    }
+
+    /**
+     * Inserts many nodes in JDBC batches, generating missing IDs. Unlike
+     * createV1 the rows are not read back.
+     */
+    public void batchInsert(List<Node> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return;
+        }
+        for (Node model : nodes) {
+            if (model.getNodeId() == null || model.getNodeId().isEmpty()) {
+                model.setNodeId(idGenerator.generateId());
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(getSql("Node.create"), nodes, BATCH_SIZE, this::bindCreate);
+            dagRevisionDao.bump(nodes.stream().map(Node::getDataflowId).toList());
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+    }
+
+    private void bindCreate(PreparedStatement ps, Node model) throws SQLException {
+        ps.setString(1, model.getNodeId());
+        ps.setString(2, model.getDataflowId());
+        ps.setString(3, model.getNodeName());
+        ps.setString(4, model.getNodeType() != null ? model.getNodeType().name() : null);
+        ps.setString(5, model.getComponentRef());
+        ps.setString(6, model.getDescription());
+        ps.setString(7, dfUtil.writeValueAsString(model.getPosition()));
+        ps.setString(8, dfUtil.writeValueAsString(model.getNodeSchema()));
+        ps.setString(9, dfUtil.writeValueAsString(model.getConfig()));
+        ps.setString(10, dfUtil.writeValueAsString(model.getInputPorts()));
+        ps.setString(11, dfUtil.writeValueAsString(model.getOutputPorts()));
+        ps.setString(12, model.getStage());
+        ps.setObject(13, model.getStageOrder());
+        ps.setString(14, dfUtil.writeValueAsString(model.getDependsOn()));
+        ps.setString(15, model.getExecutionMode() != null ? model.getExecutionMode().name() : null);
+        ps.setString(16, dfUtil.writeValueAsString(model.getResources()));
+        ps.setString(17, dfUtil.writeValueAsString(model.getErrorHandling()));
+        ps.setString(18, dfUtil.writeValueAsString(model.getRetryPolicy()));
+        ps.setString(19, dfUtil.writeValueAsString(model.getValidations()));
+        ps.setString(20, dfUtil.writeValueAsString(model.getCheckpoint()));
+        ps.setString(21, dfUtil.writeValueAsString(model.getMapperConfig()));
+        ps.setString(22, dfUtil.writeValueAsString(model.getTransformationMetadata()));
+        ps.setString(23, model.getCreatedBy() != null ? model.getCreatedBy() : "admin");
+        ps.setLong(24, DateUtils.getUnixTimestampInUTC());
     }
 
     @Override
@@ -100,30 +135,119 @@ public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
 
     public int update(Node node) {
         try {
-            return jdbcTemplate.update(getSql("Node.updateById"),
-                    node.getNodeName(),
-                    node.getNodeType() != null ? node.getNodeType().name() : null,
-                    node.getComponentRef(),
-                    node.getDescription(),
-                    dfUtil.writeValueAsString(node.getPosition()),
-                    dfUtil.writeValueAsString(node.getNodeSchema()),
-                    dfUtil.writeValueAsString(node.getConfig()),
-                    dfUtil.writeValueAsString(node.getInputPorts()),
-                    dfUtil.writeValueAsString(node.getOutputPorts()),
-                    node.getStage(),
-                    node.getStageOrder(),
-                    dfUtil.writeValueAsString(node.getDependsOn()),
-                    node.getExecutionMode() != null ? node.getExecutionMode().name() : null,
-                    dfUtil.writeValueAsString(node.getResources()),
-                    dfUtil.writeValueAsString(node.getErrorHandling()),
-                    dfUtil.writeValueAsString(node.getRetryPolicy()),
-                    dfUtil.writeValueAsString(node.getValidations()),
-                    dfUtil.writeValueAsString(node.getCheckpoint()),
-                    dfUtil.writeValueAsString(node.getMapperConfig()),
-                    dfUtil.writeValueAsString(node.getTransformationMetadata()),
-                    node.getUpdatedBy() != null ? node.getUpdatedBy() : "admin",
-                    DateUtils.getUnixTimestampInUTC(),
-                    node.getNodeId());
+            int updated = jdbcTemplate.update(getSql("Node.updateById"), updateArgs(node));
+            if (updated > 0) {
+                dagRevisionDao.bumpByNodeIds(List.of(node.getNodeId()));
+            }
+            return updated;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return 0;
+        }
+    }
+
+    /**
+     * Updates many nodes in one JDBC batch
+     */
+    public int[] batchUpdate(List<Node> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            int[] updated = jdbcTemplate.batchUpdate(getSql("Node.updateById"),
+                    nodes.stream().map(this::updateArgs).toList());
+            dagRevisionDao.bumpByNodeIds(nodes.stream().map(Node::getNodeId).toList());
+            return updated;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    private Object[] updateArgs(Node node) {
+        return new Object[] {
+                node.getNodeName(),
+                node.getNodeType() != null ? node.getNodeType().name() : null,
+                node.getComponentRef(),
+                node.getDescription(),
+                dfUtil.writeValueAsString(node.getPosition()),
+                dfUtil.writeValueAsString(node.getNodeSchema()),
+                dfUtil.writeValueAsString(node.getConfig()),
+                dfUtil.writeValueAsString(node.getInputPorts()),
+                dfUtil.writeValueAsString(node.getOutputPorts()),
+                node.getStage(),
+                node.getStageOrder(),
+                dfUtil.writeValueAsString(node.getDependsOn()),
+                node.getExecutionMode() != null ? node.getExecutionMode().name() : null,
+                dfUtil.writeValueAsString(node.getResources()),
+                dfUtil.writeValueAsString(node.getErrorHandling()),
+                dfUtil.writeValueAsString(node.getRetryPolicy()),
+                dfUtil.writeValueAsString(node.getValidations()),
+                dfUtil.writeValueAsString(node.getCheckpoint()),
+                dfUtil.writeValueAsString(node.getMapperConfig()),
+                dfUtil.writeValueAsString(node.getTransformationMetadata()),
+                node.getUpdatedBy() != null ? node.getUpdatedBy() : "admin",
+                DateUtils.getUnixTimestampInUTC(),
+                node.getNodeId() };
+    }
+
+    /**
+     * Soft-deletes many nodes in one JDBC batch
+     */
+    public int[] batchDelete(List<String> nodeIds, String updatedBy) {
+        if (nodeIds == null || nodeIds.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            long now = DateUtils.getUnixTimestampInUTC();
+            String user = updatedBy != null ? updatedBy : "admin";
+            List<Object[]> args = nodeIds.stream().map(id -> new Object[] { user, now, now, id }).toList();
+            int[] deleted = jdbcTemplate.batchUpdate(getSql("Node.deleteById"), args);
+            dagRevisionDao.bumpByNodeIds(nodeIds);
+            return deleted;
+        } catch (Exception e) {
+            handleDatabaseException(e);
+            return new int[0];
+        }
+    }
+
+    /**
+     * Dataflow of every given node ID that has a row, deleted or not; IDs
+     * without a row are absent
+     */
+    public Map<String, String> getDataflowIds(List<String> nodeIds) {
+        Map<String, String> dataflowIds = new HashMap<>();
+        if (nodeIds == null || nodeIds.isEmpty())
+            return dataflowIds;
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(getSql("Node.getDataflowIdsByIds"));
+                ps.setArray(1, con.createArrayOf("varchar", nodeIds.toArray()));
+                return ps;
+            }, (RowCallbackHandler) rs -> dataflowIds.put(rs.getString("node_id"), rs.getString("dataflow_id")));
+        } catch (Exception e) {
+            handleDatabaseException(e);
+        }
+        return dataflowIds;
+    }
+
+    /**
+     * Undeletes soft-deleted nodes of the dataflow
+     */
+    public int restore(List<String> nodeIds, String dataflowId, String updatedBy) {
+        if (nodeIds == null || nodeIds.isEmpty())
+            return 0;
+        try {
+            int restored = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(getSql("Node.restoreByIds"));
+                ps.setString(1, updatedBy != null ? updatedBy : "admin");
+                ps.setLong(2, DateUtils.getUnixTimestampInUTC());
+                ps.setArray(3, con.createArrayOf("varchar", nodeIds.toArray()));
+                ps.setString(4, dataflowId);
+                return ps;
+            });
+            dagRevisionDao.bumpByNodeIds(nodeIds);
+            return restored;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
@@ -133,17 +257,25 @@ public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
     @Override
     public int delete(Node node) {
         try {
-            return jdbcTemplate.update(getSql("Node.deleteById"),
+            int deleted = jdbcTemplate.update(getSql("Node.deleteById"),
                     node.getUpdatedBy() != null ? node.getUpdatedBy() : "admin",
                     DateUtils.getUnixTimestampInUTC(),
                     DateUtils.getUnixTimestampInUTC(),
                     node.getNodeId());
+            if (deleted > 0) {
+                dagRevisionDao.bumpByNodeIds(List.of(node.getNodeId()));
+            }
+            return deleted;
         } catch (Exception e) {
             handleDatabaseException(e);
             return 0;
         }
     }
 
+    RowMapper<Node> rowMapper() {
+        return nodeRowMapper;
+    }
+
     private final RowMapper<Node> nodeRowMapper = (rs, rowNum) -> {
         Node node = new Node();
         node.setNodeId(rs.getString("node_id"));
@@ -162,7 +294,7 @@ public class NodeDao extends GenericDaoImpl<Node, Identifier, String> {
         node.setOutputPorts(dfUtil.readValue(new TypeReference<List<Node.Port>>() {
         }, rs.getString("output_ports")));
         node.setStage(rs.getString("stage"));
-        node.setStageOrder(rs.getInt("stage_order"));
+        node.setStageOrder(rs.getObject("stage_order", Integer.class));
         node.setDependsOn(dfUtil.readValue(new TypeReference<List<String>>() {
         }, rs.getString("depends_on")));
         String execModeStr = rs.getString("execution_mode");
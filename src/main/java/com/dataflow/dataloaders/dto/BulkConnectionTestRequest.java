@@ -0,0 +1,22 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkConnectionTestRequest {
+    /**
+     * Optional client supplied id so the client can subscribe to the result
+     * topic before the sweep starts.
+     */
+    private String testId;
+    private String applicationId;
+    private List<String> connectionIds;
+}
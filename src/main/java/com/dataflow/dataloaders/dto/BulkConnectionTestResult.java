@@ -0,0 +1,20 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkConnectionTestResult {
+    private String testId;
+    private String connectionId;
+    private String connectionName;
+    private String providerName;
+    private Integer completed;
+    private Integer total;
+    private TestConnectionResponse result;
+}
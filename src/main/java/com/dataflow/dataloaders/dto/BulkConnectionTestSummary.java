@@ -0,0 +1,21 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkConnectionTestSummary {
+    private String testId;
+    private String status;
+    private String destination;
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private Long startedAt;
+    private Long durationMs;
+}
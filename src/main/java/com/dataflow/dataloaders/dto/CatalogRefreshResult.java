@@ -0,0 +1,23 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogRefreshResult {
+    private String schemaName;
+    private Integer tableCount;
+    private Integer columnCount;
+    /**
+     * False when the harvested schema matched the stored fingerprint and only
+     * the harvest timestamp was updated.
+     */
+    private Boolean changed;
+    private Boolean removed;
+    private Long harvestedAt;
+}
@@ -0,0 +1,56 @@
+package com.dataflow.dataloaders.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Column oriented form of {@link JdbcDataPreviewResponse}. Each column carries
+ * its values as one typed array instead of repeating the column name per row.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ColumnarPreviewResponse {
+    private int rowCount;
+    private List<ColumnVector> columns;
+    private String query;
+    private String sessionId;
+    private Long offset;
+    private Boolean hasMore;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ColumnVector {
+        private String name;
+        /**
+         * long, double, boolean, decimal, timestamp, string, binary or object
+         */
+        private String type;
+        /**
+         * Bit i is set when row i is null, LSB first. Absent when the column has
+         * no nulls; sent as base64 in JSON and raw bytes in Smile.
+         */
+        private byte[] nulls;
+        /**
+         * long[], double[] or boolean[] for primitive types (null rows hold 0 or
+         * false), otherwise a list with null entries
+         */
+        private Object values;
+        /**
+         * Distinct values of a dictionary encoded string column; values is then
+         * absent and codes holds the index into this list per row (-1 for null)
+         */
+        private List<String> dictionary;
+        private int[] codes;
+    }
+}
@@ -0,0 +1,29 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionHealthSnapshot {
+    private String connectionId;
+    private String connectionName;
+    private String applicationId;
+    private String providerName;
+    private String state;
+    private Integer consecutiveFailures;
+    private Long lastCheckedAt;
+    private Long lastStateChangeAt;
+    private Integer lastLatencyMs;
+    private Integer p50LatencyMs;
+    private Integer p95LatencyMs;
+    private Integer p99LatencyMs;
+    private Integer samples;
+    private Double successRate;
+    private String lastErrorCode;
+    private String lastErrorMessage;
+}
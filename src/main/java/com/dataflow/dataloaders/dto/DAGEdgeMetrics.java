@@ -0,0 +1,24 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DAGEdgeMetrics {
+    private String edgeId;
+    private String sourceNodeId;
+    private String targetNodeId;
+    private String backpressure;
+    /**
+     * Queue capacity in chunks
+     */
+    private Integer capacity;
+    private Integer maxQueued;
+    private Long records;
+    private Long dropped;
+}
@@ -0,0 +1,32 @@
+package com.dataflow.dataloaders.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DAGNodeMetrics {
+    private String nodeId;
+    private String nodeName;
+    private String nodeType;
+    /**
+     * PENDING, RUNNING, COMPLETED, FAILED or CANCELLED
+     */
+    private String status;
+    private Long recordsIn;
+    private Long recordsOut;
+    private Long chunks;
+    /**
+     * Time spent reading, transforming or writing, excluding waits on edges
+     */
+    private Long busyMs;
+    private Long durationMs;
+    private Double recordsPerSecond;
+    private String errorMessage;
+}
@@ -0,0 +1,41 @@
+package com.dataflow.dataloaders.dto;
+
+import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DAGPlanResponse {
+    private String dagId;
+    /**
+     * Hash of everything the plan depends on; equal hashes give equal plans
+     */
+    private String contentHash;
+    private Boolean cached;
+    private DAGDefinition.ExecutionPlan executionPlan;
+    /**
+     * Heaviest dependency chain, source first
+     */
+    private List<String> criticalPath;
+    private Double criticalPathWeight;
+    /**
+     * Groups of nodes with no edge between groups, which can run fully
+     * independently
+     */
+    private List<List<String>> branches;
+    private Map<String, Double> nodeWeights;
+    /**
+     * Estimated rows entering each node, where known
+     */
+    private Map<String, Long> estimatedRows;
+}
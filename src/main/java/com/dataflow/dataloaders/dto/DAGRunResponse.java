@@ -0,0 +1,35 @@
+package com.dataflow.dataloaders.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DAGRunResponse {
+    private String runId;
+    private String dagId;
+    private String dagName;
+    private String dataflowId;
+    /**
+     * RUNNING, COMPLETED, FAILED or CANCELLED
+     */
+    private String status;
+    private String errorMessage;
+    private Integer maxConcurrency;
+    private Long startedAt;
+    private Long finishedAt;
+    private Long durationMs;
+    private Long recordsRead;
+    private Long recordsWritten;
+    private Double recordsPerSecond;
+    private List<DAGNodeMetrics> nodes;
+    private List<DAGEdgeMetrics> edges;
+}
@@ -0,0 +1,26 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataSourcePoolStats {
+    private String key;
+    private String poolName;
+    private String providerKey;
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+    private int maxPoolSize;
+    private long borrowCount;
+    private double avgWaitMs;
+    private double maxWaitMs;
+    private Long createdAt;
+    private Long lastUsedAt;
+}
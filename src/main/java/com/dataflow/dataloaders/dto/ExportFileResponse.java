@@ -0,0 +1,30 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportFileResponse {
+    private String fileId;
+    /**
+     * PENDING while the export runs, then READY or FAILED
+     */
+    private String status;
+    private String errorMessage;
+    private String fileName;
+    private String format;
+    private Boolean compressed;
+    private Long rowCount;
+    private Long sizeBytes;
+    private Long durationMs;
+    /**
+     * Epoch seconds after which the spooled file is deleted, set once the
+     * export has finished
+     */
+    private Long expiresAt;
+}
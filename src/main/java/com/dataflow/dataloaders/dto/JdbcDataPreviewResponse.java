@@ -15,4 +15,10 @@ public class JdbcDataPreviewResponse {
     private List<String> columns;
     private List<Map<String, Object>> data;
     private String query;
+    /**
+     * Set while a paging session still has rows to read
+     */
+    private String sessionId;
+    private Long offset;
+    private Boolean hasMore;
 }
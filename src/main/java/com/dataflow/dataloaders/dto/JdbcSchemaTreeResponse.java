@@ -1,11 +1,13 @@
 package com.dataflow.dataloaders.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -17,4 +19,9 @@ public class JdbcSchemaTreeResponse {
     private List<String> tables = new ArrayList<>();
     @Builder.Default
     private List<String> views = new ArrayList<>();
+    /**
+     * Row and size estimates per table name, only filled when requested
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, TableStatistics> statistics;
 }
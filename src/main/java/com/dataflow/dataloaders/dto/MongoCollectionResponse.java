@@ -0,0 +1,22 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MongoCollectionResponse {
+    private String name;
+    /**
+     * collection, view or timeseries
+     */
+    private String type;
+    /**
+     * From collection metadata, not a count of the documents; null for views
+     */
+    private Long estimatedDocumentCount;
+}
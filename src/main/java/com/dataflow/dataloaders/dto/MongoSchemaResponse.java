@@ -0,0 +1,21 @@
+package com.dataflow.dataloaders.dto;
+
+import com.dataflow.dataloaders.entity.dagmodels.dag.FieldDefinition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MongoSchemaResponse {
+    private String databaseName;
+    private String collectionName;
+    private int sampledDocuments;
+    private long durationMs;
+    private List<FieldDefinition> fields;
+}
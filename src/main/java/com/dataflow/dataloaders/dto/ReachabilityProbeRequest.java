@@ -0,0 +1,24 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReachabilityProbeRequest {
+    /**
+     * Saved connections to probe at their resolved host and port
+     */
+    private List<String> connectionIds;
+    /**
+     * Additional raw host:port targets
+     */
+    private List<ReachabilityTarget> targets;
+    private Integer timeoutMs;
+}
@@ -0,0 +1,33 @@
+package com.dataflow.dataloaders.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReachabilityResult {
+    private String id;
+    private String host;
+    private Integer port;
+    /**
+     * Resolved IP address the connect was attempted against
+     */
+    private String address;
+    /**
+     * reachable, refused, timeout, unresolved, unreachable or invalid
+     */
+    private String status;
+    private Long dnsMs;
+    private Long connectMs;
+    private String errorMessage;
+
+    @JsonIgnore
+    public boolean isReachable() {
+        return "reachable".equals(status);
+    }
+}
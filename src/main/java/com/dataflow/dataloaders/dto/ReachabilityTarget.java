@@ -0,0 +1,19 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReachabilityTarget {
+    /**
+     * Optional label echoed in the result, e.g. the connection ID
+     */
+    private String id;
+    private String host;
+    private Integer port;
+}
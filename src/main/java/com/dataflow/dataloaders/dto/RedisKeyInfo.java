@@ -0,0 +1,26 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisKeyInfo {
+    private String key;
+    /**
+     * string, list, set, zset, hash or stream
+     */
+    private String type;
+    /**
+     * MEMORY USAGE of the key; null when the server does not allow the command
+     */
+    private Long sizeBytes;
+    /**
+     * Remaining time to live, -1 when the key does not expire
+     */
+    private Long ttlMs;
+}
@@ -0,0 +1,24 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisKeyPreview {
+    private String key;
+    private String type;
+    /**
+     * STRLEN for strings, element count for collections
+     */
+    private Long length;
+    /**
+     * First elements of the value: a string, list, map or scored member list
+     */
+    private Object value;
+    private Boolean truncated;
+}
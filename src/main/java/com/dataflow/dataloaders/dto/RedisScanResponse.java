@@ -0,0 +1,24 @@
+package com.dataflow.dataloaders.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisScanResponse {
+    private String pattern;
+    private List<RedisKeyInfo> keys;
+    /**
+     * Cursor to pass for the next page; "0" once the keyspace has been walked
+     */
+    private String cursor;
+    private Boolean complete;
+    private Integer scanCalls;
+    private Long durationMs;
+}
@@ -0,0 +1,73 @@
+package com.dataflow.dataloaders.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableProfileResponse {
+    private String schemaName;
+    private String tableName;
+    /**
+     * Sampling clause used, or LIMIT when the table was read from the start
+     */
+    private String sampleMethod;
+    private Double samplePercent;
+    private long sampledRows;
+    private long durationMs;
+    private List<ColumnProfile> columns;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ColumnProfile {
+        private String columnName;
+        private String typeName;
+        private long nullCount;
+        private double nullRatio;
+        private String min;
+        private String max;
+        /**
+         * HyperLogLog estimate over the sample
+         */
+        private long approxDistinct;
+        private double distinctRatio;
+        private List<ValueCount> topValues;
+        private Integer minLength;
+        private Integer maxLength;
+        private Double avgLength;
+        private List<LengthBucket> lengthHistogram;
+        private String error;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ValueCount {
+        private String value;
+        private long count;
+    }
+
+    /**
+     * Values with length in [from, to]
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LengthBucket {
+        private int from;
+        private int to;
+        private long count;
+    }
+}
@@ -0,0 +1,11 @@
+package com.dataflow.dataloaders.dto;
+
+import com.dataflow.dataloaders.entity.Variable;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class VariableDto extends Variable {
+    private String groupName;
+}
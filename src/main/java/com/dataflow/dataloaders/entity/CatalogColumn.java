@@ -0,0 +1,24 @@
+package com.dataflow.dataloaders.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogColumn {
+
+    private String connectionId;
+    private String schemaName;
+    private String tableName;
+    private String columnName;
+    private Integer ordinalPosition;
+    private String typeName;
+    private Integer columnSize;
+    private Boolean isNullable;
+    private Boolean isPrimaryKey;
+    private String defaultValue;
+}
@@ -0,0 +1,20 @@
+package com.dataflow.dataloaders.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSnapshot {
+
+    private String connectionId;
+    private String schemaName;
+    private String fingerprint;
+    private Integer tableCount;
+    private Integer columnCount;
+    private Long harvestedAt;
+}
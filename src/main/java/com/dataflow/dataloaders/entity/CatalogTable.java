@@ -0,0 +1,19 @@
+package com.dataflow.dataloaders.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogTable {
+
+    private String connectionId;
+    private String schemaName;
+    private String tableName;
+    private String tableType;
+    private Long harvestedAt;
+}
@@ -0,0 +1,20 @@
+package com.dataflow.dataloaders.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionHealthCheck {
+
+    private Long id;
+    private String connectionId;
+    private Long checkedAt;
+    private String status;
+    private Integer latencyMs;
+    private String errorCode;
+}
@@ -3,6 +3,9 @@ package com.dataflow.dataloaders.entity.dagmodels.dag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -19,65 +22,105 @@ public class DAGSchemaService {
      */
     public void propagateSchemas(DAGDefinition dag) {
         log.info("Starting schema propagation for DAG: {}", dag.getDagId());
+        SchemaGraph graph = new SchemaGraph(dag);
 
         // 0. Pre-process: Reverse Inference (Guess Reader fields based on downstream
         // Mappers)
-        reverseInferencePass(dag);
+        reverseInferencePass(graph, graph.edges);
 
-        // 1. Identify source nodes (nodes with no incoming edges or Reader types)
-        List<Node> sourceNodes = dag.getNodes().stream()
-                .filter(this::isSourceNode)
-                .collect(Collectors.toList());
-
-        Set<String> processedNodes = new HashSet<>();
-        Queue<Node> queue = new LinkedList<>(sourceNodes);
+        // 1. Every node is recomputed and rewritten, in topological order
+        Set<String> changed = propagate(graph, new HashSet<>(graph.nodes.keySet()), graph.nodes.keySet());
+        log.info("Schema propagation completed for DAG: {} ({} nodes)", dag.getDagId(), changed.size());
+    }
 
-        // 2. Breadth-first traversal to propagate schema
-        while (!queue.isEmpty()) {
-            Node currentNode = queue.poll();
-            if (currentNode == null)
-                continue;
+    /**
+     * Propagates only what the given changes can affect: the changed nodes,
+     * the targets of the changed edges, and whatever lies downstream of a node
+     * whose output schema actually changed. A node whose recomputed output
+     * hashes the same as its previous one stops the propagation on that
+     * branch. Nodes that were never propagated are included as well. For a
+     * removed edge, pass its former target node as changed.
+     *
+     * @return IDs of the nodes whose output schema was rewritten
+     */
+    public Set<String> propagateSchemas(DAGDefinition dag, Collection<String> changedNodeIds,
+            Collection<String> changedEdgeIds) {
+        SchemaGraph graph = new SchemaGraph(dag);
+        Set<String> dirty = new HashSet<>();
+        Set<String> forced = new HashSet<>();
+        List<Edge> touched = new ArrayList<>();
+
+        if (changedNodeIds != null) {
+            for (String nodeId : changedNodeIds) {
+                if (!graph.nodes.containsKey(nodeId))
+                    continue;
+                // An edited node's previous output is gone, so there is nothing to compare against
+                dirty.add(nodeId);
+                forced.add(nodeId);
+                touched.addAll(graph.incoming(nodeId));
+                touched.addAll(graph.outgoing(nodeId));
+            }
+        }
+        if (changedEdgeIds != null) {
+            for (String edgeId : changedEdgeIds) {
+                Edge edge = graph.edgesById.get(edgeId);
+                if (edge != null && graph.nodes.containsKey(edge.getTargetNodeId())) {
+                    dirty.add(edge.getTargetNodeId());
+                    touched.add(edge);
+                }
+            }
+        }
+        for (Node node : graph.nodes.values()) {
+            if (node.getNodeSchema() == null) {
+                dirty.add(node.getNodeId());
+            }
+        }
 
-            // Compute output schema for current node
-            Schema outputSchema = computeOutputSchema(currentNode, dag);
-            currentNode.setNodeSchema(outputSchema); // Set direct node schema
-            updateNodeOutputPorts(currentNode, outputSchema);
+        Set<String> inferred = reverseInferencePass(graph, touched);
+        dirty.addAll(inferred);
+        forced.addAll(inferred);
 
-            processedNodes.add(currentNode.getNodeId());
+        Set<String> changed = propagate(graph, dirty, forced);
+        log.debug("Incremental schema propagation for DAG {}: {} dirty, {} changed of {} nodes", dag.getDagId(),
+                dirty.size(), changed.size(), graph.nodes.size());
+        return changed;
+    }
 
-            // Find downstream nodes
-            List<Edge> outgoingEdges = dag.getEdges().stream()
-                    .filter(e -> e.getSourceNodeId().equals(currentNode.getNodeId()))
-                    .collect(Collectors.toList());
+    /**
+     * Walks the topological order once, recomputing dirty nodes. Each node
+     * pulls its input from its upstream nodes' current outputs; as with the
+     * former push-based traversal, the last incoming edge wins. A node's
+     * downstream nodes become dirty only when its output changed, or when it
+     * is forced.
+     */
+    private Set<String> propagate(SchemaGraph graph, Set<String> dirty, Set<String> forced) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Node node : graph.order) {
+            String nodeId = node.getNodeId();
+            if (!dirty.contains(nodeId))
+                continue;
 
-            for (Edge edge : outgoingEdges) {
-                Node targetNode = findNode(dag, edge.getTargetNodeId());
-                if (targetNode != null) {
+            for (Edge edge : graph.incoming(nodeId)) {
+                Schema upstream = graph.nodes.get(edge.getSourceNodeId()).getNodeSchema();
+                if (upstream != null) {
                     // Apply edge transformation to the schema before passing it
-                    Schema transformedSchema = applyEdgeMapping(outputSchema, edge);
-                    updateNodeInputPorts(targetNode, transformedSchema);
-
-                    // Add to queue if all dependencies are met (basic check)
-                    if (!processedNodes.contains(targetNode.getNodeId())) {
-                        queue.add(targetNode);
-                    }
+                    updateNodeInputPorts(node, applyEdgeMapping(upstream, edge));
                 }
             }
-        }
-        log.info("Schema propagation completed for DAG: {}", dag.getDagId());
-    }
 
-    private boolean isSourceNode(Node node) {
-        String type = node.getNodeType().name();
-        return type.endsWith("READER") || type.equals("TRIGGER")
-                || (node.getDependsOn() == null || node.getDependsOn().isEmpty());
-    }
+            String previous = forced.contains(nodeId) ? null : fingerprint(node.getNodeSchema());
+            Schema outputSchema = computeOutputSchema(node);
+            if (previous != null && previous.equals(fingerprint(outputSchema)))
+                continue;
 
-    private Node findNode(DAGDefinition dag, String nodeId) {
-        return dag.getNodes().stream()
-                .filter(n -> n.getNodeId().equals(nodeId))
-                .findFirst()
-                .orElse(null);
+            node.setNodeSchema(outputSchema); // Set direct node schema
+            updateNodeOutputPorts(node, outputSchema);
+            changed.add(nodeId);
+            for (Edge edge : graph.outgoing(nodeId)) {
+                dirty.add(edge.getTargetNodeId());
+            }
+        }
+        return changed;
     }
 
     /**
@@ -85,13 +128,14 @@ public class DAGSchemaService {
      * This fulfills the requirement of showing "what should be flowing" even if not
      * explicitly defined.
      */
-    private void reverseInferencePass(DAGDefinition dag) {
-        for (Edge edge : dag.getEdges()) {
-            Node sourceNode = findNode(dag, edge.getSourceNodeId());
-            Node targetNode = findNode(dag, edge.getTargetNodeId());
+    private Set<String> reverseInferencePass(SchemaGraph graph, Collection<Edge> edges) {
+        Set<String> inferred = new HashSet<>();
+        for (Edge edge : edges) {
+            Node sourceNode = graph.nodes.get(edge.getSourceNodeId());
+            Node targetNode = graph.nodes.get(edge.getTargetNodeId());
 
             if (sourceNode != null && targetNode != null && targetNode.getNodeType() == Node.NodeType.MAPPER
-                    && targetNode.getMapperConfig() != null) {
+                    && targetNode.getMapperConfig() != null && targetNode.getMapperConfig().getMappings() != null) {
 
                 // If source is a Reader, we can inject the expected fields
                 if (sourceNode.getNodeType().name().endsWith("READER")) {
@@ -103,12 +147,13 @@ public class DAGSchemaService {
                     }
 
                     List<FieldDefinition> sourceFields = sourceNode.getNodeSchema().getFields();
+                    Set<String> existing = new HashSet<>();
+                    sourceFields.forEach(f -> existing.add(f.getName()));
                     for (Node.FieldMapperConfig.MappingEntry mapping : targetNode.getMapperConfig().getMappings()) {
                         String sourcePath = mapping.getSourcePath();
                         if (sourcePath != null && !sourcePath.equals("(expression)") && !sourcePath.contains(".")) {
                             // Check if field already exists
-                            boolean exists = sourceFields.stream().anyMatch(f -> f.getName().equals(sourcePath));
-                            if (!exists) {
+                            if (existing.add(sourcePath)) {
                                 FieldDefinition inferredField = new FieldDefinition();
                                 inferredField.setName(sourcePath);
                                 inferredField.setType(FieldDefinition.DataType.STRING); // Default
@@ -123,15 +168,17 @@ public class DAGSchemaService {
                                 inferredField.setLineage(lineage);
 
                                 sourceFields.add(inferredField);
+                                inferred.add(sourceNode.getNodeId());
                             }
                         }
                     }
                 }
             }
         }
+        return inferred;
     }
 
-    private Schema computeOutputSchema(Node node, DAGDefinition dag) {
+    private Schema computeOutputSchema(Node node) {
         // If it's a reader, we might already have a schema from DDL
         // If it's a processor, it likely transforms the input schema
 
@@ -296,8 +343,9 @@ public class DAGSchemaService {
         List<Map<String, Object>> report = new ArrayList<>();
 
         // Find all "Writer" or "Leaf" nodes (nodes with no outgoing edges)
-        List<Node> leafNodes = dag.getNodes().stream()
-                .filter(n -> dag.getEdges().stream().noneMatch(e -> e.getSourceNodeId().equals(n.getNodeId())))
+        SchemaGraph graph = new SchemaGraph(dag);
+        List<Node> leafNodes = graph.nodes.values().stream()
+                .filter(n -> graph.outgoing(n.getNodeId()).isEmpty())
                 .collect(Collectors.toList());
 
         for (Node leaf : leafNodes) {
@@ -371,4 +419,124 @@ public class DAGSchemaService {
         }
         return copy;
     }
+
+    /**
+     * Hash of what a schema carries downstream: its fields with types,
+     * properties, lineage and children. The schema's own name and capture
+     * time are left out, so recomputing an unchanged schema hashes the same.
+     */
+    private static String fingerprint(Schema schema) {
+        if (schema == null)
+            return null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (schema.getFields() != null) {
+                for (FieldDefinition field : schema.getFields()) {
+                    fingerprint(digest, field);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void fingerprint(MessageDigest digest, FieldDefinition field) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(field.getName()).append('\u0000').append(field.getType()).append('\u0000');
+        if (field.getProperties() != null) {
+            // Sorted so insertion order does not matter; a null key sorts first instead of failing
+            Map<String, Object> properties = new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            properties.putAll(field.getProperties());
+            sb.append(properties);
+        }
+        sb.append('\u0000');
+        if (field.getLineage() != null) {
+            sb.append(field.getLineage().getSourceNodeId()).append('\u0000')
+                    .append(field.getLineage().getSourcePath()).append('\u0000')
+                    .append(field.getLineage().getFlowTrace());
+        }
+        sb.append('\u0000').append(field.getChildren() != null ? field.getChildren().size() : -1).append('\n');
+        digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        if (field.getChildren() != null) {
+            for (FieldDefinition child : field.getChildren()) {
+                fingerprint(digest, child);
+            }
+        }
+    }
+
+    /**
+     * Node and edge indexes of a DAG, built in O(V + E). Edges to or from
+     * nodes outside the DAG are ignored. The order is topological; nodes on a
+     * cycle, which have none, follow in definition order.
+     */
+    private static class SchemaGraph {
+        private final Map<String, Node> nodes = new LinkedHashMap<>();
+        private final List<Edge> edges = new ArrayList<>();
+        private final Map<String, Edge> edgesById = new HashMap<>();
+        private final Map<String, List<Edge>> outgoing = new HashMap<>();
+        private final Map<String, List<Edge>> incoming = new HashMap<>();
+        private final List<Node> order;
+
+        private SchemaGraph(DAGDefinition dag) {
+            if (dag.getNodes() != null) {
+                for (Node node : dag.getNodes()) {
+                    nodes.put(node.getNodeId(), node);
+                }
+            }
+            if (dag.getEdges() != null) {
+                for (Edge edge : dag.getEdges()) {
+                    if (!nodes.containsKey(edge.getSourceNodeId()) || !nodes.containsKey(edge.getTargetNodeId()))
+                        continue;
+                    edges.add(edge);
+                    if (edge.getEdgeId() != null) {
+                        edgesById.put(edge.getEdgeId(), edge);
+                    }
+                    outgoing.computeIfAbsent(edge.getSourceNodeId(), k -> new ArrayList<>()).add(edge);
+                    incoming.computeIfAbsent(edge.getTargetNodeId(), k -> new ArrayList<>()).add(edge);
+                }
+            }
+            order = topologicalOrder();
+        }
+
+        private List<Edge> outgoing(String nodeId) {
+            return outgoing.getOrDefault(nodeId, List.of());
+        }
+
+        private List<Edge> incoming(String nodeId) {
+            return incoming.getOrDefault(nodeId, List.of());
+        }
+
+        private List<Node> topologicalOrder() {
+            Map<String, Integer> inDegree = new HashMap<>();
+            Deque<Node> ready = new ArrayDeque<>();
+            for (Node node : nodes.values()) {
+                int degree = incoming(node.getNodeId()).size();
+                inDegree.put(node.getNodeId(), degree);
+                if (degree == 0) {
+                    ready.add(node);
+                }
+            }
+            List<Node> sorted = new ArrayList<>(nodes.size());
+            while (!ready.isEmpty()) {
+                Node node = ready.poll();
+                sorted.add(node);
+                for (Edge edge : outgoing(node.getNodeId())) {
+                    if (inDegree.merge(edge.getTargetNodeId(), -1, Integer::sum) == 0) {
+                        ready.add(nodes.get(edge.getTargetNodeId()));
+                    }
+                }
+            }
+            if (sorted.size() < nodes.size()) {
+                log.warn("DAG has a cycle; {} nodes get their schemas in definition order",
+                        nodes.size() - sorted.size());
+                for (Node node : nodes.values()) {
+                    if (inDegree.get(node.getNodeId()) > 0) {
+                        sorted.add(node);
+                    }
+                }
+            }
+            return sorted;
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.dataflow.dataloaders.enums;
+
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                "Unsupported export format: " + value + ", expected csv or ndjson");
+    }
+}
@@ -0,0 +1,134 @@
+package com.dataflow.dataloaders.enums;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Row limiting per database dialect. Generated table selects carry the limit
+ * in their SQL. User queries are capped via setMaxRows/setFetchSize, which
+ * the drivers pass on to the server, and only rewritten where that is safe.
+ */
+public enum SqlDialect {
+    POSTGRESQL,
+    MYSQL,
+    ORACLE,
+    MSSQL,
+    GENERIC;
+
+    private static final Pattern TRAILING_TERMINATOR = Pattern.compile("[;\\s]+$");
+    private static final Pattern SELECT_HEAD = Pattern.compile("^\\s*select\\s", Pattern.CASE_INSENSITIVE);
+    private static final Pattern OFFSET_FETCH = Pattern.compile("\\b(?:offset|fetch)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MSSQL_SELECT_HEAD = Pattern.compile(
+            "^(\\s*select\\s+(?:distinct\\s+|all\\s+)?)(?!top\\s*\\(?\\s*\\d)", Pattern.CASE_INSENSITIVE);
+
+    public static SqlDialect fromProductName(String productName) {
+        if (productName == null)
+            return GENERIC;
+        String name = productName.toLowerCase(Locale.ROOT);
+        if (name.contains("postgres"))
+            return POSTGRESQL;
+        if (name.contains("mysql") || name.contains("mariadb"))
+            return MYSQL;
+        if (name.contains("oracle"))
+            return ORACLE;
+        if (name.contains("microsoft") || name.contains("sql server") || name.contains("mssql"))
+            return MSSQL;
+        return GENERIC;
+    }
+
+    public static SqlDialect of(Connection connection) {
+        try {
+            return fromProductName(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return GENERIC;
+        }
+    }
+
+    /**
+     * SELECT of at most maxRows rows from a table
+     */
+    public String limitedTableSelect(String qualifiedTable, int maxRows) {
+        return limitedTableSelect("*", qualifiedTable, maxRows);
+    }
+
+    public String limitedTableSelect(String selectList, String qualifiedTable, int maxRows) {
+        return switch (this) {
+            case POSTGRESQL, MYSQL -> "SELECT " + selectList + " FROM " + qualifiedTable + " LIMIT " + maxRows;
+            case ORACLE -> "SELECT " + selectList + " FROM " + qualifiedTable + " WHERE ROWNUM <= " + maxRows;
+            case MSSQL -> "SELECT TOP (" + maxRows + ") " + selectList + " FROM " + qualifiedTable;
+            case GENERIC -> "SELECT " + selectList + " FROM " + qualifiedTable;
+        };
+    }
+
+    /**
+     * SELECT of a random sample of roughly percent of the table, capped at
+     * maxRows. The same seed returns the same rows, so several queries over
+     * different columns see one consistent sample. Returns null when the
+     * dialect has no sampling clause.
+     */
+    public String sampledTableSelect(String selectList, String qualifiedTable, double percent, int maxRows,
+            int seed) {
+        BigDecimal percentValue = BigDecimal.valueOf(percent).stripTrailingZeros();
+        String pct = percentValue.toPlainString();
+        return switch (this) {
+            // SYSTEM samples whole pages, so only the sampled blocks are read
+            case POSTGRESQL -> "SELECT " + selectList + " FROM " + qualifiedTable + " TABLESAMPLE SYSTEM (" + pct
+                    + ") REPEATABLE (" + seed + ") LIMIT " + maxRows;
+            case ORACLE -> "SELECT " + selectList + " FROM " + qualifiedTable + " SAMPLE (" + pct + ") SEED ("
+                    + seed + ") WHERE ROWNUM <= " + maxRows;
+            case MSSQL -> "SELECT TOP (" + maxRows + ") " + selectList + " FROM " + qualifiedTable + " TABLESAMPLE ("
+                    + pct + " PERCENT) REPEATABLE (" + seed + ")";
+            // No sampling clause; filters rows while scanning and stops at the limit
+            case MYSQL -> "SELECT " + selectList + " FROM " + qualifiedTable + " WHERE RAND(" + seed + ") < "
+                    + percentValue.movePointLeft(2).toPlainString() + " LIMIT " + maxRows;
+            case GENERIC -> null;
+        };
+    }
+
+    /**
+     * Prepares an arbitrary query to return at most maxRows rows, together
+     * with {@link #applyLimit(Statement, int)}. Only SQL Server has the query
+     * rewritten, with TOP injected into a plain SELECT that has no OFFSET or
+     * FETCH. Every other dialect gets the query back without its trailing
+     * terminator. Wrapping it as a derived table would break joins that
+     * select two columns of the same name. setMaxRows already stops those
+     * drivers at the limit: PostgreSQL sends it with the execute, and MySQL
+     * turns it into SQL_SELECT_LIMIT.
+     */
+    public String limitQuery(String sql, int maxRows) {
+        String query = TRAILING_TERMINATOR.matcher(sql).replaceAll("");
+        if (this != MSSQL || !SELECT_HEAD.matcher(query).find() || OFFSET_FETCH.matcher(query).find()) {
+            return query;
+        }
+        var matcher = MSSQL_SELECT_HEAD.matcher(query);
+        return matcher.find() ? matcher.replaceFirst("$1TOP (" + maxRows + ") ") : query;
+    }
+
+    /**
+     * Makes stmt stream its result from a forward-only cursor instead of
+     * buffering it whole. PostgreSQL only honors a fetch size inside a
+     * transaction, so conn leaves autocommit and the caller ends the
+     * transaction. MySQL streams row by row only with the Integer.MIN_VALUE
+     * sentinel fetch size.
+     */
+    public void streamResults(Connection conn, Statement stmt, int fetchSize) throws SQLException {
+        conn.setAutoCommit(false);
+        stmt.setFetchSize(this == MYSQL ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    /**
+     * Driver level cap: the driver discards rows past maxRows and fetches in
+     * batches no larger than the limit.
+     */
+    public void applyLimit(Statement statement, int maxRows) throws SQLException {
+        statement.setMaxRows(maxRows);
+        // MySQL treats a positive fetch size as a no-op unless cursor fetch is enabled
+        if (this != MYSQL) {
+            statement.setFetchSize(maxRows);
+        }
+    }
+}
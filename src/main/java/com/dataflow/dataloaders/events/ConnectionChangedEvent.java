@@ -0,0 +1,16 @@
+package com.dataflow.dataloaders.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a saved connection is updated or deleted so that caches
+ * holding live clients or resolved configuration for it can be dropped.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConnectionChangedEvent {
+    private final String connectionId;
+}
@@ -0,0 +1,16 @@
+package com.dataflow.dataloaders.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a provider is updated or deleted, since resolved
+ * connection configuration depends on the provider it points at.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProviderChangedEvent {
+    private final String providerId;
+}
@@ -0,0 +1,17 @@
+package com.dataflow.dataloaders.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a variable or variable group is written.
+ * A null applicationId means the change affects global groups and therefore
+ * every application.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VariablesChangedEvent {
+    private final String applicationId;
+}
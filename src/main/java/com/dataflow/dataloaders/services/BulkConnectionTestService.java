@@ -0,0 +1,278 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dao.ConnectionDao;
+import com.dataflow.dataloaders.dto.BulkConnectionTestRequest;
+import com.dataflow.dataloaders.dto.BulkConnectionTestResult;
+import com.dataflow.dataloaders.dto.BulkConnectionTestSummary;
+import com.dataflow.dataloaders.dto.ConnectionDto;
+import com.dataflow.dataloaders.dto.ReachabilityResult;
+import com.dataflow.dataloaders.dto.ReachabilityTarget;
+import com.dataflow.dataloaders.dto.TestConnectionResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.DateUtils;
+import com.dataflow.dataloaders.util.IdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests many saved connections in parallel on virtual threads and streams each
+ * result to /topic/connection-tests/{testId} as soon as it is known.
+ * A global cap bounds total in-flight tests and a per-host cap keeps a single
+ * database server from being hit by the whole sweep at once. All hosts are
+ * first probed together at the TCP level, so unreachable ones fail without a
+ * driver test or a permit.
+ */
+@Slf4j
+@Service
+public class BulkConnectionTestService {
+
+    public static final String DESTINATION_PREFIX = "/topic/connection-tests/";
+
+    @Autowired
+    private ConnectionDao connectionDao;
+
+    @Autowired
+    private ConnectionTestService connectionTestService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ReachabilityProbeService reachabilityProbeService;
+
+    @Value("${connection.test.probe.enabled:true}")
+    private boolean probeEnabled;
+
+    @Value("${connection.test.probe.timeout-ms:5000}")
+    private int probeTimeoutMs;
+
+    @Value("${connection.test.bulk.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${connection.test.bulk.max-per-host:4}")
+    private int maxPerHost;
+
+    private Semaphore globalPermits;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        globalPermits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Starts the sweep in the background and returns immediately with the
+     * destination the results will be published to.
+     */
+    public BulkConnectionTestSummary startBulkTest(BulkConnectionTestRequest request) {
+        List<Connection> connections = loadConnections(request);
+        String testId = request.getTestId() != null && !request.getTestId().isBlank()
+                ? request.getTestId()
+                : idGenerator.generateId();
+        long startedAt = DateUtils.getUnixTimestampInUTC();
+        log.info("Starting bulk connection test {} for {} connections", testId, connections.size());
+
+        Thread.ofVirtual()
+                .name("bulk-connection-test-" + testId)
+                .start(() -> runBulkTest(testId, connections, startedAt));
+
+        return BulkConnectionTestSummary.builder()
+                .testId(testId)
+                .status("RUNNING")
+                .destination(DESTINATION_PREFIX + testId)
+                .total(connections.size())
+                .startedAt(startedAt)
+                .build();
+    }
+
+    private List<Connection> loadConnections(BulkConnectionTestRequest request) {
+        if (request.getConnectionIds() != null && !request.getConnectionIds().isEmpty()) {
+            return connectionDao.listByIds(request.getConnectionIds());
+        }
+        if (request.getApplicationId() != null && !request.getApplicationId().isBlank()) {
+            return connectionDao.listByApplication(request.getApplicationId());
+        }
+        throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                "Either applicationId or connectionIds must be provided");
+    }
+
+    private void runBulkTest(String testId, List<Connection> connections, long startedAt) {
+        long start = System.currentTimeMillis();
+        String destination = DESTINATION_PREFIX + testId;
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Connection> outcomes = Collections.synchronizedList(new ArrayList<>(connections.size()));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, ReachabilityResult> reachability = probeAll(connections);
+            for (Connection connection : connections) {
+                executor.submit(() -> {
+                    TestConnectionResponse response;
+                    try {
+                        ReachabilityResult probed = reachability.get(connection.getId());
+                        response = probed != null && connectionTestService.isUnreachable(probed)
+                                ? connectionTestService.unreachableResponse(providerName(connection), probed,
+                                        probed.getDnsMs() != null && probed.getConnectMs() != null
+                                                ? (int) (probed.getDnsMs() + probed.getConnectMs())
+                                                : 0)
+                                : testWithinLimits(connection, probed == null);
+                    } catch (Exception e) {
+                        // Every connection gets its message and outcome, whatever went wrong
+                        log.error("Bulk test {} of connection {} failed: {}", testId, connection.getId(),
+                                e.getMessage(), e);
+                        response = TestConnectionResponse.builder()
+                                .success(false)
+                                .status("failure")
+                                .message("Connection test failed")
+                                .errorCode("TEST_FAILED")
+                                .errorMessage(e.getMessage())
+                                .responseTimeMs(0)
+                                .build();
+                    }
+                    if (Boolean.TRUE.equals(response.getSuccess())) {
+                        succeeded.incrementAndGet();
+                    }
+                    long now = DateUtils.getUnixTimestampInUTC();
+                    outcomes.add(Connection.builder()
+                            .id(connection.getId())
+                            .lastTestStatus(Boolean.TRUE.equals(response.getSuccess()) ? "success" : "failure")
+                            .lastTestedAt(now)
+                            .lastUsedAt(now)
+                            .build());
+
+                    messagingTemplate.convertAndSend(destination, BulkConnectionTestResult.builder()
+                            .testId(testId)
+                            .connectionId(connection.getId())
+                            .connectionName(connection.getConnectionName())
+                            .providerName(connection instanceof ConnectionDto dto ? dto.getProviderName() : null)
+                            .completed(completed.incrementAndGet())
+                            .total(connections.size())
+                            .result(response)
+                            .build());
+                });
+            }
+        } catch (Exception e) {
+            log.error("Bulk connection test {} failed: {}", testId, e.getMessage(), e);
+        }
+
+        // Status columns are written once for the whole sweep instead of per connection
+        connectionDao.batchUpdateTestStatus(new ArrayList<>(outcomes));
+
+        BulkConnectionTestSummary summary = BulkConnectionTestSummary.builder()
+                .testId(testId)
+                .status("COMPLETED")
+                .destination(destination)
+                .total(connections.size())
+                .succeeded(succeeded.get())
+                .failed(outcomes.size() - succeeded.get())
+                .startedAt(startedAt)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+        messagingTemplate.convertAndSend(destination, summary);
+        log.info("Bulk connection test {} completed: {}/{} succeeded in {} ms", testId, summary.getSucceeded(),
+                summary.getTotal(), summary.getDurationMs());
+    }
+
+    /**
+     * TCP probe of every connection's host in one pass, by connection ID.
+     * Connections whose endpoint cannot be told up front are left out and
+     * probed by their own test.
+     */
+    private Map<String, ReachabilityResult> probeAll(List<Connection> connections) {
+        Map<String, ReachabilityResult> results = new HashMap<>();
+        if (!probeEnabled) {
+            return results;
+        }
+        List<ReachabilityTarget> targets = new ArrayList<>();
+        for (Connection connection : connections) {
+            try {
+                ReachabilityTarget target = connectionTestService.probeTarget(connection);
+                if (target != null) {
+                    targets.add(target);
+                }
+            } catch (Exception e) {
+                log.warn("Cannot determine endpoint of connection {}: {}", connection.getId(), e.getMessage());
+            }
+        }
+        long start = System.currentTimeMillis();
+        try {
+            for (ReachabilityResult result : reachabilityProbeService.probe(targets, probeTimeoutMs)) {
+                results.put(result.getId(), result);
+            }
+        } catch (Exception e) {
+            // Without the shared probe each test probes its own endpoint first
+            log.warn("Probing {} connection endpoints failed: {}", targets.size(), e.getMessage());
+            return Map.of();
+        }
+        log.info("Probed {} connection endpoints in {} ms", targets.size(), System.currentTimeMillis() - start);
+        return results;
+    }
+
+    private static String providerName(Connection connection) {
+        return connection instanceof ConnectionDto dto && dto.getProviderName() != null ? dto.getProviderName()
+                : "database";
+    }
+
+    private TestConnectionResponse testWithinLimits(Connection connection, boolean preProbe) {
+        // Host permit first so a slow host never holds global permits other hosts could use
+        Semaphore hostPermit = hostPermits.computeIfAbsent(hostKey(connection),
+                key -> new Semaphore(maxPerHost, true));
+        try {
+            hostPermit.acquire();
+            try {
+                globalPermits.acquire();
+                try {
+                    // Unpooled: a sweep over many connections must not build and evict a pool per connection
+                    return connectionTestService.testSavedConnection(connection, preProbe, false);
+                } finally {
+                    globalPermits.release();
+                }
+            } finally {
+                hostPermit.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return TestConnectionResponse.builder()
+                    .success(false)
+                    .status("failure")
+                    .message("Connection test interrupted")
+                    .errorCode("INTERRUPTED")
+                    .errorMessage(e.getMessage())
+                    .responseTimeMs(0)
+                    .build();
+        }
+    }
+
+    /**
+     * Groups connections by their configured host and port. Templated hosts are
+     * grouped by the template itself, which is stable per application.
+     */
+    private String hostKey(Connection connection) {
+        if (connection.getConfig() == null) {
+            return "unknown";
+        }
+        return connection.getConfig().path("host").asText("unknown").toLowerCase() + ":"
+                + connection.getConfig().path("port").asText("");
+    }
+}
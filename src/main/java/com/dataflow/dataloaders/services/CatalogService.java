@@ -0,0 +1,551 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dao.CatalogDao;
+import com.dataflow.dataloaders.dto.CatalogRefreshResult;
+import com.dataflow.dataloaders.dto.JdbcSchemaTreeResponse;
+import com.dataflow.dataloaders.dto.JdbcTableDefinitionResponse;
+import com.dataflow.dataloaders.dto.TableStatistics;
+import com.dataflow.dataloaders.entity.CatalogColumn;
+import com.dataflow.dataloaders.entity.CatalogSnapshot;
+import com.dataflow.dataloaders.entity.CatalogTable;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent snapshot of JDBC metadata (schemas, tables, columns, primary keys)
+ * per saved connection. A harvest walks the source with one getTables, one
+ * getColumns and one bulk primary-key query per refresh scope, then rewrites
+ * only the schemas whose content fingerprint changed.
+ */
+@Slf4j
+@Service
+public class CatalogService {
+
+    public static final String DEFAULT_SCHEMA = "DEFAULT";
+
+    private static final String PK_QUERY_INFORMATION_SCHEMA = "SELECT kcu.table_schema, kcu.table_name, kcu.column_name "
+            + "FROM information_schema.table_constraints tc "
+            + "JOIN information_schema.key_column_usage kcu ON tc.constraint_name = kcu.constraint_name "
+            + "AND tc.table_schema = kcu.table_schema AND tc.table_name = kcu.table_name "
+            + "WHERE tc.constraint_type = 'PRIMARY KEY'";
+
+    private static final String PK_QUERY_MYSQL = "SELECT kcu.table_schema, kcu.table_name, kcu.column_name "
+            + "FROM information_schema.key_column_usage kcu "
+            + "WHERE kcu.constraint_name = 'PRIMARY'";
+
+    private static final String PK_QUERY_ORACLE = "SELECT cols.owner, cols.table_name, cols.column_name "
+            + "FROM all_constraints cons JOIN all_cons_columns cols "
+            + "ON cons.constraint_name = cols.constraint_name AND cons.owner = cols.owner "
+            + "WHERE cons.constraint_type = 'P'";
+
+    private static final String STATS_QUERY_POSTGRES = "SELECT c.relname, c.reltuples::bigint, pg_total_relation_size(c.oid) "
+            + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE c.relkind IN ('r', 'p', 'm') AND n.nspname = ?";
+
+    private static final String STATS_QUERY_MYSQL = "SELECT table_name, table_rows, data_length + index_length "
+            + "FROM information_schema.tables "
+            + "WHERE table_type = 'BASE TABLE' AND table_schema = ?";
+
+    // Segment sizes need DBA views, so the size is derived from the row statistics
+    private static final String STATS_QUERY_ORACLE = "SELECT table_name, num_rows, num_rows * avg_row_len "
+            + "FROM all_tables WHERE owner = ?";
+
+    private static final String STATS_QUERY_MSSQL = "SELECT t.name, "
+            + "SUM(CASE WHEN ps.index_id IN (0, 1) THEN ps.row_count ELSE 0 END), SUM(ps.used_page_count) * 8192 "
+            + "FROM sys.dm_db_partition_stats ps "
+            + "JOIN sys.tables t ON t.object_id = ps.object_id "
+            + "JOIN sys.schemas s ON s.schema_id = t.schema_id "
+            + "WHERE s.name = ? GROUP BY t.name";
+
+    @Autowired
+    private CatalogDao catalogDao;
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Value("${dataloaders.catalog.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
+    private final Map<String, ReentrantLock> harvestLocks = new ConcurrentHashMap<>();
+
+    private final Set<String> backgroundRefreshes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Schema tree served from the snapshot. The first call for a connection
+     * harvests synchronously; a stale snapshot is served as is and refreshed in
+     * the background.
+     */
+    public List<JdbcSchemaTreeResponse> getSchemaTree(Connection connection, boolean refresh) {
+        return getSchemaTree(connection, refresh, false);
+    }
+
+    /**
+     * @param withStatistics also read row and size estimates from the source,
+     *                       which is always live and never part of the snapshot
+     */
+    public List<JdbcSchemaTreeResponse> getSchemaTree(Connection connection, boolean refresh,
+            boolean withStatistics) {
+        if (refresh) {
+            refresh(connection, null);
+        } else {
+            ensureSnapshot(connection);
+        }
+
+        Map<String, JdbcSchemaTreeResponse> schemaMap = new TreeMap<>();
+        for (CatalogTable table : catalogDao.listTables(connection.getId())) {
+            JdbcSchemaTreeResponse schemaTree = schemaMap.computeIfAbsent(table.getSchemaName(),
+                    k -> JdbcSchemaTreeResponse.builder()
+                            .schemaName(k)
+                            .tables(new ArrayList<>())
+                            .views(new ArrayList<>())
+                            .build());
+            if ("VIEW".equalsIgnoreCase(table.getTableType())) {
+                schemaTree.getViews().add(table.getTableName());
+            } else {
+                schemaTree.getTables().add(table.getTableName());
+            }
+        }
+        if (withStatistics) {
+            addStatistics(connection, schemaMap.values());
+        }
+        return new ArrayList<>(schemaMap.values());
+    }
+
+    /**
+     * Table definition from the snapshot, without rawDdl. Empty when the table
+     * is not part of the snapshot (e.g. created after the last harvest).
+     */
+    public Optional<JdbcTableDefinitionResponse> getTableDefinition(Connection connection, String schemaName,
+            String tableName) {
+        ensureSnapshot(connection);
+        String effectiveSchema = (schemaName == null || schemaName.isEmpty()) ? null : schemaName;
+        List<CatalogColumn> columns = catalogDao.listColumns(connection.getId(), effectiveSchema, tableName);
+        if (columns.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Without an explicit schema, use the first schema that has this table
+        String actualSchema = columns.get(0).getSchemaName();
+        List<JdbcTableDefinitionResponse.ColumnDefinition> definitions = new ArrayList<>();
+        for (CatalogColumn column : columns) {
+            if (!actualSchema.equals(column.getSchemaName()))
+                continue;
+            definitions.add(JdbcTableDefinitionResponse.ColumnDefinition.builder()
+                    .columnName(column.getColumnName())
+                    .typeName(column.getTypeName())
+                    .columnSize(column.getColumnSize() != null ? column.getColumnSize() : 0)
+                    .isNullable(Boolean.TRUE.equals(column.getIsNullable()))
+                    .isPrimaryKey(Boolean.TRUE.equals(column.getIsPrimaryKey()))
+                    .defaultValue(column.getDefaultValue())
+                    .build());
+        }
+        return Optional.of(JdbcTableDefinitionResponse.builder()
+                .tableName(tableName)
+                .schemaName(actualSchema)
+                .columns(definitions)
+                .build());
+    }
+
+    /**
+     * Row and size estimates of one schema's tables, read live from the
+     * source; empty when the dialect or privileges give none
+     */
+    public Map<String, TableStatistics> getStatistics(Connection connection, String schemaName) {
+        JdbcSchemaTreeResponse schema = JdbcSchemaTreeResponse.builder()
+                .schemaName(schemaName == null || schemaName.isEmpty() ? DEFAULT_SCHEMA : schemaName)
+                .build();
+        addStatistics(connection, List.of(schema));
+        return schema.getStatistics() != null ? schema.getStatistics() : Map.of();
+    }
+
+    /**
+     * Find columns by name across every table of the connection.
+     *
+     * @param mode "prefix" (default, index backed) or "contains"
+     */
+    public List<CatalogColumn> searchColumns(Connection connection, String query, String mode, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "Search query must not be empty");
+        }
+        int finalLimit = (limit == null || limit <= 0 || limit > 1000) ? 100 : limit;
+        ensureSnapshot(connection);
+
+        String escaped = query.trim().toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        String pattern = "contains".equalsIgnoreCase(mode) ? "%" + escaped + "%" : escaped + "%";
+        return catalogDao.searchColumns(connection.getId(), pattern, finalLimit);
+    }
+
+    public List<CatalogSnapshot> getSnapshots(String connectionId) {
+        return catalogDao.listSnapshots(connectionId);
+    }
+
+    /**
+     * Harvest the given schemas (all schemas when null or empty) and rewrite
+     * those whose content changed.
+     */
+    public List<CatalogRefreshResult> refresh(Connection connection, List<String> schemas) {
+        ReentrantLock lock = harvestLocks.computeIfAbsent(connection.getId(), k -> new ReentrantLock());
+        lock.lock();
+        try {
+            return doRefresh(connection, schemas);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        // The connection may now point at a different database
+        catalogDao.deleteConnection(event.getConnectionId());
+    }
+
+    private void ensureSnapshot(Connection connection) {
+        List<CatalogSnapshot> snapshots = catalogDao.listSnapshots(connection.getId());
+        if (snapshots.isEmpty()) {
+            ReentrantLock lock = harvestLocks.computeIfAbsent(connection.getId(), k -> new ReentrantLock());
+            lock.lock();
+            try {
+                // Another request may have harvested while this one waited
+                if (catalogDao.listSnapshots(connection.getId()).isEmpty()) {
+                    doRefresh(connection, null);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        long oldest = snapshots.stream().mapToLong(CatalogSnapshot::getHarvestedAt).min().orElse(0);
+        if (DateUtils.getUnixTimestampInUTC() - oldest > maxAgeSeconds
+                && backgroundRefreshes.add(connection.getId())) {
+            Thread.ofVirtual().name("catalog-refresh-" + connection.getId()).start(() -> {
+                try {
+                    refresh(connection, null);
+                } catch (Exception e) {
+                    log.warn("Background catalog refresh failed for {}: {}", connection.getId(), e.getMessage());
+                } finally {
+                    backgroundRefreshes.remove(connection.getId());
+                }
+            });
+        }
+    }
+
+    private List<CatalogRefreshResult> doRefresh(Connection connection, List<String> schemas) {
+        long start = System.currentTimeMillis();
+        Map<String, SchemaHarvest> harvested = new TreeMap<>();
+        boolean fullRefresh = schemas == null || schemas.isEmpty();
+
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connection)) {
+            if (fullRefresh) {
+                harvest(conn, null, harvested);
+            } else {
+                for (String schema : schemas) {
+                    harvested.computeIfAbsent(schema, SchemaHarvest::new);
+                    harvest(conn, DEFAULT_SCHEMA.equalsIgnoreCase(schema) ? null : schema, harvested);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error harvesting catalog for {}: {}", connection.getId(), e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to harvest catalog: " + e.getMessage());
+        }
+
+        Map<String, CatalogSnapshot> existing = new HashMap<>();
+        for (CatalogSnapshot snapshot : catalogDao.listSnapshots(connection.getId())) {
+            existing.put(snapshot.getSchemaName(), snapshot);
+        }
+
+        long now = DateUtils.getUnixTimestampInUTC();
+        List<CatalogDao.SchemaContent> replaced = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<CatalogRefreshResult> results = new ArrayList<>();
+        for (SchemaHarvest schema : harvested.values()) {
+            String fingerprint = schema.fingerprint();
+            CatalogSnapshot previous = existing.get(schema.name);
+            boolean changed = previous == null || !fingerprint.equals(previous.getFingerprint());
+            if (changed) {
+                replaced.add(new CatalogDao.SchemaContent(CatalogSnapshot.builder()
+                        .connectionId(connection.getId())
+                        .schemaName(schema.name)
+                        .fingerprint(fingerprint)
+                        .tableCount(schema.tables.size())
+                        .columnCount(schema.columns.size())
+                        .harvestedAt(now)
+                        .build(), new ArrayList<>(schema.tables.values()), schema.columns));
+            } else {
+                unchanged.add(schema.name);
+            }
+            results.add(CatalogRefreshResult.builder()
+                    .schemaName(schema.name)
+                    .tableCount(schema.tables.size())
+                    .columnCount(schema.columns.size())
+                    .changed(changed)
+                    .removed(false)
+                    .harvestedAt(now)
+                    .build());
+        }
+
+        // Schemas that disappeared from the source are only detectable on a full refresh
+        if (fullRefresh) {
+            for (String schemaName : existing.keySet()) {
+                if (!harvested.containsKey(schemaName)) {
+                    removed.add(schemaName);
+                    results.add(CatalogRefreshResult.builder()
+                            .schemaName(schemaName)
+                            .tableCount(0)
+                            .columnCount(0)
+                            .changed(true)
+                            .removed(true)
+                            .harvestedAt(now)
+                            .build());
+                }
+            }
+        }
+
+        catalogDao.applyRefresh(connection.getId(), replaced, unchanged, removed, now);
+
+        log.info("Catalog refresh for {} covered {} schemas in {} ms", connection.getId(), results.size(),
+                System.currentTimeMillis() - start);
+        return results;
+    }
+
+    private void harvest(java.sql.Connection conn, String schemaName, Map<String, SchemaHarvest> harvested)
+            throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        // MySQL reports databases as catalogs; they take the place of schemas so equal table names do not collide
+        boolean catalogs = databasesAreCatalogs(metaData);
+        String catalog = catalogs ? schemaName : null;
+        String schemaPattern = schemaName == null || catalogs ? null
+                : escapePattern(schemaName, metaData.getSearchStringEscape());
+        String schemaColumn = catalogs ? "TABLE_CAT" : "TABLE_SCHEM";
+
+        try (ResultSet rs = metaData.getTables(catalog, schemaPattern, "%", new String[] { "TABLE", "VIEW" })) {
+            while (rs.next()) {
+                String schema = schemaOf(rs.getString(schemaColumn));
+                String tableName = rs.getString("TABLE_NAME");
+                harvested.computeIfAbsent(schema, SchemaHarvest::new).tables.put(tableName, CatalogTable.builder()
+                        .schemaName(schema)
+                        .tableName(tableName)
+                        .tableType("VIEW".equalsIgnoreCase(rs.getString("TABLE_TYPE")) ? "VIEW" : "TABLE")
+                        .build());
+            }
+        }
+
+        Set<String> primaryKeys = harvestPrimaryKeys(conn, metaData, schemaName, harvested);
+
+        try (ResultSet rs = metaData.getColumns(catalog, schemaPattern, "%", "%")) {
+            while (rs.next()) {
+                String schema = schemaOf(rs.getString(schemaColumn));
+                String tableName = rs.getString("TABLE_NAME");
+                SchemaHarvest harvest = harvested.get(schema);
+                // getColumns also reports system tables that getTables filtered out
+                if (harvest == null || !harvest.tables.containsKey(tableName))
+                    continue;
+                String columnName = rs.getString("COLUMN_NAME");
+                harvest.columns.add(CatalogColumn.builder()
+                        .schemaName(schema)
+                        .tableName(tableName)
+                        .columnName(columnName)
+                        .ordinalPosition(rs.getInt("ORDINAL_POSITION"))
+                        .typeName(rs.getString("TYPE_NAME"))
+                        .columnSize(rs.getInt("COLUMN_SIZE"))
+                        .isNullable("YES".equalsIgnoreCase(rs.getString("IS_NULLABLE")))
+                        .isPrimaryKey(primaryKeys.contains(pkKey(schema, tableName, columnName)))
+                        .defaultValue(rs.getString("COLUMN_DEF"))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * One query per schema against the optimizer statistics, never a COUNT(*).
+     * A schema whose query fails (e.g. missing privileges) is left without
+     * statistics rather than failing the listing.
+     */
+    private void addStatistics(Connection connection, Collection<JdbcSchemaTreeResponse> schemas) {
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connection)) {
+            SqlDialect dialect = SqlDialect.of(conn);
+            String sql = switch (dialect) {
+                case POSTGRESQL -> STATS_QUERY_POSTGRES;
+                case MYSQL -> STATS_QUERY_MYSQL;
+                case ORACLE -> STATS_QUERY_ORACLE;
+                case MSSQL -> STATS_QUERY_MSSQL;
+                case GENERIC -> null;
+            };
+            if (sql == null) {
+                log.debug("No statistics query for connection {}", connection.getId());
+                return;
+            }
+            for (JdbcSchemaTreeResponse schema : schemas) {
+                Map<String, TableStatistics> statistics = new HashMap<>();
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    // MySQL schemas are databases, which JDBC calls catalogs
+                    ps.setString(1, !DEFAULT_SCHEMA.equals(schema.getSchemaName()) ? schema.getSchemaName()
+                            : dialect == SqlDialect.MYSQL ? conn.getCatalog() : conn.getSchema());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            long rows = rs.getLong(2);
+                            // PostgreSQL reports -1 and Oracle NULL for tables that were never analyzed
+                            boolean analyzed = !rs.wasNull() && rows >= 0;
+                            long size = rs.getLong(3);
+                            boolean sized = !rs.wasNull();
+                            statistics.put(rs.getString(1), TableStatistics.builder()
+                                    .estimatedRows(analyzed ? rows : null)
+                                    .sizeBytes(sized ? size : null)
+                                    .build());
+                        }
+                    }
+                } catch (SQLException e) {
+                    log.warn("Table statistics unavailable for {}.{}: {}", connection.getId(),
+                            schema.getSchemaName(), e.getMessage());
+                }
+                schema.setStatistics(statistics);
+            }
+        } catch (SQLException e) {
+            log.warn("Table statistics unavailable for {}: {}", connection.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * One bulk query per scope where the dialect allows it, falling back to
+     * per-table getPrimaryKeys otherwise.
+     */
+    private Set<String> harvestPrimaryKeys(java.sql.Connection conn, DatabaseMetaData metaData, String schemaName,
+            Map<String, SchemaHarvest> harvested) {
+        Set<String> keys = new HashSet<>();
+        String product = "";
+        try {
+            product = metaData.getDatabaseProductName().toLowerCase();
+        } catch (SQLException e) {
+            log.debug("Could not read database product name: {}", e.getMessage());
+        }
+
+        String sql = null;
+        boolean bindSchema = false;
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            bindSchema = schemaName != null;
+            sql = PK_QUERY_MYSQL + (bindSchema ? " AND kcu.table_schema = ?" : "");
+        } else if (product.contains("postgres") || product.contains("microsoft")) {
+            bindSchema = schemaName != null;
+            sql = PK_QUERY_INFORMATION_SCHEMA + (bindSchema ? " AND tc.table_schema = ?" : "");
+        } else if (product.contains("oracle")) {
+            bindSchema = schemaName != null;
+            sql = PK_QUERY_ORACLE + (bindSchema ? " AND cons.owner = ?" : "");
+        }
+
+        if (sql != null) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                if (bindSchema) {
+                    ps.setString(1, schemaName);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        keys.add(pkKey(schemaOf(rs.getString(1)), rs.getString(2), rs.getString(3)));
+                    }
+                }
+                return keys;
+            } catch (SQLException e) {
+                log.warn("Bulk primary key query failed, falling back to per table lookup: {}", e.getMessage());
+                keys.clear();
+            }
+        }
+
+        for (SchemaHarvest schema : harvested.values()) {
+            if (schemaName != null && !schemaName.equals(schema.name))
+                continue;
+            String effectiveSchema = DEFAULT_SCHEMA.equals(schema.name) ? null : schema.name;
+            boolean catalogs = databasesAreCatalogs(metaData);
+            for (String tableName : schema.tables.keySet()) {
+                try (ResultSet rs = catalogs ? metaData.getPrimaryKeys(effectiveSchema, null, tableName)
+                        : metaData.getPrimaryKeys(null, effectiveSchema, tableName)) {
+                    while (rs.next()) {
+                        keys.add(pkKey(schema.name, tableName, rs.getString("COLUMN_NAME")));
+                    }
+                } catch (SQLException e) {
+                    log.debug("Primary key lookup failed for {}.{}: {}", schema.name, tableName, e.getMessage());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static boolean databasesAreCatalogs(DatabaseMetaData metaData) {
+        try {
+            String product = metaData.getDatabaseProductName().toLowerCase();
+            return product.contains("mysql") || product.contains("mariadb");
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static String schemaOf(String schema) {
+        return schema == null ? DEFAULT_SCHEMA : schema;
+    }
+
+    private static String pkKey(String schema, String table, String column) {
+        return schema + '\u0000' + table + '\u0000' + column;
+    }
+
+    private static String escapePattern(String value, String escape) {
+        if (escape == null || escape.isEmpty())
+            return value;
+        return value.replace(escape, escape + escape)
+                .replace("_", escape + "_")
+                .replace("%", escape + "%");
+    }
+
+    private static class SchemaHarvest {
+        private final String name;
+        private final Map<String, CatalogTable> tables = new TreeMap<>();
+        private final List<CatalogColumn> columns = new ArrayList<>();
+
+        private SchemaHarvest(String name) {
+            this.name = name;
+        }
+
+        private String fingerprint() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (CatalogTable table : tables.values()) {
+                    digest.update((table.getTableName() + '|' + table.getTableType() + '\n')
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+                List<CatalogColumn> sorted = new ArrayList<>(columns);
+                sorted.sort(Comparator.comparing(CatalogColumn::getTableName)
+                        .thenComparing(CatalogColumn::getOrdinalPosition));
+                for (CatalogColumn column : sorted) {
+                    digest.update((column.getTableName() + '|' + column.getColumnName() + '|'
+                            + column.getOrdinalPosition() + '|' + column.getTypeName() + '|' + column.getColumnSize()
+                            + '|' + column.getIsNullable() + '|' + column.getIsPrimaryKey() + '|'
+                            + column.getDefaultValue() + '\n').getBytes(StandardCharsets.UTF_8));
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (Exception e) {
+                throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        }
+    }
+}
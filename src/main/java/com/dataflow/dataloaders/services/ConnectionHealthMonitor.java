@@ -0,0 +1,290 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dao.ConnectionDao;
+import com.dataflow.dataloaders.dao.ConnectionHealthDao;
+import com.dataflow.dataloaders.dto.ConnectionDto;
+import com.dataflow.dataloaders.dto.ConnectionHealthSnapshot;
+import com.dataflow.dataloaders.dto.TestConnectionResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.entity.ConnectionHealthCheck;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically probes every active connection with the provider specific checks
+ * of {@link ConnectionTestService} and keeps a sliding latency window and
+ * up/down state per connection in memory. Each sweep is also appended to
+ * connection_health_history, which is trimmed to the configured retention.
+ */
+@Slf4j
+@Service
+public class ConnectionHealthMonitor {
+
+    public static final String STATE_UP = "UP";
+    public static final String STATE_DEGRADED = "DEGRADED";
+    public static final String STATE_DOWN = "DOWN";
+    public static final String STATE_UNKNOWN = "UNKNOWN";
+
+    @Autowired
+    private ConnectionDao connectionDao;
+
+    @Autowired
+    private ConnectionHealthDao connectionHealthDao;
+
+    @Autowired
+    private ConnectionTestService connectionTestService;
+
+    @Value("${connection.health.enabled:true}")
+    private boolean enabled;
+
+    @Value("${connection.health.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${connection.health.window-size:120}")
+    private int windowSize;
+
+    @Value("${connection.health.failure-threshold:2}")
+    private int failureThreshold;
+
+    @Value("${connection.health.degraded-latency-ms:2000}")
+    private int degradedLatencyMs;
+
+    @Value("${connection.health.retention-hours:24}")
+    private int retentionHours;
+
+    private final Map<String, HealthTracker> trackers = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${connection.health.interval-ms:60000}",
+            initialDelayString = "${connection.health.initial-delay-ms:30000}")
+    public void probeAll() {
+        if (!enabled || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Connection> connections = connectionDao.listActive();
+            log.debug("Health sweep over {} active connections", connections.size());
+
+            Set<String> activeIds = new HashSet<>();
+            List<ConnectionHealthCheck> checks = Collections.synchronizedList(new ArrayList<>());
+            Semaphore permits = new Semaphore(maxConcurrency);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Connection connection : connections) {
+                    activeIds.add(connection.getId());
+                    executor.submit(() -> {
+                        try {
+                            permits.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        try {
+                            checks.add(probe(connection));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+
+            // Forget connections that were deactivated or deleted since the last sweep
+            trackers.keySet().retainAll(activeIds);
+            connectionHealthDao.batchInsert(new ArrayList<>(checks));
+        } catch (Exception e) {
+            log.error("Connection health sweep failed: {}", e.getMessage(), e);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${connection.health.purge-interval-ms:3600000}",
+            initialDelayString = "${connection.health.purge-interval-ms:3600000}")
+    public void purgeHistory() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = DateUtils.getUnixTimestampInUTC() - retentionHours * 3600L;
+        int purged = connectionHealthDao.purgeBefore(cutoff);
+        if (purged > 0) {
+            log.info("Purged {} connection health rows older than {} hours", purged, retentionHours);
+        }
+    }
+
+    public List<ConnectionHealthSnapshot> getHealth(String applicationId) {
+        List<ConnectionHealthSnapshot> snapshots = new ArrayList<>();
+        for (HealthTracker tracker : trackers.values()) {
+            if (applicationId == null || applicationId.equals(tracker.applicationId)) {
+                snapshots.add(tracker.snapshot());
+            }
+        }
+        snapshots.sort(Comparator.comparing(ConnectionHealthSnapshot::getConnectionName,
+                Comparator.nullsLast(String::compareToIgnoreCase)));
+        return snapshots;
+    }
+
+    public ConnectionHealthSnapshot getHealthForConnection(String connectionId) {
+        HealthTracker tracker = trackers.get(connectionId);
+        if (tracker == null) {
+            return ConnectionHealthSnapshot.builder()
+                    .connectionId(connectionId)
+                    .state(STATE_UNKNOWN)
+                    .samples(0)
+                    .build();
+        }
+        return tracker.snapshot();
+    }
+
+    public List<ConnectionHealthCheck> getHistory(String connectionId, Long since, Integer limit) {
+        if (limit != null && (limit <= 0 || limit > 5000)) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "limit must be between 1 and 5000");
+        }
+        long from = since != null ? since : DateUtils.getUnixTimestampInUTC() - retentionHours * 3600L;
+        return connectionHealthDao.listByConnection(connectionId, from, limit != null ? limit : 500);
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        // Samples taken against the previous configuration no longer describe the connection
+        trackers.remove(event.getConnectionId());
+    }
+
+    private ConnectionHealthCheck probe(Connection connection) {
+        // Unpooled: borrowing would build a pool per connection and evict live ones past the pool cap
+        TestConnectionResponse response = connectionTestService.testSavedConnection(connection, true, false);
+        boolean success = Boolean.TRUE.equals(response.getSuccess());
+        int latency = response.getResponseTimeMs() != null ? response.getResponseTimeMs() : 0;
+        long now = DateUtils.getUnixTimestampInUTC();
+
+        HealthTracker tracker = trackers.computeIfAbsent(connection.getId(), id -> new HealthTracker(windowSize));
+        tracker.connectionId = connection.getId();
+        tracker.connectionName = connection.getConnectionName();
+        tracker.applicationId = connection.getApplicationId();
+        tracker.providerName = connection instanceof ConnectionDto dto ? dto.getProviderName() : null;
+        String state = tracker.record(success, latency, now, response.getErrorCode(), response.getErrorMessage());
+
+        return ConnectionHealthCheck.builder()
+                .connectionId(connection.getId())
+                .checkedAt(now)
+                .status(state)
+                .latencyMs(success ? latency : null)
+                .errorCode(success ? null : response.getErrorCode())
+                .build();
+    }
+
+    /**
+     * Fixed size ring of recent probe outcomes for one connection
+     */
+    private class HealthTracker {
+        private final int[] latencies;
+        private final boolean[] outcomes;
+        private int next;
+        private int size;
+        private int consecutiveFailures;
+        private String state = STATE_UNKNOWN;
+        private long lastCheckedAt;
+        private long lastStateChangeAt;
+        private int lastLatencyMs;
+        private String lastErrorCode;
+        private String lastErrorMessage;
+        private volatile String connectionId;
+        private volatile String connectionName;
+        private volatile String applicationId;
+        private volatile String providerName;
+
+        private HealthTracker(int capacity) {
+            this.latencies = new int[Math.max(1, capacity)];
+            this.outcomes = new boolean[latencies.length];
+        }
+
+        private synchronized String record(boolean success, int latencyMs, long checkedAt, String errorCode,
+                String errorMessage) {
+            latencies[next] = latencyMs;
+            outcomes[next] = success;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+            lastCheckedAt = checkedAt;
+            lastLatencyMs = latencyMs;
+
+            String newState;
+            if (success) {
+                consecutiveFailures = 0;
+                lastErrorCode = null;
+                lastErrorMessage = null;
+                newState = percentile(95) > degradedLatencyMs ? STATE_DEGRADED : STATE_UP;
+            } else {
+                consecutiveFailures++;
+                lastErrorCode = errorCode;
+                lastErrorMessage = errorMessage;
+                // A single failed probe only degrades; repeated failures mark the connection down
+                newState = consecutiveFailures >= failureThreshold ? STATE_DOWN : STATE_DEGRADED;
+            }
+            if (!newState.equals(state)) {
+                log.info("Connection {} health changed from {} to {}", connectionName, state, newState);
+                state = newState;
+                lastStateChangeAt = checkedAt;
+            }
+            return state;
+        }
+
+        // Percentile over successful probes only; failures are usually timeouts and would skew latency
+        private int percentile(int p) {
+            int[] samples = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i]) {
+                    samples[count++] = latencies[i];
+                }
+            }
+            if (count == 0) {
+                return 0;
+            }
+            Arrays.sort(samples, 0, count);
+            int index = (int) Math.ceil(p / 100.0 * count) - 1;
+            return samples[Math.max(0, Math.min(index, count - 1))];
+        }
+
+        private synchronized ConnectionHealthSnapshot snapshot() {
+            int successes = 0;
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i]) {
+                    successes++;
+                }
+            }
+            return ConnectionHealthSnapshot.builder()
+                    .connectionId(connectionId)
+                    .connectionName(connectionName)
+                    .applicationId(applicationId)
+                    .providerName(providerName)
+                    .state(state)
+                    .consecutiveFailures(consecutiveFailures)
+                    .lastCheckedAt(lastCheckedAt)
+                    .lastStateChangeAt(lastStateChangeAt)
+                    .lastLatencyMs(lastLatencyMs)
+                    .p50LatencyMs(percentile(50))
+                    .p95LatencyMs(percentile(95))
+                    .p99LatencyMs(percentile(99))
+                    .samples(size)
+                    .successRate(size == 0 ? null : successes / (double) size)
+                    .lastErrorCode(lastErrorCode)
+                    .lastErrorMessage(lastErrorMessage)
+                    .build();
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.dataflow.dataloaders.services;
 
 import com.dataflow.dataloaders.dao.ConnectionDao;
 import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
 import com.dataflow.dataloaders.exception.DataloadersException;
 import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.util.DateUtils;
 import com.dataflow.dataloaders.util.Identifier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -19,6 +21,9 @@ public class ConnectionService {
     @Autowired
     private ConnectionDao connectionDao;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Connection create(Connection connection, Identifier identifier) {
         log.info("Creating connection: {}", connection.getConnectionName());
         Connection created = connectionDao.create(connection, identifier);
@@ -49,6 +54,7 @@ public class ConnectionService {
                 .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND));
 
         StringBuilder changes = new StringBuilder();
+        boolean endpointChanged = false;
 
         if (connection.getConnectionName() != null) {
             changes.append("Name changed from '").append(existing.getConnectionName())
@@ -56,22 +62,27 @@ public class ConnectionService {
             existing.setConnectionName(connection.getConnectionName());
         }
         if (connection.getConfig() != null) {
+            endpointChanged = true;
             changes.append("Configuration updated; ");
             existing.setConfig(connection.getConfig());
         }
         if (connection.getSecrets() != null) {
+            endpointChanged = true;
             changes.append("Credentials updated; ");
             existing.setSecrets(connection.getSecrets());
         }
         if (connection.getUseSsl() != null) {
+            endpointChanged = true;
             changes.append("SSL setting changed to ").append(connection.getUseSsl()).append("; ");
             existing.setUseSsl(connection.getUseSsl());
         }
         if (connection.getConnectionTimeout() != null) {
+            endpointChanged = true;
             changes.append("Timeout changed to ").append(connection.getConnectionTimeout()).append("s; ");
             existing.setConnectionTimeout(connection.getConnectionTimeout());
         }
         if (connection.getIsActive() != null) {
+            endpointChanged = true;
             String status = connection.getIsActive() ? "activated" : "deactivated";
             changes.append("Connection ").append(status).append("; ");
             existing.setIsActive(connection.getIsActive());
@@ -91,6 +102,9 @@ public class ConnectionService {
         existing.setUpdatedAt(DateUtils.getUnixTimestampInUTC());
         existing.setUpdatedBy("admin");
         connectionDao.update(existing);
+        if (endpointChanged) {
+            eventPublisher.publishEvent(new ConnectionChangedEvent(existing.getId()));
+        }
         return connectionDao.getV1(identifier).orElse(existing);
     }
 
@@ -99,6 +113,10 @@ public class ConnectionService {
         Connection connection = connectionDao.getV1(identifier)
                 .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND));
         connection.setUpdatedBy("admin");
-        return connectionDao.delete(connection) > 0;
+        boolean deleted = connectionDao.delete(connection) > 0;
+        if (deleted) {
+            eventPublisher.publishEvent(new ConnectionChangedEvent(connection.getId()));
+        }
+        return deleted;
     }
 }
@@ -2,6 +2,10 @@ package com.dataflow.dataloaders.services;
 
 import com.dataflow.dataloaders.dao.ConnectionDao;
 import com.dataflow.dataloaders.dao.ProviderDao;
+import com.dataflow.dataloaders.dto.ConnectionDto;
+import com.dataflow.dataloaders.dto.ReachabilityProbeRequest;
+import com.dataflow.dataloaders.dto.ReachabilityResult;
+import com.dataflow.dataloaders.dto.ReachabilityTarget;
 import com.dataflow.dataloaders.dto.TestConnectionRequest;
 import com.dataflow.dataloaders.dto.TestConnectionResponse;
 import com.dataflow.dataloaders.entity.Connection;
@@ -14,21 +18,24 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
 import java.net.SocketTimeoutException;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 @Slf4j
@@ -50,6 +57,37 @@ public class ConnectionTestService {
     @Autowired
     private VariableService variableService;
 
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Autowired
+    private NoSqlClientRegistry noSqlClientRegistry;
+
+    @Autowired
+    private ReachabilityProbeService reachabilityProbeService;
+
+    /**
+     * Probe host:port before the driver test so a dead host fails in
+     * milliseconds instead of after the driver's login timeout
+     */
+    @Value("${connection.test.probe.enabled:true}")
+    private boolean probeEnabled;
+
+    /**
+     * Upper bound of the pre-probe; a shorter connection timeout wins
+     */
+    @Value("${connection.test.probe.timeout-ms:5000}")
+    private int probeTimeoutMs;
+
+    private static final Map<String, Integer> DEFAULT_PORTS = Map.of(
+            "postgresql", 5432,
+            "mysql", 3306,
+            "mariadb", 3306,
+            "mongodb", 27017,
+            "redis", 6379,
+            "oracle", 1521,
+            "mssql", 1433);
+
     /**
      * Test a new connection before saving
      */
@@ -72,7 +110,9 @@ public class ConnectionTestService {
                     request.getUseSsl(),
                     request.getConnectionTimeout(),
                     startTime,
-                    null);
+                    null,
+                    true,
+                    false);
 
         } catch (Exception e) {
             int responseTime = (int) (System.currentTimeMillis() - startTime);
@@ -95,6 +135,49 @@ public class ConnectionTestService {
                     .orElseThrow(
                             () -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Connection not found"));
 
+            TestConnectionResponse response = testSavedConnection(connection);
+
+            // Update connection status
+            connection.setLastTestStatus(response.getSuccess() ? "success" : "failure");
+            connection.setLastTestedAt(DateUtils.getUnixTimestampInUTC());
+            connection.setLastUsedAt(DateUtils.getUnixTimestampInUTC());
+            connectionDao.update(connection);
+
+            return response;
+
+        } catch (Exception e) {
+            int responseTime = (int) (System.currentTimeMillis() - startTime);
+            log.error("Error testing existing connection {}: {}", connectionId, e.getMessage(), e);
+            return buildFailureResponse(responseTime, "ERROR", e.getMessage(),
+                    Arrays.asList("Check connection configuration", "Verify server is reachable"));
+        }
+    }
+
+    /**
+     * Test an already loaded saved connection without persisting its status.
+     * Callers are responsible for recording lastTestStatus/lastTestedAt.
+     */
+    public TestConnectionResponse testSavedConnection(Connection connection) {
+        return testSavedConnection(connection, true);
+    }
+
+    /**
+     * As testSavedConnection; without preProbe the host is assumed to have
+     * been probed already, e.g. by a bulk sweep
+     */
+    public TestConnectionResponse testSavedConnection(Connection connection, boolean preProbe) {
+        return testSavedConnection(connection, preProbe, true);
+    }
+
+    /**
+     * As testSavedConnection; without pooled JDBC providers are tested over a
+     * one-off driver connection, so a sweep over many connections does not
+     * build, or evict, a pool for each of them
+     */
+    public TestConnectionResponse testSavedConnection(Connection connection, boolean preProbe, boolean pooled) {
+        long startTime = System.currentTimeMillis();
+
+        try {
             // Get provider
             Provider provider = providerDao.getV1(Identifier.builder().word(connection.getProviderId()).build())
                     .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Provider not found"));
@@ -118,19 +201,20 @@ public class ConnectionTestService {
                     connection.getUseSsl(),
                     connection.getConnectionTimeout(),
                     startTime,
-                    connectionId);
+                    connection.getId(),
+                    preProbe,
+                    pooled);
 
-            // Update connection status
-            connection.setLastTestStatus(response.getSuccess() ? "success" : "failure");
-            connection.setLastTestedAt(DateUtils.getUnixTimestampInUTC());
-            connection.setLastUsedAt(DateUtils.getUnixTimestampInUTC());
-            connectionDao.update(connection);
+            // Drop a pool that failed so the next test starts from a fresh handshake
+            if (pooled && !response.getSuccess()) {
+                dataSourceRegistry.invalidate(connection.getId());
+            }
 
             return response;
 
         } catch (Exception e) {
             int responseTime = (int) (System.currentTimeMillis() - startTime);
-            log.error("Error testing existing connection {}: {}", connectionId, e.getMessage(), e);
+            log.error("Error testing existing connection {}: {}", connection.getId(), e.getMessage(), e);
             return buildFailureResponse(responseTime, "ERROR", e.getMessage(),
                     Arrays.asList("Check connection configuration", "Verify server is reachable"));
         }
@@ -170,38 +254,54 @@ public class ConnectionTestService {
             Boolean useSsl,
             Integer connectionTimeout,
             long startTime,
-            String connectionId) {
+            String connectionId,
+            boolean preProbe,
+            boolean pooled) {
 
         try {
+            if (preProbe && probeEnabled) {
+                ReachabilityTarget target = probeTarget(connectionId, providerKey, config);
+                if (target != null) {
+                    int timeoutMs = Math.min(probeTimeoutMs,
+                            (connectionTimeout != null ? connectionTimeout : 30) * 1000);
+                    ReachabilityResult reachability = reachabilityProbeService.probe(target, timeoutMs);
+                    if (isUnreachable(reachability)) {
+                        return unreachableResponse(providerKey, reachability,
+                                (int) (System.currentTimeMillis() - startTime));
+                    }
+                }
+            }
+
             JsonNode serverInfo;
+            String poolKey = pooled ? connectionId : null;
 
             switch (providerKey.toLowerCase()) {
                 case "postgresql":
-                    serverInfo = testPostgreSQL(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testPostgreSQL(config, secrets, useSsl, connectionTimeout, poolKey);
                     break;
 
                 case "mysql":
-                    serverInfo = testMySQL(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testMySQL(config, secrets, useSsl, connectionTimeout, poolKey);
                     break;
 
                 case "mongodb":
-                    serverInfo = testMongoDB(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testMongoDB(config, secrets, useSsl, connectionTimeout, connectionId);
                     break;
 
                 case "redis":
-                    serverInfo = testRedis(config, secrets, connectionTimeout);
+                    serverInfo = testRedis(config, secrets, connectionTimeout, connectionId);
                     break;
 
                 case "oracle":
-                    serverInfo = testOracle(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testOracle(config, secrets, useSsl, connectionTimeout, poolKey);
                     break;
 
                 case "mssql":
-                    serverInfo = testMSSQL(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testMSSQL(config, secrets, useSsl, connectionTimeout, poolKey);
                     break;
 
                 case "mariadb":
-                    serverInfo = testMariaDB(config, secrets, useSsl, connectionTimeout);
+                    serverInfo = testMariaDB(config, secrets, useSsl, connectionTimeout, poolKey);
                     break;
 
                 default:
@@ -255,7 +355,8 @@ public class ConnectionTestService {
     // DATABASE-SPECIFIC TEST METHODS
     // ============================================================================
 
-    private JsonNode testPostgreSQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testPostgreSQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
         String host = config.get("host").asText();
         int port = config.get("port").asInt();
@@ -278,9 +379,7 @@ public class ConnectionTestService {
             props.setProperty("connectTimeout", String.valueOf(connectionTimeout * 1000));
         }
 
-        Class.forName("org.postgresql.Driver");
-
-        try (java.sql.Connection conn = DriverManager.getConnection(url, props);
+        try (java.sql.Connection conn = openJdbc(connectionId, "org.postgresql.Driver", url, props);
                 java.sql.Statement stmt = conn.createStatement();
                 java.sql.ResultSet rs = stmt.executeQuery("SELECT version(), current_timestamp")) {
 
@@ -294,7 +393,8 @@ public class ConnectionTestService {
         }
     }
 
-    private JsonNode testMySQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testMySQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
         String host = config.get("host").asText();
         int port = config.get("port").asInt();
@@ -319,9 +419,7 @@ public class ConnectionTestService {
             props.setProperty("socketTimeout", String.valueOf(connectionTimeout * 1000));
         }
 
-        Class.forName("com.mysql.cj.jdbc.Driver");
-
-        try (java.sql.Connection conn = DriverManager.getConnection(url, props);
+        try (java.sql.Connection conn = openJdbc(connectionId, "com.mysql.cj.jdbc.Driver", url, props);
                 java.sql.Statement stmt = conn.createStatement();
                 java.sql.ResultSet rs = stmt.executeQuery("SELECT VERSION(), NOW()")) {
 
@@ -335,32 +433,16 @@ public class ConnectionTestService {
         }
     }
 
-    private JsonNode testMongoDB(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testMongoDB(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
-        String host = config.get("host").asText();
-        int port = config.has("port") ? config.get("port").asInt() : 27017;
         String database = config.get("database_name").asText();
+        String uri = NoSqlClientRegistry.mongoUri(config, secrets, useSsl);
 
-        String uri;
-        if (config.has("connection_string") && !config.get("connection_string").asText().isEmpty()) {
-            uri = config.get("connection_string").asText();
-        } else {
-            String username = config.has("username") ? config.get("username").asText() : null;
-            String password = secrets.has("password") ? secrets.get("password").asText() : null;
-
-            if (username != null && password != null) {
-                uri = String.format("mongodb://%s:%s@%s:%d/%s", username, password, host, port, database);
-            } else {
-                uri = String.format("mongodb://%s:%d/%s", host, port, database);
-            }
-
-            if (useSsl != null && useSsl) {
-                uri += "?ssl=true";
-            }
-        }
-
-        try (MongoClient mongoClient = MongoClients.create(uri)) {
-            MongoDatabase db = mongoClient.getDatabase(database);
+        // Shared client: a repeat test is just a ping on an already open socket
+        try (NoSqlClientRegistry.Lease<MongoClient> mongoClient = noSqlClientRegistry.getMongoClient(connectionId, uri,
+                connectionTimeout)) {
+            MongoDatabase db = mongoClient.get().getDatabase(database);
 
             Document pingCommand = new Document("ping", 1);
             db.runCommand(pingCommand);
@@ -373,21 +455,24 @@ public class ConnectionTestService {
             serverInfo.put("databaseProductName", "MongoDB");
 
             return serverInfo;
+        } catch (Exception e) {
+            noSqlClientRegistry.evictMongoClient(uri, connectionTimeout);
+            throw e;
         }
     }
 
-    private JsonNode testRedis(JsonNode config, JsonNode secrets, Integer connectionTimeout) throws Exception {
+    private JsonNode testRedis(JsonNode config, JsonNode secrets, Integer connectionTimeout, String connectionId)
+            throws Exception {
         String host = config.get("host").asText();
         int port = config.get("port").asInt();
         String password = secrets.has("password") ? secrets.get("password").asText() : null;
         int database = config.has("database") ? config.get("database").asInt() : 0;
 
-        try (Jedis jedis = new Jedis(host, port, connectionTimeout != null ? connectionTimeout * 1000 : 30000)) {
-            if (password != null && !password.isEmpty()) {
-                jedis.auth(password);
-            }
-
-            jedis.select(database);
+        int timeoutMs = connectionTimeout != null ? connectionTimeout * 1000 : 30000;
+        // Pool authenticates and selects the database when it creates a connection
+        try (NoSqlClientRegistry.Lease<JedisPool> pool = noSqlClientRegistry.getJedisPool(connectionId, host, port,
+                password, database, timeoutMs);
+                Jedis jedis = pool.get().getResource()) {
             String pong = jedis.ping();
 
             if (!"PONG".equals(pong)) {
@@ -403,10 +488,14 @@ public class ConnectionTestService {
             serverInfo.put("databaseProductName", "Redis");
 
             return serverInfo;
+        } catch (Exception e) {
+            noSqlClientRegistry.evictJedisPool(host, port, password, database, timeoutMs);
+            throw e;
         }
     }
 
-    private JsonNode testOracle(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testOracle(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
         String host = config.get("host").asText();
         int port = config.get("port").asInt();
@@ -423,9 +512,7 @@ public class ConnectionTestService {
             props.setProperty("oracle.net.CONNECT_TIMEOUT", String.valueOf(connectionTimeout * 1000));
         }
 
-        Class.forName("oracle.jdbc.driver.OracleDriver");
-
-        try (java.sql.Connection conn = DriverManager.getConnection(url, props);
+        try (java.sql.Connection conn = openJdbc(connectionId, "oracle.jdbc.driver.OracleDriver", url, props);
                 java.sql.Statement stmt = conn.createStatement();
                 java.sql.ResultSet rs = stmt.executeQuery("SELECT * FROM v$version WHERE banner LIKE 'Oracle%'")) {
 
@@ -440,7 +527,8 @@ public class ConnectionTestService {
         }
     }
 
-    private JsonNode testMSSQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testMSSQL(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
         String host = config.get("host").asText();
         int port = config.get("port").asInt();
@@ -459,9 +547,7 @@ public class ConnectionTestService {
             props.setProperty("loginTimeout", String.valueOf(connectionTimeout));
         }
 
-        Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-
-        try (java.sql.Connection conn = DriverManager.getConnection(url, props);
+        try (java.sql.Connection conn = openJdbc(connectionId, "com.microsoft.sqlserver.jdbc.SQLServerDriver", url, props);
                 java.sql.Statement stmt = conn.createStatement();
                 java.sql.ResultSet rs = stmt.executeQuery("SELECT @@VERSION as version, GETDATE() as serverTime")) {
 
@@ -477,16 +563,29 @@ public class ConnectionTestService {
         }
     }
 
-    private JsonNode testMariaDB(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout)
+    private JsonNode testMariaDB(JsonNode config, JsonNode secrets, Boolean useSsl, Integer connectionTimeout,
+            String connectionId)
             throws Exception {
         // MariaDB uses MySQL driver with slight differences
-        return testMySQL(config, secrets, useSsl, connectionTimeout);
+        return testMySQL(config, secrets, useSsl, connectionTimeout, connectionId);
     }
 
     // ============================================================================
     // HELPER METHODS
     // ============================================================================
 
+    /**
+     * Saved connections borrow from their pool; unsaved ones open a one-off driver connection
+     */
+    private java.sql.Connection openJdbc(String connectionId, String driverClass, String url, Properties props)
+            throws Exception {
+        if (connectionId != null) {
+            return dataSourceRegistry.getConnection(connectionId);
+        }
+        Class.forName(driverClass);
+        return DriverManager.getConnection(url, props);
+    }
+
     private String extractRedisVersion(String info) {
         for (String line : info.split("\r\n")) {
             if (line.startsWith("redis_version:")) {
@@ -612,6 +711,98 @@ public class ConnectionTestService {
         }
     }
 
+    /**
+     * Probes saved connections and raw targets in one pass, for network triage
+     */
+    public List<ReachabilityResult> probeReachability(ReachabilityProbeRequest request) {
+        // Checked before the connections are loaded; the probe checks the final list again
+        reachabilityProbeService.checkTargetCount(
+                (request.getConnectionIds() != null ? request.getConnectionIds().size() : 0)
+                        + (request.getTargets() != null ? request.getTargets().size() : 0));
+        List<ReachabilityTarget> targets = new ArrayList<>();
+        if (request.getConnectionIds() != null && !request.getConnectionIds().isEmpty()) {
+            for (Connection connection : connectionDao.listByIds(request.getConnectionIds())) {
+                ReachabilityTarget target = probeTarget(connection);
+                targets.add(target != null ? target : ReachabilityTarget.builder().id(connection.getId()).build());
+            }
+        }
+        if (request.getTargets() != null) {
+            targets.addAll(request.getTargets());
+        }
+        if (targets.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "Either connectionIds or targets must be provided");
+        }
+        int timeoutMs = request.getTimeoutMs() != null && request.getTimeoutMs() > 0
+                ? request.getTimeoutMs()
+                : probeTimeoutMs;
+        return reachabilityProbeService.probe(targets, timeoutMs);
+    }
+
+    /**
+     * Host and port a saved connection's driver would connect to, with
+     * variables resolved; null when it cannot be told without the driver
+     */
+    public ReachabilityTarget probeTarget(Connection connection) {
+        String providerKey = connection instanceof ConnectionDto dto ? dto.getProviderName() : null;
+        if (providerKey == null) {
+            providerKey = providerDao.getV1(Identifier.builder().word(connection.getProviderId()).build())
+                    .map(Provider::getProviderName)
+                    .orElse(null);
+        }
+        JsonNode config = connection.getConfig();
+        if (providerKey == null || config == null) {
+            return null;
+        }
+        // Only the endpoint fields are resolved; the stored config is left untouched
+        ObjectNode endpoint = objectMapper.createObjectNode();
+        for (String field : List.of("host", "port", "connection_string")) {
+            if (config.hasNonNull(field)) {
+                endpoint.put(field, variableService.resolveValue(config.get(field).asText(),
+                        connection.getApplicationId(), null));
+            }
+        }
+        return probeTarget(connection.getId(), providerKey, endpoint);
+    }
+
+    /**
+     * Probed failures worth failing the test on; an incomplete target is left
+     * to the driver, which reports it more precisely
+     */
+    public boolean isUnreachable(ReachabilityResult reachability) {
+        return !reachability.isReachable() && !ReachabilityProbeService.INVALID.equals(reachability.getStatus());
+    }
+
+    public TestConnectionResponse unreachableResponse(String providerKey, ReachabilityResult reachability,
+            int responseTime) {
+        String errorCode = switch (reachability.getStatus()) {
+            case ReachabilityProbeService.REFUSED -> "CONNECTION_REFUSED";
+            case ReachabilityProbeService.TIMEOUT -> "TIMEOUT";
+            default -> "HOST_UNREACHABLE";
+        };
+        return buildFailureResponse(responseTime, errorCode,
+                reachability.getHost() + ":" + reachability.getPort() + " " + reachability.getStatus() + ": "
+                        + reachability.getErrorMessage(),
+                getTroubleshootingForError(errorCode, providerKey));
+    }
+
+    private static ReachabilityTarget probeTarget(String connectionId, String providerKey, JsonNode config) {
+        Integer defaultPort = DEFAULT_PORTS.get(providerKey.toLowerCase());
+        if (defaultPort == null || config == null || !config.hasNonNull("host")) {
+            return null;
+        }
+        // A connection string may list several hosts or use SRV records
+        if (config.hasNonNull("connection_string") && !config.get("connection_string").asText().isEmpty()) {
+            return null;
+        }
+        JsonNode port = config.get("port");
+        return ReachabilityTarget.builder()
+                .id(connectionId)
+                .host(config.get("host").asText())
+                .port(port != null && !port.isNull() ? port.asInt() : defaultPort)
+                .build();
+    }
+
     private TestConnectionResponse buildFailureResponse(int responseTime, String errorCode,
             String errorMessage, List<String> troubleshooting) {
         return TestConnectionResponse.builder()
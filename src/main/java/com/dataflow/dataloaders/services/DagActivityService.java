@@ -1,20 +1,31 @@
 package com.dataflow.dataloaders.services;
 
+import com.dataflow.dataloaders.dto.CatalogRefreshResult;
+import com.dataflow.dataloaders.dto.ExportFileResponse;
 import com.dataflow.dataloaders.dto.JdbcDataPreviewResponse;
 import com.dataflow.dataloaders.dto.JdbcSchemaTreeResponse;
 import com.dataflow.dataloaders.dto.JdbcTableDefinitionResponse;
+import com.dataflow.dataloaders.dto.MongoCollectionResponse;
+import com.dataflow.dataloaders.dto.MongoSchemaResponse;
+import com.dataflow.dataloaders.dto.RedisKeyPreview;
+import com.dataflow.dataloaders.dto.RedisScanResponse;
+import com.dataflow.dataloaders.dto.TableProfileResponse;
+import com.dataflow.dataloaders.entity.CatalogColumn;
+import com.dataflow.dataloaders.entity.CatalogSnapshot;
 import com.dataflow.dataloaders.entity.Connection;
-import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.enums.ExportFormat;
+import com.dataflow.dataloaders.enums.SqlDialect;
 import com.dataflow.dataloaders.exception.DataloadersException;
 import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.util.Identifier;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 
@@ -26,65 +37,86 @@ public class DagActivityService {
     private ConnectionService connectionService;
 
     @Autowired
-    private EncryptionService encryptionService;
+    private JdbcDataSourceRegistry dataSourceRegistry;
 
     @Autowired
-    private VariableService variableService;
+    private CatalogService catalogService;
 
     @Autowired
-    private ProviderService providerService;
+    private PreviewSessionService previewSessionService;
+
+    @Autowired
+    private TableProfileService tableProfileService;
+
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Autowired
+    private MongoBrowserService mongoBrowserService;
+
+    @Autowired
+    private RedisBrowserService redisBrowserService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private InspectionCoalescer inspectionCoalescer;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    public List<JdbcSchemaTreeResponse> fetchTables(String connectionId, HttpHeaders headers) {
+    /**
+     * Schema tree served from the persisted catalog snapshot
+     */
+    public List<JdbcSchemaTreeResponse> fetchTables(String connectionId, boolean refresh, boolean statistics,
+            HttpHeaders headers) {
         log.info("Fetching tables for connection: {}", connectionId);
         Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
         Connection connection = connectionService.getConnection(identifier);
+        String key = InspectionCoalescer.key(connectionId, "tables", refresh, statistics);
+        List<JdbcSchemaTreeResponse> tables = inspectionCoalescer.execute(key, !refresh,
+                () -> catalogService.getSchemaTree(connection, refresh, statistics));
+        if (refresh) {
+            inspectionCoalescer.evict(connectionId);
+        }
+        return tables;
+    }
 
-        try (java.sql.Connection conn = getJdbcConnection(connection)) {
-            DatabaseMetaData metaData = conn.getMetaData();
-
-            // Map<SchemaName, JdbcSchemaTreeResponse>
-            Map<String, JdbcSchemaTreeResponse> schemaMap = new TreeMap<>();
+    /**
+     * Re-harvest the catalog for the given schemas, or all schemas when none are given
+     */
+    public List<CatalogRefreshResult> refreshCatalog(String connectionId, List<String> schemas, HttpHeaders headers) {
+        log.info("Refreshing catalog for connection: {}, schemas: {}", connectionId, schemas);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        List<CatalogRefreshResult> results = catalogService.refresh(connection, schemas);
+        inspectionCoalescer.evict(connectionId);
+        return results;
+    }
 
-            try (ResultSet rs = metaData.getTables(null, null, "%", new String[] { "TABLE", "VIEW" })) {
-                while (rs.next()) {
-                    String schema = rs.getString("TABLE_SCHEM");
-                    if (schema == null)
-                        schema = "DEFAULT";
-
-                    String type = rs.getString("TABLE_TYPE");
-                    String tableName = rs.getString("TABLE_NAME");
-
-                    JdbcSchemaTreeResponse schemaTree = schemaMap.computeIfAbsent(schema,
-                            k -> JdbcSchemaTreeResponse.builder()
-                                    .schemaName(k)
-                                    .tables(new ArrayList<>())
-                                    .views(new ArrayList<>())
-                                    .build());
-
-                    if ("VIEW".equalsIgnoreCase(type)) {
-                        schemaTree.getViews().add(tableName);
-                    } else {
-                        schemaTree.getTables().add(tableName);
-                    }
-                }
-            }
+    public List<CatalogSnapshot> getCatalogStatus(String connectionId, HttpHeaders headers) {
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return catalogService.getSnapshots(connection.getId());
+    }
 
-            return new ArrayList<>(schemaMap.values());
-        } catch (Exception e) {
-            log.error("Error fetching tables: {}", e.getMessage(), e);
-            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
-                    "Failed to fetch tables: " + e.getMessage());
-        }
+    /**
+     * Find columns by name across all tables of the connection
+     */
+    public List<CatalogColumn> searchColumns(String connectionId, String query, String mode, Integer limit,
+            HttpHeaders headers) {
+        log.info("Searching columns for connection: {}, query: {}", connectionId, query);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return catalogService.searchColumns(connection, query, mode, limit);
     }
 
     /**
      * Preview data from a table or custom query
      */
     public JdbcDataPreviewResponse previewData(String connectionId, String schemaName, String tableName, String query,
-            Integer limit,
+            Integer limit, boolean session,
             HttpHeaders headers) {
         log.info("Previewing data for connection: {}, schema: {}, table: {}, query: {}", connectionId, schemaName,
                 tableName, query);
@@ -92,61 +124,180 @@ public class DagActivityService {
         Connection connection = connectionService.getConnection(identifier);
 
         int finalLimit = (limit == null || limit > 100) ? 50 : limit;
-        String finalQuery = query;
+        String tableRef = tableRef(schemaName, tableName, query);
 
-        if (finalQuery == null || finalQuery.isEmpty()) {
-            if (tableName == null || tableName.isEmpty()) {
-                throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
-                        "Either tableName or query must be provided");
-            }
-            if (schemaName != null && !schemaName.isEmpty() && !"DEFAULT".equalsIgnoreCase(schemaName)) {
-                finalQuery = "SELECT * FROM " + schemaName + "." + tableName;
-            } else {
-                finalQuery = "SELECT * FROM " + tableName;
-            }
+        if (session) {
+            // The cursor bounds the read, so the query runs as written and is paged server side
+            String sessionQuery = tableRef != null ? "SELECT * FROM " + tableRef : query;
+            return previewSessionService.open(connection, sessionQuery, limit, PreviewSessionService.userOf(headers));
         }
 
-        // Basic protection: Append limit if not present (simple check)
-        String upperQuery = finalQuery.toUpperCase();
-        if (!upperQuery.contains("LIMIT") && !upperQuery.contains("TOP ")) {
-            // Provider specific limit handling could be added here
-            finalQuery += " LIMIT " + finalLimit;
-        }
+        // Identical previews running at the same time share one query
+        String key = InspectionCoalescer.key(connectionId, "preview", tableRef,
+                InspectionCoalescer.normalizeQuery(query), finalLimit);
+        return inspectionCoalescer.execute(key, true, () -> readPreview(connection, tableRef, query, finalLimit));
+    }
 
+    private JdbcDataPreviewResponse readPreview(Connection connection, String tableRef, String query,
+            int finalLimit) {
         try (java.sql.Connection conn = getJdbcConnection(connection);
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(finalQuery)) {
-
-            ResultSetMetaData rsmd = rs.getMetaData();
-            int columnCount = rsmd.getColumnCount();
-            List<String> columns = new ArrayList<>();
-            for (int i = 1; i <= columnCount; i++) {
-                columns.add(rsmd.getColumnName(i));
-            }
-
-            List<Map<String, Object>> data = new ArrayList<>();
-            int count = 0;
-            while (rs.next() && count < finalLimit) {
-                Map<String, Object> row = new LinkedHashMap<>();
+                Statement stmt = conn.createStatement()) {
+            // Table selects carry the limit in their SQL; queries are capped by the driver, which tells the server
+            SqlDialect dialect = SqlDialect.of(conn);
+            String finalQuery = tableRef != null
+                    ? dialect.limitedTableSelect(tableRef, finalLimit)
+                    : dialect.limitQuery(query, finalLimit);
+            dialect.applyLimit(stmt, finalLimit);
+
+            try (StatementRegistry.Tracked tracked = statementRegistry.track(stmt, dialect);
+                    ResultSet rs = stmt.executeQuery(finalQuery)) {
+                ResultSetMetaData rsmd = rs.getMetaData();
+                int columnCount = rsmd.getColumnCount();
+                List<String> columns = new ArrayList<>();
                 for (int i = 1; i <= columnCount; i++) {
-                    row.put(columns.get(i - 1), rs.getObject(i));
+                    columns.add(rsmd.getColumnName(i));
                 }
-                data.add(row);
-                count++;
-            }
 
-            return JdbcDataPreviewResponse.builder()
-                    .columns(columns)
-                    .data(data)
-                    .query(finalQuery)
-                    .build();
+                List<Map<String, Object>> data = new ArrayList<>();
+                int count = 0;
+                while (rs.next() && count < finalLimit) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= columnCount; i++) {
+                        row.put(columns.get(i - 1), rs.getObject(i));
+                    }
+                    data.add(row);
+                    count++;
+                }
+
+                return JdbcDataPreviewResponse.builder()
+                        .columns(columns)
+                        .data(data)
+                        .query(finalQuery)
+                        .build();
+            }
+        } catch (SQLTimeoutException e) {
+            throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT, "Preview query timed out");
         } catch (Exception e) {
+            if (statementRegistry.isCancelled(statementRegistry.currentRequestId())) {
+                throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT, "Preview query was cancelled");
+            }
             log.error("Error previewing data: {}", e.getMessage(), e);
             throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
                     "Failed to preview data: " + e.getMessage());
         }
     }
 
+    /**
+     * Streams the complete result of a table or query; the connection and
+     * query are validated before the response starts
+     */
+    public StreamingResponseBody exportData(String connectionId, String schemaName, String tableName, String query,
+            ExportFormat format, boolean gzip, HttpHeaders headers) {
+        log.info("Exporting data for connection: {}, schema: {}, table: {}, format: {}", connectionId, schemaName,
+                tableName, format);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        String tableRef = tableRef(schemaName, tableName, query);
+        String sql = tableRef != null ? "SELECT * FROM " + tableRef : query;
+
+        String requestId = StatementRegistry.requestIdOf(headers);
+        String owner = PreviewSessionService.userOf(headers);
+        return out -> {
+            try {
+                statementRegistry.runAs(requestId, owner,
+                        () -> exportService.write(connection, sql, format, gzip, out));
+            } catch (IOException | DataloadersException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+    }
+
+    public ExportFileResponse spoolExport(String connectionId, String schemaName, String tableName, String query,
+            ExportFormat format, boolean gzip, HttpHeaders headers) {
+        log.info("Spooling export for connection: {}, schema: {}, table: {}, format: {}", connectionId, schemaName,
+                tableName, format);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        String tableRef = tableRef(schemaName, tableName, query);
+        String sql = tableRef != null ? "SELECT * FROM " + tableRef : query;
+        return exportService.spool(connection, sql, format, gzip, PreviewSessionService.userOf(headers));
+    }
+
+    /**
+     * Column statistics over a sample of a table
+     */
+    public TableProfileResponse profileTable(String connectionId, String schemaName, String tableName,
+            Integer sampleRows, Double samplePercent, HttpHeaders headers) {
+        log.info("Profiling table: {}.{} in connection: {}", schemaName, tableName, connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        JdbcTableDefinitionResponse definition = getTableDefinition(connectionId, schemaName, tableName, headers);
+        return tableProfileService.profile(connection, schemaName, tableName, definition.getColumns(), sampleRows,
+                samplePercent);
+    }
+
+    /**
+     * Collections of a MongoDB connection with estimated document counts
+     */
+    public List<MongoCollectionResponse> fetchCollections(String connectionId, HttpHeaders headers) {
+        log.info("Fetching collections for connection: {}", connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return mongoBrowserService.listCollections(connection);
+    }
+
+    public JdbcDataPreviewResponse previewCollection(String connectionId, String collectionName, String filter,
+            Integer limit, HttpHeaders headers) {
+        log.info("Previewing collection: {} in connection: {}", collectionName, connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return mongoBrowserService.preview(connection, collectionName, filter, limit);
+    }
+
+    /**
+     * Field definitions inferred from a random sample of the collection
+     */
+    public MongoSchemaResponse inferCollectionSchema(String connectionId, String collectionName, Integer sampleSize,
+            HttpHeaders headers) {
+        log.info("Inferring schema for collection: {} in connection: {}", collectionName, connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return mongoBrowserService.inferSchema(connection, collectionName, sampleSize);
+    }
+
+    /**
+     * One page of a Redis keyspace walk, continuing from cursor
+     */
+    public RedisScanResponse scanKeys(String connectionId, String cursor, String pattern, String type,
+            Integer pageSize, HttpHeaders headers) {
+        log.info("Scanning keys matching: {} in connection: {}", pattern, connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return redisBrowserService.scan(connection, cursor, pattern, type, pageSize);
+    }
+
+    public List<RedisKeyPreview> previewKeys(String connectionId, List<String> keys, HttpHeaders headers) {
+        log.info("Previewing {} key(s) in connection: {}", keys != null ? keys.size() : 0, connectionId);
+        Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
+        Connection connection = connectionService.getConnection(identifier);
+        return redisBrowserService.preview(connection, keys);
+    }
+
+    /**
+     * Next page of an open preview session
+     */
+    public JdbcDataPreviewResponse nextPreviewPage(String sessionId, Integer limit, HttpHeaders headers) {
+        log.info("Reading next preview page for session: {}", sessionId);
+        return previewSessionService.next(sessionId, limit, PreviewSessionService.userOf(headers));
+    }
+
+    public boolean closePreviewSession(String sessionId, HttpHeaders headers) {
+        log.info("Closing preview session: {}", sessionId);
+        return previewSessionService.close(sessionId, PreviewSessionService.userOf(headers));
+    }
+
     /**
      * Get detailed definition for a specific table
      */
@@ -155,7 +306,21 @@ public class DagActivityService {
         log.info("Getting definition for table: {}.{} in connection: {}", schemaName, tableName, connectionId);
         Identifier identifier = Identifier.builder().word(connectionId).headers(headers).build();
         Connection connection = connectionService.getConnection(identifier);
+        String key = InspectionCoalescer.key(connectionId, "ddl", schemaName, tableName);
+        return inspectionCoalescer.execute(key, true, () -> readTableDefinition(connection, schemaName, tableName));
+    }
+
+    private JdbcTableDefinitionResponse readTableDefinition(Connection connection, String schemaName,
+            String tableName) {
+        Optional<JdbcTableDefinitionResponse> cached = catalogService.getTableDefinition(connection, schemaName,
+                tableName);
+        if (cached.isPresent()) {
+            JdbcTableDefinitionResponse definition = cached.get();
+            definition.setRawDdl(generateRawDdl(tableName, definition.getColumns()));
+            return definition;
+        }
 
+        // Not in the snapshot yet (e.g. created after the last harvest), read it live
         String effectiveSchema = (schemaName == null || schemaName.isEmpty() || "DEFAULT".equalsIgnoreCase(schemaName))
                 ? null
                 : schemaName;
@@ -232,68 +397,26 @@ public class DagActivityService {
     }
 
     /**
-     * Reuses logic from ConnectionTestService to build a live JDBC connection
+     * Borrows a pooled JDBC connection for the saved connection
      */
     private java.sql.Connection getJdbcConnection(Connection connection) throws Exception {
-        Provider provider = providerService.getProvider(Identifier.builder().word(connection.getProviderId()).build());
-        String providerKey = provider.getProviderName().toLowerCase();
-
-        // Decrypt secrets
-        JsonNode decryptedSecrets = encryptionService.decrypt(connection.getSecrets());
-
-        // Resolve variables
-        JsonNode resolvedConfig = variableService.resolveJsonNode(connection.getConfig(), connection.getApplicationId(),
-                null);
-        JsonNode resolvedSecrets = variableService.resolveJsonNode(decryptedSecrets, connection.getApplicationId(),
-                null);
-
-        String url;
-        Properties props = new Properties();
-        String driverClass;
-
-        if (providerKey.contains("postgres")) {
-            String host = resolvedConfig.get("host").asText();
-            int port = resolvedConfig.get("port").asInt();
-            String db = resolvedConfig.get("database_name").asText();
-            url = String.format("jdbc:postgresql://%s:%d/%s", host, port, db);
-            props.setProperty("user", resolvedConfig.get("username").asText());
-            props.setProperty("password", resolvedSecrets.get("password").asText());
-            driverClass = "org.postgresql.Driver";
-        } else if (providerKey.contains("mysql") || providerKey.contains("mariadb")) {
-            String host = resolvedConfig.get("host").asText();
-            int port = resolvedConfig.get("port").asInt();
-            String db = resolvedConfig.get("database_name").asText();
-            url = String.format("jdbc:mysql://%s:%d/%s?serverTimezone=UTC", host, port, db);
-            props.setProperty("user", resolvedConfig.get("username").asText());
-            props.setProperty("password", resolvedSecrets.get("password").asText());
-            driverClass = "com.mysql.cj.jdbc.Driver";
-        } else if (providerKey.contains("oracle")) {
-            String host = resolvedConfig.get("host").asText();
-            int port = resolvedConfig.get("port").asInt();
-            String serviceName = resolvedConfig.get("service_name").asText();
-            url = String.format("jdbc:oracle:thin:@%s:%d:%s", host, port, serviceName);
-            props.setProperty("user", resolvedConfig.get("username").asText());
-            props.setProperty("password", resolvedSecrets.get("password").asText());
-            driverClass = "oracle.jdbc.driver.OracleDriver";
-        } else if (providerKey.contains("mssql")) {
-            String host = resolvedConfig.get("host").asText();
-            int port = resolvedConfig.get("port").asInt();
-            String db = resolvedConfig.get("database_name").asText();
-            url = String.format("jdbc:sqlserver://%s:%d;databaseName=%s", host, port, db);
-            props.setProperty("user", resolvedConfig.get("username").asText());
-            props.setProperty("password", resolvedSecrets.get("password").asText());
-            props.setProperty("trustServerCertificate", "true");
-            driverClass = "com.microsoft.sqlserver.jdbc.SQLServerDriver";
-        } else {
-            throw new DataloadersException(ErrorFactory.NOT_SUPPORTED,
-                    "Provider " + providerKey + " not supported for active inspection");
-        }
+        return dataSourceRegistry.getConnection(connection);
+    }
 
-        Class.forName(driverClass);
-        if (connection.getConnectionTimeout() != null) {
-            DriverManager.setLoginTimeout(connection.getConnectionTimeout());
+    /**
+     * Qualified table to read, or null when a custom query is given
+     */
+    private static String tableRef(String schemaName, String tableName, String query) {
+        if (query != null && !query.isEmpty()) {
+            return null;
         }
-
-        return DriverManager.getConnection(url, props);
+        if (tableName == null || tableName.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "Either tableName or query must be provided");
+        }
+        if (schemaName != null && !schemaName.isEmpty() && !"DEFAULT".equalsIgnoreCase(schemaName)) {
+            return schemaName + "." + tableName;
+        }
+        return tableName;
     }
 }
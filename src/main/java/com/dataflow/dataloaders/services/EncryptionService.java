@@ -1,33 +1,98 @@
 package com.dataflow.dataloaders.services;
 
+import com.dataflow.dataloaders.dao.VariableDao;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.SecretCipher;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Slf4j
 @Service
 public class EncryptionService {
 
-    private static final String ALGORITHM = "AES";
     private static final String KEY = "DataManager2024!"; // Use environment variable in production
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private VariableDao variableDao;
+
+    /**
+     * Envelope keys as id:base64Key pairs separated by commas, e.g.
+     * "2024:...,2025:..."; older IDs stay configured to read existing values
+     */
+    @Value("${dataloaders.encryption.keys:}")
+    private String keys;
+
+    @Value("${dataloaders.encryption.active-key-id:}")
+    private String activeKeyId;
+
+    /**
+     * legacy until every instance reads the envelope, then gcm; gcm needs
+     * dataloaders.encryption.keys
+     */
+    @Value("${dataloaders.encryption.write-format:legacy}")
+    private String writeFormat;
+
+    @Value("${dataloaders.encryption.cipher-pool-size:64}")
+    private int cipherPoolSize;
+
+    private SecretCipher cipher;
+
+    @PostConstruct
+    void init() throws Exception {
+        Map<String, byte[]> keyring = new LinkedHashMap<>();
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank())
+                continue;
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid entry in dataloaders.encryption.keys, expected id:base64Key");
+            }
+            keyring.put(entry.substring(0, separator).trim(),
+                    Base64.getDecoder().decode(entry.substring(separator + 1).trim()));
+        }
+        String active = activeKeyId;
+        if (keyring.isEmpty()) {
+            if (!"legacy".equalsIgnoreCase(writeFormat)) {
+                throw new IllegalStateException(
+                        "dataloaders.encryption.write-format=" + writeFormat + " needs dataloaders.encryption.keys");
+            }
+            active = null;
+        } else if (active == null || active.isBlank()) {
+            active = keyring.keySet().iterator().next();
+        }
+        // A missing key would turn every secret written with it into a runtime failure
+        Set<String> missing = new TreeSet<>(variableDao.listEnvelopeKeyIds());
+        missing.removeAll(keyring.keySet());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Stored secrets use key IDs " + missing
+                    + " that are not in dataloaders.encryption.keys");
+        }
+        cipher = new SecretCipher(keyring, active, KEY.getBytes(StandardCharsets.UTF_8), cipherPoolSize);
+    }
+
     public JsonNode encrypt(JsonNode data) {
         try {
             String jsonString = objectMapper.writeValueAsString(data);
-            SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-            byte[] encrypted = cipher.doFinal(jsonString.getBytes());
-            String encryptedString = Base64.getEncoder().encodeToString(encrypted);
-            return objectMapper.readTree("\"" + encryptedString + "\"");
+            return TextNode.valueOf(encryptValue(jsonString));
         } catch (Exception e) {
             log.error("Encryption failed: {}", e.getMessage());
             return data;
@@ -41,6 +106,8 @@ public class EncryptionService {
             }
             String decryptedString = decryptString(encryptedData.asText());
             return objectMapper.readTree(decryptedString);
+        } catch (DataloadersException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Decryption failed: {}", e.getMessage());
             return encryptedData;
@@ -49,27 +116,83 @@ public class EncryptionService {
 
     public String encryptString(String data) {
         try {
-            SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-            byte[] encrypted = cipher.doFinal(data.getBytes());
-            return Base64.getEncoder().encodeToString(encrypted);
+            return encryptValue(data);
         } catch (Exception e) {
             log.error("String encryption failed: {}", e.getMessage());
             return data;
         }
     }
 
+    /**
+     * Reads both the versioned envelope and the legacy format. A value that is
+     * not ciphertext at all, e.g. stored before it was encrypted, is returned
+     * as is; ciphertext that cannot be decrypted fails.
+     */
     public String decryptString(String encryptedData) {
         try {
-            SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
-            byte[] decrypted = cipher.doFinal(Base64.getDecoder().decode(encryptedData));
-            return new String(decrypted);
+            return cipher.decrypt(encryptedData);
         } catch (Exception e) {
-            log.error("String decryption failed: {}", e.getMessage());
+            if (isCiphertext(encryptedData)) {
+                log.error("String decryption failed: {}", e.getMessage());
+                throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, "Stored secret could not be decrypted");
+            }
             return encryptedData;
         }
     }
+
+    /**
+     * Encrypts many values with one cipher. As with encryptString, values that
+     * fail are returned unchanged.
+     */
+    public List<String> encryptAll(List<String> values) {
+        if (!"legacy".equalsIgnoreCase(writeFormat)) {
+            try {
+                return cipher.encryptAll(values);
+            } catch (Exception e) {
+                log.error("Bulk encryption failed, encrypting one by one: {}", e.getMessage());
+            }
+        }
+        List<String> encrypted = new ArrayList<>(values.size());
+        for (String value : values) {
+            encrypted.add(value != null ? encryptString(value) : null);
+        }
+        return encrypted;
+    }
+
+    /**
+     * Decrypts many values, in either format, with one cipher per format. As
+     * with decryptString, values that are not ciphertext are returned
+     * unchanged.
+     */
+    public List<String> decryptAll(List<String> values) {
+        try {
+            return cipher.decryptAll(values);
+        } catch (Exception e) {
+            // Retry one by one so a single bad value does not fail the others
+            List<String> decrypted = new ArrayList<>(values.size());
+            for (String value : values) {
+                decrypted.add(value != null ? decryptString(value) : null);
+            }
+            return decrypted;
+        }
+    }
+
+    /**
+     * Envelopes, and base64 of whole AES blocks as the legacy format writes
+     */
+    private static boolean isCiphertext(String value) {
+        if (SecretCipher.isEnvelope(value)) {
+            return true;
+        }
+        try {
+            byte[] decoded = Base64.getDecoder().decode(value);
+            return decoded.length > 0 && decoded.length % 16 == 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String encryptValue(String data) throws Exception {
+        return "legacy".equalsIgnoreCase(writeFormat) ? cipher.encryptLegacy(data) : cipher.encrypt(data);
+    }
 }
@@ -0,0 +1,353 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.ExportFileResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.enums.ExportFormat;
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.DateUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full result exports of reader queries. Rows go from a forward-only cursor
+ * straight to the output stream as CSV or NDJSON, optionally gzipped, so the
+ * heap holds one row at a time regardless of the result size. Exports can also
+ * be spooled to local disk in the background and downloaded once ready. Each export holds one of the
+ * connection's pooled JDBC connections while it runs, so only a few may run
+ * per connection at once and each query has a finite timeout.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_READY = "READY";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dataloaders.export.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${dataloaders.export.query-timeout-seconds:1800}")
+    private int queryTimeoutSeconds;
+
+    /**
+     * Kept below the JDBC pool size so previews and browsing still get a connection
+     */
+    @Value("${dataloaders.export.max-concurrent-per-connection:2}")
+    private int maxConcurrentPerConnection;
+
+    @Value("${dataloaders.export.spool-dir:${java.io.tmpdir}/dataloaders-exports}")
+    private String spoolDir;
+
+    @Value("${dataloaders.export.spool-ttl-seconds:3600}")
+    private long spoolTtlSeconds;
+
+    private final Map<String, SpooledExport> spooled = new ConcurrentHashMap<>();
+
+    private final Map<String, Semaphore> runningExports = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        Path dir = Files.createDirectories(Path.of(spoolDir));
+        // Files of a previous run are no longer reachable by ID
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir, "export-*")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    /**
+     * Writes the complete result of sql to target and returns the row count.
+     * Fails with TOO_MANY_REQUESTS before writing anything when the connection
+     * already runs its maximum of exports. Once the first bytes are out the
+     * HTTP status is fixed, so a failure midway can only abort the stream; the
+     * gzip trailer is only written on success, so a cut off file never passes
+     * as complete.
+     */
+    public long write(Connection connection, String sql, ExportFormat format, boolean gzip, OutputStream target)
+            throws IOException {
+        Semaphore permits = acquire(connection);
+        try {
+            return writeAcquired(connection, sql, format, gzip, target);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Semaphore acquire(Connection connection) {
+        Semaphore permits = runningExports.computeIfAbsent(connection.getId(),
+                id -> new Semaphore(maxConcurrentPerConnection));
+        if (!permits.tryAcquire()) {
+            throw new DataloadersException(ErrorFactory.TOO_MANY_REQUESTS, "Connection " + connection.getId()
+                    + " already runs " + maxConcurrentPerConnection + " exports; retry when one has finished");
+        }
+        return permits;
+    }
+
+    private long writeAcquired(Connection connection, String sql, ExportFormat format, boolean gzip,
+            OutputStream target) throws IOException {
+        OutputStream out = gzip
+                ? new GZIPOutputStream(target, BUFFER_SIZE)
+                : new BufferedOutputStream(target, BUFFER_SIZE);
+        long rows = query(connection, sql, format, out);
+        if (out instanceof GZIPOutputStream compressed) {
+            compressed.finish();
+        }
+        out.flush();
+        return rows;
+    }
+
+    private long query(Connection connection, String sql, ExportFormat format, OutputStream out)
+            throws IOException {
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connection)) {
+            SqlDialect dialect = SqlDialect.of(conn);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    StatementRegistry.Tracked tracked = statementRegistry.track(stmt, dialect)) {
+                dialect.streamResults(conn, stmt, fetchSize);
+                // Exports outlive the inspection timeout applied by track
+                stmt.setQueryTimeout(queryTimeoutSeconds);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    return writeRows(rs, format, out);
+                } catch (IOException e) {
+                    // Client went away; stop the server from producing the rest
+                    stmt.cancel();
+                    throw e;
+                }
+            } finally {
+                // Still in autocommit when the statement could not be created
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error exporting result of {}: {}", connection.getId(), e.getMessage(), e);
+            throw new IOException("Export failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts the export into a local file on a virtual thread and returns it
+     * as PENDING right away. Once finished the file can be downloaded by its
+     * owner until it expires. The connection's export permit is taken before
+     * returning, so an overloaded connection still fails the request itself.
+     */
+    public ExportFileResponse spool(Connection connection, String sql, ExportFormat format, boolean gzip,
+            String owner) {
+        String fileId = UUID.randomUUID().toString();
+        String fileName = "export-" + fileId + "." + format.extension() + (gzip ? ".gz" : "");
+        Path path = Path.of(spoolDir, fileName);
+        ExportFileResponse file = ExportFileResponse.builder()
+                .fileId(fileId)
+                .status(STATUS_PENDING)
+                .fileName(fileName)
+                .format(format.name())
+                .compressed(gzip)
+                .build();
+        Semaphore permits = acquire(connection);
+        SpooledExport pending = new SpooledExport(owner, path, file);
+        spooled.put(fileId, pending);
+        try {
+            Thread.ofVirtual()
+                    .name("export-spool-" + fileId)
+                    .start(() -> {
+                        try {
+                            runSpool(connection, sql, format, gzip, pending);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            spooled.remove(fileId, pending);
+            permits.release();
+            throw e;
+        }
+        return file;
+    }
+
+    private void runSpool(Connection connection, String sql, ExportFormat format, boolean gzip,
+            SpooledExport pending) {
+        long start = System.currentTimeMillis();
+        ExportFileResponse.ExportFileResponseBuilder done = ExportFileResponse.builder()
+                .fileId(pending.file.getFileId())
+                .fileName(pending.file.getFileName())
+                .format(format.name())
+                .compressed(gzip);
+        try {
+            long rows;
+            try (OutputStream out = Files.newOutputStream(pending.path, StandardOpenOption.CREATE_NEW)) {
+                rows = writeAcquired(connection, sql, format, gzip, out);
+            }
+            done.status(STATUS_READY)
+                    .rowCount(rows)
+                    .sizeBytes(Files.size(pending.path));
+        } catch (Exception e) {
+            log.error("Error spooling export {}: {}", pending.file.getFileId(), e.getMessage(), e);
+            deleteQuietly(pending.path);
+            done.status(STATUS_FAILED)
+                    .errorMessage(e.getMessage());
+        }
+        ExportFileResponse file = done
+                .durationMs(System.currentTimeMillis() - start)
+                .expiresAt(DateUtils.getUnixTimestampInUTC() + spoolTtlSeconds)
+                .build();
+        // Deleted by its owner while running
+        if (!spooled.replace(file.getFileId(), pending, new SpooledExport(pending.owner, pending.path, file))) {
+            deleteQuietly(pending.path);
+        }
+    }
+
+    public ExportFileResponse getSpooled(String fileId, String owner) {
+        return getOwned(fileId, owner).file;
+    }
+
+    /**
+     * The spooled file as a resource, which Spring MVC streams to the response
+     * and serves Range requests from, so interrupted downloads can resume.
+     * Only finished exports have one.
+     */
+    public Resource getSpooledResource(String fileId, String owner) {
+        SpooledExport export = getOwned(fileId, owner);
+        if (!STATUS_READY.equals(export.file.getStatus())) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_CONFLICT,
+                    "Export " + fileId + " is " + export.file.getStatus());
+        }
+        return new FileSystemResource(export.path);
+    }
+
+    public boolean deleteSpooled(String fileId, String owner) {
+        SpooledExport export = getOwned(fileId, owner);
+        spooled.remove(fileId, export);
+        deleteQuietly(export.path);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${dataloaders.export.sweep-interval-ms:60000}")
+    public void deleteExpired() {
+        long now = DateUtils.getUnixTimestampInUTC();
+        spooled.forEach((fileId, export) -> {
+            Long expiresAt = export.file.getExpiresAt();
+            if (expiresAt != null && expiresAt < now && spooled.remove(fileId, export)) {
+                log.debug("Deleting expired export {}", fileId);
+                deleteQuietly(export.path);
+            }
+        });
+    }
+
+    private SpooledExport getOwned(String fileId, String owner) {
+        SpooledExport export = spooled.get(fileId);
+        if (export == null || !Objects.equals(export.owner, owner)) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Export not found with ID: " + fileId);
+        }
+        return export;
+    }
+
+    private long writeRows(ResultSet rs, ExportFormat format, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        String[] columns = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            columns[i - 1] = rsmd.getColumnLabel(i);
+        }
+
+        long rows = 0;
+        if (format == ExportFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeCsvRecord(writer, columns);
+            Object[] values = new Object[columnCount];
+            while (rs.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    Object value = rs.getObject(i);
+                    values[i - 1] = value instanceof byte[] bytes ? Base64.getEncoder().encodeToString(bytes) : value;
+                }
+                writeCsvRecord(writer, values);
+                rows++;
+            }
+            writer.flush();
+        } else {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rs.next()) {
+                generator.writeStartObject();
+                for (int i = 1; i <= columnCount; i++) {
+                    generator.writeFieldName(columns[i - 1]);
+                    generator.writeObject(rs.getObject(i));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    /**
+     * RFC 4180 record: fields with separators, quotes or line breaks are quoted
+     */
+    private static void writeCsvRecord(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Error deleting export file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record SpooledExport(String owner, Path path, ExportFileResponse file) {
+    }
+}
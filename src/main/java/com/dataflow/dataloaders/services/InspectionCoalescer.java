@@ -0,0 +1,220 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of inspection calls: concurrent callers with the
+ * same key share one source call and its result or error, instead of each
+ * running the same metadata or preview query. Results can additionally be
+ * memoized for a short TTL. Shared results are handed to every caller as the
+ * same instance and must not be modified.
+ */
+@Slf4j
+@Service
+public class InspectionCoalescer {
+
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Value("${dataloaders.inspection.single-flight.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dataloaders.inspection.single-flight.max-wait-ms:${dataloaders.inspection.request-timeout-ms:120000}}")
+    private long maxWaitMs;
+
+    @Value("${dataloaders.inspection.memo.ttl-ms:0}")
+    private long memoTtlMs;
+
+    @Value("${dataloaders.inspection.memo.max-entries:512}")
+    private int memoMaxEntries;
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Memo> memo = new ConcurrentHashMap<>();
+
+    /**
+     * Key for an operation on a connection; arguments are compared by their
+     * string form
+     */
+    public static String key(String connectionId, String operation, Object... arguments) {
+        StringJoiner key = new StringJoiner("\u0000", connectionId + '\u0000', "");
+        key.add(operation);
+        for (Object argument : arguments) {
+            key.add(String.valueOf(argument));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Whitespace-insensitive form of a SQL text, so the same query typed
+     * differently still coalesces. Literals are left as they are.
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null)
+            return null;
+        String normalized = query.trim().replaceAll("\\s+", " ");
+        while (normalized.endsWith(";")) {
+            normalized = normalized.substring(0, normalized.length() - 1).trim();
+        }
+        return normalized;
+    }
+
+    /**
+     * Runs work, or waits for the identical call already running. With
+     * memoize, a result younger than the memo TTL is returned without a call.
+     * The shared call runs under its own request ID and is cancelled only once
+     * every caller waiting on it has been cancelled or timed out.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, boolean memoize, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        boolean useMemo = memoize && memoTtlMs > 0;
+        if (useMemo) {
+            Memo cached = memo.get(key);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                return (T) cached.value;
+            }
+        }
+
+        while (true) {
+            Flight created = new Flight(key);
+            Flight flight = inFlight.putIfAbsent(key, created);
+            if (flight == null) {
+                flight = created;
+                start(flight, useMemo, work);
+            } else {
+                log.debug("Joining in-flight inspection call {}", key);
+            }
+            if (flight.join()) {
+                return (T) await(flight);
+            }
+            // Its last caller left while this one was looking it up
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Drops memoized results of a connection, e.g. after a catalog refresh
+     */
+    public void evict(String connectionId) {
+        String prefix = connectionId + '\u0000';
+        memo.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        evict(event.getConnectionId());
+    }
+
+    private void remember(String key, Object value) {
+        long now = System.currentTimeMillis();
+        if (memo.size() >= memoMaxEntries) {
+            memo.values().removeIf(entry -> entry.expiresAt <= now);
+            if (memo.size() >= memoMaxEntries) {
+                return;
+            }
+        }
+        memo.put(key, new Memo(value, now + memoTtlMs));
+    }
+
+    private void start(Flight flight, boolean useMemo, Supplier<?> work) {
+        Thread.ofVirtual().name("inspection-flight-", 0).start(() -> {
+            try {
+                Object value = statementRegistry.runAs(flight.requestId, null, work::get);
+                if (useMemo) {
+                    remember(flight.key, value);
+                }
+                flight.result.complete(value);
+            } catch (Throwable t) {
+                flight.result.completeExceptionally(t);
+            } finally {
+                inFlight.remove(flight.key, flight);
+            }
+        });
+    }
+
+    /**
+     * Waits for the shared call on a copy of its result, so the caller's own
+     * cancellation or timeout releases only this caller
+     */
+    private Object await(Flight flight) {
+        CompletableFuture<Object> mine = flight.result.copy();
+        try (StatementRegistry.Tracked hook = statementRegistry.onCancel(() -> mine.completeExceptionally(
+                new DataloadersException(ErrorFactory.DATABASE_TIMEOUT, "Inspection call was cancelled")))) {
+            return mine.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, "Inspection call was interrupted");
+        } catch (TimeoutException e) {
+            throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT,
+                    "Inspection call did not finish within " + maxWaitMs + " ms");
+        } catch (ExecutionException e) {
+            // Every caller sees the shared failure as its own
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, e.getCause().getMessage());
+        } finally {
+            flight.leave();
+        }
+    }
+
+    /**
+     * One shared call and the number of callers still waiting on it
+     */
+    private final class Flight {
+        private final String key;
+        private final String requestId = "inspection-" + UUID.randomUUID();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private int waiters;
+        private boolean abandoned;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        private synchronized boolean join() {
+            if (abandoned)
+                return false;
+            waiters++;
+            return true;
+        }
+
+        private void leave() {
+            synchronized (this) {
+                waiters--;
+                if (waiters > 0 || result.isDone())
+                    return;
+                abandoned = true;
+            }
+            log.debug("Cancelling inspection call {}, no caller is waiting for it", key);
+            inFlight.remove(key, this);
+            statementRegistry.cancel(requestId);
+        }
+    }
+
+    private record Memo(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,501 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dao.ConnectionDao;
+import com.dataflow.dataloaders.dto.DataSourcePoolStats;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.events.VariablesChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.Identifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one bounded Hikari pool per saved connection (or saved resource) so
+ * that browse, preview and DDL calls borrow an already authenticated session
+ * instead of paying a full driver handshake on every request.
+ * Pools are dropped when the connection or the variables it references change.
+ * Every borrowed connection holds a lease on its pool, and a dropped or
+ * evicted pool is only closed once its last lease is returned, so long
+ * exports and DAG runs are never cut off by eviction.
+ */
+@Slf4j
+@Service
+public class JdbcDataSourceRegistry {
+
+    private static final String RESOURCE_PREFIX = "resource:";
+
+    @Autowired
+    private ConnectionDao connectionDao;
+
+    @Autowired
+    private ProviderService providerService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VariableService variableService;
+
+    @Value("${dataloaders.jdbc.pool.max-size:5}")
+    private int maxPoolSize;
+
+    @Value("${dataloaders.jdbc.pool.max-pools:64}")
+    private int maxPools;
+
+    @Value("${dataloaders.jdbc.pool.idle-timeout-ms:120000}")
+    private long idleTimeoutMs;
+
+    @Value("${dataloaders.jdbc.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${dataloaders.jdbc.pool.keepalive-ms:300000}")
+    private long keepaliveMs;
+
+    private final Map<String, PooledDataSource> pools = new ConcurrentHashMap<>();
+
+    // One housekeeping thread shared by every pool instead of one per pool
+    private final ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "jdbc-pool-housekeeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Returns true when the provider can be served by a pooled JDBC data source.
+     */
+    public static boolean supports(String providerName) {
+        if (providerName == null)
+            return false;
+        String key = providerName.toLowerCase();
+        return key.contains("postgres") || key.contains("mysql") || key.contains("mariadb")
+                || key.contains("oracle") || key.contains("mssql");
+    }
+
+    /**
+     * Borrow a pooled connection for a saved connection id.
+     */
+    public java.sql.Connection getConnection(String connectionId) throws SQLException {
+        PooledDataSource pooled = pools.get(connectionId);
+        if (pooled != null) {
+            java.sql.Connection leased = pooled.borrow();
+            if (leased != null) {
+                return leased;
+            }
+        }
+        Connection connection = connectionDao.getV1(Identifier.builder().word(connectionId).build())
+                .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Connection not found"));
+        return getConnection(connection);
+    }
+
+    /**
+     * Borrow a pooled connection for a saved connection. Provider lookup, secret
+     * decryption and variable resolution only happen when the pool is first built.
+     */
+    public java.sql.Connection getConnection(Connection connection) throws SQLException {
+        while (true) {
+            PooledDataSource pooled = pools.get(connection.getId());
+            if (pooled == null) {
+                pooled = register(connection.getId(), resolveTarget(connection));
+            }
+            java.sql.Connection leased = pooled.borrow();
+            if (leased != null) {
+                return leased;
+            }
+            // Dropped between lookup and borrow; the next lookup builds its replacement
+        }
+    }
+
+    /**
+     * Borrow a pooled connection for an explicit target (e.g. a saved resource).
+     * The pool is rebuilt if the target differs from the one it was created for.
+     */
+    public java.sql.Connection getConnection(String key, JdbcTarget target) throws SQLException {
+        while (true) {
+            PooledDataSource pooled = pools.get(key);
+            if (pooled == null || !pooled.fingerprint.equals(target.fingerprint())) {
+                if (pooled != null) {
+                    invalidate(key);
+                }
+                pooled = register(key, target);
+            }
+            java.sql.Connection leased = pooled.borrow();
+            if (leased != null) {
+                return leased;
+            }
+        }
+    }
+
+    /**
+     * Key under which saved resources are pooled.
+     */
+    public static String resourceKey(String resourceId) {
+        return RESOURCE_PREFIX + resourceId;
+    }
+
+    /**
+     * Provider key ("postgresql", "oracle", ...) of a pooled connection, or null
+     * when no pool exists yet.
+     */
+    public String getProviderKey(String connectionId) {
+        PooledDataSource pooled = pools.get(connectionId);
+        return pooled != null ? pooled.target.getProviderKey() : null;
+    }
+
+    /**
+     * Builds the JDBC url and driver properties for a saved connection.
+     */
+    public JdbcTarget resolveTarget(Connection connection) {
+        Provider provider = providerService.getProvider(Identifier.builder().word(connection.getProviderId()).build());
+        String providerKey = provider.getProviderName().toLowerCase();
+
+        JsonNode decryptedSecrets = encryptionService.decrypt(connection.getSecrets());
+        JsonNode config = variableService.resolveJsonNode(connection.getConfig(), connection.getApplicationId(), null);
+        JsonNode secrets = variableService.resolveJsonNode(decryptedSecrets, connection.getApplicationId(), null);
+
+        boolean ssl = Boolean.TRUE.equals(connection.getUseSsl());
+        Properties props = new Properties();
+        String url;
+        String driverClass;
+        String host = config.path("host").asText();
+        int port = config.path("port").asInt();
+
+        if (providerKey.contains("postgres")) {
+            url = String.format("jdbc:postgresql://%s:%d/%s", host, port, config.path("database_name").asText());
+            driverClass = "org.postgresql.Driver";
+            if (ssl) {
+                props.setProperty("ssl", "true");
+                props.setProperty("sslmode", "require");
+            }
+        } else if (providerKey.contains("mysql") || providerKey.contains("mariadb")) {
+            url = String.format("jdbc:mysql://%s:%d/%s?serverTimezone=UTC", host, port,
+                    config.path("database_name").asText());
+            driverClass = "com.mysql.cj.jdbc.Driver";
+            props.setProperty("useSSL", String.valueOf(ssl));
+            if (ssl) {
+                props.setProperty("requireSSL", "true");
+            }
+        } else if (providerKey.contains("oracle")) {
+            url = String.format("jdbc:oracle:thin:@%s:%d:%s", host, port, config.path("service_name").asText());
+            driverClass = "oracle.jdbc.driver.OracleDriver";
+        } else if (providerKey.contains("mssql")) {
+            url = String.format("jdbc:sqlserver://%s:%d;databaseName=%s", host, port,
+                    config.path("database_name").asText());
+            driverClass = "com.microsoft.sqlserver.jdbc.SQLServerDriver";
+            props.setProperty("encrypt", String.valueOf(ssl));
+            props.setProperty("trustServerCertificate", "true");
+        } else {
+            throw new DataloadersException(ErrorFactory.NOT_SUPPORTED,
+                    "Provider " + providerKey + " not supported for JDBC pooling");
+        }
+
+        return JdbcTarget.builder()
+                .providerKey(providerKey)
+                .applicationId(connection.getApplicationId())
+                .url(url)
+                .driverClass(driverClass)
+                .username(config.path("username").asText())
+                .password(secrets != null ? secrets.path("password").asText() : null)
+                .properties(props)
+                .connectionTimeoutSeconds(connection.getConnectionTimeout())
+                .build();
+    }
+
+    public void invalidate(String key) {
+        PooledDataSource removed = pools.remove(key);
+        if (removed != null) {
+            log.info("Closing JDBC pool for {} once its {} borrowed connection(s) are returned", key,
+                    removed.leases.get());
+            removed.retire();
+        }
+    }
+
+    /**
+     * Connections one pool hands out at most
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public Optional<DataSourcePoolStats> getStats(String key) {
+        return Optional.ofNullable(pools.get(key)).map(p -> p.stats(key));
+    }
+
+    public List<DataSourcePoolStats> getAllStats() {
+        List<DataSourcePoolStats> stats = new ArrayList<>();
+        pools.forEach((key, pooled) -> stats.add(pooled.stats(key)));
+        stats.sort(Comparator.comparing(DataSourcePoolStats::getKey));
+        return stats;
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        invalidate(event.getConnectionId());
+    }
+
+    @EventListener
+    public void onVariablesChanged(VariablesChangedEvent event) {
+        pools.forEach((key, pooled) -> {
+            if (key.startsWith(RESOURCE_PREFIX))
+                return;
+            if (event.getApplicationId() == null
+                    || event.getApplicationId().equals(pooled.target.getApplicationId())) {
+                invalidate(key);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Close synchronously: queued closes would be discarded along with the housekeeper
+        for (String key : new ArrayList<>(pools.keySet())) {
+            PooledDataSource removed = pools.remove(key);
+            if (removed != null) {
+                removed.close();
+            }
+        }
+        housekeeper.shutdown();
+        try {
+            if (!housekeeper.awaitTermination(10, TimeUnit.SECONDS)) {
+                housekeeper.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            housekeeper.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PooledDataSource register(String key, JdbcTarget target) throws SQLException {
+        PooledDataSource created = new PooledDataSource(target, createDataSource(key, target), housekeeper);
+        PooledDataSource existing = pools.putIfAbsent(key, created);
+        if (existing != null) {
+            // Lost the race against a concurrent request for the same key
+            created.retire();
+            return existing;
+        }
+        evictLeastRecentlyUsed();
+        return created;
+    }
+
+    private HikariDataSource createDataSource(String key, JdbcTarget target) throws SQLException {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("dl-" + key);
+        hikari.setJdbcUrl(target.getUrl());
+        hikari.setDriverClassName(target.getDriverClass());
+        hikari.setUsername(target.getUsername());
+        hikari.setPassword(target.getPassword());
+        if (target.getProperties() != null) {
+            hikari.setDataSourceProperties(target.getProperties());
+        }
+        hikari.setMaximumPoolSize(maxPoolSize);
+        hikari.setMinimumIdle(0);
+        hikari.setIdleTimeout(idleTimeoutMs);
+        hikari.setMaxLifetime(maxLifetimeMs);
+        hikari.setKeepaliveTime(keepaliveMs);
+        int timeoutSeconds = target.getConnectionTimeoutSeconds() != null ? target.getConnectionTimeoutSeconds() : 30;
+        hikari.setConnectionTimeout(Math.max(1, timeoutSeconds) * 1000L);
+        hikari.setValidationTimeout(Math.min(5000L, hikari.getConnectionTimeout()));
+        hikari.setScheduledExecutor(housekeeper);
+
+        try {
+            return new HikariDataSource(hikari);
+        } catch (HikariPool.PoolInitializationException e) {
+            // Surface the driver error so callers can categorize it as before
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        // Prefer pools nobody is borrowing from; a busy pool evicted anyway closes after its last lease
+        while (pools.size() > maxPools) {
+            pools.entrySet().stream()
+                    .min(Comparator.<Map.Entry<String, PooledDataSource>, Boolean>comparing(
+                            e -> e.getValue().leases.get() > 0)
+                            .thenComparingLong(e -> e.getValue().lastUsedAt.get()))
+                    .map(Map.Entry::getKey)
+                    .ifPresent(this::invalidate);
+        }
+    }
+
+    /**
+     * Resolved driver-level description of a JDBC endpoint.
+     */
+    @Getter
+    @Builder
+    public static class JdbcTarget {
+        private final String providerKey;
+        private final String applicationId;
+        private final String url;
+        private final String driverClass;
+        private final String username;
+        private final String password;
+        private final Properties properties;
+        private final Integer connectionTimeoutSeconds;
+
+        public String fingerprint() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(String.valueOf(url).getBytes(StandardCharsets.UTF_8));
+                digest.update(String.valueOf(driverClass).getBytes(StandardCharsets.UTF_8));
+                digest.update(String.valueOf(username).getBytes(StandardCharsets.UTF_8));
+                digest.update(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+                digest.update(String.valueOf(new TreeMap<>(properties != null ? properties : new Properties()))
+                        .getBytes(StandardCharsets.UTF_8));
+                digest.update(String.valueOf(connectionTimeoutSeconds).getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (Exception e) {
+                throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    private static class PooledDataSource {
+        private final JdbcTarget target;
+        private final HikariDataSource dataSource;
+        private final ScheduledExecutorService closer;
+        private final String fingerprint;
+        private final AtomicInteger leases = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean retired;
+        private final long createdAt = System.currentTimeMillis();
+        private final AtomicLong lastUsedAt = new AtomicLong(System.currentTimeMillis());
+        private final LongAdder borrowCount = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private PooledDataSource(JdbcTarget target, HikariDataSource dataSource, ScheduledExecutorService closer) {
+            this.target = target;
+            this.dataSource = dataSource;
+            this.closer = closer;
+            this.fingerprint = target.fingerprint();
+        }
+
+        /**
+         * Leases a connection; null when the pool was retired before the lease
+         * was taken. Closing the returned connection returns the lease.
+         */
+        private java.sql.Connection borrow() throws SQLException {
+            leases.incrementAndGet();
+            if (retired) {
+                release();
+                return null;
+            }
+            java.sql.Connection connection;
+            long start = System.nanoTime();
+            try {
+                connection = dataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                release();
+                throw e;
+            }
+            long waited = System.nanoTime() - start;
+            borrowCount.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            lastUsedAt.set(System.currentTimeMillis());
+            return leased(connection);
+        }
+
+        private java.sql.Connection leased(java.sql.Connection connection) {
+            AtomicBoolean returned = new AtomicBoolean();
+            return (java.sql.Connection) Proxy.newProxyInstance(java.sql.Connection.class.getClassLoader(),
+                    new Class<?>[] { java.sql.Connection.class }, (proxy, method, args) -> {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            if ("close".equals(method.getName()) && returned.compareAndSet(false, true)) {
+                                release();
+                            }
+                        }
+                    });
+        }
+
+        private void release() {
+            if (leases.decrementAndGet() == 0 && retired) {
+                closeLater();
+            }
+        }
+
+        /**
+         * Stops new leases and closes the pool as soon as no lease is out
+         */
+        private void retire() {
+            retired = true;
+            if (leases.get() == 0) {
+                closeLater();
+            }
+        }
+
+        private void closeLater() {
+            try {
+                closer.execute(this::close);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true))
+                return;
+            try {
+                dataSource.close();
+            } catch (Exception e) {
+                log.warn("Error closing JDBC pool {}: {}", dataSource.getPoolName(), e.getMessage());
+            }
+        }
+
+        private DataSourcePoolStats stats(String key) {
+            HikariPoolMXBean mx = dataSource.getHikariPoolMXBean();
+            long borrows = borrowCount.sum();
+            return DataSourcePoolStats.builder()
+                    .key(key)
+                    .poolName(dataSource.getPoolName())
+                    .providerKey(target.getProviderKey())
+                    .activeConnections(mx != null ? mx.getActiveConnections() : 0)
+                    .idleConnections(mx != null ? mx.getIdleConnections() : 0)
+                    .totalConnections(mx != null ? mx.getTotalConnections() : 0)
+                    .threadsAwaitingConnection(mx != null ? mx.getThreadsAwaitingConnection() : 0)
+                    .maxPoolSize(dataSource.getMaximumPoolSize())
+                    .borrowCount(borrows)
+                    .avgWaitMs(borrows == 0 ? 0d : totalWaitNanos.sum() / (double) borrows / 1_000_000d)
+                    .maxWaitMs(maxWaitNanos.get() / 1_000_000d)
+                    .createdAt(createdAt)
+                    .lastUsedAt(lastUsedAt.get())
+                    .build();
+        }
+    }
+}
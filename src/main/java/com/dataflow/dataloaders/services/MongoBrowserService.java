@@ -0,0 +1,402 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.JdbcDataPreviewResponse;
+import com.dataflow.dataloaders.dto.MongoCollectionResponse;
+import com.dataflow.dataloaders.dto.MongoSchemaResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.entity.dagmodels.dag.FieldDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.FieldDefinition.DataType;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.Identifier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Browsing for MongoDB connections: collection listing, bounded previews and
+ * schema inference from a $sample of documents. Uses the shared clients of
+ * {@link NoSqlClientRegistry}, and every server call carries a maxTime.
+ */
+@Slf4j
+@Service
+public class MongoBrowserService {
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private NoSqlClientRegistry noSqlClientRegistry;
+
+    @Autowired
+    private ProviderService providerService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VariableService variableService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dataloaders.mongo.max-time-ms:30000}")
+    private long maxTimeMs;
+
+    @Value("${dataloaders.mongo.preview.max-limit:500}")
+    private int maxPreviewLimit;
+
+    @Value("${dataloaders.mongo.schema.sample-size:1000}")
+    private int defaultSampleSize;
+
+    @Value("${dataloaders.mongo.schema.max-sample-size:10000}")
+    private int maxSampleSize;
+
+    @Value("${dataloaders.mongo.schema.merge-batch-size:250}")
+    private int mergeBatchSize;
+
+    public List<MongoCollectionResponse> listCollections(Connection connection) {
+        MongoSession session = open(connection);
+        try (session) {
+            MongoDatabase db = session.database();
+            List<Document> infos = new ArrayList<>();
+            db.listCollections().maxTime(maxTimeMs, TimeUnit.MILLISECONDS).into(infos);
+
+            // estimatedDocumentCount reads collection metadata, one cheap command per collection
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<MongoCollectionResponse>> futures = new ArrayList<>(infos.size());
+                for (Document info : infos) {
+                    String name = info.getString("name");
+                    String type = info.getString("type") != null ? info.getString("type") : "collection";
+                    if (name.startsWith("system."))
+                        continue;
+                    futures.add(executor.submit(() -> MongoCollectionResponse.builder()
+                            .name(name)
+                            .type(type)
+                            .estimatedDocumentCount("view".equals(type) ? null
+                                    : db.getCollection(name).estimatedDocumentCount(new EstimatedDocumentCountOptions()
+                                            .maxTime(maxTimeMs, TimeUnit.MILLISECONDS)))
+                            .build()));
+                }
+                List<MongoCollectionResponse> collections = new ArrayList<>(futures.size());
+                for (Future<MongoCollectionResponse> future : futures) {
+                    collections.add(future.get());
+                }
+                collections.sort(Comparator.comparing(MongoCollectionResponse::getName));
+                return collections;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, "Listing collections was interrupted");
+        } catch (Exception e) {
+            log.error("Error listing collections for {}: {}", connection.getId(), e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to list collections: " + e.getMessage());
+        }
+    }
+
+    /**
+     * First documents of a collection, optionally filtered. The batch size
+     * matches the limit so the server returns them in a single reply.
+     */
+    public JdbcDataPreviewResponse preview(Connection connection, String collectionName, String filter,
+            Integer limit) {
+        int finalLimit = limit == null || limit <= 0 ? 50 : Math.min(limit, maxPreviewLimit);
+        Document query;
+        try {
+            query = filter != null && !filter.isBlank() ? Document.parse(filter) : new Document();
+        } catch (Exception e) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "Invalid filter: " + e.getMessage());
+        }
+
+        MongoSession session = open(connection);
+        try (session) {
+            Set<String> columns = new LinkedHashSet<>();
+            List<Map<String, Object>> data = new ArrayList<>(finalLimit);
+            try (MongoCursor<Document> cursor = session.database().getCollection(collectionName)
+                    .find(query)
+                    .limit(finalLimit)
+                    .batchSize(finalLimit)
+                    .maxTime(maxTimeMs, TimeUnit.MILLISECONDS)
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    // Relaxed extended JSON keeps numbers plain; ObjectIds and dates still
+                    // arrive wrapped, as {"$oid": ...} and {"$date": ...}
+                    Map<String, Object> row = objectMapper.readValue(cursor.next().toJson(JSON_SETTINGS),
+                            ROW_TYPE);
+                    columns.addAll(row.keySet());
+                    data.add(row);
+                }
+            }
+            return JdbcDataPreviewResponse.builder()
+                    .columns(new ArrayList<>(columns))
+                    .data(data)
+                    .query(query.toJson())
+                    .build();
+        } catch (MongoException e) {
+            log.error("Error previewing collection {}: {}", collectionName, e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to preview collection: " + e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new DataloadersException(ErrorFactory.JSON_PROCESSING_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Field tree inferred from a random sample. Sampled documents are merged in
+     * batches on parallel workers and the partial trees are combined at the end.
+     */
+    public MongoSchemaResponse inferSchema(Connection connection, String collectionName, Integer sampleSize) {
+        long start = System.currentTimeMillis();
+        int size = sampleSize == null || sampleSize <= 0 ? defaultSampleSize : Math.min(sampleSize, maxSampleSize);
+        MongoSession session = open(connection);
+        MongoDatabase db = session.database();
+
+        List<Future<SchemaNode>> partials = new ArrayList<>();
+        int sampled = 0;
+        try (session;
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                MongoCursor<Document> cursor = db.getCollection(collectionName)
+                        .aggregate(List.of(new Document("$sample", new Document("size", size))))
+                        .allowDiskUse(true)
+                        .batchSize(Math.min(size, 1000))
+                        .maxTime(maxTimeMs, TimeUnit.MILLISECONDS)
+                        .iterator()) {
+            List<Document> batch = new ArrayList<>(mergeBatchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                sampled++;
+                if (batch.size() == mergeBatchSize) {
+                    partials.add(executor.submit(mergeTask(batch)));
+                    batch = new ArrayList<>(mergeBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                partials.add(executor.submit(mergeTask(batch)));
+            }
+
+            SchemaNode root = new SchemaNode();
+            for (Future<SchemaNode> partial : partials) {
+                root.merge(partial.get());
+            }
+            return MongoSchemaResponse.builder()
+                    .databaseName(db.getName())
+                    .collectionName(collectionName)
+                    .sampledDocuments(sampled)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .fields(root.toFields(sampled))
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, "Schema inference was interrupted");
+        } catch (Exception e) {
+            log.error("Error inferring schema for {}: {}", collectionName, e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to infer collection schema: " + e.getMessage());
+        }
+    }
+
+    private static Callable<SchemaNode> mergeTask(List<Document> documents) {
+        return () -> {
+            SchemaNode node = new SchemaNode();
+            for (Document document : documents) {
+                node.addDocument(document);
+            }
+            return node;
+        };
+    }
+
+    private MongoSession open(Connection connection) {
+        Provider provider = providerService.getProvider(Identifier.builder().word(connection.getProviderId()).build());
+        if (!provider.getProviderName().toLowerCase().contains("mongo")) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "Connection " + connection.getId() + " is not a MongoDB connection");
+        }
+        JsonNode decryptedSecrets = encryptionService.decrypt(connection.getSecrets());
+        JsonNode config = variableService.resolveJsonNode(connection.getConfig(), connection.getApplicationId(), null);
+        JsonNode secrets = variableService.resolveJsonNode(decryptedSecrets, connection.getApplicationId(), null);
+
+        String uri = NoSqlClientRegistry.mongoUri(config, secrets, connection.getUseSsl());
+        String databaseName = NoSqlClientRegistry.mongoDatabase(config, uri);
+        if (databaseName == null || databaseName.isBlank()) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST, "Connection " + connection.getId()
+                    + " names no database; set database_name or include one in the connection string");
+        }
+        NoSqlClientRegistry.Lease<MongoClient> client = noSqlClientRegistry.getMongoClient(connection.getId(), uri,
+                connection.getConnectionTimeout());
+        return new MongoSession(client, client.get().getDatabase(databaseName));
+    }
+
+    /**
+     * Database of a leased client; closing it releases the lease
+     */
+    private record MongoSession(NoSqlClientRegistry.Lease<MongoClient> client, MongoDatabase database)
+            implements AutoCloseable {
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+
+    /**
+     * Observed types of one field path, with children for sub-documents and a
+     * single element node for array contents
+     */
+    private static class SchemaNode {
+        private final Map<DataType, Long> types = new EnumMap<>(DataType.class);
+        private final Map<String, SchemaNode> children = new LinkedHashMap<>();
+        private SchemaNode element;
+        private long present;
+        private long nulls;
+        private boolean objectId;
+
+        private void addDocument(Map<String, Object> document) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                children.computeIfAbsent(entry.getKey(), k -> new SchemaNode()).addValue(entry.getValue());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addValue(Object value) {
+            present++;
+            if (value == null) {
+                nulls++;
+                return;
+            }
+            DataType type = typeOf(value);
+            types.merge(type, 1L, Long::sum);
+            if (value instanceof ObjectId) {
+                objectId = true;
+            } else if (value instanceof Map<?, ?> map) {
+                addDocument((Map<String, Object>) map);
+            } else if (value instanceof List<?> list) {
+                if (element == null) {
+                    element = new SchemaNode();
+                }
+                for (Object item : list) {
+                    element.addValue(item);
+                }
+            }
+        }
+
+        private void merge(SchemaNode other) {
+            present += other.present;
+            nulls += other.nulls;
+            objectId |= other.objectId;
+            other.types.forEach((type, count) -> types.merge(type, count, Long::sum));
+            other.children.forEach((name, child) -> children.computeIfAbsent(name, k -> new SchemaNode()).merge(child));
+            if (other.element != null) {
+                if (element == null) {
+                    element = new SchemaNode();
+                }
+                element.merge(other.element);
+            }
+        }
+
+        private List<FieldDefinition> toFields(long parentCount) {
+            List<FieldDefinition> fields = new ArrayList<>(children.size());
+            children.forEach((name, child) -> fields.add(child.toField(name, parentCount)));
+            return fields;
+        }
+
+        private FieldDefinition toField(String name, long parentCount) {
+            FieldDefinition field = new FieldDefinition();
+            field.setName(name);
+            field.setType(dominantType());
+
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("frequency", parentCount == 0 ? 0 : (double) present / parentCount);
+            properties.put("isNullable", nulls > 0 || present < parentCount);
+            if (types.size() > 1) {
+                Map<String, Long> observed = new LinkedHashMap<>();
+                types.forEach((type, count) -> observed.put(type.name(), count));
+                properties.put("observedTypes", observed);
+            }
+            if (objectId) {
+                properties.put("bsonType", "objectId");
+            }
+
+            long objects = types.getOrDefault(DataType.OBJECT, 0L);
+            if (!children.isEmpty()) {
+                field.setChildren(toFields(objects));
+            } else if (element != null) {
+                DataType elementType = element.dominantType();
+                properties.put("elementType", elementType.name());
+                if (!element.children.isEmpty()) {
+                    field.setChildren(element.toFields(element.types.getOrDefault(DataType.OBJECT, 0L)));
+                }
+            }
+            field.setProperties(properties);
+            return field;
+        }
+
+        private DataType dominantType() {
+            if (types.isEmpty())
+                return DataType.ANY;
+            if (types.size() == 1)
+                return types.keySet().iterator().next();
+            Set<DataType> numeric = EnumSet.of(DataType.INTEGER, DataType.LONG, DataType.DOUBLE, DataType.DECIMAL);
+            if (numeric.containsAll(types.keySet())) {
+                if (types.containsKey(DataType.DECIMAL))
+                    return DataType.DECIMAL;
+                if (types.containsKey(DataType.DOUBLE))
+                    return DataType.DOUBLE;
+                return DataType.LONG;
+            }
+            return DataType.ANY;
+        }
+
+        private static DataType typeOf(Object value) {
+            if (value instanceof String || value instanceof ObjectId)
+                return DataType.STRING;
+            if (value instanceof Integer)
+                return DataType.INTEGER;
+            if (value instanceof Long)
+                return DataType.LONG;
+            if (value instanceof Double)
+                return DataType.DOUBLE;
+            if (value instanceof Decimal128)
+                return DataType.DECIMAL;
+            if (value instanceof Boolean)
+                return DataType.BOOLEAN;
+            if (value instanceof Date)
+                return DataType.TIMESTAMP;
+            if (value instanceof Map)
+                return DataType.OBJECT;
+            if (value instanceof List)
+                return DataType.ARRAY;
+            if (value instanceof Binary)
+                return DataType.BINARY;
+            return DataType.ANY;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches MongoClient instances and JedisPools keyed by a hash of the resolved
+ * connection settings, so repeated probes and metadata calls reuse live
+ * sockets instead of bootstrapping a new client each time.
+ * Entries are bounded, evicted after an idle period, and dropped explicitly
+ * when the owning saved connection is updated or deleted.
+ * Callers hold a {@link Lease} while they use a client; a dropped client is
+ * only closed once its last lease is released, so eviction never closes a
+ * client under a running request.
+ */
+@Slf4j
+@Service
+public class NoSqlClientRegistry {
+
+    @Value("${dataloaders.nosql.client.max-entries:64}")
+    private int maxEntries;
+
+    @Value("${dataloaders.nosql.client.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${dataloaders.nosql.client.redis-pool-size:4}")
+    private int redisPoolSize;
+
+    private final Map<String, CachedClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Leases a shared MongoClient for the uri. connectionId may be null for
+     * unsaved connections; it is only used for explicit eviction.
+     */
+    public Lease<MongoClient> getMongoClient(String connectionId, String uri, Integer timeoutSeconds) {
+        String key = "mongo:" + hash(uri, String.valueOf(timeoutSeconds));
+        while (true) {
+            CachedClient cached = clients.get(key);
+            if (cached == null) {
+                int timeoutMs = (timeoutSeconds != null ? timeoutSeconds : 30) * 1000;
+                MongoClientSettings settings = MongoClientSettings.builder()
+                        .applyConnectionString(new ConnectionString(uri))
+                        .applyToSocketSettings(b -> b.connectTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+                        .applyToClusterSettings(b -> b.serverSelectionTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+                        .applyToConnectionPoolSettings(b -> b.minSize(0)
+                                .maxConnectionIdleTime(idleTimeoutMs, TimeUnit.MILLISECONDS))
+                        .build();
+                cached = register(key, connectionId, MongoClients.create(settings));
+            }
+            Lease<MongoClient> lease = cached.lease(MongoClient.class);
+            if (lease != null) {
+                return lease;
+            }
+            // Dropped between lookup and lease; the next lookup builds its replacement
+        }
+    }
+
+    /**
+     * Connection string of a Mongo connection config: the configured
+     * connection_string when present, otherwise built from host, port and
+     * credentials
+     */
+    public static String mongoUri(JsonNode config, JsonNode secrets, Boolean useSsl) {
+        if (config.has("connection_string") && !config.get("connection_string").asText().isEmpty()) {
+            return config.get("connection_string").asText();
+        }
+        String host = config.get("host").asText();
+        int port = config.has("port") ? config.get("port").asInt() : 27017;
+        String database = config.get("database_name").asText();
+        String username = config.has("username") ? config.get("username").asText() : null;
+        String password = secrets != null && secrets.has("password") ? secrets.get("password").asText() : null;
+
+        String uri;
+        if (username != null && password != null) {
+            uri = String.format("mongodb://%s:%s@%s:%d/%s", username, password, host, port, database);
+        } else {
+            uri = String.format("mongodb://%s:%d/%s", host, port, database);
+        }
+        if (useSsl != null && useSsl) {
+            uri += "?ssl=true";
+        }
+        return uri;
+    }
+
+    /**
+     * Database a Mongo connection config browses: database_name when set,
+     * otherwise the one named in the connection string; null when neither
+     * names one
+     */
+    public static String mongoDatabase(JsonNode config, String uri) {
+        String database = config.path("database_name").asText();
+        if (!database.isBlank()) {
+            return database;
+        }
+        return uri != null ? new ConnectionString(uri).getDatabase() : null;
+    }
+
+    /**
+     * Leases a shared JedisPool for the given endpoint and credentials
+     */
+    public Lease<JedisPool> getJedisPool(String connectionId, String host, int port, String password, int database,
+            int timeoutMs) {
+        String key = "redis:" + hash(host, String.valueOf(port), password, String.valueOf(database),
+                String.valueOf(timeoutMs));
+        while (true) {
+            CachedClient cached = clients.get(key);
+            if (cached == null) {
+                JedisPoolConfig poolConfig = new JedisPoolConfig();
+                poolConfig.setMaxTotal(redisPoolSize);
+                poolConfig.setMaxIdle(redisPoolSize);
+                poolConfig.setMinIdle(0);
+                poolConfig.setTestOnBorrow(false);
+                poolConfig.setTestWhileIdle(true);
+                poolConfig.setMaxWait(Duration.ofMillis(timeoutMs));
+                poolConfig.setTimeBetweenEvictionRuns(Duration.ofMinutes(1));
+                poolConfig.setMinEvictableIdleDuration(Duration.ofMillis(idleTimeoutMs));
+                JedisPool pool = new JedisPool(poolConfig, host, port, timeoutMs,
+                        password != null && !password.isEmpty() ? password : null, database);
+                cached = register(key, connectionId, pool);
+            }
+            Lease<JedisPool> lease = cached.lease(JedisPool.class);
+            if (lease != null) {
+                return lease;
+            }
+        }
+    }
+
+    /**
+     * Drops the client for a configuration after a failed probe so the next
+     * attempt starts from scratch. Requests still holding a lease keep using
+     * it until they release it.
+     */
+    public void evictMongoClient(String uri, Integer timeoutSeconds) {
+        evict("mongo:" + hash(uri, String.valueOf(timeoutSeconds)));
+    }
+
+    public void evictJedisPool(String host, int port, String password, int database, int timeoutMs) {
+        evict("redis:" + hash(host, String.valueOf(port), password, String.valueOf(database),
+                String.valueOf(timeoutMs)));
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        clients.forEach((key, cached) -> {
+            if (Objects.equals(cached.connectionId, event.getConnectionId())) {
+                evict(key);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${dataloaders.nosql.client.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        clients.forEach((key, cached) -> {
+            if (cached.lastUsedAt < cutoff && cached.leases.get() == 0) {
+                log.debug("Evicting idle client {}", key);
+                evict(key);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (String key : new ArrayList<>(clients.keySet())) {
+            CachedClient removed = clients.remove(key);
+            if (removed != null) {
+                removed.close();
+            }
+        }
+    }
+
+    private CachedClient register(String key, String connectionId, AutoCloseable client) {
+        CachedClient created = new CachedClient(key, connectionId, client);
+        CachedClient existing = clients.putIfAbsent(key, created);
+        if (existing != null) {
+            // Lost the race against a concurrent request for the same settings
+            created.close();
+            return existing;
+        }
+        // Prefer entries nobody holds; a held entry evicted anyway closes after its last lease
+        while (clients.size() > maxEntries) {
+            clients.entrySet().stream()
+                    .filter(e -> !e.getKey().equals(key))
+                    .min(Comparator.<Map.Entry<String, CachedClient>, Boolean>comparing(
+                            e -> e.getValue().leases.get() > 0)
+                            .thenComparingLong(e -> e.getValue().lastUsedAt))
+                    .map(Map.Entry::getKey)
+                    .ifPresent(this::evict);
+        }
+        return created;
+    }
+
+    private void evict(String key) {
+        CachedClient removed = clients.remove(key);
+        if (removed != null) {
+            removed.retire();
+        }
+    }
+
+    private static String hash(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Use of a shared client; closing it releases the client back to the
+     * registry, never the client itself
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final CachedClient owner;
+        private final T client;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(CachedClient owner, T client) {
+            this.owner = owner;
+            this.client = client;
+        }
+
+        public T get() {
+            return client;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                owner.release();
+            }
+        }
+    }
+
+    private static class CachedClient {
+        private final String key;
+        private final String connectionId;
+        private final AutoCloseable client;
+        private final AtomicInteger leases = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean retired;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private CachedClient(String key, String connectionId, AutoCloseable client) {
+            this.key = key;
+            this.connectionId = connectionId;
+            this.client = client;
+        }
+
+        /**
+         * Null when the entry was retired before the lease was taken
+         */
+        private <T> Lease<T> lease(Class<T> type) {
+            leases.incrementAndGet();
+            if (retired) {
+                release();
+                return null;
+            }
+            lastUsedAt = System.currentTimeMillis();
+            return new Lease<>(this, type.cast(client));
+        }
+
+        private void release() {
+            if (leases.decrementAndGet() == 0 && retired) {
+                close();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            if (leases.get() == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true))
+                return;
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.warn("Error closing client {}: {}", key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.JdbcDataPreviewResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server side cursors for paging through a preview. A session keeps a pooled
+ * connection with a forward-only ResultSet open, so each "next page" reads the
+ * following rows instead of re-running the query.
+ * Idle sessions are closed by a sweeper, and sessions are capped per user and
+ * per connection so cursors cannot drain a connection pool.
+ */
+@Slf4j
+@Service
+public class PreviewSessionService {
+
+    public static final String USER_HEADER = "userId";
+
+    private static final String DEFAULT_USER = "admin";
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Value("${dataloaders.preview.session.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${dataloaders.preview.session.max-lifetime-seconds:1800}")
+    private long maxLifetimeSeconds;
+
+    @Value("${dataloaders.preview.session.max-per-user:3}")
+    private int maxPerUser;
+
+    @Value("${dataloaders.preview.session.max-per-connection:2}")
+    private int maxPerConnection;
+
+    @Value("${dataloaders.preview.session.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${dataloaders.preview.session.max-rows:100000}")
+    private int maxRows;
+
+    private final Map<String, PreviewSession> sessions = new ConcurrentHashMap<>();
+
+    public static String userOf(HttpHeaders headers) {
+        String user = headers != null ? headers.getFirst(USER_HEADER) : null;
+        return user != null && !user.isBlank() ? user : DEFAULT_USER;
+    }
+
+    /**
+     * Executes the query on a dedicated pooled connection and returns the first page
+     */
+    public JdbcDataPreviewResponse open(Connection connection, String query, Integer pageSize, String owner) {
+        int size = pageSize(pageSize);
+        PreviewSession session;
+        // Capacity check and registration must be atomic; the query itself runs outside the monitor
+        synchronized (this) {
+            long ownerSessions = sessions.values().stream().filter(s -> s.owner.equals(owner)).count();
+            if (ownerSessions >= maxPerUser) {
+                throw new DataloadersException(ErrorFactory.TOO_MANY_REQUESTS,
+                        "Too many open preview sessions (max " + maxPerUser + "), close one before opening another");
+            }
+            long connectionSessions = sessions.values().stream()
+                    .filter(s -> s.connectionId.equals(connection.getId())).count();
+            if (connectionSessions >= maxPerConnection) {
+                throw new DataloadersException(ErrorFactory.TOO_MANY_REQUESTS,
+                        "Too many open preview sessions for this connection (max " + maxPerConnection + ")");
+            }
+            session = new PreviewSession(UUID.randomUUID().toString(), owner, connection.getId(), query);
+            // Held until the first page is read so the sweeper never sees a half open session
+            session.lock.lock();
+            sessions.put(session.id, session);
+        }
+
+        try {
+            openCursor(session, connection, size);
+            return readPage(session, size);
+        } catch (Exception e) {
+            closeSession(session);
+            log.error("Error opening preview session: {}", e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to preview data: " + e.getMessage());
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public JdbcDataPreviewResponse next(String sessionId, Integer pageSize, String owner) {
+        PreviewSession session = getOwnedSession(sessionId, owner);
+        session.lock.lock();
+        try {
+            if (session.closed) {
+                throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Preview session has expired");
+            }
+            return readPage(session, pageSize(pageSize));
+        } catch (DataloadersException e) {
+            throw e;
+        } catch (Exception e) {
+            closeSession(session);
+            log.error("Error reading preview session {}: {}", sessionId, e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to read next page: " + e.getMessage());
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public boolean close(String sessionId, String owner) {
+        PreviewSession session = getOwnedSession(sessionId, owner);
+        session.lock.lock();
+        try {
+            closeSession(session);
+        } finally {
+            session.lock.unlock();
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${dataloaders.preview.session.sweep-interval-ms:30000}")
+    public void reapIdleSessions() {
+        long now = System.currentTimeMillis();
+        for (PreviewSession session : sessions.values()) {
+            boolean idle = now - session.lastAccessAt > ttlSeconds * 1000;
+            boolean expired = now - session.createdAt > maxLifetimeSeconds * 1000;
+            // Never block the sweeper on a session that is serving a page right now
+            if ((idle || expired) && session.lock.tryLock()) {
+                try {
+                    log.info("Closing {} preview session {}", idle ? "idle" : "expired", session.id);
+                    closeSession(session);
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        for (PreviewSession session : sessions.values()) {
+            if (session.connectionId.equals(event.getConnectionId())) {
+                session.lock.lock();
+                try {
+                    closeSession(session);
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(this::closeSession);
+    }
+
+    private void openCursor(PreviewSession session, Connection connection, int pageSize) throws SQLException {
+        session.jdbcConnection = dataSourceRegistry.getConnection(connection);
+        SqlDialect dialect = SqlDialect.of(session.jdbcConnection);
+
+        session.statement = session.jdbcConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        dialect.streamResults(session.jdbcConnection, session.statement, pageSize);
+        session.statement.setMaxRows(maxRows);
+        // Only the initial execution is cancellable with the request; later pages are plain fetches
+        try (StatementRegistry.Tracked tracked = statementRegistry.track(session.statement, dialect)) {
+            session.resultSet = session.statement.executeQuery(session.query);
+        }
+
+        ResultSetMetaData rsmd = session.resultSet.getMetaData();
+        for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+            session.columns.add(rsmd.getColumnName(i));
+        }
+    }
+
+    private JdbcDataPreviewResponse readPage(PreviewSession session, int pageSize) throws SQLException {
+        session.lastAccessAt = System.currentTimeMillis();
+        long offset = session.rowsRead;
+        int columnCount = session.columns.size();
+        List<Map<String, Object>> data = new ArrayList<>(pageSize);
+
+        while (data.size() < pageSize && !session.exhausted) {
+            if (!session.resultSet.next()) {
+                session.exhausted = true;
+                break;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                row.put(session.columns.get(i - 1), session.resultSet.getObject(i));
+            }
+            data.add(row);
+            session.rowsRead++;
+        }
+
+        boolean hasMore = !session.exhausted;
+        if (!hasMore) {
+            // Nothing left to page through, give the connection back right away
+            closeSession(session);
+        }
+        return JdbcDataPreviewResponse.builder()
+                .columns(session.columns)
+                .data(data)
+                .query(session.query)
+                .sessionId(hasMore ? session.id : null)
+                .offset(offset)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private PreviewSession getOwnedSession(String sessionId, String owner) {
+        PreviewSession session = sessions.get(sessionId);
+        if (session == null || !session.owner.equals(owner)) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Preview session not found or expired");
+        }
+        return session;
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0)
+            return 50;
+        return Math.min(requested, maxPageSize);
+    }
+
+    private void closeSession(PreviewSession session) {
+        sessions.remove(session.id);
+        if (session.closed)
+            return;
+        session.closed = true;
+        try {
+            if (session.resultSet != null)
+                session.resultSet.close();
+        } catch (SQLException e) {
+            log.debug("Error closing preview result set: {}", e.getMessage());
+        }
+        try {
+            if (session.statement != null)
+                session.statement.close();
+        } catch (SQLException e) {
+            log.debug("Error closing preview statement: {}", e.getMessage());
+        }
+        if (session.jdbcConnection != null) {
+            try {
+                session.jdbcConnection.rollback();
+            } catch (SQLException e) {
+                log.debug("Error rolling back preview session: {}", e.getMessage());
+            }
+            try {
+                session.jdbcConnection.close();
+            } catch (SQLException e) {
+                log.warn("Error returning preview connection to pool: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static class PreviewSession {
+        private final String id;
+        private final String owner;
+        private final String connectionId;
+        private final String query;
+        private final long createdAt = System.currentTimeMillis();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<String> columns = new ArrayList<>();
+        private volatile long lastAccessAt = System.currentTimeMillis();
+        private java.sql.Connection jdbcConnection;
+        private Statement statement;
+        private ResultSet resultSet;
+        private long rowsRead;
+        private boolean exhausted;
+        private volatile boolean closed;
+
+        private PreviewSession(String id, String owner, String connectionId, String query) {
+            this.id = id;
+            this.owner = owner;
+            this.connectionId = connectionId;
+            this.query = query;
+        }
+    }
+}
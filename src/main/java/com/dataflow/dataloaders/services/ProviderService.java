@@ -2,12 +2,14 @@ package com.dataflow.dataloaders.services;
 
 import com.dataflow.dataloaders.dao.ProviderDao;
 import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.events.ProviderChangedEvent;
 import com.dataflow.dataloaders.exception.DataloadersException;
 import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.util.DateUtils;
 import com.dataflow.dataloaders.util.Identifier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,6 +24,9 @@ public class ProviderService {
     @Autowired
     private IconService iconService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Provider create(Provider request, Identifier identifier) {
         Provider provider = Provider.builder()
                 .connectionTypeId(request.getConnectionTypeId())
@@ -73,6 +78,7 @@ public class ProviderService {
         existing.setUpdatedAt(DateUtils.getUnixTimestampInUTC());
 
         providerDao.update(existing);
+        eventPublisher.publishEvent(new ProviderChangedEvent(existing.getId()));
         return providerDao.getV1(identifier).orElse(existing);
     }
 
@@ -81,6 +87,10 @@ public class ProviderService {
         Provider provider = providerDao.getV1(identifier)
                 .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND));
         provider.setUpdatedBy("admin");
-        return providerDao.delete(provider) > 0;
+        boolean deleted = providerDao.delete(provider) > 0;
+        if (deleted) {
+            eventPublisher.publishEvent(new ProviderChangedEvent(provider.getId()));
+        }
+        return deleted;
     }
 }
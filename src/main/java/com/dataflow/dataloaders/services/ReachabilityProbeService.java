@@ -0,0 +1,297 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.ReachabilityResult;
+import com.dataflow.dataloaders.dto.ReachabilityTarget;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * TCP reachability of many host:port targets at once. Host names are resolved
+ * in parallel on resolver threads, then every connect runs non-blocking in a single
+ * Selector loop, so probing hundreds of targets costs one thread and one
+ * socket per target for at most the timeout. Only the TCP handshake is done;
+ * no bytes are sent.
+ */
+@Slf4j
+@Service
+public class ReachabilityProbeService {
+
+    public static final String REACHABLE = "reachable";
+    public static final String REFUSED = "refused";
+    public static final String TIMEOUT = "timeout";
+    public static final String UNRESOLVED = "unresolved";
+    public static final String UNREACHABLE = "unreachable";
+    public static final String INVALID = "invalid";
+
+    /**
+     * Upper bound of sockets open at once; larger probes run in batches
+     */
+    @Value("${connection.test.probe.max-sockets:512}")
+    private int maxSockets;
+
+    @Value("${connection.test.probe.max-targets:1000}")
+    private int maxTargets;
+
+    @Value("${connection.test.probe.max-timeout-ms:15000}")
+    private int maxTimeoutMs;
+
+    private ExecutorService resolver;
+
+    @PostConstruct
+    void init() {
+        // Name lookups are blocking native calls that ignore interrupts and would pin a virtual
+        // thread's carrier. A lookup hanging past the timeout keeps only its own thread, so the
+        // pool grows instead of queueing later lookups behind it; idle threads exit after a minute.
+        resolver = Executors.newCachedThreadPool(
+                Thread.ofPlatform().name("reachability-dns-", 0).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        resolver.shutdownNow();
+    }
+
+    /**
+     * Probes every target; results are in target order. DNS and connect each
+     * get up to timeoutMs, clamped to the configured maximum.
+     */
+    public List<ReachabilityResult> probe(List<ReachabilityTarget> targets, int timeoutMs) {
+        checkTargetCount(targets.size());
+        timeoutMs = Math.min(Math.max(1, timeoutMs), maxTimeoutMs);
+        List<Probe> probes = new ArrayList<>(targets.size());
+        for (ReachabilityTarget target : targets) {
+            probes.add(new Probe(target));
+        }
+        resolve(probes, timeoutMs);
+
+        List<Probe> connectable = probes.stream().filter(probe -> probe.status == null).toList();
+        int batchSize = Math.max(1, maxSockets);
+        for (int from = 0; from < connectable.size(); from += batchSize) {
+            connect(connectable.subList(from, Math.min(from + batchSize, connectable.size())), timeoutMs);
+        }
+        return probes.stream().map(Probe::toResult).toList();
+    }
+
+    public ReachabilityResult probe(ReachabilityTarget target, int timeoutMs) {
+        return probe(List.of(target), timeoutMs).get(0);
+    }
+
+    /**
+     * Rejects a probe of more targets than one request may hold
+     */
+    public void checkTargetCount(int count) {
+        if (count > maxTargets) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    "At most " + maxTargets + " targets can be probed at once, got " + count);
+        }
+    }
+
+    private void resolve(List<Probe> probes, int timeoutMs) {
+        // Each distinct host is looked up once
+        Map<String, Future<Lookup>> lookups = new HashMap<>();
+        for (Probe probe : probes) {
+            String host = probe.target.getHost();
+            Integer port = probe.target.getPort();
+            if (host == null || host.isBlank() || port == null || port < 1 || port > 65535) {
+                probe.fail(INVALID, "A host and a port between 1 and 65535 are required");
+                continue;
+            }
+            lookups.computeIfAbsent(host.trim().toLowerCase(Locale.ROOT), name -> resolver.submit(() -> {
+                long start = System.nanoTime();
+                InetAddress address = InetAddress.getByName(name);
+                return new Lookup(address, elapsedMs(start));
+            }));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Probe probe : probes) {
+            if (probe.status != null)
+                continue;
+            Future<Lookup> lookup = lookups.get(probe.target.getHost().trim().toLowerCase(Locale.ROOT));
+            try {
+                Lookup resolved = lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                probe.address = resolved.address();
+                probe.dnsMs = resolved.elapsedMs();
+            } catch (TimeoutException e) {
+                probe.dnsMs = (long) timeoutMs;
+                probe.fail(TIMEOUT, "DNS lookup did not finish within " + timeoutMs + " ms");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UnknownHostException) {
+                    probe.fail(UNRESOLVED, "Unknown host " + probe.target.getHost());
+                } else {
+                    probe.fail(UNRESOLVED, e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                probe.fail(TIMEOUT, "Probe interrupted");
+            }
+        }
+        lookups.values().forEach(lookup -> lookup.cancel(true));
+    }
+
+    private void connect(List<Probe> probes, int timeoutMs) {
+        try (Selector selector = Selector.open()) {
+            int pending = 0;
+            for (Probe probe : probes) {
+                if (start(probe, selector)) {
+                    pending++;
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (pending > 0) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0)
+                    break;
+                selector.select(remainingMs);
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    Probe probe = (Probe) key.attachment();
+                    try {
+                        if (((SocketChannel) key.channel()).finishConnect()) {
+                            probe.connected();
+                        } else {
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        probe.failConnect(e);
+                    }
+                    key.cancel();
+                    close(key.channel());
+                    pending--;
+                }
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                Probe probe = (Probe) key.attachment();
+                if (probe.status == null) {
+                    probe.connectMs = (long) timeoutMs;
+                    probe.fail(TIMEOUT, "No answer within " + timeoutMs + " ms");
+                }
+                close(key.channel());
+            }
+        } catch (IOException e) {
+            log.error("Reachability probe failed: {}", e.getMessage(), e);
+            for (Probe probe : probes) {
+                if (probe.status == null) {
+                    probe.fail(UNREACHABLE, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a non-blocking connect; true when it is still in progress
+     */
+    private boolean start(Probe probe, Selector selector) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            probe.connectStart = System.nanoTime();
+            if (channel.connect(new InetSocketAddress(probe.address, probe.target.getPort()))) {
+                // Loopback connects can complete immediately
+                probe.connected();
+                close(channel);
+                return false;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            return true;
+        } catch (IOException e) {
+            probe.failConnect(e);
+            close(channel);
+            return false;
+        }
+    }
+
+    private static void close(Channel channel) {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close probe socket: {}", e.getMessage());
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private record Lookup(InetAddress address, long elapsedMs) {
+    }
+
+    private static class Probe {
+        private final ReachabilityTarget target;
+        private InetAddress address;
+        private Long dnsMs;
+        private long connectStart;
+        private Long connectMs;
+        private String status;
+        private String errorMessage;
+
+        private Probe(ReachabilityTarget target) {
+            this.target = target;
+        }
+
+        private void connected() {
+            connectMs = elapsedMs(connectStart);
+            status = REACHABLE;
+        }
+
+        private void failConnect(IOException e) {
+            connectMs = elapsedMs(connectStart);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            // An RST answer is a live host with nothing listening; anything else never got an answer
+            boolean refused = e instanceof ConnectException && message.toLowerCase(Locale.ROOT).contains("refused");
+            fail(refused ? REFUSED : UNREACHABLE, message);
+        }
+
+        private void fail(String status, String errorMessage) {
+            this.status = status;
+            this.errorMessage = errorMessage;
+        }
+
+        private ReachabilityResult toResult() {
+            return ReachabilityResult.builder()
+                    .id(target.getId())
+                    .host(target.getHost())
+                    .port(target.getPort())
+                    .address(address != null ? address.getHostAddress() : null)
+                    .status(status)
+                    .dnsMs(dnsMs)
+                    .connectMs(connectMs)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.RedisKeyInfo;
+import com.dataflow.dataloaders.dto.RedisKeyPreview;
+import com.dataflow.dataloaders.dto.RedisScanResponse;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.Identifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.Tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Keyspace browsing for Redis connections. Keys are walked with cursor based
+ * SCAN, never KEYS, and each page is bounded in SCAN calls so a sparse match
+ * pattern cannot keep the server busy. Per-key metadata and value previews
+ * are read with pipelines, one round trip per page.
+ */
+@Slf4j
+@Service
+public class RedisBrowserService {
+
+    @Autowired
+    private NoSqlClientRegistry noSqlClientRegistry;
+
+    @Autowired
+    private ProviderService providerService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VariableService variableService;
+
+    @Value("${dataloaders.redis.scan.count:500}")
+    private int scanCount;
+
+    @Value("${dataloaders.redis.scan.max-calls:50}")
+    private int maxScanCalls;
+
+    @Value("${dataloaders.redis.scan.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${dataloaders.redis.preview.max-keys:50}")
+    private int maxPreviewKeys;
+
+    @Value("${dataloaders.redis.preview.max-elements:100}")
+    private int maxElements;
+
+    @Value("${dataloaders.redis.preview.max-string-bytes:4096}")
+    private int maxStringBytes;
+
+    /**
+     * One page of keys from the cursor. The page ends once pageSize keys are
+     * collected, the keyspace is exhausted or the SCAN call budget is spent,
+     * so it may hold fewer keys than asked (or a few more, as SCAN batches are
+     * never split) while the cursor is not yet "0".
+     */
+    public RedisScanResponse scan(Connection connection, String cursor, String pattern, String type,
+            Integer pageSize) {
+        long start = System.currentTimeMillis();
+        int size = pageSize == null || pageSize <= 0 ? 100 : Math.min(pageSize, maxPageSize);
+        String match = pattern == null || pattern.isBlank() ? "*" : pattern;
+        ScanParams params = new ScanParams().match(match).count(scanCount);
+
+        try (NoSqlClientRegistry.Lease<JedisPool> pool = pool(connection);
+                Jedis jedis = pool.get().getResource()) {
+            String next = cursor == null || cursor.isBlank() ? ScanParams.SCAN_POINTER_START : cursor;
+            List<String> keys = new ArrayList<>(size);
+            int calls = 0;
+            do {
+                ScanResult<String> result = type == null || type.isBlank()
+                        ? jedis.scan(next, params)
+                        : jedis.scan(next, params, type);
+                keys.addAll(result.getResult());
+                next = result.getCursor();
+                calls++;
+            } while (!ScanParams.SCAN_POINTER_START.equals(next) && keys.size() < size && calls < maxScanCalls);
+
+            return RedisScanResponse.builder()
+                    .pattern(match)
+                    .keys(describe(jedis, keys))
+                    .cursor(next)
+                    .complete(ScanParams.SCAN_POINTER_START.equals(next))
+                    .scanCalls(calls)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build();
+        } catch (JedisException e) {
+            log.error("Error scanning keys for {}: {}", connection.getId(), e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION, "Failed to scan keys: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Leading part of each key's value: a pipeline for the types, then one for
+     * the type specific reads
+     */
+    public List<RedisKeyPreview> preview(Connection connection, List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "At least one key is required");
+        }
+        if (keys.size() > maxPreviewKeys) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "At most " + maxPreviewKeys + " keys can be previewed at once");
+        }
+
+        try (NoSqlClientRegistry.Lease<JedisPool> pool = pool(connection);
+                Jedis jedis = pool.get().getResource()) {
+            Pipeline typePipeline = jedis.pipelined();
+            List<Response<String>> types = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                types.add(typePipeline.type(key));
+            }
+            typePipeline.sync();
+
+            Pipeline pipeline = jedis.pipelined();
+            List<PendingPreview> pending = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                pending.add(queuePreview(pipeline, keys.get(i), types.get(i).get()));
+            }
+            pipeline.sync();
+
+            List<RedisKeyPreview> previews = new ArrayList<>(pending.size());
+            for (PendingPreview preview : pending) {
+                previews.add(preview.toPreview());
+            }
+            return previews;
+        } catch (JedisException e) {
+            log.error("Error previewing keys for {}: {}", connection.getId(), e.getMessage(), e);
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION, "Failed to preview keys: " + e.getMessage());
+        }
+    }
+
+    private List<RedisKeyInfo> describe(Jedis jedis, List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        List<Response<Long>> sizes = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            types.add(pipeline.type(key));
+            sizes.add(pipeline.memoryUsage(key));
+            ttls.add(pipeline.pttl(key));
+        }
+        pipeline.sync();
+
+        List<RedisKeyInfo> infos = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            infos.add(RedisKeyInfo.builder()
+                    .key(keys.get(i))
+                    .type(types.get(i).get())
+                    .sizeBytes(getQuietly(sizes.get(i)))
+                    .ttlMs(ttls.get(i).get())
+                    .build());
+        }
+        return infos;
+    }
+
+    private PendingPreview queuePreview(Pipeline pipeline, String key, String type) {
+        ScanParams params = new ScanParams().count(maxElements);
+        return switch (type) {
+            case "string" -> new PendingPreview(key, type, pipeline.strlen(key),
+                    pipeline.getrange(key, 0, maxStringBytes - 1L));
+            case "list" -> new PendingPreview(key, type, pipeline.llen(key),
+                    pipeline.lrange(key, 0, maxElements - 1L));
+            case "set" -> new PendingPreview(key, type, pipeline.scard(key),
+                    pipeline.sscan(key, ScanParams.SCAN_POINTER_START, params));
+            case "hash" -> new PendingPreview(key, type, pipeline.hlen(key),
+                    pipeline.hscan(key, ScanParams.SCAN_POINTER_START, params));
+            case "zset" -> new PendingPreview(key, type, pipeline.zcard(key),
+                    pipeline.zrangeWithScores(key, 0, maxElements - 1L));
+            case "stream" -> new PendingPreview(key, type, pipeline.xlen(key),
+                    pipeline.xrevrange(key, "+", "-", maxElements));
+            default -> new PendingPreview(key, type, null, null);
+        };
+    }
+
+    private static <T> T getQuietly(Response<T> response) {
+        try {
+            return response.get();
+        } catch (JedisException e) {
+            // e.g. MEMORY USAGE renamed or disabled on managed servers
+            return null;
+        }
+    }
+
+    private NoSqlClientRegistry.Lease<JedisPool> pool(Connection connection) {
+        Provider provider = providerService.getProvider(Identifier.builder().word(connection.getProviderId()).build());
+        if (!provider.getProviderName().toLowerCase().contains("redis")) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "Connection " + connection.getId() + " is not a Redis connection");
+        }
+        JsonNode decryptedSecrets = encryptionService.decrypt(connection.getSecrets());
+        JsonNode config = variableService.resolveJsonNode(connection.getConfig(), connection.getApplicationId(), null);
+        JsonNode secrets = variableService.resolveJsonNode(decryptedSecrets, connection.getApplicationId(), null);
+
+        String password = secrets != null && secrets.has("password") ? secrets.get("password").asText() : null;
+        int database = config.has("database") ? config.get("database").asInt() : 0;
+        int timeoutMs = connection.getConnectionTimeout() != null ? connection.getConnectionTimeout() * 1000 : 30000;
+        return noSqlClientRegistry.getJedisPool(connection.getId(), config.get("host").asText(),
+                config.get("port").asInt(), password, database, timeoutMs);
+    }
+
+    /**
+     * Pipelined responses of one key, read after sync
+     */
+    private class PendingPreview {
+        private final String key;
+        private final String type;
+        private final Response<Long> length;
+        private final Response<?> value;
+
+        private PendingPreview(String key, String type, Response<Long> length, Response<?> value) {
+            this.key = key;
+            this.type = type;
+            this.length = length;
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private RedisKeyPreview toPreview() {
+            Long total = length != null ? getQuietly(length) : null;
+            Object raw = value != null ? getQuietly(value) : null;
+            Object preview = raw;
+            if (raw instanceof ScanResult<?> scan) {
+                List<?> elements = scan.getResult();
+                if ("hash".equals(type)) {
+                    Map<String, String> fields = new LinkedHashMap<>();
+                    for (Object entry : elements) {
+                        if (fields.size() == maxElements)
+                            break;
+                        Map.Entry<String, String> field = (Map.Entry<String, String>) entry;
+                        fields.put(field.getKey(), field.getValue());
+                    }
+                    preview = fields;
+                } else {
+                    preview = elements.size() > maxElements ? elements.subList(0, maxElements) : elements;
+                }
+            } else if ("zset".equals(type) && raw != null) {
+                List<Map<String, Object>> members = new ArrayList<>();
+                for (Tuple tuple : (List<Tuple>) raw) {
+                    members.add(Map.of("member", tuple.getElement(), "score", tuple.getScore()));
+                }
+                preview = members;
+            } else if ("stream".equals(type) && raw != null) {
+                List<Map<String, Object>> entries = new ArrayList<>();
+                for (StreamEntry entry : (List<StreamEntry>) raw) {
+                    entries.add(Map.of("id", entry.getID().toString(), "fields", entry.getFields()));
+                }
+                preview = entries;
+            }
+
+            // STRLEN counts bytes
+            long shown = preview instanceof String s ? s.getBytes(StandardCharsets.UTF_8).length
+                    : preview instanceof Collection<?> c ? c.size()
+                    : preview instanceof Map<?, ?> m ? m.size() : 0;
+            return RedisKeyPreview.builder()
+                    .key(key)
+                    .type(type)
+                    .length(total)
+                    .value(preview)
+                    .truncated(total != null && shown < total)
+                    .build();
+        }
+    }
+}
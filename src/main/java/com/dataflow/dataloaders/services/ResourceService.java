@@ -125,6 +125,9 @@ public class ResourceService {
     @Autowired
     private  ActivityLogService activityLogService;
 
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
     @Transactional
     public Resource create(Resource resource, Identifier identifier) {
         log.info(logPrefix, this.getClass().getSimpleName(), "create - identifier: {}", identifier);
@@ -192,6 +195,7 @@ public class ResourceService {
                 .orElseThrow(() -> new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND));
 
         resourceDao.delete(resource);
+        dataSourceRegistry.invalidate(JdbcDataSourceRegistry.resourceKey(resource.getId()));
         log.info("Deleted resource: {}", identifier);
 
         return true;
@@ -236,6 +240,7 @@ public class ResourceService {
             throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION, "Not updated");
         }
         log.info("Updated resource: {}", res.getId());
+        dataSourceRegistry.invalidate(JdbcDataSourceRegistry.resourceKey(res.getId()));
         activityLogService.logResourceActivity("Connection has been updated.", res.getId(),
                 res.getResourceName(), "admin");
         return maskSensitiveData(resourceDao.getV1(identifier).orElse(res));
@@ -428,7 +433,7 @@ public class ResourceService {
                 case "Azure SQL Server":
                 case "Oracle":
                 case "PostgreSQL":
-                    success = testJdbcConnection(config);
+                    success = testJdbcConnection(resource.getId(), config);
                     message = success ? "JDBC connection successful" : "JDBC connection failed";
                     break;
 
@@ -479,7 +484,7 @@ public class ResourceService {
         return result;
     }
 
-    private boolean testJdbcConnection(Map<String, Object> config) {
+    private boolean testJdbcConnection(String resourceId, Map<String, Object> config) {
         java.sql.Connection jdbcConnection = null;
         try {
             String driverName = (String) config.get("jdbcDriverName");
@@ -487,11 +492,26 @@ public class ResourceService {
             String user = (String) config.get("jdbcUser");
             String password = (String) config.get("jdbcPassword");
 
+            if (resourceId != null) {
+                // Saved resources keep a pool so repeated tests skip the driver handshake
+                jdbcConnection = dataSourceRegistry.getConnection(JdbcDataSourceRegistry.resourceKey(resourceId),
+                        JdbcDataSourceRegistry.JdbcTarget.builder()
+                                .driverClass(driverName)
+                                .url(url)
+                                .username(user)
+                                .password(password)
+                                .build());
+                return jdbcConnection.isValid(5);
+            }
+
             Class.forName(driverName);
             jdbcConnection = DriverManager.getConnection(url, user, password);
             return jdbcConnection != null && !jdbcConnection.isClosed();
         } catch (Exception e) {
             log.error("JDBC connection test failed: {}", e.getMessage());
+            if (resourceId != null) {
+                dataSourceRegistry.invalidate(JdbcDataSourceRegistry.resourceKey(resourceId));
+            }
             return false;
         } finally {
             if (jdbcConnection != null) {
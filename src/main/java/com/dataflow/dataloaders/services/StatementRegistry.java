@@ -0,0 +1,195 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-flight inspection statements keyed by request ID, so a preview or
+ * profiling query can be cancelled from another request, on timeout, or when
+ * the HTTP client goes away. Every tracked statement also gets a per-provider
+ * query timeout.
+ */
+@Slf4j
+@Service
+public class StatementRegistry {
+
+    public static final String REQUEST_ID_HEADER = "requestId";
+
+    @Value("${dataloaders.inspection.query-timeout-seconds.postgresql:60}")
+    private int postgresTimeoutSeconds;
+
+    @Value("${dataloaders.inspection.query-timeout-seconds.mysql:60}")
+    private int mysqlTimeoutSeconds;
+
+    @Value("${dataloaders.inspection.query-timeout-seconds.oracle:90}")
+    private int oracleTimeoutSeconds;
+
+    @Value("${dataloaders.inspection.query-timeout-seconds.mssql:60}")
+    private int mssqlTimeoutSeconds;
+
+    @Value("${dataloaders.inspection.query-timeout-seconds.default:60}")
+    private int defaultTimeoutSeconds;
+
+    private final ThreadLocal<String> currentRequest = new ThreadLocal<>();
+
+    private final Map<String, InFlightRequest> requests = new ConcurrentHashMap<>();
+
+    public static String requestIdOf(HttpHeaders headers) {
+        String requestId = headers != null ? headers.getFirst(REQUEST_ID_HEADER) : null;
+        return requestId != null && !requestId.isBlank() ? requestId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Runs the work with requestId as the current request, so statements it
+     * tracks can be cancelled under that ID
+     */
+    public <T> T runAs(String requestId, String owner, Callable<T> work) throws Exception {
+        InFlightRequest request = new InFlightRequest(owner);
+        if (requests.putIfAbsent(requestId, request) != null) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_CONFLICT,
+                    "Request " + requestId + " is already running");
+        }
+        String previous = currentRequest.get();
+        currentRequest.set(requestId);
+        try {
+            return work.call();
+        } finally {
+            currentRequest.set(previous);
+            requests.remove(requestId, request);
+        }
+    }
+
+    /**
+     * Request of the calling thread, or null outside {@link #runAs}. Worker
+     * threads started by the request must be handed this value explicitly.
+     */
+    public String currentRequestId() {
+        return currentRequest.get();
+    }
+
+    /**
+     * Applies the provider's query timeout and registers the statement under
+     * the current request until the returned handle is closed
+     */
+    public Tracked track(Statement statement, SqlDialect dialect) throws SQLException {
+        return track(currentRequestId(), statement, dialect);
+    }
+
+    public Tracked track(String requestId, Statement statement, SqlDialect dialect) throws SQLException {
+        statement.setQueryTimeout(queryTimeoutSeconds(dialect));
+        InFlightRequest request = requestId != null ? requests.get(requestId) : null;
+        if (request == null) {
+            return () -> {
+            };
+        }
+        request.statements.add(statement);
+        // Cancelled before this statement started, e.g. a later profiling group
+        if (request.cancelled) {
+            request.statements.remove(statement);
+            throw new SQLException("Request " + requestId + " was cancelled");
+        }
+        return () -> request.statements.remove(statement);
+    }
+
+    /**
+     * Runs the hook when the current request is cancelled, straight away if it
+     * already was, until the returned handle is closed. The hook may run more
+     * than once and must be idempotent.
+     */
+    public Tracked onCancel(Runnable hook) {
+        String requestId = currentRequestId();
+        InFlightRequest request = requestId != null ? requests.get(requestId) : null;
+        if (request == null) {
+            return () -> {
+            };
+        }
+        request.cancelHooks.add(hook);
+        if (request.cancelled) {
+            hook.run();
+        }
+        return () -> request.cancelHooks.remove(hook);
+    }
+
+    public boolean isCancelled(String requestId) {
+        InFlightRequest request = requestId != null ? requests.get(requestId) : null;
+        return request != null && request.cancelled;
+    }
+
+    /**
+     * Cancels every running statement of the request. Returns false when no such
+     * request is running for the owner.
+     */
+    public boolean cancel(String requestId, String owner) {
+        InFlightRequest request = requests.get(requestId);
+        if (request == null || (owner != null && !owner.equals(request.owner))) {
+            return false;
+        }
+        cancel(requestId);
+        return true;
+    }
+
+    /**
+     * Cancels regardless of owner; used for timeouts and client disconnects
+     */
+    public void cancel(String requestId) {
+        InFlightRequest request = requests.get(requestId);
+        if (request == null)
+            return;
+        request.cancelled = true;
+        for (Runnable hook : request.cancelHooks) {
+            hook.run();
+        }
+        for (Statement statement : request.statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.debug("Error cancelling statement of request {}: {}", requestId, e.getMessage());
+            }
+        }
+        if (!request.statements.isEmpty()) {
+            log.info("Cancelled {} statement(s) of request {}", request.statements.size(), requestId);
+        }
+    }
+
+    public int queryTimeoutSeconds(SqlDialect dialect) {
+        return switch (dialect) {
+            case POSTGRESQL -> postgresTimeoutSeconds;
+            case MYSQL -> mysqlTimeoutSeconds;
+            case ORACLE -> oracleTimeoutSeconds;
+            case MSSQL -> mssqlTimeoutSeconds;
+            case GENERIC -> defaultTimeoutSeconds;
+        };
+    }
+
+    /**
+     * Handle returned by track; closing it deregisters the statement
+     */
+    public interface Tracked extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class InFlightRequest {
+        private final String owner;
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        private final Set<Runnable> cancelHooks = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        private InFlightRequest(String owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dto.JdbcTableDefinitionResponse.ColumnDefinition;
+import com.dataflow.dataloaders.dto.TableProfileResponse;
+import com.dataflow.dataloaders.dto.TableProfileResponse.ColumnProfile;
+import com.dataflow.dataloaders.dto.TableProfileResponse.LengthBucket;
+import com.dataflow.dataloaders.dto.TableProfileResponse.ValueCount;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.util.HyperLogLog;
+import com.dataflow.dataloaders.util.TopKCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes per-column statistics over a random sample of a table. Columns are
+ * split into groups that are read in parallel on pooled connections; all groups
+ * use the same sampling seed so they see the same rows.
+ */
+@Slf4j
+@Service
+public class TableProfileService {
+
+    private static final int MAX_VALUE_LENGTH = 256;
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Autowired
+    private StatementRegistry statementRegistry;
+
+    @Value("${dataloaders.profile.sample-rows:10000}")
+    private int defaultSampleRows;
+
+    @Value("${dataloaders.profile.max-sample-rows:100000}")
+    private int maxSampleRows;
+
+    @Value("${dataloaders.profile.sample-percent:1}")
+    private double defaultSamplePercent;
+
+    @Value("${dataloaders.profile.columns-per-group:16}")
+    private int columnsPerGroup;
+
+    @Value("${dataloaders.profile.max-parallelism:4}")
+    private int maxParallelism;
+
+    @Value("${dataloaders.profile.top-k:10}")
+    private int topK;
+
+    public TableProfileResponse profile(Connection connection, String schemaName, String tableName,
+            List<ColumnDefinition> columns, Integer sampleRows, Double samplePercent) {
+        if (columns == null || columns.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND,
+                    "No columns found for table: " + tableName);
+        }
+        long start = System.currentTimeMillis();
+        int rows = sampleRows == null || sampleRows <= 0 ? defaultSampleRows : Math.min(sampleRows, maxSampleRows);
+        double percent = samplePercent == null || samplePercent <= 0 ? defaultSamplePercent
+                : Math.min(samplePercent, 100);
+        String tableRef = schemaName != null && !schemaName.isEmpty() && !"DEFAULT".equalsIgnoreCase(schemaName)
+                ? schemaName + "." + tableName
+                : tableName;
+
+        SqlDialect dialect;
+        String quote;
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connection)) {
+            dialect = SqlDialect.of(conn);
+            quote = conn.getMetaData().getIdentifierQuoteString();
+        } catch (Exception e) {
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to profile table: " + e.getMessage());
+        }
+        String q = quote == null || quote.isBlank() ? "" : quote.trim();
+
+        List<List<ColumnDefinition>> groups = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i += columnsPerGroup) {
+            groups.add(columns.subList(i, Math.min(i + columnsPerGroup, columns.size())));
+        }
+        int seed = ThreadLocalRandom.current().nextInt(1, 1_000_000);
+        // Group readers run on their own threads, so the request is passed along explicitly
+        String requestId = statementRegistry.currentRequestId();
+
+        // The first group decides the method: a sample that comes back nearly empty
+        // means the table is small, and then reading it from the start is cheap
+        boolean sampled = percent < 100
+                && dialect.sampledTableSelect("*", tableRef, percent, rows, seed) != null;
+        GroupResult first = null;
+        if (sampled) {
+            String sql = sql(dialect, groups.get(0), q, tableRef, true, percent, rows, seed);
+            first = readGroup(connection, requestId, groups.get(0), sql, rows);
+            if (first.error != null || first.rowCount < Math.min(rows, 1000)) {
+                sampled = false;
+                first = null;
+            }
+        }
+
+        List<GroupResult> results = new ArrayList<>(groups.size());
+        Semaphore permits = new Semaphore(Math.max(1, maxParallelism));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<GroupResult>> futures = new ArrayList<>();
+            for (int g = first != null ? 1 : 0; g < groups.size(); g++) {
+                List<ColumnDefinition> group = groups.get(g);
+                String sql = sql(dialect, group, q, tableRef, sampled, percent, rows, seed);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return readGroup(connection, requestId, group, sql, rows);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            if (first != null) {
+                results.add(first);
+            }
+            for (Future<GroupResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR, "Profiling was interrupted");
+        } catch (Exception e) {
+            throw new DataloadersException(ErrorFactory.DATABASE_EXCEPTION,
+                    "Failed to profile table: " + e.getMessage());
+        }
+
+        if (statementRegistry.isCancelled(requestId)) {
+            throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT, "Profiling was cancelled");
+        }
+
+        List<ColumnProfile> profiles = new ArrayList<>(columns.size());
+        long sampledRows = 0;
+        for (GroupResult result : results) {
+            profiles.addAll(result.profiles);
+            sampledRows = Math.max(sampledRows, result.rowCount);
+        }
+        return TableProfileResponse.builder()
+                .schemaName(schemaName)
+                .tableName(tableName)
+                .sampleMethod(sampled ? samplingClause(dialect) : "LIMIT")
+                .samplePercent(sampled ? percent : null)
+                .sampledRows(sampledRows)
+                .durationMs(System.currentTimeMillis() - start)
+                .columns(profiles)
+                .build();
+    }
+
+    private String sql(SqlDialect dialect, List<ColumnDefinition> group, String quote, String tableRef,
+            boolean sampled, double percent, int rows, int seed) {
+        StringJoiner selectList = new StringJoiner(", ");
+        for (ColumnDefinition column : group) {
+            selectList.add(quoteIdentifier(column.getColumnName(), quote));
+        }
+        return sampled
+                ? dialect.sampledTableSelect(selectList.toString(), tableRef, percent, rows, seed)
+                : dialect.limitedTableSelect(selectList.toString(), tableRef, rows);
+    }
+
+    private static String quoteIdentifier(String name, String quote) {
+        if (quote.isEmpty())
+            return name;
+        return quote + name.replace(quote, quote + quote) + quote;
+    }
+
+    private static String samplingClause(SqlDialect dialect) {
+        return switch (dialect) {
+            case POSTGRESQL -> "TABLESAMPLE SYSTEM";
+            case MSSQL -> "TABLESAMPLE";
+            case ORACLE -> "SAMPLE";
+            case MYSQL -> "RAND";
+            case GENERIC -> "LIMIT";
+        };
+    }
+
+    private GroupResult readGroup(Connection connection, String requestId, List<ColumnDefinition> group, String sql,
+            int rows) {
+        List<ColumnAccumulator> accumulators = new ArrayList<>(group.size());
+        for (ColumnDefinition column : group) {
+            accumulators.add(new ColumnAccumulator(column, Math.max(64, topK * 10)));
+        }
+        GroupResult result = new GroupResult();
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connection);
+                Statement stmt = conn.createStatement()) {
+            SqlDialect dialect = SqlDialect.of(conn);
+            dialect.applyLimit(stmt, rows);
+            try (StatementRegistry.Tracked tracked = statementRegistry.track(requestId, stmt, dialect);
+                    ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    for (int i = 0; i < accumulators.size(); i++) {
+                        accumulators.get(i).add(rs.getObject(i + 1));
+                    }
+                    result.rowCount++;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Error profiling columns {}: {}", group.stream().map(ColumnDefinition::getColumnName).toList(),
+                    e.getMessage());
+            result.error = e.getMessage();
+        }
+        for (ColumnAccumulator accumulator : accumulators) {
+            ColumnProfile profile = accumulator.toProfile(result.rowCount, topK);
+            profile.setError(result.error);
+            result.profiles.add(profile);
+        }
+        return result;
+    }
+
+    private static String render(Object value) {
+        String text = value.toString();
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text;
+    }
+
+    private static class GroupResult {
+        private final List<ColumnProfile> profiles = new ArrayList<>();
+        private long rowCount;
+        private String error;
+    }
+
+    private static class ColumnAccumulator {
+        private final ColumnDefinition column;
+        private final HyperLogLog distinct = new HyperLogLog();
+        private final TopKCounter frequent;
+        // Bucket 0 holds empty values, bucket i lengths in [2^(i-1), 2^i - 1]
+        private final long[] lengthBuckets = new long[33];
+        private long nonNull;
+        private long lengthCount;
+        private long lengthSum;
+        private int minLength = Integer.MAX_VALUE;
+        private int maxLength = -1;
+        private Object min;
+        private Object max;
+
+        private ColumnAccumulator(ColumnDefinition column, int topKCapacity) {
+            this.column = column;
+            this.frequent = new TopKCounter(topKCapacity);
+        }
+
+        private void add(Object value) {
+            if (value == null)
+                return;
+            nonNull++;
+            if (value instanceof Clob || value instanceof Blob)
+                return;
+
+            if (value instanceof byte[] bytes) {
+                addLength(bytes.length);
+                distinct.add(HexFormat.of().formatHex(bytes, 0, Math.min(bytes.length, MAX_VALUE_LENGTH)));
+                return;
+            }
+            if (value instanceof CharSequence text) {
+                addLength(text.length());
+            }
+            distinct.add(value);
+            frequent.add(render(value));
+            updateRange(value);
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private void updateRange(Object value) {
+            if (!(value instanceof Comparable comparable))
+                return;
+            if (min == null || (min.getClass() == value.getClass() && comparable.compareTo(min) < 0))
+                min = value;
+            if (max == null || (max.getClass() == value.getClass() && comparable.compareTo(max) > 0))
+                max = value;
+        }
+
+        private void addLength(int length) {
+            lengthCount++;
+            lengthSum += length;
+            minLength = Math.min(minLength, length);
+            maxLength = Math.max(maxLength, length);
+            lengthBuckets[32 - Integer.numberOfLeadingZeros(length)]++;
+        }
+
+        private ColumnProfile toProfile(long rowCount, int topK) {
+            long nullCount = rowCount - nonNull;
+            long approxDistinct = nonNull == 0 ? 0 : Math.min(distinct.estimate(), nonNull);
+            ColumnProfile.ColumnProfileBuilder profile = ColumnProfile.builder()
+                    .columnName(column.getColumnName())
+                    .typeName(column.getTypeName())
+                    .nullCount(nullCount)
+                    .nullRatio(rowCount == 0 ? 0 : (double) nullCount / rowCount)
+                    .min(min != null ? render(min) : null)
+                    .max(max != null ? render(max) : null)
+                    .approxDistinct(approxDistinct)
+                    .distinctRatio(nonNull == 0 ? 0 : (double) approxDistinct / nonNull);
+
+            if (nonNull > 0) {
+                profile.topValues(frequent.top(topK).stream()
+                        .map(e -> ValueCount.builder().value(e.getKey()).count(e.getValue()).build())
+                        .toList());
+            }
+            if (lengthCount > 0) {
+                List<LengthBucket> histogram = new ArrayList<>();
+                for (int i = 0; i < lengthBuckets.length; i++) {
+                    if (lengthBuckets[i] == 0)
+                        continue;
+                    int from = i == 0 ? 0 : 1 << (i - 1);
+                    int to = i == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, (1L << i) - 1);
+                    histogram.add(LengthBucket.builder().from(from).to(to).count(lengthBuckets[i]).build());
+                }
+                profile.minLength(minLength)
+                        .maxLength(maxLength)
+                        .avgLength((double) lengthSum / lengthCount)
+                        .lengthHistogram(histogram);
+            }
+            return profile.build();
+        }
+    }
+}
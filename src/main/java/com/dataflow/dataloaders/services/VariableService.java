@@ -4,15 +4,29 @@ import com.dataflow.dataloaders.dao.VariableDao;
 import com.dataflow.dataloaders.dao.VariableGroupDao;
 import com.dataflow.dataloaders.entity.Variable;
 import com.dataflow.dataloaders.entity.VariableGroup;
+import com.dataflow.dataloaders.events.VariablesChangedEvent;
 import com.dataflow.dataloaders.exception.DataloadersException;
 import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.util.Identifier;
+import com.dataflow.dataloaders.util.LruCache;
+import com.dataflow.dataloaders.util.VariableTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -27,12 +41,30 @@ public class VariableService {
     @Autowired
     private EncryptionService encryptionService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private VariableSnapshotService snapshotService;
+
+    @Value("${dataloaders.variables.template-cache.max-entries:4096}")
+    private int templateCacheSize;
+
+    private LruCache<String, VariableTemplate> templates;
+
+    @PostConstruct
+    void init() {
+        templates = new LruCache<>(templateCacheSize);
+    }
+
     // --- Group Operations ---
 
     public VariableGroup createGroup(VariableGroup group, Identifier identifier) {
         log.info("Creating variable group: {}", group.getName());
-        return groupDao.createV1(group, identifier)
+        VariableGroup created = groupDao.createV1(group, identifier)
                 .orElseThrow(() -> new DataloadersException(ErrorFactory.DATABASE_EXCEPTION, "Failed to create group"));
+        publishVariablesChanged(created.getApplicationId());
+        return created;
     }
 
     public List<VariableGroup> getVariableContext(String applicationId, String environment) {
@@ -47,15 +79,23 @@ public class VariableService {
     }
 
     public VariableGroup updateGroup(VariableGroup group) {
+        String previousApplicationId = applicationIdOfGroup(group.getId());
         groupDao.updateGroup(group);
-        return groupDao.getV1(Identifier.builder().word(group.getId()).build()).orElse(null);
+        VariableGroup updated = groupDao.getV1(Identifier.builder().word(group.getId()).build()).orElse(null);
+        publishVariablesChanged(previousApplicationId);
+        if (updated != null && !Objects.equals(previousApplicationId, updated.getApplicationId())) {
+            publishVariablesChanged(updated.getApplicationId());
+        }
+        return updated;
     }
 
     public void deleteGroup(String groupId, String user) {
+        String applicationId = applicationIdOfGroup(groupId);
         VariableGroup group = new VariableGroup();
         group.setId(groupId);
         group.setUpdatedBy(user);
         groupDao.delete(group);
+        publishVariablesChanged(applicationId);
     }
 
     // --- Variable Operations ---
@@ -65,9 +105,11 @@ public class VariableService {
         if (Boolean.TRUE.equals(variable.getIsSecret()) && variable.getVariableValue() != null) {
             variable.setVariableValue(encryptionService.encryptString(variable.getVariableValue()));
         }
-        return variableDao.createV1(variable, identifier)
+        Variable created = variableDao.createV1(variable, identifier)
                 .orElseThrow(
                         () -> new DataloadersException(ErrorFactory.DATABASE_EXCEPTION, "Failed to create variable"));
+        publishVariablesChanged(applicationIdOfGroup(created.getGroupId()));
+        return created;
     }
 
     public Variable updateVariable(Variable variable) {
@@ -82,18 +124,39 @@ public class VariableService {
             variable.setVariableValue(existing.getVariableValue());
         }
         variableDao.updateVariable(variable);
-        return variableDao.getV1(Identifier.builder().word(variable.getId()).build()).orElse(null);
+        Variable updated = variableDao.getV1(Identifier.builder().word(variable.getId()).build()).orElse(null);
+        publishVariablesChanged(applicationIdOfGroup(updated != null ? updated.getGroupId() : variable.getGroupId()));
+        return updated;
     }
 
     public void deleteVariable(String variableId, String user) {
+        String applicationId = variableDao.getV1(Identifier.builder().word(variableId).build())
+                .map(v -> applicationIdOfGroup(v.getGroupId()))
+                .orElse(null);
         Variable var = new Variable();
         var.setId(variableId);
         var.setUpdatedBy(user);
         variableDao.delete(var);
+        publishVariablesChanged(applicationId);
     }
 
     // --- Helpers ---
 
+    private String applicationIdOfGroup(String groupId) {
+        if (groupId == null)
+            return null;
+        return groupDao.getV1(Identifier.builder().word(groupId).build())
+                .map(VariableGroup::getApplicationId)
+                .orElse(null);
+    }
+
+    /**
+     * A null application id is treated as global and invalidates every application
+     */
+    private void publishVariablesChanged(String applicationId) {
+        eventPublisher.publishEvent(new VariablesChangedEvent(applicationId));
+    }
+
     private void maskSecrets(List<Variable> variables) {
         for (Variable var : variables) {
             if (Boolean.TRUE.equals(var.getIsSecret())) {
@@ -129,49 +192,120 @@ public class VariableService {
         if (rawValue == null || !rawValue.contains("{{vars.")) {
             return rawValue;
         }
+        VariableTemplate template = template(rawValue);
+        if (!template.hasPlaceholders()) {
+            return rawValue;
+        }
+        VariableSnapshotService.Snapshot snapshot = snapshotService.get(applicationId, environment);
+        return template.render(snapshot::lookup);
+    }
 
-        // Regex to find all {{vars.GroupName.VariableKey}}
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\{\\{vars\\.([^\\.]+)\\.([^\\}]+)\\}\\}");
-        java.util.regex.Matcher matcher = pattern.matcher(rawValue);
-
-        StringBuilder sb = new StringBuilder();
-        int lastEnd = 0;
+    /**
+     * Resolves many documents of one context together: a walk per document
+     * collects the text values with placeholders, a single snapshot lookup
+     * covers all of them, and the values are then substituted in place.
+     * Objects and arrays are modified like in resolveJsonNode; textual roots
+     * are replaced in the returned list.
+     */
+    public List<JsonNode> resolveJsonNodes(List<JsonNode> nodes, String applicationId, String environment) {
+        List<JsonNode> resolved = new ArrayList<>(nodes);
+        List<TextSlot> slots = new ArrayList<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            collectSlots(resolved.get(i), null, null, i, slots);
+        }
+        if (slots.isEmpty()) {
+            return resolved;
+        }
 
-        // Lazy load groups for this context to avoid repeated DB hits
-        List<VariableGroup> groups = null;
+        VariableSnapshotService.Snapshot snapshot = snapshotService.get(applicationId, environment);
+        for (TextSlot slot : slots) {
+            TextNode value = TextNode.valueOf(slot.template.render(snapshot::lookup));
+            if (slot.object != null) {
+                slot.object.set(slot.field, value);
+            } else if (slot.array != null) {
+                slot.array.set(slot.index, value);
+            } else {
+                resolved.set(slot.index, value);
+            }
+        }
+        return resolved;
+    }
 
-        while (matcher.find()) {
-            sb.append(rawValue, lastEnd, matcher.start());
-            String groupName = matcher.group(1);
-            String variableKey = matcher.group(2);
+    /**
+     * Resolves many strings of one context against a single snapshot
+     */
+    public Map<String, String> resolveValues(Collection<String> rawValues, String applicationId,
+            String environment) {
+        Map<String, String> resolved = new LinkedHashMap<>();
+        VariableSnapshotService.Snapshot snapshot = null;
+        for (String rawValue : rawValues) {
+            if (rawValue == null || resolved.containsKey(rawValue))
+                continue;
+            VariableTemplate template = rawValue.contains("{{vars.") ? template(rawValue) : null;
+            if (template == null || !template.hasPlaceholders()) {
+                resolved.put(rawValue, rawValue);
+                continue;
+            }
+            if (snapshot == null) {
+                snapshot = snapshotService.get(applicationId, environment);
+            }
+            resolved.put(rawValue, template.render(snapshot::lookup));
+        }
+        return resolved;
+    }
 
-            if (groups == null) {
-                groups = groupDao.listByContext(applicationId, environment);
+    private void collectSlots(JsonNode node, ObjectNode parentObject, ArrayNode parentArray, int index,
+            List<TextSlot> slots) {
+        if (node == null)
+            return;
+        if (node.isObject()) {
+            ObjectNode objectNode = (ObjectNode) node;
+            objectNode.fields().forEachRemaining(entry -> {
+                JsonNode child = entry.getValue();
+                if (child.isTextual()) {
+                    addSlot(child.asText(), objectNode, entry.getKey(), null, -1, slots);
+                } else {
+                    collectSlots(child, objectNode, null, -1, slots);
+                }
+            });
+        } else if (node.isArray()) {
+            ArrayNode arrayNode = (ArrayNode) node;
+            for (int i = 0; i < arrayNode.size(); i++) {
+                JsonNode child = arrayNode.get(i);
+                if (child.isTextual()) {
+                    addSlot(child.asText(), null, null, arrayNode, i, slots);
+                } else {
+                    collectSlots(child, null, arrayNode, i, slots);
+                }
             }
+        } else if (node.isTextual() && parentObject == null && parentArray == null) {
+            addSlot(node.asText(), null, null, null, index, slots);
+        }
+    }
 
-            String resolved = findVariableValue(groups, groupName, variableKey);
-            sb.append(resolved != null ? resolved : matcher.group(0));
-            lastEnd = matcher.end();
+    private void addSlot(String text, ObjectNode object, String field, ArrayNode array, int index,
+            List<TextSlot> slots) {
+        if (!text.contains("{{vars."))
+            return;
+        VariableTemplate template = template(text);
+        if (template.hasPlaceholders()) {
+            slots.add(new TextSlot(object, field, array, index, template));
         }
-        sb.append(rawValue.substring(lastEnd));
+    }
 
-        return sb.toString();
+    /**
+     * Position of a text value to substitute: an object field, an array
+     * element, or a root document by its index
+     */
+    private record TextSlot(ObjectNode object, String field, ArrayNode array, int index, VariableTemplate template) {
     }
 
-    private String findVariableValue(List<VariableGroup> groups, String groupName, String variableKey) {
-        for (VariableGroup group : groups) {
-            if (group.getName().equalsIgnoreCase(groupName)) {
-                List<Variable> variables = variableDao.listByGroup(group.getId());
-                for (Variable var : variables) {
-                    if (var.getVariableKey().equalsIgnoreCase(variableKey)) {
-                        if (Boolean.TRUE.equals(var.getIsSecret())) {
-                            return encryptionService.decryptString(var.getVariableValue());
-                        }
-                        return var.getVariableValue();
-                    }
-                }
-            }
+    private VariableTemplate template(String rawValue) {
+        VariableTemplate template = templates.get(rawValue);
+        if (template == null) {
+            template = VariableTemplate.parse(rawValue);
+            templates.put(rawValue, template);
         }
-        return null;
+        return template;
     }
 }
@@ -0,0 +1,143 @@
+package com.dataflow.dataloaders.services;
+
+import com.dataflow.dataloaders.dao.VariableDao;
+import com.dataflow.dataloaders.dto.VariableDto;
+import com.dataflow.dataloaders.events.VariablesChangedEvent;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshots of every resolved variable per (application,
+ * environment), loaded with one query and with secrets decrypted once.
+ * Every snapshot carries the version it was loaded at and is only served
+ * while that version is current, so a load racing a write is used for its own
+ * call but never served again. The version only sees writes made through this
+ * instance; a TTL bounds staleness from writes made by other instances.
+ */
+@Service
+public class VariableSnapshotService {
+
+    @Autowired
+    private VariableDao variableDao;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Value("${dataloaders.variables.snapshot.ttl-seconds:${dataloaders.dag.connection-config.ttl-seconds:300}}")
+    private long ttlSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public Snapshot get(String applicationId, String environment) {
+        String key = key(applicationId, environment);
+        long current = version.get();
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.version() == current && now - snapshot.loadedAt() < ttlSeconds * 1000) {
+            return snapshot;
+        }
+        Snapshot loaded = load(applicationId, environment, current, now);
+        // Replace only older snapshots; a write since the load started leaves the map alone
+        snapshots.compute(key, (k, existing) -> version.get() != current
+                || (existing != null && existing.version() > current)
+                || (existing != null && existing.version() == current && existing.loadedAt() >= now)
+                ? existing : loaded);
+        return loaded;
+    }
+
+    /**
+     * Variables are written rarely, so any write retires every snapshot
+     * instead of tracking which contexts a global group reaches
+     */
+    @EventListener
+    public void onVariablesChanged(VariablesChangedEvent event) {
+        version.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private Snapshot load(String applicationId, String environment, long loadVersion, long loadedAt) {
+        Map<String, String> values = new HashMap<>();
+        List<String> secretKeys = new ArrayList<>();
+        List<String> secretValues = new ArrayList<>();
+        for (VariableDto variable : variableDao.listByContext(applicationId, environment)) {
+            String key = key(variable.getGroupName(), variable.getVariableKey());
+            // Rows come in group precedence order; the first group defining a key wins
+            if (values.containsKey(key)) {
+                continue;
+            }
+            values.put(key, variable.getVariableValue());
+            if (Boolean.TRUE.equals(variable.getIsSecret()) && variable.getVariableValue() != null) {
+                secretKeys.add(key);
+                secretValues.add(variable.getVariableValue());
+            }
+        }
+        Set<String> unreadable = new HashSet<>();
+        List<String> decrypted;
+        try {
+            decrypted = encryptionService.decryptAll(secretValues);
+        } catch (DataloadersException e) {
+            // One unreadable secret fails only the lookups of its own key
+            decrypted = new ArrayList<>(secretValues.size());
+            for (int i = 0; i < secretValues.size(); i++) {
+                try {
+                    decrypted.add(encryptionService.decryptString(secretValues.get(i)));
+                } catch (DataloadersException failed) {
+                    unreadable.add(secretKeys.get(i));
+                    decrypted.add(null);
+                }
+            }
+        }
+        for (int i = 0; i < secretKeys.size(); i++) {
+            values.put(secretKeys.get(i), decrypted.get(i));
+        }
+        return new Snapshot(loadVersion, loadedAt, applicationId, environment, values, unreadable);
+    }
+
+    private static String key(String first, String second) {
+        return Objects.toString(first, "").toLowerCase(Locale.ROOT) + '\u0000'
+                + Objects.toString(second, "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolved values of one context. Keys compare case-insensitively like the
+     * placeholder lookup always has; a null value leaves the placeholder as is.
+     */
+    public record Snapshot(long version, long loadedAt, String applicationId, String environment,
+            Map<String, String> values, Set<String> unreadable) {
+
+        public Snapshot {
+            values = Collections.unmodifiableMap(values);
+            unreadable = Set.copyOf(unreadable);
+        }
+
+        /**
+         * Fails for a secret that could not be decrypted
+         */
+        public String lookup(String groupName, String variableKey) {
+            String key = key(groupName, variableKey);
+            if (unreadable.contains(key)) {
+                throw new DataloadersException(ErrorFactory.INTERNAL_SERVER_ERROR,
+                        "Secret variable " + groupName + "." + variableKey + " could not be decrypted");
+            }
+            return values.get(key);
+        }
+    }
+}
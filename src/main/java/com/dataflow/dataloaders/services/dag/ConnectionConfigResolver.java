@@ -0,0 +1,208 @@
+package com.dataflow.dataloaders.services.dag;
+
+import com.dataflow.dataloaders.dao.ConnectionDao;
+import com.dataflow.dataloaders.dto.ConnectionDto;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.events.ConnectionChangedEvent;
+import com.dataflow.dataloaders.events.ProviderChangedEvent;
+import com.dataflow.dataloaders.events.VariablesChangedEvent;
+import com.dataflow.dataloaders.jobconfigs.ConnectionConfig;
+import com.dataflow.dataloaders.services.EncryptionService;
+import com.dataflow.dataloaders.services.ProviderService;
+import com.dataflow.dataloaders.services.VariableService;
+import com.dataflow.dataloaders.util.Identifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolved ConnectionConfig per (connection, environment): secrets decrypted
+ * and variables substituted once, then shared by every node that binds the
+ * connection. Entries remember the application and provider they were built
+ * from and are dropped when the connection, its provider or the application's
+ * variables change; a TTL bounds staleness from changes made by other
+ * instances.
+ */
+@Slf4j
+@Service
+public class ConnectionConfigResolver {
+
+    @Autowired
+    private ConnectionDao connectionDao;
+
+    @Autowired
+    private ProviderService providerService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VariableService variableService;
+
+    @Value("${dataloaders.dag.connection-config.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, ResolvedConfig> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves all given connections, loading the ones not cached with a single
+     * query. Connections that cannot be resolved map to null.
+     */
+    public Map<String, ConnectionConfig> resolveAll(Collection<String> connectionIds, String environment) {
+        Map<String, ConnectionConfig> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String connectionId : new LinkedHashSet<>(connectionIds)) {
+            ResolvedConfig cached = cache.get(key(connectionId, environment));
+            if (cached != null && now - cached.resolvedAt < ttlSeconds * 1000) {
+                resolved.put(connectionId, cached.config);
+            } else {
+                missing.add(connectionId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Connection> loaded = new HashMap<>();
+        for (Connection connection : connectionDao.listByIds(missing)) {
+            loaded.put(connection.getId(), connection);
+        }
+
+        // Decrypt each connection's secrets, then resolve the documents of each application in one batch
+        Map<String, List<Connection>> byApplication = new LinkedHashMap<>();
+        Map<String, JsonNode> decryptedSecrets = new HashMap<>();
+        for (String connectionId : missing) {
+            Connection connection = loaded.get(connectionId);
+            if (connection == null) {
+                log.error("Error binding connection {}: connection not found", connectionId);
+                resolved.put(connectionId, null);
+                continue;
+            }
+            try {
+                decryptedSecrets.put(connectionId, encryptionService.decrypt(connection.getSecrets()));
+                byApplication.computeIfAbsent(connection.getApplicationId(), k -> new ArrayList<>()).add(connection);
+            } catch (Exception e) {
+                log.error("Error binding connection {}: {}", connectionId, e.getMessage());
+                resolved.put(connectionId, null);
+            }
+        }
+
+        for (Map.Entry<String, List<Connection>> application : byApplication.entrySet()) {
+            List<Connection> connections = application.getValue();
+            List<JsonNode> documents = new ArrayList<>(connections.size() * 2);
+            for (Connection connection : connections) {
+                documents.add(connection.getConfig());
+                documents.add(decryptedSecrets.get(connection.getId()));
+            }
+            List<JsonNode> resolvedDocuments;
+            try {
+                resolvedDocuments = variableService.resolveJsonNodes(documents, application.getKey(), environment);
+            } catch (Exception e) {
+                log.error("Error resolving variables of application {}: {}", application.getKey(), e.getMessage());
+                connections.forEach(connection -> resolved.put(connection.getId(), null));
+                continue;
+            }
+
+            for (int i = 0; i < connections.size(); i++) {
+                Connection connection = connections.get(i);
+                try {
+                    ConnectionConfig config = build(connection, resolvedDocuments.get(2 * i),
+                            resolvedDocuments.get(2 * i + 1));
+                    cache.put(key(connection.getId(), environment), new ResolvedConfig(
+                            connection.getApplicationId(), connection.getProviderId(), config, now));
+                    resolved.put(connection.getId(), config);
+                } catch (Exception e) {
+                    log.error("Error binding connection {}: {}", connection.getId(), e.getMessage());
+                    resolved.put(connection.getId(), null);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    public ConnectionConfig resolve(String connectionId, String environment) {
+        return resolveAll(List.of(connectionId), environment).get(connectionId);
+    }
+
+    @EventListener
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        String prefix = event.getConnectionId() + '\u0000';
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @EventListener
+    public void onVariablesChanged(VariablesChangedEvent event) {
+        if (event.getApplicationId() == null) {
+            cache.clear();
+            return;
+        }
+        cache.values().removeIf(entry -> event.getApplicationId().equals(entry.applicationId));
+    }
+
+    @EventListener
+    public void onProviderChanged(ProviderChangedEvent event) {
+        cache.values().removeIf(entry -> Objects.equals(event.getProviderId(), entry.providerId));
+    }
+
+    private ConnectionConfig build(Connection connection, JsonNode resolvedConfig, JsonNode resolvedSecrets) {
+        String providerName = connection instanceof ConnectionDto dto && dto.getProviderName() != null
+                ? dto.getProviderName()
+                : providerService.getProvider(Identifier.builder().word(connection.getProviderId()).build())
+                        .getProviderName();
+        String providerKey = providerName.toLowerCase();
+
+        ConnectionConfig config = new ConnectionConfig();
+
+        if (providerKey.contains("postgres")) {
+            config.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s",
+                    resolvedConfig.path("host").asText(),
+                    resolvedConfig.path("port").asInt(),
+                    resolvedConfig.path("database_name").asText()));
+            config.setJdbcUser(resolvedConfig.path("username").asText());
+            config.setJdbcPassword(resolvedSecrets.path("password").asText());
+            config.setJdbcDriverName("org.postgresql.Driver");
+        } else if (providerKey.contains("mysql") || providerKey.contains("mariadb")) {
+            config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?serverTimezone=UTC",
+                    resolvedConfig.path("host").asText(),
+                    resolvedConfig.path("port").asInt(),
+                    resolvedConfig.path("database_name").asText()));
+            config.setJdbcUser(resolvedConfig.path("username").asText());
+            config.setJdbcPassword(resolvedSecrets.path("password").asText());
+            config.setJdbcDriverName("com.mysql.cj.jdbc.Driver");
+        } else if (providerKey.contains("oracle")) {
+            config.setJdbcUrl(String.format("jdbc:oracle:thin:@%s:%d:%s",
+                    resolvedConfig.path("host").asText(),
+                    resolvedConfig.path("port").asInt(),
+                    resolvedConfig.path("service_name").asText()));
+            config.setJdbcUser(resolvedConfig.path("username").asText());
+            config.setJdbcPassword(resolvedSecrets.path("password").asText());
+            config.setJdbcDriverName("oracle.jdbc.driver.OracleDriver");
+        } else if (providerKey.contains("mssql")) {
+            config.setJdbcUrl(String.format("jdbc:sqlserver://%s:%d;databaseName=%s",
+                    resolvedConfig.path("host").asText(),
+                    resolvedConfig.path("port").asInt(),
+                    resolvedConfig.path("database_name").asText()));
+            config.setJdbcUser(resolvedConfig.path("username").asText());
+            config.setJdbcPassword(resolvedSecrets.path("password").asText());
+            config.setJdbcDriverName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
+        }
+        // Add other providers as needed...
+
+        return config;
+    }
+
+    private static String key(String connectionId, String environment) {
+        return connectionId + '\u0000' + (environment != null ? environment : "");
+    }
+
+    private record ResolvedConfig(String applicationId, String providerId, ConnectionConfig config,
+            long resolvedAt) {
+    }
+}
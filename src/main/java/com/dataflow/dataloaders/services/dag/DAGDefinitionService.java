@@ -2,23 +2,37 @@ package com.dataflow.dataloaders.services.dag;
 
 import com.dataflow.dataloaders.dao.dag.DAGDefinitionDao;
 import com.dataflow.dataloaders.dto.DAGExecutionResponse;
-import com.dataflow.dataloaders.entity.Connection;
-import com.dataflow.dataloaders.entity.Provider;
+import com.dataflow.dataloaders.dto.DAGPlanResponse;
+import com.dataflow.dataloaders.dto.DAGRunResponse;
 import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.DAGSchemaService;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
 import com.dataflow.dataloaders.entity.dagmodels.dag.Node;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
 import com.dataflow.dataloaders.jobconfigs.ConnectionConfig;
-import com.dataflow.dataloaders.services.*;
 import com.dataflow.dataloaders.util.Identifier;
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClient;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -34,52 +48,139 @@ public class DAGDefinitionService {
     private EdgeService edgeService;
 
     @Autowired
-    private ConnectionService connectionService;
+    private ConnectionConfigResolver connectionConfigResolver;
 
     @Autowired
-    private EncryptionService encryptionService;
+    private LocalDAGExecutor localDAGExecutor;
 
     @Autowired
-    private VariableService variableService;
+    private DAGPlannerService dagPlannerService;
 
     @Autowired
-    private ProviderService providerService;
+    private DAGReadModelService dagReadModelService;
 
+    @Autowired
+    private DAGSchemaService dagSchemaService;
+
+    /**
+     * remote hands executions to the external DAG engine, local runs them in
+     * this JVM
+     */
+    @Value("${dataloaders.dag.execution-mode:remote}")
+    private String executionMode;
+
+    /**
+     * Saves the DAG with its nodes and edges in one transaction. The incoming
+     * graph is diffed against what is stored for the dataflow: new nodes and
+     * edges (including ones whose ID is not stored yet) are inserted, changed
+     * ones updated and unchanged ones skipped, each in a JDBC batch. Nodes and
+     * edges the stored DAG had but the incoming one no longer has are
+     * soft-deleted. An ID sent as new that belongs to a soft-deleted row of
+     * the dataflow restores that row; one used by another dataflow is
+     * rejected with a 400. Schemas are then propagated from what changed, and nodes
+     * whose schema that rewrote are updated as well.
+     */
+    @Transactional
     public Optional<DAGDefinition> saveFullDAG(DAGDefinition dag) {
         String dataflowId = dag.getDataflowId();
-
-        // 1. Save/Update Nodes
-        java.util.List<String> nodeIds = new java.util.ArrayList<>();
-        if (dag.getNodes() != null) {
-            for (com.dataflow.dataloaders.entity.dagmodels.dag.Node node : dag.getNodes()) {
-                node.setDataflowId(dataflowId);
-                if (node.getNodeId() == null || node.getNodeId().isEmpty()) {
-                    nodeService.createNode(node).ifPresent(n -> nodeIds.add(n.getNodeId()));
-                } else {
-                    nodeService.updateNode(node);
-                    nodeIds.add(node.getNodeId());
+        List<Node> nodes = dag.getNodes() != null ? dag.getNodes() : List.of();
+        List<Edge> edges = dag.getEdges() != null ? dag.getEdges() : List.of();
+
+        // One read each for what is stored, instead of a lookup per entity
+        Map<String, Node> storedNodes = new HashMap<>();
+        Map<String, Edge> storedEdges = new HashMap<>();
+        if (dataflowId != null) {
+            nodeService.getNodesByDataflowId(dataflowId).forEach(n -> storedNodes.put(n.getNodeId(), n));
+            edgeService.getEdgesByDataflowId(dataflowId).forEach(e -> storedEdges.put(e.getEdgeId(), e));
+        }
+        Optional<DAGDefinition> storedDag = dag.getDagId() == null || dag.getDagId().isEmpty()
+                ? Optional.empty()
+                : dagDefinitionDao.getV1(Identifier.builder().word(dag.getDagId()).build());
+
+        // 1. Diff nodes
+        List<Node> newNodes = new ArrayList<>();
+        List<Node> changedNodes = new ArrayList<>();
+        Set<String> incomingNodeIds = new HashSet<>();
+        for (Node node : nodes) {
+            node.setDataflowId(dataflowId);
+            if (node.getNodeId() == null || node.getNodeId().isEmpty()
+                    || !storedNodes.containsKey(node.getNodeId())) {
+                newNodes.add(node);
+            } else {
+                incomingNodeIds.add(node.getNodeId());
+                if (!sameContent(node, storedNodes.get(node.getNodeId()))) {
+                    changedNodes.add(node);
                 }
             }
         }
-        dag.setNodeIds(nodeIds);
-
-        // 2. Save/Update Edges
-        java.util.List<String> edgeIds = new java.util.ArrayList<>();
-        if (dag.getEdges() != null) {
-            for (com.dataflow.dataloaders.entity.dagmodels.dag.Edge edge : dag.getEdges()) {
-                edge.setDataflowId(dataflowId);
-                if (edge.getEdgeId() == null || edge.getEdgeId().isEmpty()) {
-                    edgeService.createEdge(edge).ifPresent(e -> edgeIds.add(e.getEdgeId()));
-                } else {
-                    edgeService.updateEdge(edge);
-                    edgeIds.add(edge.getEdgeId());
+        List<String> removedNodeIds = storedDag.isPresent()
+                ? removed(storedDag.get().getNodeIds(), storedNodes.keySet(), incomingNodeIds)
+                : List.of();
+
+        // 2. Diff edges
+        List<Edge> newEdges = new ArrayList<>();
+        List<Edge> changedEdges = new ArrayList<>();
+        Set<String> incomingEdgeIds = new HashSet<>();
+        for (Edge edge : edges) {
+            edge.setDataflowId(dataflowId);
+            if (edge.getEdgeId() == null || edge.getEdgeId().isEmpty()
+                    || !storedEdges.containsKey(edge.getEdgeId())) {
+                newEdges.add(edge);
+            } else {
+                incomingEdgeIds.add(edge.getEdgeId());
+                if (!sameContent(edge, storedEdges.get(edge.getEdgeId()))) {
+                    changedEdges.add(edge);
                 }
             }
         }
-        dag.setEdgeIds(edgeIds);
+        List<String> removedEdgeIds = storedDag.isPresent()
+                ? removed(storedDag.get().getEdgeIds(), storedEdges.keySet(), incomingEdgeIds)
+                : List.of();
+
+        // 3. IDs sent as new that already have a row: soft-deleted ones of this dataflow, e.g. an undo
+        // after an autosave, are restored and updated; IDs of another dataflow are refused
+        List<String> restoredNodeIds = reclaim("Node", dataflowId, newNodes, changedNodes, Node::getNodeId,
+                nodeService::getNodeDataflowIds);
+        List<String> restoredEdgeIds = reclaim("Edge", dataflowId, newEdges, changedEdges, Edge::getEdgeId,
+                edgeService::getEdgeDataflowIds);
+
+        // 4. Write: deletions first, then nodes before the edges that reference them
+        edgeService.deleteEdges(removedEdgeIds);
+        nodeService.deleteNodes(removedNodeIds);
+        nodeService.restoreNodes(restoredNodeIds, dataflowId);
+        nodeService.createNodes(newNodes);
+        nodeService.updateNodes(changedNodes);
+
+        Set<String> existingNodeIds = new HashSet<>(storedNodes.keySet());
+        removedNodeIds.forEach(existingNodeIds::remove);
+        nodes.forEach(n -> existingNodeIds.add(n.getNodeId()));
+        edgeService.restoreEdges(restoredEdgeIds, dataflowId);
+        edgeService.createEdges(newEdges, existingNodeIds);
+        edgeService.updateEdges(changedEdges, existingNodeIds);
+
+        // 5. Propagate schemas from the changes; inserts have assigned the new IDs by now
+        Set<String> changedNodeIds = new LinkedHashSet<>();
+        newNodes.forEach(n -> changedNodeIds.add(n.getNodeId()));
+        changedNodes.forEach(n -> changedNodeIds.add(n.getNodeId()));
+        // A removed edge leaves its former target with one input fewer
+        removedEdgeIds.forEach(id -> changedNodeIds.add(storedEdges.get(id).getTargetNodeId()));
+        List<String> changedEdgeIds = new ArrayList<>();
+        newEdges.forEach(e -> changedEdgeIds.add(e.getEdgeId()));
+        changedEdges.forEach(e -> changedEdgeIds.add(e.getEdgeId()));
+        Set<String> rewritten = dagSchemaService.propagateSchemas(dag, changedNodeIds, changedEdgeIds);
+        if (!rewritten.isEmpty()) {
+            nodeService.updateNodes(nodes.stream().filter(n -> rewritten.contains(n.getNodeId())).toList());
+        }
+
+        log.info("Saved DAG {} of dataflow {}: nodes +{} ~{} -{}, edges +{} ~{} -{}", dag.getDagId(), dataflowId,
+                newNodes.size(), changedNodes.size(), removedNodeIds.size(), newEdges.size(), changedEdges.size(),
+                removedEdgeIds.size());
+
+        dag.setNodeIds(nodes.stream().map(Node::getNodeId).toList());
+        dag.setEdgeIds(edges.stream().map(Edge::getEdgeId).toList());
 
-        // 3. Save DAG Definition
-        if (dag.getDagId() == null || dag.getDagId().isEmpty()) {
+        // 6. Save DAG Definition
+        if (storedDag.isEmpty()) {
             return dagDefinitionDao.createV1(dag, Identifier.builder().build());
         } else {
             dagDefinitionDao.update(dag);
@@ -87,107 +188,123 @@ public class DAGDefinitionService {
         }
     }
 
+    /**
+     * Moves entities whose ID already has a soft-deleted row of this dataflow
+     * from created to changed and returns their IDs; fails with the IDs held
+     * by another dataflow
+     */
+    private static <T> List<String> reclaim(String kind, String dataflowId, List<T> created, List<T> changed,
+            Function<T, String> idOf, Function<List<String>, Map<String, String>> dataflowIdsOf) {
+        List<String> ids = created.stream().map(idOf).filter(id -> id != null && !id.isEmpty()).toList();
+        Map<String, String> stored = ids.isEmpty() ? Map.of() : dataflowIdsOf.apply(ids);
+        if (stored.isEmpty()) {
+            return List.of();
+        }
+        List<String> foreign = stored.entrySet().stream()
+                .filter(entry -> !Objects.equals(entry.getValue(), dataflowId))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        if (!foreign.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    kind + " IDs already used by another dataflow: " + String.join(", ", foreign));
+        }
+        for (Iterator<T> it = created.iterator(); it.hasNext();) {
+            T entity = it.next();
+            if (stored.containsKey(idOf.apply(entity))) {
+                it.remove();
+                changed.add(entity);
+            }
+        }
+        return List.copyOf(stored.keySet());
+    }
+
+    /**
+     * Node equality includes the audit fields, which clients send differently
+     * from what is stored; compare everything else, field by field, leaving
+     * the stored node untouched
+     */
+    private static boolean sameContent(Node incoming, Node stored) {
+        return Objects.equals(incoming.getNodeId(), stored.getNodeId())
+                && Objects.equals(incoming.getDataflowId(), stored.getDataflowId())
+                && Objects.equals(incoming.getNodeName(), stored.getNodeName())
+                && incoming.getNodeType() == stored.getNodeType()
+                && Objects.equals(incoming.getComponentRef(), stored.getComponentRef())
+                && Objects.equals(incoming.getDescription(), stored.getDescription())
+                && Objects.equals(incoming.getPosition(), stored.getPosition())
+                && Objects.equals(incoming.getNodeSchema(), stored.getNodeSchema())
+                && Objects.equals(incoming.getConfig(), stored.getConfig())
+                && Objects.equals(incoming.getInputPorts(), stored.getInputPorts())
+                && Objects.equals(incoming.getOutputPorts(), stored.getOutputPorts())
+                && Objects.equals(incoming.getStage(), stored.getStage())
+                && Objects.equals(incoming.getStageOrder(), stored.getStageOrder())
+                && Objects.equals(incoming.getDependsOn(), stored.getDependsOn())
+                && incoming.getExecutionMode() == stored.getExecutionMode()
+                && Objects.equals(incoming.getResources(), stored.getResources())
+                && Objects.equals(incoming.getErrorHandling(), stored.getErrorHandling())
+                && Objects.equals(incoming.getRetryPolicy(), stored.getRetryPolicy())
+                && Objects.equals(incoming.getValidations(), stored.getValidations())
+                && Objects.equals(incoming.getCheckpoint(), stored.getCheckpoint())
+                && Objects.equals(incoming.getMapperConfig(), stored.getMapperConfig())
+                && Objects.equals(incoming.getTransformationMetadata(), stored.getTransformationMetadata());
+    }
+
+    /**
+     * Edge counterpart of the node comparison above
+     */
+    private static boolean sameContent(Edge incoming, Edge stored) {
+        return Objects.equals(incoming.getEdgeId(), stored.getEdgeId())
+                && Objects.equals(incoming.getDataflowId(), stored.getDataflowId())
+                && Objects.equals(incoming.getSourceNodeId(), stored.getSourceNodeId())
+                && Objects.equals(incoming.getTargetNodeId(), stored.getTargetNodeId())
+                && Objects.equals(incoming.getSourcePort(), stored.getSourcePort())
+                && Objects.equals(incoming.getTargetPort(), stored.getTargetPort())
+                && incoming.getEdgeType() == stored.getEdgeType()
+                && Objects.equals(incoming.getCondition(), stored.getCondition())
+                && Objects.equals(incoming.getAsync(), stored.getAsync())
+                && Objects.equals(incoming.getBufferSize(), stored.getBufferSize())
+                && Objects.equals(incoming.getTransformation(), stored.getTransformation())
+                && Objects.equals(incoming.getFlowControl(), stored.getFlowControl())
+                && Objects.equals(incoming.getLineage(), stored.getLineage());
+    }
+
+    /**
+     * IDs the stored DAG owned that are no longer sent; a DAG without its own
+     * ID list owns every stored entity of the dataflow, as in getDAGById
+     */
+    private static List<String> removed(List<String> ownedIds, Set<String> storedIds, Set<String> incomingIds) {
+        Collection<String> owned = ownedIds != null && !ownedIds.isEmpty() ? ownedIds : storedIds;
+        return owned.stream()
+                .filter(id -> storedIds.contains(id) && !incomingIds.contains(id))
+                .distinct()
+                .toList();
+    }
+
     public Optional<DAGDefinition> createDAG(DAGDefinition dag) {
         return dagDefinitionDao.createV1(dag, Identifier.builder().build());
     }
 
     public Optional<DAGDefinition> getDAGById(String dagId) {
-        Optional<DAGDefinition> dagOpt = dagDefinitionDao.getV1(Identifier.builder().word(dagId).build());
-        if (dagOpt.isPresent()) {
-            DAGDefinition dag = dagOpt.get();
-            if (dag.getDataflowId() != null) {
-                List<com.dataflow.dataloaders.entity.dagmodels.dag.Node> allNodes = nodeService
-                        .getNodesByDataflowId(dag.getDataflowId());
-                List<com.dataflow.dataloaders.entity.dagmodels.dag.Edge> allEdges = edgeService
-                        .getEdgesByDataflowId(dag.getDataflowId());
-
-                List<com.dataflow.dataloaders.entity.dagmodels.dag.Node> dagNodes = new java.util.ArrayList<>();
-                if (dag.getNodeIds() != null && !dag.getNodeIds().isEmpty()) {
-                    for (com.dataflow.dataloaders.entity.dagmodels.dag.Node n : allNodes) {
-                        if (dag.getNodeIds().contains(n.getNodeId())) {
-                            dagNodes.add(n);
-                        }
-                    }
-                } else {
-                    dagNodes.addAll(allNodes);
-                }
-                dag.setNodes(dagNodes);
-
-                List<com.dataflow.dataloaders.entity.dagmodels.dag.Edge> dagEdges = new java.util.ArrayList<>();
-                if (dag.getEdgeIds() != null && !dag.getEdgeIds().isEmpty()) {
-                    for (com.dataflow.dataloaders.entity.dagmodels.dag.Edge e : allEdges) {
-                        if (dag.getEdgeIds().contains(e.getEdgeId())) {
-                            dagEdges.add(e);
-                        }
-                    }
-                } else {
-                    dagEdges.addAll(allEdges);
-                }
-                dag.setEdges(dagEdges);
-            }
-        }
-        return dagOpt;
+        return dagReadModelService.loadByDagId(dagId).stream().findFirst();
     }
 
     public List<DAGDefinition> getDAGsByDataflowId(String dataflowId) {
-        List<DAGDefinition> dags = dagDefinitionDao.getByDataflowId(dataflowId);
-        List<com.dataflow.dataloaders.entity.dagmodels.dag.Node> allNodes = nodeService
-                .getNodesByDataflowId(dataflowId);
-        List<com.dataflow.dataloaders.entity.dagmodels.dag.Edge> allEdges = edgeService
-                .getEdgesByDataflowId(dataflowId);
-
-        if (dags.isEmpty()) {
-            if (!allNodes.isEmpty() || !allEdges.isEmpty()) {
-                DAGDefinition defaultDag = new DAGDefinition();
-                defaultDag.setDagId("default-" + dataflowId);
-                defaultDag.setDataflowId(dataflowId);
-                defaultDag.setDagName("Default DAG");
-                defaultDag.setNodes(allNodes);
-                defaultDag.setEdges(allEdges);
-
-                List<String> nodeIds = new java.util.ArrayList<>();
-                for (com.dataflow.dataloaders.entity.dagmodels.dag.Node n : allNodes) {
-                    nodeIds.add(n.getNodeId());
-                }
-                defaultDag.setNodeIds(nodeIds);
-
-                List<String> edgeIds = new java.util.ArrayList<>();
-                for (com.dataflow.dataloaders.entity.dagmodels.dag.Edge e : allEdges) {
-                    edgeIds.add(e.getEdgeId());
-                }
-                defaultDag.setEdgeIds(edgeIds);
+        return dagReadModelService.loadByDataflowId(dataflowId);
+    }
 
-                return java.util.List.of(defaultDag);
-            }
-            return dags;
-        }
+    /**
+     * Cached, read-only view of a DAG with its ETag, for serving reads
+     */
+    public Optional<DAGReadModelService.Versioned<DAGDefinition>> getDAGView(String dagId) {
+        return dagReadModelService.getDAG(dagId);
+    }
 
-        for (DAGDefinition dag : dags) {
-            List<com.dataflow.dataloaders.entity.dagmodels.dag.Node> dagNodes = new java.util.ArrayList<>();
-            if (dag.getNodeIds() != null && !dag.getNodeIds().isEmpty()) {
-                for (com.dataflow.dataloaders.entity.dagmodels.dag.Node n : allNodes) {
-                    if (dag.getNodeIds().contains(n.getNodeId())) {
-                        dagNodes.add(n);
-                    }
-                }
-            } else {
-                dagNodes.addAll(allNodes);
-            }
-            dag.setNodes(dagNodes);
-
-            List<com.dataflow.dataloaders.entity.dagmodels.dag.Edge> dagEdges = new java.util.ArrayList<>();
-            if (dag.getEdgeIds() != null && !dag.getEdgeIds().isEmpty()) {
-                for (com.dataflow.dataloaders.entity.dagmodels.dag.Edge e : allEdges) {
-                    if (dag.getEdgeIds().contains(e.getEdgeId())) {
-                        dagEdges.add(e);
-                    }
-                }
-            } else {
-                dagEdges.addAll(allEdges);
-            }
-            dag.setEdges(dagEdges);
-        }
-        return dags;
+    /**
+     * Cached, read-only view of a dataflow's DAGs with its ETag, for serving
+     * reads
+     */
+    public DAGReadModelService.Versioned<List<DAGDefinition>> getDAGsView(String dataflowId) {
+        return dagReadModelService.getDAGsByDataflowId(dataflowId);
     }
 
     public int updateDAG(DAGDefinition dag) {
@@ -204,21 +321,35 @@ public class DAGDefinitionService {
      * Prepares the DAG for execution by binding connection details to nodes.
      */
     public DAGExecutionResponse executeDAG(String dataflowId, String authHeader) {
-        List<DAGDefinition> dags = getDAGsByDataflowId(dataflowId);
-        if (dags == null || dags.isEmpty()) {
-            throw new com.dataflow.dataloaders.exception.DataloadersException(
-                    com.dataflow.dataloaders.exception.ErrorFactory.RESOURCE_NOT_FOUND,
-                    "No DAG found for dataflowId: " + dataflowId);
+        if ("local".equalsIgnoreCase(executionMode)) {
+            DAGRunResponse run = executeDAGLocally(dataflowId);
+            return DAGExecutionResponse.builder()
+                    .dagId(run.getDagId())
+                    .dagName(run.getDagName())
+                    .status(run.getStatus())
+                    .jobStatus(run.getStatus())
+                    .startTime(String.valueOf(run.getStartedAt()))
+                    .build();
         }
-        DAGDefinition dag = dags.get(0);
+        DAGDefinition dag = getExecutableDAG(dataflowId);
         log.info("Preparing DAG for execution: {}", dag.getDagId());
 
         if (dag.getNodes() != null) {
+            // Resolve each distinct connection once, however many nodes share it
+            Map<String, ConnectionConfig> configs = connectionConfigResolver
+                    .resolveAll(connectionIdsOf(dag.getNodes()), null);
             for (Node node : dag.getNodes()) {
-                bindConnectionToNode(node);
+                bindConnectionToNode(node, configs);
             }
         }
 
+        // The engine schedules by stages; a hand-written MANUAL plan is left as it is
+        DAGDefinition.ExecutionPlan plan = dag.getExecutionPlan();
+        if (plan == null || plan.getParallelismStrategy() != DAGDefinition.ExecutionPlan.ParallelismStrategy.MANUAL
+                || plan.getStages() == null || plan.getStages().isEmpty()) {
+            dag.setExecutionPlan(dagPlannerService.plan(dag, false).getExecutionPlan());
+        }
+
         // Set execution metadata
         dag.setStatus(DAGDefinition.DAGStatus.ACTIVE);
 
@@ -249,7 +380,58 @@ public class DAGDefinitionService {
         }
     }
 
-    private void bindConnectionToNode(Node node) {
+    /**
+     * Runs the dataflow's DAG in this JVM; readers and writers use the pooled
+     * JDBC connections directly, so no connection details are bound
+     */
+    public DAGRunResponse executeDAGLocally(String dataflowId) {
+        DAGDefinition dag = getExecutableDAG(dataflowId);
+        log.info("Running DAG locally: {}", dag.getDagId());
+        return localDAGExecutor.start(dag);
+    }
+
+    public DAGRunResponse getLocalRun(String runId) {
+        return localDAGExecutor.getRun(runId);
+    }
+
+    public DAGRunResponse cancelLocalRun(String runId) {
+        return localDAGExecutor.cancel(runId);
+    }
+
+    /**
+     * Plans a stored DAG; with save the plan is written back to the DAG
+     */
+    public DAGPlanResponse planDAG(String dagId, boolean estimate, boolean save) {
+        DAGDefinition dag = getDAGById(dagId)
+                .orElseThrow(() -> new com.dataflow.dataloaders.exception.DataloadersException(
+                        com.dataflow.dataloaders.exception.ErrorFactory.RESOURCE_NOT_FOUND,
+                        "DAG not found: " + dagId));
+        DAGPlanResponse response = dagPlannerService.plan(dag, estimate);
+        if (save) {
+            dag.setExecutionPlan(response.getExecutionPlan());
+            dagDefinitionDao.update(dag);
+        }
+        return response;
+    }
+
+    /**
+     * Plans a DAG that has not been saved, e.g. while it is being edited
+     */
+    public DAGPlanResponse planDAG(DAGDefinition dag, boolean estimate) {
+        return dagPlannerService.plan(dag, estimate);
+    }
+
+    private DAGDefinition getExecutableDAG(String dataflowId) {
+        List<DAGDefinition> dags = getDAGsByDataflowId(dataflowId);
+        if (dags == null || dags.isEmpty()) {
+            throw new com.dataflow.dataloaders.exception.DataloadersException(
+                    com.dataflow.dataloaders.exception.ErrorFactory.RESOURCE_NOT_FOUND,
+                    "No DAG found for dataflowId: " + dataflowId);
+        }
+        return dags.get(0);
+    }
+
+    private void bindConnectionToNode(Node node, Map<String, ConnectionConfig> configs) {
         if (node.getConfig() == null)
             return;
 
@@ -257,75 +439,34 @@ public class DAGDefinitionService {
         if (node.getConfig().getReaderConfig() != null
                 && node.getConfig().getReaderConfig().getConnectionId() != null) {
             String connId = node.getConfig().getReaderConfig().getConnectionId();
-            node.getConfig().getReaderConfig().setConnectionConfig(fetchConnectionConfig(connId));
+            node.getConfig().getReaderConfig().setConnectionConfig(configs.get(connId));
         }
 
         // Bind Writer Connection
         if (node.getConfig().getWriterConfig() != null
                 && node.getConfig().getWriterConfig().getConnectionId() != null) {
             String connId = node.getConfig().getWriterConfig().getConnectionId();
-            node.getConfig().getWriterConfig().setConnectionConfig(fetchConnectionConfig(connId));
+            node.getConfig().getWriterConfig().setConnectionConfig(configs.get(connId));
         }
     }
 
-    private ConnectionConfig fetchConnectionConfig(String connectionId) {
-        try {
-            Connection connection = connectionService
-                    .getConnection(Identifier.builder().word(connectionId).build());
-            Provider provider = providerService
-                    .getProvider(Identifier.builder().word(connection.getProviderId()).build());
-            String providerKey = provider.getProviderName().toLowerCase();
-
-            // Decrypt secrets
-            JsonNode decryptedSecrets = encryptionService.decrypt(connection.getSecrets());
-
-            // Resolve variables
-            JsonNode resolvedConfig = variableService.resolveJsonNode(connection.getConfig(),
-                    connection.getApplicationId(), null);
-            JsonNode resolvedSecrets = variableService.resolveJsonNode(decryptedSecrets, connection.getApplicationId(),
-                    null);
-
-            ConnectionConfig config = new ConnectionConfig();
-
-            if (providerKey.contains("postgres")) {
-                config.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s",
-                        resolvedConfig.path("host").asText(),
-                        resolvedConfig.path("port").asInt(),
-                        resolvedConfig.path("database_name").asText()));
-                config.setJdbcUser(resolvedConfig.path("username").asText());
-                config.setJdbcPassword(resolvedSecrets.path("password").asText());
-                config.setJdbcDriverName("org.postgresql.Driver");
-            } else if (providerKey.contains("mysql") || providerKey.contains("mariadb")) {
-                config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?serverTimezone=UTC",
-                        resolvedConfig.path("host").asText(),
-                        resolvedConfig.path("port").asInt(),
-                        resolvedConfig.path("database_name").asText()));
-                config.setJdbcUser(resolvedConfig.path("username").asText());
-                config.setJdbcPassword(resolvedSecrets.path("password").asText());
-                config.setJdbcDriverName("com.mysql.cj.jdbc.Driver");
-            } else if (providerKey.contains("oracle")) {
-                config.setJdbcUrl(String.format("jdbc:oracle:thin:@%s:%d:%s",
-                        resolvedConfig.path("host").asText(),
-                        resolvedConfig.path("port").asInt(),
-                        resolvedConfig.path("service_name").asText()));
-                config.setJdbcUser(resolvedConfig.path("username").asText());
-                config.setJdbcPassword(resolvedSecrets.path("password").asText());
-                config.setJdbcDriverName("oracle.jdbc.driver.OracleDriver");
-            } else if (providerKey.contains("mssql")) {
-                config.setJdbcUrl(String.format("jdbc:sqlserver://%s:%d;databaseName=%s",
-                        resolvedConfig.path("host").asText(),
-                        resolvedConfig.path("port").asInt(),
-                        resolvedConfig.path("database_name").asText()));
-                config.setJdbcUser(resolvedConfig.path("username").asText());
-                config.setJdbcPassword(resolvedSecrets.path("password").asText());
-                config.setJdbcDriverName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
+    /**
+     * Distinct connections referenced by reader and writer configs
+     */
+    private static Set<String> connectionIdsOf(List<Node> nodes) {
+        Set<String> connectionIds = new LinkedHashSet<>();
+        for (Node node : nodes) {
+            if (node.getConfig() == null)
+                continue;
+            if (node.getConfig().getReaderConfig() != null
+                    && node.getConfig().getReaderConfig().getConnectionId() != null) {
+                connectionIds.add(node.getConfig().getReaderConfig().getConnectionId());
+            }
+            if (node.getConfig().getWriterConfig() != null
+                    && node.getConfig().getWriterConfig().getConnectionId() != null) {
+                connectionIds.add(node.getConfig().getWriterConfig().getConnectionId());
             }
-            // Add other providers as needed...
-
-            return config;
-        } catch (Exception e) {
-            log.error("Error binding connection {}: {}", connectionId, e.getMessage());
-            return null;
         }
+        return connectionIds;
     }
 }
@@ -0,0 +1,450 @@
+package com.dataflow.dataloaders.services.dag;
+
+import com.dataflow.dataloaders.dao.ConnectionDao;
+import com.dataflow.dataloaders.dto.DAGPlanResponse;
+import com.dataflow.dataloaders.dto.TableStatistics;
+import com.dataflow.dataloaders.entity.Connection;
+import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Node;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.jobconfigs.ReaderConfig;
+import com.dataflow.dataloaders.services.CatalogService;
+import com.dataflow.dataloaders.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fills a DAG's ExecutionPlan from its structure: one stage per topological
+ * level, stage dependencies from the edges between levels, the critical path
+ * and the independent branches, all in O(V + E). Data and control edges both
+ * order nodes; error edges do not. Node weights are the estimated input rows
+ * (in thousands, at least one) scaled by the node's requested resources, so
+ * the critical path follows where the work is rather than the longest chain.
+ * Plans are cached by a hash of everything they depend on; a cached plan is
+ * shared and must not be modified.
+ */
+@Slf4j
+@Service
+public class DAGPlannerService {
+
+    @Autowired
+    private ConnectionDao connectionDao;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    /**
+     * Rows assumed for a node whose input size is unknown
+     */
+    @Value("${dataloaders.dag.plan.default-rows:10000}")
+    private long defaultRows;
+
+    @Value("${dataloaders.dag.plan.cache.max-entries:256}")
+    private int cacheSize;
+
+    private LruCache<String, Plan> plans;
+
+    @PostConstruct
+    void init() {
+        plans = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * @param withEstimates read row estimates of reader tables from the
+     *                      source's optimizer statistics
+     */
+    public DAGPlanResponse plan(DAGDefinition dag, boolean withEstimates) {
+        List<Node> nodes = dag.getNodes() != null ? dag.getNodes() : List.of();
+        List<Edge> edges = dag.getEdges() != null ? dag.getEdges() : List.of();
+        Map<String, Long> readerRows = withEstimates ? readerEstimates(nodes) : Map.of();
+
+        String hash = contentHash(dag, nodes, edges, readerRows);
+        Plan plan = plans.get(hash);
+        boolean cached = plan != null;
+        if (plan == null) {
+            plan = compute(dag, nodes, edges, readerRows);
+            plans.put(hash, plan);
+        }
+        return DAGPlanResponse.builder()
+                .dagId(dag.getDagId())
+                .contentHash(hash)
+                .cached(cached)
+                .executionPlan(plan.executionPlan)
+                .criticalPath(plan.criticalPath)
+                .criticalPathWeight(plan.criticalPathWeight)
+                .branches(plan.branches)
+                .nodeWeights(plan.nodeWeights)
+                .estimatedRows(plan.estimatedRows)
+                .build();
+    }
+
+    private Plan compute(DAGDefinition dag, List<Node> nodes, List<Edge> edges, Map<String, Long> readerRows) {
+        int n = nodes.size();
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (index.put(nodes.get(i).getNodeId(), i) != null) {
+                throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                        "Duplicate node ID: " + nodes.get(i).getNodeId());
+            }
+        }
+
+        // Adjacency as lists of indexes; dataIn only follows data edges, for row estimates
+        List<List<Integer>> out = new ArrayList<>(n);
+        List<List<Integer>> in = new ArrayList<>(n);
+        List<List<Integer>> dataIn = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new ArrayList<>());
+            in.add(new ArrayList<>());
+            dataIn.add(new ArrayList<>());
+        }
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        for (Edge edge : edges) {
+            Edge.EdgeType type = edge.getEdgeType() != null ? edge.getEdgeType() : Edge.EdgeType.DATA_FLOW;
+            if (type == Edge.EdgeType.ERROR_FLOW)
+                continue;
+            Integer source = index.get(edge.getSourceNodeId());
+            Integer target = index.get(edge.getTargetNodeId());
+            if (source == null || target == null) {
+                throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                        "Edge " + edge.getEdgeId() + " references a node outside the DAG");
+            }
+            out.get(source).add(target);
+            in.get(target).add(source);
+            if (type == Edge.EdgeType.DATA_FLOW) {
+                dataIn.get(target).add(source);
+            }
+            union(parent, source, target);
+        }
+
+        // Kahn's algorithm; a node's level is one past its deepest predecessor
+        int[] inDegree = new int[n];
+        int[] level = new int[n];
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            inDegree[i] = in.get(i).size();
+            if (inDegree[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int node = order[head++];
+            for (int next : out.get(node)) {
+                level[next] = Math.max(level[next], level[node] + 1);
+                if (--inDegree[next] == 0) {
+                    order[tail++] = next;
+                }
+            }
+        }
+        if (tail < n) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "DAG contains a cycle");
+        }
+
+        // Rows, weights and the heaviest path in one pass over the topological order
+        Long[] rows = new Long[n];
+        double[] weight = new double[n];
+        double[] pathWeight = new double[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -1);
+        int heaviest = -1;
+        for (int i = 0; i < n; i++) {
+            int node = order[i];
+            rows[node] = inputRows(nodes.get(node), dataIn.get(node), rows, readerRows);
+            weight[node] = resourceFactor(nodes.get(node).getResources())
+                    * Math.max(1.0, (rows[node] != null ? rows[node] : defaultRows) / 1000.0);
+            pathWeight[node] = weight[node];
+            for (int before : in.get(node)) {
+                if (pathWeight[before] + weight[node] > pathWeight[node]) {
+                    pathWeight[node] = pathWeight[before] + weight[node];
+                    previous[node] = before;
+                }
+            }
+            if (heaviest < 0 || pathWeight[node] > pathWeight[heaviest]) {
+                heaviest = node;
+            }
+        }
+
+        List<String> criticalPath = new ArrayList<>();
+        for (int node = heaviest; node >= 0; node = previous[node]) {
+            criticalPath.add(0, nodes.get(node).getNodeId());
+        }
+
+        DAGDefinition.ExecutionPlan executionPlan = buildExecutionPlan(dag, nodes, in, level, weight);
+
+        Map<Integer, List<String>> components = new TreeMap<>();
+        Map<String, Double> nodeWeights = new LinkedHashMap<>();
+        Map<String, Long> estimatedRows = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            int node = order[i];
+            String id = nodes.get(node).getNodeId();
+            components.computeIfAbsent(find(parent, node), k -> new ArrayList<>()).add(id);
+            nodeWeights.put(id, weight[node]);
+            if (rows[node] != null) {
+                estimatedRows.put(id, rows[node]);
+            }
+        }
+        List<List<String>> branches = new ArrayList<>(components.values());
+        branches.sort(Comparator.comparingInt((List<String> branch) -> branch.size()).reversed());
+
+        return new Plan(executionPlan, criticalPath, heaviest >= 0 ? pathWeight[heaviest] : 0.0, branches,
+                nodeWeights, estimatedRows);
+    }
+
+    private DAGDefinition.ExecutionPlan buildExecutionPlan(DAGDefinition dag, List<Node> nodes,
+            List<List<Integer>> in, int[] level, double[] weight) {
+        int levels = 0;
+        for (int value : level) {
+            levels = Math.max(levels, value + 1);
+        }
+        List<List<Integer>> byLevel = new ArrayList<>(levels);
+        for (int i = 0; i < levels; i++) {
+            byLevel.add(new ArrayList<>());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            byLevel.get(level[i]).add(i);
+        }
+
+        List<DAGDefinition.Stage> stages = new ArrayList<>(levels);
+        int widest = 0;
+        for (int l = 0; l < levels; l++) {
+            List<Integer> members = byLevel.get(l);
+            // Heaviest first, so a scheduler short on slots starts the long poles early
+            members.sort(Comparator.comparingDouble((Integer i) -> weight[i]).reversed()
+                    .thenComparing(i -> nodes.get(i).getNodeId()));
+            widest = Math.max(widest, members.size());
+
+            Set<String> dependsOn = new LinkedHashSet<>();
+            List<String> stageNodes = new ArrayList<>(members.size());
+            for (int member : members) {
+                stageNodes.add(nodes.get(member).getNodeId());
+                for (int before : in.get(member)) {
+                    dependsOn.add(stageId(level[before]));
+                }
+            }
+            DAGDefinition.Stage stage = new DAGDefinition.Stage();
+            stage.setStageId(stageId(l));
+            stage.setStageName("Stage " + (l + 1));
+            stage.setNodes(stageNodes);
+            stage.setExecutionMode(members.size() > 1
+                    ? DAGDefinition.Stage.ExecutionMode.PARALLEL
+                    : DAGDefinition.Stage.ExecutionMode.SEQUENTIAL);
+            stage.setDependsOn(new ArrayList<>(dependsOn));
+            stages.add(stage);
+        }
+
+        DAGDefinition.ExecutionPlan existing = dag.getExecutionPlan();
+        boolean manual = existing != null
+                && existing.getParallelismStrategy() == DAGDefinition.ExecutionPlan.ParallelismStrategy.MANUAL;
+        boolean resourceBased = nodes.stream().anyMatch(node -> node.getResources() != null
+                && (node.getResources().getCpu() != null || node.getResources().getMemory() != null));
+        Integer maxConcurrency = dag.getGlobalProperties() != null ? dag.getGlobalProperties().getMaxConcurrency()
+                : null;
+
+        DAGDefinition.ExecutionPlan plan = new DAGDefinition.ExecutionPlan();
+        plan.setType(widest > 1 ? DAGDefinition.ExecutionPlan.ExecutionType.DAG
+                : DAGDefinition.ExecutionPlan.ExecutionType.LINEAR);
+        if (manual) {
+            plan.setParallelismStrategy(DAGDefinition.ExecutionPlan.ParallelismStrategy.MANUAL);
+            plan.setMaxParallelNodes(existing.getMaxParallelNodes() != null ? existing.getMaxParallelNodes()
+                    : widest);
+        } else {
+            plan.setParallelismStrategy(resourceBased
+                    ? DAGDefinition.ExecutionPlan.ParallelismStrategy.RESOURCE_BASED
+                    : DAGDefinition.ExecutionPlan.ParallelismStrategy.AUTO);
+            plan.setMaxParallelNodes(maxConcurrency != null && maxConcurrency > 0
+                    ? Math.min(widest, maxConcurrency)
+                    : widest);
+        }
+        plan.setStages(stages);
+        return plan;
+    }
+
+    /**
+     * A reader's own estimate; otherwise the sum of what its data inputs
+     * produce, unknown as soon as one of them is
+     */
+    private static Long inputRows(Node node, List<Integer> inputs, Long[] rows, Map<String, Long> readerRows) {
+        if (inputs.isEmpty()) {
+            return readerRows.get(node.getNodeId());
+        }
+        long sum = 0;
+        for (int input : inputs) {
+            if (rows[input] == null)
+                return null;
+            sum += rows[input];
+        }
+        return sum;
+    }
+
+    /**
+     * Requested CPU cores or memory GiB, whichever is larger; 1 when the node
+     * requests nothing
+     */
+    private static double resourceFactor(Node.Resources resources) {
+        if (resources == null)
+            return 1.0;
+        double cpu = parseCpu(resources.getCpu());
+        double memory = parseMemoryGiB(resources.getMemory());
+        double factor = Math.max(cpu, memory);
+        return factor > 0 ? factor : 1.0;
+    }
+
+    private static double parseCpu(String cpu) {
+        if (cpu == null || cpu.isBlank())
+            return 0;
+        String value = cpu.trim();
+        try {
+            return value.endsWith("m")
+                    ? Double.parseDouble(value.substring(0, value.length() - 1)) / 1000.0
+                    : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double parseMemoryGiB(String memory) {
+        if (memory == null || memory.isBlank())
+            return 0;
+        String value = memory.trim().toUpperCase(Locale.ROOT);
+        int unitStart = value.length();
+        while (unitStart > 0 && Character.isLetter(value.charAt(unitStart - 1))) {
+            unitStart--;
+        }
+        double divisor = switch (value.substring(unitStart)) {
+            case "KI", "K", "KB" -> 1024.0 * 1024;
+            case "MI", "M", "MB" -> 1024.0;
+            case "GI", "G", "GB" -> 1.0;
+            case "TI", "T", "TB" -> 1.0 / 1024;
+            default -> 1024.0 * 1024 * 1024;
+        };
+        try {
+            return Double.parseDouble(value.substring(0, unitStart)) / divisor;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Table row estimates of JDBC readers, one statistics query per
+     * connection and schema
+     */
+    private Map<String, Long> readerEstimates(List<Node> nodes) {
+        Map<String, Map<String, List<Node>>> readers = new LinkedHashMap<>();
+        for (Node node : nodes) {
+            ReaderConfig reader = node.getConfig() != null ? node.getConfig().getReaderConfig() : null;
+            if (node.getNodeType() != Node.NodeType.JDBC_READER || reader == null || reader.getConnectionId() == null
+                    || reader.getTableName() == null || reader.getFromClause() != null) {
+                continue;
+            }
+            readers.computeIfAbsent(reader.getConnectionId(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(Objects.toString(reader.getSchemaName(), ""), k -> new ArrayList<>())
+                    .add(node);
+        }
+        Map<String, Long> estimates = new HashMap<>();
+        if (readers.isEmpty()) {
+            return estimates;
+        }
+        for (Connection connection : connectionDao.listByIds(new ArrayList<>(readers.keySet()))) {
+            readers.get(connection.getId()).forEach((schemaName, schemaReaders) -> {
+                try {
+                    Map<String, TableStatistics> statistics = new HashMap<>();
+                    catalogService.getStatistics(connection, schemaName).forEach(
+                            (table, stats) -> statistics.put(table.toLowerCase(Locale.ROOT), stats));
+                    for (Node node : schemaReaders) {
+                        TableStatistics stats = statistics.get(
+                                node.getConfig().getReaderConfig().getTableName().toLowerCase(Locale.ROOT));
+                        if (stats != null && stats.getEstimatedRows() != null) {
+                            estimates.put(node.getNodeId(), stats.getEstimatedRows());
+                        }
+                    }
+                } catch (Exception e) {
+                    log.warn("No row estimates for {} schema '{}': {}", connection.getId(), schemaName,
+                            e.getMessage());
+                }
+            });
+        }
+        return estimates;
+    }
+
+    /**
+     * Hash of the nodes, edges, resources, limits and estimates the plan is
+     * computed from, independent of list order
+     */
+    private static String contentHash(DAGDefinition dag, List<Node> nodes, List<Edge> edges,
+            Map<String, Long> readerRows) {
+        List<String> parts = new ArrayList<>(nodes.size() + edges.size() + 1);
+        for (Node node : nodes) {
+            Node.Resources resources = node.getResources();
+            parts.add(String.join("\u0000", "n", node.getNodeId(), String.valueOf(node.getNodeType()),
+                    resources != null ? resources.getCpu() + "/" + resources.getMemory() : "",
+                    String.valueOf(readerRows.get(node.getNodeId()))));
+        }
+        for (Edge edge : edges) {
+            parts.add(String.join("\u0000", "e", edge.getSourceNodeId(), edge.getTargetNodeId(),
+                    String.valueOf(edge.getEdgeType())));
+        }
+        parts.sort(null);
+        DAGDefinition.ExecutionPlan existing = dag.getExecutionPlan();
+        parts.add(String.join("\u0000", "g",
+                String.valueOf(dag.getGlobalProperties() != null ? dag.getGlobalProperties().getMaxConcurrency()
+                        : null),
+                existing != null ? existing.getParallelismStrategy() + "/" + existing.getMaxParallelNodes() : ""));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String stageId(int level) {
+        return "stage-" + (level + 1);
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    private record Plan(DAGDefinition.ExecutionPlan executionPlan, List<String> criticalPath,
+            double criticalPathWeight, List<List<String>> branches, Map<String, Double> nodeWeights,
+            Map<String, Long> estimatedRows) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.dataflow.dataloaders.services.dag;
+
+import com.dataflow.dataloaders.dao.dag.DAGDefinitionDao;
+import com.dataflow.dataloaders.dao.dag.DAGRevisionDao;
+import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Node;
+import com.dataflow.dataloaders.util.DFUtil;
+import com.dataflow.dataloaders.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads DAGs with their nodes and edges in one database round trip and
+ * assembles them with hash lookups. Assembled views are cached against the
+ * dataflow's revision, which every DAG, node and edge write bumps, so a
+ * repeated read costs one revision lookup. A DAG without a dataflow has no
+ * revision to check and is loaded on every read. Each view carries a strong
+ * ETag computed from its content.
+ */
+@Slf4j
+@Service
+public class DAGReadModelService {
+
+    @Autowired
+    private DAGDefinitionDao dagDefinitionDao;
+
+    @Autowired
+    private DAGRevisionDao dagRevisionDao;
+
+    @Autowired
+    private DFUtil dfUtil;
+
+    @Value("${dataloaders.dag.read-cache.max-entries:256}")
+    private int cacheSize;
+
+    private LruCache<String, Versioned<DAGDefinition>> dagViews;
+    private LruCache<String, Versioned<List<DAGDefinition>>> dataflowViews;
+
+    @PostConstruct
+    void init() {
+        dagViews = new LruCache<>(cacheSize);
+        dataflowViews = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Cached view of one DAG; empty when it does not exist. The DAG is shared
+     * between callers and must not be modified.
+     */
+    public Optional<Versioned<DAGDefinition>> getDAG(String dagId) {
+        Optional<DAGRevisionDao.Revision> revision = dagRevisionDao.getByDagId(dagId);
+        if (revision.isEmpty()) {
+            return Optional.empty();
+        }
+        // Writes only bump revisions of dataflows, so such a DAG would stay at revision 0
+        boolean cacheable = revision.get().dataflowId() != null;
+        Versioned<DAGDefinition> cached = cacheable ? dagViews.get(dagId) : null;
+        if (cached != null && cached.revision() == revision.get().revision()) {
+            return Optional.of(cached);
+        }
+
+        DAGDefinitionDao.Graph graph = dagDefinitionDao.getGraphByDagId(dagId);
+        List<DAGDefinition> dags = assemble(graph);
+        if (dags.isEmpty()) {
+            return Optional.empty();
+        }
+        Versioned<DAGDefinition> view = new Versioned<>(dags.get(0), eTag(dags.get(0)), graph.revision());
+        if (cacheable) {
+            dagViews.put(dagId, view);
+        }
+        return Optional.of(view);
+    }
+
+    /**
+     * Cached view of all DAGs of a dataflow. The DAGs are shared between
+     * callers and must not be modified.
+     */
+    public Versioned<List<DAGDefinition>> getDAGsByDataflowId(String dataflowId) {
+        long revision = dagRevisionDao.getByDataflowId(dataflowId);
+        Versioned<List<DAGDefinition>> cached = dataflowViews.get(dataflowId);
+        if (cached != null && cached.revision() == revision) {
+            return cached;
+        }
+
+        DAGDefinitionDao.Graph graph = dagDefinitionDao.getGraphByDataflowId(dataflowId);
+        List<DAGDefinition> dags = List.copyOf(assemble(dataflowId, graph));
+        Versioned<List<DAGDefinition>> view = new Versioned<>(dags, eTag(dags), graph.revision());
+        dataflowViews.put(dataflowId, view);
+        return view;
+    }
+
+    /**
+     * Freshly loaded DAG, not cached and free to modify; empty list when it
+     * does not exist
+     */
+    public List<DAGDefinition> loadByDagId(String dagId) {
+        return assemble(dagDefinitionDao.getGraphByDagId(dagId));
+    }
+
+    /**
+     * Freshly loaded DAGs of a dataflow, not cached and free to modify
+     */
+    public List<DAGDefinition> loadByDataflowId(String dataflowId) {
+        return assemble(dataflowId, dagDefinitionDao.getGraphByDataflowId(dataflowId));
+    }
+
+    /**
+     * DAGs of a dataflow; one with nodes or edges but no DAG row yet gets a
+     * synthetic "default-" DAG holding all of them
+     */
+    private static List<DAGDefinition> assemble(String dataflowId, DAGDefinitionDao.Graph graph) {
+        List<DAGDefinition> dags = assemble(graph);
+        if (!dags.isEmpty() || (graph.nodes().isEmpty() && graph.edges().isEmpty())) {
+            return dags;
+        }
+        DAGDefinition defaultDag = new DAGDefinition();
+        defaultDag.setDagId("default-" + dataflowId);
+        defaultDag.setDataflowId(dataflowId);
+        defaultDag.setDagName("Default DAG");
+        defaultDag.setNodes(new ArrayList<>(graph.nodes()));
+        defaultDag.setEdges(new ArrayList<>(graph.edges()));
+        defaultDag.setNodeIds(graph.nodes().stream().map(Node::getNodeId).toList());
+        defaultDag.setEdgeIds(graph.edges().stream().map(Edge::getEdgeId).toList());
+        List<DAGDefinition> synthetic = new ArrayList<>();
+        synthetic.add(defaultDag);
+        return synthetic;
+    }
+
+    /**
+     * Gives each DAG its nodes and edges: the ones listed in its nodeIds and
+     * edgeIds, or all of the dataflow's when it lists none. Stored order is
+     * kept.
+     */
+    private static List<DAGDefinition> assemble(DAGDefinitionDao.Graph graph) {
+        for (DAGDefinition dag : graph.dags()) {
+            if (dag.getDataflowId() == null)
+                continue;
+            Set<String> nodeIds = dag.getNodeIds() != null ? new HashSet<>(dag.getNodeIds()) : Set.of();
+            List<Node> dagNodes = new ArrayList<>();
+            for (Node node : graph.nodes()) {
+                if (nodeIds.isEmpty() || nodeIds.contains(node.getNodeId())) {
+                    dagNodes.add(node);
+                }
+            }
+            dag.setNodes(dagNodes);
+
+            Set<String> edgeIds = dag.getEdgeIds() != null ? new HashSet<>(dag.getEdgeIds()) : Set.of();
+            List<Edge> dagEdges = new ArrayList<>();
+            for (Edge edge : graph.edges()) {
+                if (edgeIds.isEmpty() || edgeIds.contains(edge.getEdgeId())) {
+                    dagEdges.add(edge);
+                }
+            }
+            dag.setEdges(dagEdges);
+        }
+        return graph.dags();
+    }
+
+    /**
+     * Quoted SHA-256 of the serialized view, so equal content always gives
+     * an equal tag, whichever instance built it
+     */
+    private String eTag(Object view) {
+        try {
+            byte[] json = dfUtil.writeValueAsString(view).getBytes(StandardCharsets.UTF_8);
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Versioned<T>(T value, String eTag, long revision) {
+    }
+}
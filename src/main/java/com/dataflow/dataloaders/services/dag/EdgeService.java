@@ -7,7 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class EdgeService {
@@ -26,6 +28,20 @@ public class EdgeService {
         return edgeDao.createV1(edge, Identifier.builder().build());
     }
 
+    /**
+     * Creates many edges with batched inserts; endpoints are checked against
+     * the given node IDs rather than looked up one by one
+     */
+    public void createEdges(List<Edge> edges, Set<String> existingNodeIds) {
+        for (Edge edge : edges) {
+            edgeValidator.validate(edge, existingNodeIds);
+            if (edge.getCreatedBy() == null) {
+                edge.setCreatedBy("admin");
+            }
+        }
+        edgeDao.batchInsert(edges);
+    }
+
     public Optional<Edge> getEdgeById(String edgeId) {
         return edgeDao.getV1(Identifier.builder().word(edgeId).build());
     }
@@ -42,6 +58,35 @@ public class EdgeService {
         return edgeDao.update(edge);
     }
 
+    /**
+     * Updates many edges in one batch; endpoints are checked against the
+     * given node IDs
+     */
+    public void updateEdges(List<Edge> edges, Set<String> existingNodeIds) {
+        for (Edge edge : edges) {
+            edgeValidator.validate(edge, existingNodeIds);
+            if (edge.getUpdatedBy() == null) {
+                edge.setUpdatedBy("admin");
+            }
+        }
+        edgeDao.batchUpdate(edges);
+    }
+
+    /**
+     * Dataflow of every given edge ID that has a row, including deleted ones
+     */
+    public Map<String, String> getEdgeDataflowIds(List<String> edgeIds) {
+        return edgeDao.getDataflowIds(edgeIds);
+    }
+
+    public void restoreEdges(List<String> edgeIds, String dataflowId) {
+        edgeDao.restore(edgeIds, dataflowId, "admin");
+    }
+
+    public void deleteEdges(List<String> edgeIds) {
+        edgeDao.batchDelete(edgeIds, "admin");
+    }
+
     public int deleteEdge(String edgeId) {
         Edge edge = new Edge();
         edge.setEdgeId(edgeId);
@@ -0,0 +1,1022 @@
+package com.dataflow.dataloaders.services.dag;
+
+import com.dataflow.dataloaders.dto.DAGEdgeMetrics;
+import com.dataflow.dataloaders.dto.DAGNodeMetrics;
+import com.dataflow.dataloaders.dto.DAGRunResponse;
+import com.dataflow.dataloaders.entity.dagmodels.dag.DAGDefinition;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
+import com.dataflow.dataloaders.entity.dagmodels.dag.Node;
+import com.dataflow.dataloaders.enums.SqlDialect;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+import com.dataflow.dataloaders.jobconfigs.ReaderConfig;
+import com.dataflow.dataloaders.jobconfigs.WriterConfig;
+import com.dataflow.dataloaders.services.JdbcDataSourceRegistry;
+import com.dataflow.dataloaders.util.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a DAG definition inside this JVM instead of handing it to the external
+ * engine. Every node is a task on its own virtual thread and every data edge
+ * is a bounded RecordChannel, so a slow writer slows its reader down instead
+ * of filling memory. GlobalProperties.maxConcurrency caps how many nodes do
+ * work at once: a node holds a permit while it reads, transforms or writes a
+ * chunk and gives it back while it waits on an edge, so a pipeline longer
+ * than the cap still flows. CONTROL_FLOW edges make the target wait for the
+ * source to finish. The first failure stops the whole run.
+ * Covered node types are JDBC_READER, MAPPER, TRANSFORMER, FILTER and
+ * JDBC_WRITER; anything else is rejected before the run starts, as are
+ * node validations, error handling other than FAIL and retries. A reader
+ * holds a pooled connection while it streams, a writer borrows one per chunk,
+ * so a DAG with more readers on one connection than its pool holds is
+ * rejected too.
+ */
+@Slf4j
+@Service
+public class LocalDAGExecutor {
+
+    private static final Set<Node.NodeType> SUPPORTED = EnumSet.of(Node.NodeType.JDBC_READER,
+            Node.NodeType.MAPPER, Node.NodeType.TRANSFORMER, Node.NodeType.FILTER, Node.NodeType.JDBC_WRITER);
+
+    private static final Set<String> SUPPORTED_TRANSFORMS = Set.of("TRIM", "UPPER", "TO_UPPER", "UPPER_CASE",
+            "LOWER", "TO_LOWER", "LOWER_CASE");
+
+    private static final Pattern PLAIN_IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+    /**
+     * How long an idle node waits on its inputs before checking whether the
+     * run was stopped
+     */
+    private static final long POLL_MS = 100;
+
+    @Autowired
+    private JdbcDataSourceRegistry dataSourceRegistry;
+
+    @Value("${dataloaders.dag.local.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    /**
+     * Edge buffer in records when the edge sets none
+     */
+    @Value("${dataloaders.dag.local.buffer-size:10000}")
+    private int defaultBufferSize;
+
+    /**
+     * Hard cap of an edge with the BUFFER strategy, in chunks
+     */
+    @Value("${dataloaders.dag.local.max-buffered-chunks:1000}")
+    private int maxBufferedChunks;
+
+    @Value("${dataloaders.dag.local.max-concurrency:8}")
+    private int defaultMaxConcurrency;
+
+    @Value("${dataloaders.dag.local.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${dataloaders.dag.local.retained-runs:100}")
+    private int retainedRuns;
+
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Validates the DAG and starts it in the background
+     */
+    public DAGRunResponse start(DAGDefinition dag) {
+        Run run = plan(dag);
+        runs.put(run.runId, run);
+        evictFinished();
+        log.info("Starting local run {} of DAG {} with {} nodes, max concurrency {}", run.runId, dag.getDagId(),
+                run.tasks.size(), run.maxConcurrency);
+        Thread.ofVirtual().name("dag-run-" + run.runId).start(() -> execute(run));
+        return run.snapshot();
+    }
+
+    public DAGRunResponse getRun(String runId) {
+        return findRun(runId).snapshot();
+    }
+
+    public DAGRunResponse cancel(String runId) {
+        Run run = findRun(runId);
+        run.stop("CANCELLED", "Run cancelled");
+        return run.snapshot();
+    }
+
+    private Run findRun(String runId) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            throw new DataloadersException(ErrorFactory.RESOURCE_NOT_FOUND, "Run not found with ID: " + runId);
+        }
+        return run;
+    }
+
+    // ============================================================================
+    // PLANNING
+    // ============================================================================
+
+    private Run plan(DAGDefinition dag) {
+        if (dag.getNodes() == null || dag.getNodes().isEmpty()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR, "DAG has no nodes");
+        }
+        Integer configured = dag.getGlobalProperties() != null ? dag.getGlobalProperties().getMaxConcurrency() : null;
+        Run run = new Run(dag, configured != null && configured > 0 ? configured : defaultMaxConcurrency);
+
+        List<String> problems = new ArrayList<>();
+        for (Node node : dag.getNodes()) {
+            if (!SUPPORTED.contains(node.getNodeType())) {
+                problems.add(node.getNodeId() + ": node type " + node.getNodeType() + " cannot run locally");
+            }
+            run.tasks.put(node.getNodeId(), new NodeTask(node));
+        }
+
+        List<Edge> edges = dag.getEdges() != null ? dag.getEdges() : List.of();
+        for (Edge edge : edges) {
+            NodeTask source = run.tasks.get(edge.getSourceNodeId());
+            NodeTask target = run.tasks.get(edge.getTargetNodeId());
+            if (source == null || target == null) {
+                problems.add(edge.getEdgeId() + ": edge references a node outside the DAG");
+                continue;
+            }
+            Edge.EdgeType type = edge.getEdgeType() != null ? edge.getEdgeType() : Edge.EdgeType.DATA_FLOW;
+            if (type == Edge.EdgeType.CONTROL_FLOW) {
+                target.after.add(source);
+            } else if (type == Edge.EdgeType.DATA_FLOW) {
+                RecordChannel channel = channelFor(edge, source.node);
+                source.outputs.add(channel);
+                target.inputs.add(new Input(edge, channel));
+                run.edges.add(new EdgeRun(edge, channel));
+            } else {
+                log.warn("Ignoring {} edge {} in local run", type, edge.getEdgeId());
+            }
+        }
+
+        for (NodeTask task : run.tasks.values()) {
+            validateNode(task, problems);
+        }
+        if (hasCycle(run.tasks.values(), edges)) {
+            problems.add("DAG contains a cycle");
+        } else {
+            checkControlFlow(run, problems);
+        }
+        checkConnections(run, problems);
+        if (!problems.isEmpty()) {
+            throw new DataloadersException(ErrorFactory.VALIDATION_ERROR,
+                    "DAG cannot run locally: " + String.join("; ", problems));
+        }
+        return run;
+    }
+
+    private RecordChannel channelFor(Edge edge, Node source) {
+        Edge.FlowControl flow = edge.getFlowControl();
+        Integer bufferSize = flow != null && flow.getBufferSize() != null ? flow.getBufferSize() : edge.getBufferSize();
+        long timeoutMs = flow != null && flow.getTimeout() != null ? flow.getTimeout() * 1000L : 0;
+        return new RecordChannel(edge.getEdgeId(), bufferSize != null && bufferSize > 0 ? bufferSize : defaultBufferSize,
+                chunkSizeOf(source), flow != null ? flow.getBackpressure() : null, timeoutMs, maxBufferedChunks);
+    }
+
+    private void validateNode(NodeTask task, List<String> problems) {
+        Node node = task.node;
+        String id = node.getNodeId();
+        // The local run fails on the first error and checks nothing per row; settings asking otherwise are refused
+        List<String> settings = new ArrayList<>();
+        if (node.getValidations() != null && !node.getValidations().isEmpty())
+            settings.add("validations");
+        if (node.getErrorHandling() != null && node.getErrorHandling().getStrategy() != null
+                && node.getErrorHandling().getStrategy() != Node.NodeErrorHandling.ErrorStrategy.FAIL)
+            settings.add("errorHandling " + node.getErrorHandling().getStrategy());
+        if (node.getRetryPolicy() != null && node.getRetryPolicy().getMaxAttempts() != null
+                && node.getRetryPolicy().getMaxAttempts() > 1)
+            settings.add("retryPolicy");
+        if (!settings.isEmpty()) {
+            problems.add(id + ": node settings " + String.join(", ", settings) + " are not supported locally");
+        }
+        if (node.getNodeType() == Node.NodeType.JDBC_READER) {
+            ReaderConfig reader = node.getConfig() != null ? node.getConfig().getReaderConfig() : null;
+            if (reader == null || reader.getConnectionId() == null) {
+                problems.add(id + ": reader has no connection");
+            } else if (isBlank(reader.getTableName()) && isBlank(reader.getFromClause())) {
+                problems.add(id + ": reader needs a tableName or a fromClause");
+            }
+            if (!task.inputs.isEmpty()) {
+                problems.add(id + ": reader cannot have incoming data edges");
+            }
+            return;
+        }
+        if (task.inputs.isEmpty()) {
+            problems.add(id + ": node has no incoming data edge");
+        }
+        if (node.getNodeType() == Node.NodeType.JDBC_WRITER) {
+            WriterConfig writer = node.getConfig() != null ? node.getConfig().getWriterConfig() : null;
+            if (writer == null || writer.getConnectionId() == null || isBlank(writer.getTableName())) {
+                problems.add(id + ": writer needs a connection and a tableName");
+            }
+            if (writer != null) {
+                // Plain inserts only; anything that changes what a write means needs the external engine
+                List<String> options = new ArrayList<>();
+                if (writer.getPrimaryKeys() != null && !writer.getPrimaryKeys().isEmpty())
+                    options.add("primaryKeys");
+                if (Boolean.TRUE.equals(writer.getIsIdempotent()))
+                    options.add("isIdempotent");
+                if (!isBlank(writer.getTruncateTable()) && !"false".equalsIgnoreCase(writer.getTruncateTable()))
+                    options.add("truncateTable");
+                if (!isBlank(writer.getBeforeWriteQuery()))
+                    options.add("beforeWriteQuery");
+                if (Boolean.TRUE.equals(writer.getRemoveCurrentDayData()))
+                    options.add("removeCurrentDayData");
+                if (!options.isEmpty()) {
+                    problems.add(id + ": writer options " + String.join(", ", options) + " are not supported locally");
+                }
+            }
+        }
+        if (node.getMapperConfig() != null && node.getMapperConfig().getMappings() != null) {
+            for (Node.FieldMapperConfig.MappingEntry mapping : node.getMapperConfig().getMappings()) {
+                if (!isBlank(mapping.getExpression())) {
+                    problems.add(id + ": mapping expressions are not supported locally (" + mapping.getTargetPath()
+                            + ")");
+                }
+                if (mapping.getTransforms() != null) {
+                    for (String transform : mapping.getTransforms()) {
+                        if (!SUPPORTED_TRANSFORMS.contains(transform.toUpperCase(Locale.ROOT))) {
+                            problems.add(id + ": transform " + transform + " is not supported locally");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A node that waits for another through CONTROL_FLOW edges must not share
+     * an upstream node with it: that upstream blocks on the waiting node's full
+     * edge and never lets the other finish
+     */
+    private static void checkControlFlow(Run run, List<String> problems) {
+        Map<NodeTask, Set<NodeTask>> upstream = new HashMap<>();
+        for (NodeTask task : run.tasks.values()) {
+            if (task.after.isEmpty())
+                continue;
+            Set<NodeTask> mine = upstreamOf(run, task, upstream);
+            Set<NodeTask> awaited = new LinkedHashSet<>();
+            Deque<NodeTask> pending = new ArrayDeque<>(task.after);
+            while (!pending.isEmpty()) {
+                NodeTask before = pending.poll();
+                if (awaited.add(before)) {
+                    pending.addAll(before.after);
+                }
+            }
+            for (NodeTask before : awaited) {
+                Set<NodeTask> theirs = new HashSet<>(upstreamOf(run, before, upstream));
+                theirs.add(before);
+                theirs.retainAll(mine);
+                if (!theirs.isEmpty()) {
+                    problems.add(task.node.getNodeId() + ": waits for " + before.node.getNodeId()
+                            + " but both are fed by " + theirs.iterator().next().node.getNodeId()
+                            + ", which would block on the waiting node's edge");
+                }
+            }
+        }
+    }
+
+    /**
+     * Nodes feeding the task's data edges, directly or further up
+     */
+    private static Set<NodeTask> upstreamOf(Run run, NodeTask task, Map<NodeTask, Set<NodeTask>> cache) {
+        Set<NodeTask> cached = cache.get(task);
+        if (cached != null)
+            return cached;
+        Set<NodeTask> upstream = new HashSet<>();
+        for (Input input : task.inputs) {
+            NodeTask source = run.tasks.get(input.edge.getSourceNodeId());
+            upstream.add(source);
+            upstream.addAll(upstreamOf(run, source, cache));
+        }
+        cache.put(task, upstream);
+        return upstream;
+    }
+
+    /**
+     * Readers keep their connection for the whole run, and writers need one
+     * more to borrow per chunk
+     */
+    private void checkConnections(Run run, List<String> problems) {
+        Map<String, Integer> readers = new HashMap<>();
+        Set<String> written = new HashSet<>();
+        for (NodeTask task : run.tasks.values()) {
+            if (task.node.getConfig() == null)
+                continue;
+            if (task.node.getNodeType() == Node.NodeType.JDBC_READER
+                    && task.node.getConfig().getReaderConfig() != null) {
+                readers.merge(task.node.getConfig().getReaderConfig().getConnectionId(), 1, Integer::sum);
+            } else if (task.node.getNodeType() == Node.NodeType.JDBC_WRITER
+                    && task.node.getConfig().getWriterConfig() != null) {
+                written.add(task.node.getConfig().getWriterConfig().getConnectionId());
+            }
+        }
+        int poolSize = dataSourceRegistry.getMaxPoolSize();
+        readers.forEach((connectionId, count) -> {
+            int needed = count + (written.contains(connectionId) ? 1 : 0);
+            if (connectionId != null && needed > poolSize) {
+                problems.add("connection " + connectionId + " needs " + needed
+                        + " connections at once but its pool holds " + poolSize);
+            }
+        });
+    }
+
+    private static boolean hasCycle(Collection<NodeTask> tasks, List<Edge> edges) {
+        Map<String, Integer> inDegree = new HashMap<>();
+        Map<String, List<String>> next = new HashMap<>();
+        for (NodeTask task : tasks) {
+            inDegree.put(task.node.getNodeId(), 0);
+        }
+        for (Edge edge : edges) {
+            if (inDegree.containsKey(edge.getSourceNodeId()) && inDegree.containsKey(edge.getTargetNodeId())) {
+                next.computeIfAbsent(edge.getSourceNodeId(), k -> new ArrayList<>()).add(edge.getTargetNodeId());
+                inDegree.merge(edge.getTargetNodeId(), 1, Integer::sum);
+            }
+        }
+        Deque<String> ready = new ArrayDeque<>();
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0)
+                ready.add(id);
+        });
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            visited++;
+            for (String target : next.getOrDefault(id, List.of())) {
+                if (inDegree.merge(target, -1, Integer::sum) == 0) {
+                    ready.add(target);
+                }
+            }
+        }
+        return visited < inDegree.size();
+    }
+
+    // ============================================================================
+    // EXECUTION
+    // ============================================================================
+
+    private void execute(Run run) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (NodeTask task : run.tasks.values()) {
+                run.futures.add(executor.submit(() -> runNode(run, task)));
+            }
+            // A stop that raced the submissions above reaches the late tasks here
+            if (run.status.get() != null) {
+                run.interruptAll();
+            }
+        }
+        run.finish();
+        log.info("Local run {} {} in {} ms: {} records read, {} written", run.runId, run.snapshotStatus(),
+                run.durationMs(), run.recordsRead(), run.recordsWritten());
+    }
+
+    private Void runNode(Run run, NodeTask task) {
+        try {
+            for (NodeTask before : task.after) {
+                before.done.join();
+            }
+            if (run.status.get() != null) {
+                task.status = "CANCELLED";
+                return null;
+            }
+            task.status = "RUNNING";
+            task.startNanos = System.nanoTime();
+            switch (task.node.getNodeType()) {
+                case JDBC_READER -> read(run, task);
+                case JDBC_WRITER -> write(run, task);
+                default -> process(run, task);
+            }
+            for (RecordChannel output : task.outputs) {
+                output.close();
+            }
+            task.status = "COMPLETED";
+            task.done.complete(null);
+        } catch (Throwable e) {
+            boolean stopped = run.status.get() != null;
+            task.status = stopped ? "CANCELLED" : "FAILED";
+            if (!stopped) {
+                task.errorMessage = messageOf(e);
+                log.error("Node {} of local run {} failed: {}", task.node.getNodeId(), run.runId, task.errorMessage,
+                        e);
+                run.stop("FAILED", task.node.getNodeId() + ": " + task.errorMessage);
+            }
+            task.done.completeExceptionally(e);
+        } finally {
+            task.endNanos = System.nanoTime();
+        }
+        return null;
+    }
+
+    private void read(Run run, NodeTask task) throws Exception {
+        ReaderConfig config = task.node.getConfig().getReaderConfig();
+        int chunkSize = chunkSizeOf(task.node);
+        run.permits.acquire();
+        boolean holding = true;
+        long busyStart = System.nanoTime();
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(config.getConnectionId())) {
+            SqlDialect dialect = SqlDialect.of(conn);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                dialect.streamResults(conn, stmt, fetchSize);
+                run.statements.add(stmt);
+                try (ResultSet rs = stmt.executeQuery(readerSql(config))) {
+                    ResultSetMetaData rsmd = rs.getMetaData();
+                    String[] columns = new String[rsmd.getColumnCount()];
+                    for (int i = 1; i <= columns.length; i++) {
+                        columns[i - 1] = rsmd.getColumnLabel(i);
+                    }
+                    while (true) {
+                        List<Map<String, Object>> chunk = new ArrayList<>(chunkSize);
+                        while (chunk.size() < chunkSize && rs.next()) {
+                            Map<String, Object> row = new LinkedHashMap<>(columns.length * 2);
+                            for (int i = 1; i <= columns.length; i++) {
+                                row.put(columns[i - 1], rs.getObject(i));
+                            }
+                            chunk.add(row);
+                        }
+                        task.busyNanos.add(System.nanoTime() - busyStart);
+                        run.permits.release();
+                        holding = false;
+                        if (chunk.isEmpty()) {
+                            break;
+                        }
+                        task.recordsOut.add(chunk.size());
+                        task.chunks.increment();
+                        emit(task, chunk);
+                        run.permits.acquire();
+                        holding = true;
+                        busyStart = System.nanoTime();
+                    }
+                } finally {
+                    run.statements.remove(stmt);
+                }
+            } finally {
+                // Still in autocommit when the statement could not be created
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            }
+        } finally {
+            if (holding) {
+                task.busyNanos.add(System.nanoTime() - busyStart);
+                run.permits.release();
+            }
+        }
+    }
+
+    private void process(Run run, NodeTask task) throws Exception {
+        Inbox inbox = new Inbox(task.inputs);
+        Received received;
+        while ((received = inbox.next(run)) != null) {
+            List<Map<String, Object>> output;
+            run.permits.acquire();
+            long busyStart = System.nanoTime();
+            try {
+                List<Map<String, Object>> rows = applyEdge(received.input.edge, received.chunk);
+                task.recordsIn.add(rows.size());
+                output = mapRows(task.node, rows);
+            } finally {
+                task.busyNanos.add(System.nanoTime() - busyStart);
+                run.permits.release();
+            }
+            task.chunks.increment();
+            if (!output.isEmpty()) {
+                task.recordsOut.add(output.size());
+                emit(task, output);
+            }
+        }
+    }
+
+    private void write(Run run, NodeTask task) throws Exception {
+        WriterConfig config = task.node.getConfig().getWriterConfig();
+        String table = !isBlank(config.getSchemaName()) && !"DEFAULT".equalsIgnoreCase(config.getSchemaName())
+                ? config.getSchemaName() + "." + config.getTableName()
+                : config.getTableName();
+        Inbox inbox = new Inbox(task.inputs);
+        List<String> columns = null;
+        Received received;
+        while ((received = inbox.next(run)) != null) {
+            run.permits.acquire();
+            long busyStart = System.nanoTime();
+            try {
+                List<Map<String, Object>> rows = applyEdge(received.input.edge, received.chunk);
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                if (columns == null) {
+                    // The first row fixes the column list; later rows missing a column write null
+                    columns = new ArrayList<>(rows.get(0).keySet());
+                }
+                writeChunk(run, config.getConnectionId(), table, columns, rows);
+                task.recordsIn.add(rows.size());
+                task.recordsOut.add(rows.size());
+                task.chunks.increment();
+            } finally {
+                task.busyNanos.add(System.nanoTime() - busyStart);
+                run.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Inserts and commits one chunk on a connection borrowed for just this
+     * chunk, so a failed run keeps the chunks before it and an idle writer
+     * holds no connection
+     */
+    private void writeChunk(Run run, String connectionId, String table, List<String> columns,
+            List<Map<String, Object>> rows) throws SQLException {
+        try (java.sql.Connection conn = dataSourceRegistry.getConnection(connectionId)) {
+            conn.setAutoCommit(false);
+            String sql = insertSql(table, columns, conn.getMetaData().getIdentifierQuoteString());
+            try (PreparedStatement insert = conn.prepareStatement(sql)) {
+                run.statements.add(insert);
+                try {
+                    // Stopped after the last check of the inbox; this statement missed the cancel
+                    if (run.status.get() != null) {
+                        throw new SQLException("Run stopped");
+                    }
+                    for (Map<String, Object> row : rows) {
+                        for (int i = 0; i < columns.size(); i++) {
+                            insert.setObject(i + 1, row.get(columns.get(i)));
+                        }
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    conn.commit();
+                } finally {
+                    run.statements.remove(insert);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void emit(NodeTask task, List<Map<String, Object>> chunk) throws InterruptedException {
+        // Fan-out shares the chunk; downstream nodes build new rows instead of editing these
+        for (RecordChannel output : task.outputs) {
+            output.send(chunk);
+        }
+    }
+
+    // ============================================================================
+    // RECORD HANDLING
+    // ============================================================================
+
+    private static String readerSql(ReaderConfig config) {
+        if (!isBlank(config.getFromClause())) {
+            StringBuilder sql = new StringBuilder("SELECT ")
+                    .append(!isBlank(config.getSelectClause()) ? config.getSelectClause() : "*")
+                    .append(" FROM ").append(config.getFromClause());
+            if (!isBlank(config.getWhereClause())) {
+                sql.append(" WHERE ").append(config.getWhereClause());
+            }
+            if (!isBlank(config.getGroupClause())) {
+                sql.append(" GROUP BY ").append(config.getGroupClause());
+            }
+            if (!isBlank(config.getSuffixClause())) {
+                sql.append(' ').append(config.getSuffixClause());
+            }
+            return sql.toString();
+        }
+        if (!isBlank(config.getSchemaName()) && !"DEFAULT".equalsIgnoreCase(config.getSchemaName())) {
+            return "SELECT * FROM " + config.getSchemaName() + "." + config.getTableName();
+        }
+        return "SELECT * FROM " + config.getTableName();
+    }
+
+    private static String insertSql(String table, List<String> columns, String quote) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (String column : columns) {
+            if (!names.isEmpty()) {
+                names.append(", ");
+                values.append(", ");
+            }
+            // Plain names stay unquoted so they keep the database's case folding
+            names.append(PLAIN_IDENTIFIER.matcher(column).matches() || quote == null || quote.isBlank()
+                    ? column
+                    : quote + column.replace(quote, quote + quote) + quote);
+            values.append('?');
+        }
+        return "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ")";
+    }
+
+    /**
+     * Mapper rows: explicit mappings when the node has them, otherwise the
+     * rows as they came, matching how DAGSchemaService derives the schema
+     */
+    private static List<Map<String, Object>> mapRows(Node node, List<Map<String, Object>> rows) {
+        if (node.getMapperConfig() == null || node.getMapperConfig().getMappings() == null
+                || node.getMapperConfig().getMappings().isEmpty()) {
+            return rows;
+        }
+        List<Node.FieldMapperConfig.MappingEntry> mappings = node.getMapperConfig().getMappings();
+        List<Map<String, Object>> mapped = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> out = new LinkedHashMap<>(mappings.size() * 2);
+            for (Node.FieldMapperConfig.MappingEntry mapping : mappings) {
+                Object value = valueAt(row, mapping.getSourcePath());
+                if (mapping.getTransforms() != null) {
+                    for (String transform : mapping.getTransforms()) {
+                        value = applyTransform(transform, value);
+                    }
+                }
+                out.put(nameOf(mapping.getTargetPath()), value);
+            }
+            mapped.add(out);
+        }
+        return mapped;
+    }
+
+    private static Object applyTransform(String transform, Object value) {
+        if (value == null)
+            return null;
+        return switch (transform.toUpperCase(Locale.ROOT)) {
+            case "TRIM" -> value.toString().trim();
+            case "UPPER", "TO_UPPER", "UPPER_CASE" -> value.toString().toUpperCase(Locale.ROOT);
+            case "LOWER", "TO_LOWER", "LOWER_CASE" -> value.toString().toLowerCase(Locale.ROOT);
+            default -> value;
+        };
+    }
+
+    /**
+     * Edge filters, then edge field mappings
+     */
+    private static List<Map<String, Object>> applyEdge(Edge edge, List<Map<String, Object>> rows) {
+        Edge.EdgeTransformation transformation = edge.getTransformation();
+        if (transformation == null) {
+            return rows;
+        }
+        List<Map<String, Object>> result = rows;
+        if (transformation.getFilters() != null && !transformation.getFilters().isEmpty()) {
+            result = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                if (matches(row, transformation.getFilters())) {
+                    result.add(row);
+                }
+            }
+        }
+        if (transformation.getMappings() != null && !transformation.getMappings().isEmpty()) {
+            List<Map<String, Object>> mapped = new ArrayList<>(result.size());
+            for (Map<String, Object> row : result) {
+                Map<String, Object> out = new LinkedHashMap<>();
+                for (Edge.FieldMapping mapping : transformation.getMappings()) {
+                    Object value = mapping.getMappingType() == Edge.FieldMapping.MappingType.CONSTANT
+                            ? mapping.getDefaultValue()
+                            : valueAt(row, mapping.getSourcePath());
+                    if (value == null) {
+                        value = mapping.getDefaultValue();
+                    }
+                    out.put(nameOf(mapping.getTargetPath() != null ? mapping.getTargetPath() : mapping.getSourcePath()),
+                            value);
+                }
+                mapped.add(out);
+            }
+            result = mapped;
+        }
+        return result;
+    }
+
+    private static boolean matches(Map<String, Object> row, List<Edge.Filter> filters) {
+        for (Edge.Filter filter : filters) {
+            if (filter.getOperator() == null)
+                continue;
+            Object value = valueAt(row, filter.getField());
+            Object expected = filter.getValue();
+            boolean match = switch (filter.getOperator()) {
+                case EQUALS -> compare(value, expected) == 0;
+                case NOT_EQUALS -> compare(value, expected) != 0;
+                case GREATER_THAN -> value != null && compare(value, expected) > 0;
+                case LESS_THAN -> value != null && compare(value, expected) < 0;
+                case IN -> expected instanceof Collection<?> values
+                        && values.stream().anyMatch(candidate -> compare(value, candidate) == 0);
+                case NOT_IN -> !(expected instanceof Collection<?> values)
+                        || values.stream().noneMatch(candidate -> compare(value, candidate) == 0);
+                case NOT_NULL -> value != null;
+                case IS_NULL -> value == null;
+                case CONTAINS -> value != null && expected != null && value.toString().contains(expected.toString());
+                case REGEX -> value != null && expected != null && value.toString().matches(expected.toString());
+            };
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Numbers compare by value, anything else by its string form
+     */
+    private static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right ? 0 : (left == null ? -1 : 1);
+        }
+        if (left instanceof Number || right instanceof Number) {
+            try {
+                return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+            } catch (NumberFormatException e) {
+                // Fall through to the string comparison
+            }
+        }
+        return left.toString().compareTo(right.toString());
+    }
+
+    /**
+     * Value of a column, or of a dotted path through nested maps
+     */
+    @SuppressWarnings("unchecked")
+    private static Object valueAt(Map<String, Object> row, String path) {
+        if (path == null)
+            return null;
+        if (row.containsKey(path))
+            return row.get(path);
+        Object current = row;
+        for (String part : path.split("\\.")) {
+            if (!(current instanceof Map<?, ?> map))
+                return null;
+            current = ((Map<String, Object>) map).get(part);
+        }
+        return current;
+    }
+
+    private static String nameOf(String path) {
+        return path.contains(".") ? path.substring(path.lastIndexOf('.') + 1) : path;
+    }
+
+    private int chunkSizeOf(Node node) {
+        Integer chunkSize = node.getConfig() != null ? node.getConfig().getChunkSize() : null;
+        return chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String messageOf(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private void evictFinished() {
+        int excess = runs.size() - retainedRuns;
+        if (excess <= 0)
+            return;
+        runs.values().stream()
+                .filter(run -> run.finishedAt != null)
+                .sorted(Comparator.comparing(run -> run.finishedAt))
+                .limit(excess)
+                .forEach(run -> runs.remove(run.runId, run));
+    }
+
+    // ============================================================================
+    // RUN STATE
+    // ============================================================================
+
+    private record Input(Edge edge, RecordChannel channel) {
+    }
+
+    private record Received(Input input, List<Map<String, Object>> chunk) {
+    }
+
+    /**
+     * Round-robin reader over a node's incoming edges, so a node with several
+     * inputs never waits on one edge while another fills up
+     */
+    private static class Inbox {
+        private final List<Input> open;
+        private int position;
+
+        private Inbox(List<Input> inputs) {
+            this.open = new ArrayList<>(inputs);
+        }
+
+        /**
+         * Next chunk from any input; null once every input has ended
+         */
+        private Received next(Run run) throws InterruptedException {
+            while (!open.isEmpty()) {
+                if (run.status.get() != null) {
+                    throw new InterruptedException("Run stopped");
+                }
+                // One non-blocking pass over all inputs, then a short wait on the next one
+                for (int i = 0; i <= open.size() && !open.isEmpty(); i++) {
+                    position = position % open.size();
+                    Input input = open.get(position);
+                    List<Map<String, Object>> chunk = input.channel.receive(i == open.size() ? POLL_MS : 0);
+                    if (chunk == RecordChannel.END) {
+                        open.remove(position);
+                    } else if (chunk != null) {
+                        position++;
+                        return new Received(input, chunk);
+                    } else {
+                        position++;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class NodeTask {
+        private final Node node;
+        private final List<Input> inputs = new ArrayList<>();
+        private final List<RecordChannel> outputs = new ArrayList<>();
+        private final List<NodeTask> after = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private final LongAdder recordsIn = new LongAdder();
+        private final LongAdder recordsOut = new LongAdder();
+        private final LongAdder chunks = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private volatile String status = "PENDING";
+        private volatile String errorMessage;
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        private NodeTask(Node node) {
+            this.node = node;
+        }
+
+        private DAGNodeMetrics snapshot() {
+            long start = startNanos;
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            long durationMs = start != 0 ? (end - start) / 1_000_000 : 0;
+            long processed = Math.max(recordsIn.sum(), recordsOut.sum());
+            return DAGNodeMetrics.builder()
+                    .nodeId(node.getNodeId())
+                    .nodeName(node.getNodeName())
+                    .nodeType(node.getNodeType() != null ? node.getNodeType().name() : null)
+                    .status(status)
+                    .recordsIn(recordsIn.sum())
+                    .recordsOut(recordsOut.sum())
+                    .chunks(chunks.sum())
+                    .busyMs(busyNanos.sum() / 1_000_000)
+                    .durationMs(durationMs)
+                    .recordsPerSecond(durationMs > 0 ? processed * 1000.0 / durationMs : null)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+
+    private record EdgeRun(Edge edge, RecordChannel channel) {
+
+        private DAGEdgeMetrics snapshot() {
+            return DAGEdgeMetrics.builder()
+                    .edgeId(edge.getEdgeId())
+                    .sourceNodeId(edge.getSourceNodeId())
+                    .targetNodeId(edge.getTargetNodeId())
+                    .backpressure(channel.getStrategy().name())
+                    .capacity(channel.getCapacity())
+                    .maxQueued(channel.getMaxQueued())
+                    .records(channel.getRecords())
+                    .dropped(channel.getDropped())
+                    .build();
+        }
+    }
+
+    private static class Run {
+        private final String runId = UUID.randomUUID().toString();
+        private final DAGDefinition dag;
+        private final int maxConcurrency;
+        private final Semaphore permits;
+        private final Map<String, NodeTask> tasks = new LinkedHashMap<>();
+        private final List<EdgeRun> edges = new ArrayList<>();
+        private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        private final long startedAt = DateUtils.getUnixTimestampInUTC();
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * Set once when the run fails or is cancelled
+         */
+        private final AtomicReference<String> status = new AtomicReference<>();
+        private volatile String errorMessage;
+        private volatile Long finishedAt;
+        private volatile long endNanos;
+
+        private Run(DAGDefinition dag, int maxConcurrency) {
+            this.dag = dag;
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+
+        private void stop(String finalStatus, String message) {
+            if (finishedAt != null || !status.compareAndSet(null, finalStatus)) {
+                return;
+            }
+            errorMessage = message;
+            interruptAll();
+        }
+
+        private void interruptAll() {
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    log.debug("Failed to cancel statement of run {}: {}", runId, e.getMessage());
+                }
+            }
+            futures.forEach(future -> future.cancel(true));
+            // A task cancelled before it started never completes its own future, and its dependents wait on it
+            for (NodeTask task : tasks.values()) {
+                task.done.completeExceptionally(new CancellationException("Run stopped"));
+            }
+        }
+
+        private void finish() {
+            status.compareAndSet(null, "COMPLETED");
+            for (NodeTask task : tasks.values()) {
+                if ("PENDING".equals(task.status)) {
+                    task.status = "CANCELLED";
+                }
+            }
+            endNanos = System.nanoTime();
+            finishedAt = DateUtils.getUnixTimestampInUTC();
+        }
+
+        private String snapshotStatus() {
+            return finishedAt != null ? status.get() : "RUNNING";
+        }
+
+        private long durationMs() {
+            return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1_000_000;
+        }
+
+        private long recordsRead() {
+            return sumOf(Node.NodeType.JDBC_READER, true);
+        }
+
+        private long recordsWritten() {
+            return sumOf(Node.NodeType.JDBC_WRITER, false);
+        }
+
+        private long sumOf(Node.NodeType type, boolean out) {
+            long sum = 0;
+            for (NodeTask task : tasks.values()) {
+                if (task.node.getNodeType() == type) {
+                    sum += out ? task.recordsOut.sum() : task.recordsIn.sum();
+                }
+            }
+            return sum;
+        }
+
+        private DAGRunResponse snapshot() {
+            long durationMs = durationMs();
+            long written = recordsWritten();
+            return DAGRunResponse.builder()
+                    .runId(runId)
+                    .dagId(dag.getDagId())
+                    .dagName(dag.getDagName())
+                    .dataflowId(dag.getDataflowId())
+                    .status(snapshotStatus())
+                    .errorMessage(errorMessage)
+                    .maxConcurrency(maxConcurrency)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .durationMs(durationMs)
+                    .recordsRead(recordsRead())
+                    .recordsWritten(written)
+                    .recordsPerSecond(durationMs > 0 ? (written > 0 ? written : recordsRead()) * 1000.0 / durationMs
+                            : null)
+                    .nodes(tasks.values().stream().map(NodeTask::snapshot).toList())
+                    .edges(edges.stream().map(EdgeRun::snapshot).toList())
+                    .build();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -36,6 +37,21 @@ public class NodeService {
         return nodeDao.createV1(node, Identifier.builder().build());
     }
 
+    /**
+     * Creates many nodes with batched inserts, validated and cleaned as in
+     * createNode
+     */
+    public void createNodes(List<Node> nodes) {
+        for (Node node : nodes) {
+            nodeValidator.validate(node);
+            if (node.getCreatedBy() == null) {
+                node.setCreatedBy("admin");
+            }
+            cleanConfigValues(node);
+        }
+        nodeDao.batchInsert(nodes);
+    }
+
     private void cleanConfigValues(Node node) {
         if (node.getConfig() != null) {
             try {
@@ -82,6 +98,39 @@ public class NodeService {
         return nodeDao.update(node);
     }
 
+    /**
+     * Updates many nodes in one batch, validated as in updateNode
+     */
+    public void updateNodes(List<Node> nodes) {
+        for (Node node : nodes) {
+            nodeValidator.validate(node);
+            if (node.getUpdatedBy() == null) {
+                node.setUpdatedBy("admin");
+            }
+        }
+        nodeDao.batchUpdate(nodes);
+    }
+
+    /**
+     * Dataflow of every given node ID that has a row, including deleted ones
+     */
+    public Map<String, String> getNodeDataflowIds(List<String> nodeIds) {
+        return nodeDao.getDataflowIds(nodeIds);
+    }
+
+    public void restoreNodes(List<String> nodeIds, String dataflowId) {
+        nodeDao.restore(nodeIds, dataflowId, "admin");
+    }
+
+    /**
+     * Soft-deletes many nodes together with their edges
+     */
+    @Transactional
+    public void deleteNodes(List<String> nodeIds) {
+        edgeDao.batchDeleteByNodeIds(nodeIds, "admin");
+        nodeDao.batchDelete(nodeIds, "admin");
+    }
+
     @Transactional
     public int deleteNode(String nodeId) {
         // Cascade delete associated edges first
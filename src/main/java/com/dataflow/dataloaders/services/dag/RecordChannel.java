@@ -0,0 +1,120 @@
+package com.dataflow.dataloaders.services.dag;
+
+import com.dataflow.dataloaders.entity.dagmodels.dag.Edge;
+import com.dataflow.dataloaders.exception.DataloadersException;
+import com.dataflow.dataloaders.exception.ErrorFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue of record chunks on one edge of a local run. Records travel
+ * in chunks so the queue is touched once per chunk rather than per row; the
+ * edge's bufferSize is counted in records and rounded up to whole chunks.
+ * What a full queue does is the edge's BackpressureStrategy:
+ * BLOCK waits (up to the FlowControl timeout, in seconds, when set),
+ * BUFFER keeps queueing past bufferSize up to a hard cap and then waits,
+ * DROP discards the chunk and counts its records, ERROR fails the run.
+ */
+public class RecordChannel {
+
+    /**
+     * End of stream marker, compared by identity
+     */
+    static final List<Map<String, Object>> END = Collections.unmodifiableList(new ArrayList<>());
+
+    private final String edgeId;
+    private final Edge.FlowControl.BackpressureStrategy strategy;
+    private final int capacity;
+    private final long timeoutMs;
+    private final BlockingQueue<List<Map<String, Object>>> queue;
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+
+    RecordChannel(String edgeId, int bufferSize, int chunkSize, Edge.FlowControl.BackpressureStrategy strategy,
+            long timeoutMs, int maxBufferedChunks) {
+        this.edgeId = edgeId;
+        this.strategy = strategy != null ? strategy : Edge.FlowControl.BackpressureStrategy.BLOCK;
+        this.capacity = Math.max(1, (bufferSize + chunkSize - 1) / chunkSize);
+        this.timeoutMs = timeoutMs;
+        this.queue = this.strategy == Edge.FlowControl.BackpressureStrategy.BUFFER
+                ? new LinkedBlockingQueue<>(Math.max(capacity, maxBufferedChunks))
+                : new ArrayBlockingQueue<>(capacity);
+    }
+
+    void send(List<Map<String, Object>> chunk) throws InterruptedException {
+        switch (strategy) {
+            case DROP -> {
+                if (!queue.offer(chunk)) {
+                    dropped.add(chunk.size());
+                    return;
+                }
+            }
+            case ERROR -> {
+                if (!queue.offer(chunk)) {
+                    throw new DataloadersException(ErrorFactory.TOO_MANY_REQUESTS,
+                            "Buffer of edge " + edgeId + " is full (" + capacity + " chunks)");
+                }
+            }
+            default -> {
+                if (timeoutMs <= 0) {
+                    queue.put(chunk);
+                } else if (!queue.offer(chunk, timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new DataloadersException(ErrorFactory.DATABASE_TIMEOUT,
+                            "Edge " + edgeId + " stayed full for " + timeoutMs + " ms");
+                }
+            }
+        }
+        records.add(chunk.size());
+        maxQueued.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    /**
+     * Signals that no more chunks follow. Never dropped, whatever the strategy.
+     */
+    void close() throws InterruptedException {
+        queue.put(END);
+    }
+
+    /**
+     * Next chunk, END once the sender closed the channel, or null when nothing
+     * arrived within timeoutMs
+     */
+    List<Map<String, Object>> receive(long timeoutMs) throws InterruptedException {
+        return queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    String getEdgeId() {
+        return edgeId;
+    }
+
+    Edge.FlowControl.BackpressureStrategy getStrategy() {
+        return strategy;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getRecords() {
+        return records.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    int getMaxQueued() {
+        return maxQueued.get();
+    }
+}
@@ -0,0 +1,170 @@
+package com.dataflow.dataloaders.util;
+
+import com.dataflow.dataloaders.dto.ColumnarPreviewResponse;
+import com.dataflow.dataloaders.dto.ColumnarPreviewResponse.ColumnVector;
+import com.dataflow.dataloaders.dto.JdbcDataPreviewResponse;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Pivots row maps into {@link ColumnarPreviewResponse}. Column types are taken
+ * from the values the driver returned, and string columns with few distinct
+ * values are dictionary encoded.
+ */
+public final class ColumnarEncoder {
+
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private ColumnarEncoder() {
+    }
+
+    public static ColumnarPreviewResponse encode(JdbcDataPreviewResponse preview) {
+        List<Map<String, Object>> rows = preview.getData() != null ? preview.getData() : List.of();
+        List<String> names = preview.getColumns() != null ? preview.getColumns() : List.of();
+        int rowCount = rows.size();
+
+        List<ColumnVector> columns = new ArrayList<>(names.size());
+        Object[] cells = new Object[rowCount];
+        for (String name : names) {
+            for (int r = 0; r < rowCount; r++) {
+                cells[r] = rows.get(r).get(name);
+            }
+            columns.add(encodeColumn(name, cells, rowCount));
+        }
+
+        return ColumnarPreviewResponse.builder()
+                .rowCount(rowCount)
+                .columns(columns)
+                .query(preview.getQuery())
+                .sessionId(preview.getSessionId())
+                .offset(preview.getOffset())
+                .hasMore(preview.getHasMore())
+                .build();
+    }
+
+    private static ColumnVector encodeColumn(String name, Object[] cells, int rowCount) {
+        byte[] nulls = new byte[(rowCount + 7) >>> 3];
+        boolean anyNull = false;
+        String type = null;
+        for (int r = 0; r < rowCount; r++) {
+            if (cells[r] == null) {
+                nulls[r >>> 3] |= (byte) (1 << (r & 7));
+                anyNull = true;
+            } else {
+                type = widen(type, typeOf(cells[r]));
+            }
+        }
+        if (type == null) {
+            type = "object";
+        }
+
+        ColumnVector.ColumnVectorBuilder column = ColumnVector.builder()
+                .name(name)
+                .type(type)
+                .nulls(anyNull ? nulls : null);
+
+        switch (type) {
+            case "long" -> {
+                long[] values = new long[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    if (cells[r] != null)
+                        values[r] = ((Number) cells[r]).longValue();
+                }
+                column.values(values);
+            }
+            case "double" -> {
+                double[] values = new double[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    if (cells[r] != null)
+                        values[r] = ((Number) cells[r]).doubleValue();
+                }
+                column.values(values);
+            }
+            case "boolean" -> {
+                boolean[] values = new boolean[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    if (cells[r] != null)
+                        values[r] = (Boolean) cells[r];
+                }
+                column.values(values);
+            }
+            case "timestamp" -> {
+                long[] values = new long[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    if (cells[r] != null)
+                        values[r] = ((java.util.Date) cells[r]).getTime();
+                }
+                column.values(values);
+            }
+            case "decimal" -> {
+                // Sent as text so precision survives JSON number parsing on the client
+                List<String> values = new ArrayList<>(rowCount);
+                for (int r = 0; r < rowCount; r++) {
+                    values.add(cells[r] == null ? null
+                            : cells[r] instanceof BigDecimal d ? d.toPlainString() : cells[r].toString());
+                }
+                column.values(values);
+            }
+            case "string" -> encodeStrings(column, cells, rowCount);
+            default -> column.values(new ArrayList<>(Arrays.asList(cells).subList(0, rowCount)));
+        }
+        return column.build();
+    }
+
+    private static void encodeStrings(ColumnVector.ColumnVectorBuilder column, Object[] cells, int rowCount) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] codes = new int[rowCount];
+        boolean dictionaryEncoded = true;
+        for (int r = 0; r < rowCount; r++) {
+            if (cells[r] == null) {
+                codes[r] = -1;
+                continue;
+            }
+            Integer code = dictionary.computeIfAbsent(cells[r].toString(), k -> dictionary.size());
+            codes[r] = code;
+            // Only worth it when values repeat
+            if (dictionary.size() > MAX_DICTIONARY_SIZE || dictionary.size() * 2 > rowCount) {
+                dictionaryEncoded = false;
+                break;
+            }
+        }
+
+        if (dictionaryEncoded && rowCount > 0) {
+            column.dictionary(new ArrayList<>(dictionary.keySet())).codes(codes);
+            return;
+        }
+        List<String> values = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            values.add(cells[r] == null ? null : cells[r].toString());
+        }
+        column.values(values);
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return "long";
+        if (value instanceof Double || value instanceof Float)
+            return "double";
+        if (value instanceof BigDecimal || value instanceof BigInteger)
+            return "decimal";
+        if (value instanceof Boolean)
+            return "boolean";
+        if (value instanceof java.util.Date)
+            return "timestamp";
+        if (value instanceof String || value instanceof Character)
+            return "string";
+        if (value instanceof byte[])
+            return "binary";
+        return "object";
+    }
+
+    private static String widen(String current, String next) {
+        if (current == null || current.equals(next))
+            return next;
+        if ((current.equals("long") && next.equals("double")) || (current.equals("double") && next.equals("long")))
+            return "double";
+        return "object";
+    }
+}
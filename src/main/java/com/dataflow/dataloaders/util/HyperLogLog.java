@@ -0,0 +1,91 @@
+package com.dataflow.dataloaders.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Approximate distinct counter. With the default precision of 12 it uses 4 KB
+ * per column and has a standard error of about 1.6%.
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(12);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(Object value) {
+        if (value == null)
+            return;
+        long hash;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            hash = mix(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            // Whole bits, so 1.1 and 1.9 stay apart; -0.0 counts as 0.0 like it does in SQL
+            double d = ((Number) value).doubleValue();
+            hash = mix(d == 0.0 ? 0L : Double.doubleToLongBits(d));
+        } else {
+            // BigDecimal, BigInteger and everything else by their string form
+            hash = hash(value.toString());
+        }
+        addHash(hash);
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Guard bit keeps the rank bounded when the remaining bits are all zero
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0)
+                zeros++;
+        }
+        double alpha = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static long hash(String value) {
+        // FNV-1a followed by a finalizer so short keys still spread over all bits
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
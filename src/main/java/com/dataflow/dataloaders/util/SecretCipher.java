@@ -0,0 +1,215 @@
+package com.dataflow.dataloaders.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * AES engine behind EncryptionService. New values are written as a versioned
+ * AES-GCM envelope, v1:keyId:base64(iv + ciphertext + tag), with the header as
+ * additional authenticated data; values in the legacy AES/ECB format (plain
+ * base64) stay readable. Cipher instances are pooled because
+ * Cipher.getInstance and key setup cost more than encrypting a short secret,
+ * and a ThreadLocal would not be reused across virtual threads.
+ */
+public class SecretCipher {
+
+    public static final String ENVELOPE_VERSION = "v1";
+
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final Map<String, SecretKeySpec> keys;
+    private final String activeKeyId;
+    private final SecretKeySpec legacyKey;
+    private final SecureRandom random = new SecureRandom();
+
+    private final CipherPool gcmCiphers;
+    private final CipherPool legacyEncryptCiphers;
+    private final CipherPool legacyDecryptCiphers;
+
+    /**
+     * @param keys        AES keys by ID; the ID is written into every envelope
+     * @param activeKeyId key used for new values; null when only the legacy
+     *                    format is written
+     * @param legacyKey   key of the legacy ECB format
+     * @param poolSize    ciphers kept per pool
+     */
+    public SecretCipher(Map<String, byte[]> keys, String activeKeyId, byte[] legacyKey, int poolSize) {
+        if (activeKeyId != null && !keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Unknown active key ID: " + activeKeyId);
+        }
+        Map<String, SecretKeySpec> specs = new HashMap<>();
+        keys.forEach((id, key) -> {
+            if (id.isEmpty() || id.indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Invalid key ID: " + id);
+            }
+            specs.put(id, new SecretKeySpec(key, "AES"));
+        });
+        this.keys = Map.copyOf(specs);
+        this.activeKeyId = activeKeyId;
+        this.legacyKey = new SecretKeySpec(legacyKey, "AES");
+
+        this.gcmCiphers = new CipherPool(poolSize, () -> Cipher.getInstance(GCM_TRANSFORMATION));
+        // ECB ciphers keep their key between operations, so they are initialized once
+        this.legacyEncryptCiphers = new CipherPool(poolSize, () -> {
+            Cipher cipher = Cipher.getInstance(LEGACY_TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, this.legacyKey);
+            return cipher;
+        });
+        this.legacyDecryptCiphers = new CipherPool(poolSize, () -> {
+            Cipher cipher = Cipher.getInstance(LEGACY_TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, this.legacyKey);
+            return cipher;
+        });
+    }
+
+    public static boolean isEnvelope(String value) {
+        return value != null && value.startsWith(ENVELOPE_VERSION + ":");
+    }
+
+    public String encrypt(String plaintext) throws GeneralSecurityException {
+        Cipher cipher = gcmCiphers.borrow();
+        String encrypted = encryptGcm(cipher, plaintext);
+        gcmCiphers.release(cipher);
+        return encrypted;
+    }
+
+    public String encryptLegacy(String plaintext) throws GeneralSecurityException {
+        Cipher cipher = legacyEncryptCiphers.borrow();
+        String encrypted = Base64.getEncoder()
+                .encodeToString(cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8)));
+        legacyEncryptCiphers.release(cipher);
+        return encrypted;
+    }
+
+    /**
+     * Decrypts either format, telling them apart by the envelope header
+     */
+    public String decrypt(String value) throws GeneralSecurityException {
+        CipherPool pool = isEnvelope(value) ? gcmCiphers : legacyDecryptCiphers;
+        Cipher cipher = pool.borrow();
+        String decrypted = decrypt(cipher, value);
+        pool.release(cipher);
+        return decrypted;
+    }
+
+    /**
+     * Encrypts every value with one borrowed cipher. Nulls stay null.
+     */
+    public List<String> encryptAll(List<String> plaintexts) throws GeneralSecurityException {
+        List<String> encrypted = new ArrayList<>(plaintexts.size());
+        Cipher cipher = gcmCiphers.borrow();
+        for (String plaintext : plaintexts) {
+            encrypted.add(plaintext != null ? encryptGcm(cipher, plaintext) : null);
+        }
+        gcmCiphers.release(cipher);
+        return encrypted;
+    }
+
+    /**
+     * Decrypts every value, which may mix both formats, with at most one
+     * borrowed cipher per format. Nulls stay null.
+     */
+    public List<String> decryptAll(List<String> values) throws GeneralSecurityException {
+        List<String> decrypted = new ArrayList<>(values.size());
+        Cipher gcm = null;
+        Cipher legacy = null;
+        for (String value : values) {
+            if (value == null) {
+                decrypted.add(null);
+            } else if (isEnvelope(value)) {
+                gcm = gcm != null ? gcm : gcmCiphers.borrow();
+                decrypted.add(decrypt(gcm, value));
+            } else {
+                legacy = legacy != null ? legacy : legacyDecryptCiphers.borrow();
+                decrypted.add(decrypt(legacy, value));
+            }
+        }
+        if (gcm != null)
+            gcmCiphers.release(gcm);
+        if (legacy != null)
+            legacyDecryptCiphers.release(legacy);
+        return decrypted;
+    }
+
+    /**
+     * Decrypts with a cipher of the value's format. A cipher whose operation
+     * failed is not released, so its state never reaches the pool.
+     */
+    private String decrypt(Cipher cipher, String value) throws GeneralSecurityException {
+        if (isEnvelope(value)) {
+            return decryptGcm(cipher, value);
+        }
+        return new String(cipher.doFinal(Base64.getDecoder().decode(value)), StandardCharsets.UTF_8);
+    }
+
+    private String encryptGcm(Cipher cipher, String plaintext) throws GeneralSecurityException {
+        if (activeKeyId == null) {
+            throw new GeneralSecurityException("No envelope key configured");
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        String header = ENVELOPE_VERSION + ":" + activeKeyId;
+        cipher.init(Cipher.ENCRYPT_MODE, keys.get(activeKeyId), new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(header.getBytes(StandardCharsets.UTF_8));
+        byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+        byte[] payload = ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+        return header + ":" + Base64.getEncoder().encodeToString(payload);
+    }
+
+    private String decryptGcm(Cipher cipher, String envelope) throws GeneralSecurityException {
+        int headerEnd = envelope.indexOf(':', ENVELOPE_VERSION.length() + 1);
+        if (headerEnd < 0) {
+            throw new GeneralSecurityException("Malformed envelope");
+        }
+        String keyId = envelope.substring(ENVELOPE_VERSION.length() + 1, headerEnd);
+        SecretKeySpec key = keys.get(keyId);
+        if (key == null) {
+            throw new GeneralSecurityException("Unknown key ID: " + keyId);
+        }
+        byte[] payload = Base64.getDecoder().decode(envelope.substring(headerEnd + 1));
+        if (payload.length < IV_LENGTH) {
+            throw new GeneralSecurityException("Malformed envelope");
+        }
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, payload, 0, IV_LENGTH));
+        cipher.updateAAD(envelope.substring(0, headerEnd).getBytes(StandardCharsets.UTF_8));
+        return new String(cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    private interface CipherFactory {
+        Cipher create() throws GeneralSecurityException;
+    }
+
+    /**
+     * Idle ciphers up to a bound; callers beyond it get a fresh instance that
+     * is dropped on release
+     */
+    private static class CipherPool {
+        private final BlockingQueue<Cipher> idle;
+        private final CipherFactory factory;
+
+        private CipherPool(int size, CipherFactory factory) {
+            this.idle = new ArrayBlockingQueue<>(Math.max(1, size));
+            this.factory = factory;
+        }
+
+        private Cipher borrow() throws GeneralSecurityException {
+            Cipher cipher = idle.poll();
+            return cipher != null ? cipher : factory.create();
+        }
+
+        private void release(Cipher cipher) {
+            idle.offer(cipher);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.dataflow.dataloaders.util;
+
+import java.util.*;
+
+/**
+ * Space-Saving heavy hitter counter. Keeps a fixed number of counters, so
+ * memory stays bounded no matter how many distinct values are seen; counts of
+ * values that entered after an eviction are overestimated by at most the
+ * evicted count.
+ */
+public class TopKCounter {
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+
+    public TopKCounter(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String value) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new long[] { 1 });
+            return;
+        }
+        // Replace the smallest counter and inherit its count
+        Map.Entry<String, long[]> min = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                min = entry;
+            }
+        }
+        long inherited = min.getValue()[0];
+        counters.remove(min.getKey());
+        counters.put(value, new long[] { inherited + 1 });
+    }
+
+    /**
+     * Most frequent values, highest count first
+     */
+    public List<Map.Entry<String, Long>> top(int k) {
+        return counters.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(k)
+                .map(e -> Map.entry(e.getKey(), e.getValue()[0]))
+                .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.dataflow.dataloaders.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A config value split once into literal text and {{vars.Group.Key}}
+ * placeholders, so rendering is a walk over the segments instead of a regex
+ * scan per call. Instances are immutable and can be shared.
+ */
+public class VariableTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{vars\\.([^\\.]+)\\.([^\\}]+)\\}\\}");
+
+    private final String raw;
+    private final List<Segment> segments;
+    private final boolean hasPlaceholders;
+
+    private VariableTemplate(String raw, List<Segment> segments, boolean hasPlaceholders) {
+        this.raw = raw;
+        this.segments = segments;
+        this.hasPlaceholders = hasPlaceholders;
+    }
+
+    public static VariableTemplate parse(String raw) {
+        List<Segment> segments = new ArrayList<>();
+        boolean hasPlaceholders = false;
+        if (raw.contains("{{vars.")) {
+            Matcher matcher = PLACEHOLDER.matcher(raw);
+            int lastEnd = 0;
+            while (matcher.find()) {
+                if (matcher.start() > lastEnd) {
+                    segments.add(new Segment(raw.substring(lastEnd, matcher.start()), null, null));
+                }
+                segments.add(new Segment(matcher.group(0), matcher.group(1), matcher.group(2)));
+                hasPlaceholders = true;
+                lastEnd = matcher.end();
+            }
+            if (lastEnd < raw.length()) {
+                segments.add(new Segment(raw.substring(lastEnd), null, null));
+            }
+        }
+        return new VariableTemplate(raw, List.copyOf(segments), hasPlaceholders);
+    }
+
+    public boolean hasPlaceholders() {
+        return hasPlaceholders;
+    }
+
+    /**
+     * Substitutes every placeholder with lookup(group, key); placeholders the
+     * lookup returns null for are kept as written
+     */
+    public String render(BiFunction<String, String, String> lookup) {
+        if (!hasPlaceholders) {
+            return raw;
+        }
+        StringBuilder sb = new StringBuilder(raw.length());
+        for (Segment segment : segments) {
+            if (segment.group == null) {
+                sb.append(segment.text);
+                continue;
+            }
+            String value = lookup.apply(segment.group, segment.key);
+            sb.append(value != null ? value : segment.text);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Literal text, or a placeholder when group is set; text then holds the
+     * placeholder as written
+     */
+    private record Segment(String text, String group, String key) {
+    }
+}
@@ -7,6 +7,8 @@ import com.dataflow.dataloaders.services.dag.NodeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 @Component
 public class EdgeValidator {
 
@@ -14,6 +16,40 @@ public class EdgeValidator {
     private NodeService nodeService;
 
     public void validate(Edge edge) {
+        validateFields(edge);
+
+        // Validate source node exists
+        if (nodeService.getNodeById(edge.getSourceNodeId()).isEmpty()) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    String.format("Source node with ID '%s' does not exist", edge.getSourceNodeId()));
+        }
+
+        // Validate target node exists
+        if (nodeService.getNodeById(edge.getTargetNodeId()).isEmpty()) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    String.format("Target node with ID '%s' does not exist", edge.getTargetNodeId()));
+        }
+    }
+
+    /**
+     * Same checks as {@link #validate(Edge)}, with node existence checked
+     * against IDs the caller already loaded instead of one query per node
+     */
+    public void validate(Edge edge, Set<String> existingNodeIds) {
+        validateFields(edge);
+
+        if (!existingNodeIds.contains(edge.getSourceNodeId())) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    String.format("Source node with ID '%s' does not exist", edge.getSourceNodeId()));
+        }
+
+        if (!existingNodeIds.contains(edge.getTargetNodeId())) {
+            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
+                    String.format("Target node with ID '%s' does not exist", edge.getTargetNodeId()));
+        }
+    }
+
+    private void validateFields(Edge edge) {
         if (edge == null) {
             throw new DataloadersException(ErrorFactory.BAD_REQUEST, "Edge cannot be null");
         }
@@ -30,18 +66,6 @@ public class EdgeValidator {
             throw new DataloadersException(ErrorFactory.BAD_REQUEST, "Target node ID is required");
         }
 
-        // Validate source node exists
-        if (nodeService.getNodeById(edge.getSourceNodeId()).isEmpty()) {
-            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
-                    String.format("Source node with ID '%s' does not exist", edge.getSourceNodeId()));
-        }
-
-        // Validate target node exists
-        if (nodeService.getNodeById(edge.getTargetNodeId()).isEmpty()) {
-            throw new DataloadersException(ErrorFactory.BAD_REQUEST,
-                    String.format("Target node with ID '%s' does not exist", edge.getTargetNodeId()));
-        }
-
         if (edge.getSourceNodeId().equals(edge.getTargetNodeId())) {
             throw new DataloadersException(ErrorFactory.BAD_REQUEST, "Source and target nodes cannot be the same");
         }
@@ -0,0 +1,104 @@
+package com.dataflow.dataloaders.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares secret decryption as EncryptionService used to do it (a new Cipher
+ * and key per call) with the pooled SecretCipher, on one thread and on many
+ * virtual threads. Not part of the application; run with
+ * java -cp target/classes:target/test-classes com.dataflow.dataloaders.util.EncryptionBenchmark [iterations] [threads]
+ */
+public class EncryptionBenchmark {
+
+    private static final byte[] LEGACY_KEY = "DataManager2024!".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        byte[] envelopeKey = MessageDigest.getInstance("SHA-256").digest(LEGACY_KEY);
+        SecretCipher cipher = new SecretCipher(Map.of("0", envelopeKey), "0", LEGACY_KEY, 64);
+        String secret = "{\"password\":\"s3cr3t-p@ssw0rd-for-a-production-database\"}";
+        String legacyValue = perCallEncrypt(secret);
+        String envelopeValue = cipher.encrypt(secret);
+
+        // Both engines must agree on the legacy format
+        if (!secret.equals(cipher.decrypt(legacyValue)) || !secret.equals(perCallDecrypt(cipher.encryptLegacy(secret)))
+                || !secret.equals(cipher.decrypt(envelopeValue))) {
+            throw new IllegalStateException("Round trip failed");
+        }
+
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(i % 2 == 0 ? legacyValue : envelopeValue);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            // The first round is warm-up
+            boolean report = round == 1;
+            run(report, "per-call Cipher, legacy decrypt", iterations, 1, () -> perCallDecrypt(legacyValue));
+            run(report, "pooled, legacy decrypt", iterations, 1, () -> cipher.decrypt(legacyValue));
+            run(report, "pooled, GCM decrypt", iterations, 1, () -> cipher.decrypt(envelopeValue));
+            run(report, "pooled, GCM encrypt", iterations, 1, () -> cipher.encrypt(secret));
+            run(report, "pooled, decryptAll x100", iterations / 100, 1, () -> cipher.decryptAll(batch));
+            run(report, "per-call Cipher, legacy decrypt", iterations, threads, () -> perCallDecrypt(legacyValue));
+            run(report, "pooled, legacy decrypt", iterations, threads, () -> cipher.decrypt(legacyValue));
+            run(report, "pooled, GCM decrypt", iterations, threads, () -> cipher.decrypt(envelopeValue));
+        }
+    }
+
+    /**
+     * The previous EncryptionService implementation
+     */
+    private static String perCallEncrypt(String data) throws Exception {
+        SecretKeySpec keySpec = new SecretKeySpec(LEGACY_KEY, "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+        return Base64.getEncoder().encodeToString(cipher.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String perCallDecrypt(String encrypted) throws Exception {
+        SecretKeySpec keySpec = new SecretKeySpec(LEGACY_KEY, "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, keySpec);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(encrypted)), StandardCharsets.UTF_8);
+    }
+
+    private static void run(boolean report, String name, int iterations, int threads, Operation operation)
+            throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations / threads; i++) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (report) {
+            System.out.printf("%-36s threads=%-3d %,12.0f ops/s%n", name, threads,
+                    (iterations / threads) * threads / (elapsed / 1e9));
+        }
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+}